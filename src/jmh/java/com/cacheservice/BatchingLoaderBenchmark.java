@@ -0,0 +1,118 @@
+package com.cacheservice;
+
+import com.cacheservice.loader.BatchingLoader;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Misses of different keys by 32 threads loaded by backend with 1 ms latency per call: backend calls per second
+ * with direct loader, one call per miss, and with batching loader, one call per batch of concurrent misses.
+ * Every key is missed once, since keys are not repeated. Score is misses per second, and backend calls per second
+ * are reported by auxiliary counter; each backend call is counted by the thread which missed the first key of its
+ * batch, so their ratio is average batch size.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class BatchingLoaderBenchmark {
+
+    private static final long BACKEND_LATENCY_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Param({"direct", "batching"})
+    public String loaderName;
+
+    private final AtomicLong keyNumber = new AtomicLong();
+    // the first keys of backend calls
+    private final Set<String> calledKeys = ConcurrentHashMap.newKeySet();
+    private SimpleCacheService<String> cacheService;
+    private BatchingLoader<String> batchingLoader;
+    private Function<String, String> loader;
+
+    @Setup
+    public void setUp() {
+        cacheService = new SimpleCacheService.Builder<String>()
+                .maxCacheSize(100_000)
+                .timeoutInSec(60)
+                .timeService(new TimeService())
+                .build();
+        if ("batching".equals(loaderName)) {
+            batchingLoader = new BatchingLoader.Builder<String>()
+                    .bulkLoader(this::loadFromBackend)
+                    .batchWindowInMicros(500)
+                    .maxBatchSize(100)
+                    .build();
+            loader = batchingLoader;
+        } else {
+            loader = key -> loadFromBackend(Set.of(key)).get(key);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (batchingLoader != null) {
+            batchingLoader.close();
+        }
+        cacheService.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String getMissingKey(BackendCalls backendCalls) {
+        String key = "key_" + keyNumber.incrementAndGet();
+        String value = cacheService.get(key, loader);
+        if (calledKeys.remove(key)) {
+            backendCalls.backendCalls++;
+        }
+        return value;
+    }
+
+    private Map<String, String> loadFromBackend(Set<String> keys) {
+        calledKeys.add(keys.iterator().next());
+        LockSupport.parkNanos(BACKEND_LATENCY_IN_NANOS);
+        Map<String, String> values = new HashMap<>();
+        keys.forEach(key -> values.put(key, "value_of_" + key));
+        return values;
+    }
+
+    /**
+     * Backend calls counted by benchmark thread, reported by JMH per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class BackendCalls {
+
+        public long backendCalls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            backendCalls = 0;
+        }
+    }
+}
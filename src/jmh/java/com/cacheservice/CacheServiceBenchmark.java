@@ -0,0 +1,150 @@
+package com.cacheservice;
+
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.loadgenerator.KeyDistribution;
+import com.cacheservice.loadgenerator.KeyGenerator;
+import com.cacheservice.loadgenerator.LoadConfiguration;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of cache services under contention: 8 threads read Zipf distributed keys from cache of 10 000 objects
+ * over key space of 100 000, putting value on miss.
+ * <p>
+ * Hot counter benchmarks increment 8 counters from 8 threads by atomic merge and by get then put; get then put
+ * loses increments of concurrent threads, so it is the baseline merge pays for being atomic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CacheServiceBenchmark {
+
+    private static final int MAX_CACHE_SIZE = 10_000;
+    private static final int KEYS_NUMBER = 1 << 20;
+    private static final int HOT_COUNTERS_NUMBER = 8;
+
+    @Param({"simple", "guava", "caffeine"})
+    public String cacheServiceName;
+
+    private CacheService<Integer> cacheService;
+    private String[] keys;
+    private String[] counterKeys;
+
+    @Setup
+    public void setUp() {
+        cacheService = createCacheService(cacheServiceName);
+        LoadConfiguration loadConfiguration = new LoadConfiguration.Builder()
+                .keySpace(100_000)
+                .keyDistribution(KeyDistribution.ZIPF)
+                .build();
+        KeyGenerator keyGenerator = KeyDistribution.ZIPF.createKeyGenerator(loadConfiguration);
+        SplittableRandom random = new SplittableRandom(42);
+        // keys are generated before measurement, so benchmark measures cache service only
+        keys = new String[KEYS_NUMBER];
+        for (int i = 0; i < KEYS_NUMBER; i++) {
+            keys[i] = "key_" + keyGenerator.nextKeyIndex(random);
+        }
+        for (int i = 0; i < MAX_CACHE_SIZE; i++) {
+            cacheService.put(keys[i], i);
+        }
+        counterKeys = new String[HOT_COUNTERS_NUMBER];
+        for (int i = 0; i < HOT_COUNTERS_NUMBER; i++) {
+            counterKeys[i] = "counter_" + i;
+            cacheService.put(counterKeys[i], 0);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheService.close();
+    }
+
+    @Benchmark
+    public Integer getOrPut(ThreadState threadState) {
+        String key = keys[threadState.nextIndex()];
+        Integer value = cacheService.get(key);
+        if (value == null) {
+            value = key.length();
+            cacheService.put(key, value);
+        }
+        return value;
+    }
+
+    @Benchmark
+    public Integer incrementHotCounterByMerge(ThreadState threadState) {
+        return cacheService.merge(counterKeys[threadState.nextIndex() & (HOT_COUNTERS_NUMBER - 1)], 1, Integer::sum);
+    }
+
+    @Benchmark
+    public Integer incrementHotCounterByGetAndPut(ThreadState threadState) {
+        String counterKey = counterKeys[threadState.nextIndex() & (HOT_COUNTERS_NUMBER - 1)];
+        Integer value = cacheService.get(counterKey);
+        // counter expires after timeout in long runs, as merge starts it again
+        Integer incrementedValue = value == null ? 1 : value + 1;
+        cacheService.put(counterKey, incrementedValue);
+        return incrementedValue;
+    }
+
+    private static CacheService<Integer> createCacheService(String cacheServiceName) {
+        switch (cacheServiceName) {
+            case "simple":
+                CacheStatistics cacheStatistics = new CacheStatistics(MAX_CACHE_SIZE);
+                return new SimpleCacheService.Builder<Integer>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(60)
+                        .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                        .cacheStatistics(cacheStatistics)
+                        .timeService(new TimeService())
+                        .build();
+            case "guava":
+                return new GuavaCacheService.Builder<Integer>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(60)
+                        .concurrencyLevel(8)
+                        .build();
+            default:
+                return new CaffeineCacheService.Builder<Integer>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(60)
+                        .build();
+        }
+    }
+
+    /**
+     * Position of thread in pre-generated keys; threads start at different positions
+     */
+    @State(Scope.Thread)
+    public static class ThreadState {
+
+        private int index = new SplittableRandom().nextInt(KEYS_NUMBER);
+
+        int nextIndex() {
+            index = (index + 1) & (KEYS_NUMBER - 1);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.cacheservice;
+
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full scan of cache of 1 000 000 objects summing values: copying values into a list before streaming it
+ * versus streaming entries of cache sequentially and in parallel. Parallel scan uses common fork join pool,
+ * so it scales with number of cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class EntryScanBenchmark {
+
+    private static final int MAX_CACHE_SIZE = 1_000_000;
+
+    @Param({"simple", "guava", "caffeine"})
+    public String cacheServiceName;
+
+    private CacheService<Integer> cacheService;
+
+    @Setup
+    public void setUp() {
+        cacheService = createCacheService(cacheServiceName);
+        for (int i = 0; i < MAX_CACHE_SIZE; i++) {
+            cacheService.put("key_" + i, i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheService.close();
+    }
+
+    @Benchmark
+    public long copiedValues() {
+        List<Integer> values = new ArrayList<>(cacheService.asMap().values());
+        return values.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long sequentialEntries() {
+        return cacheService.entries().mapToLong(Map.Entry::getValue).sum();
+    }
+
+    @Benchmark
+    public long parallelEntries() {
+        return cacheService.entries().parallel().mapToLong(Map.Entry::getValue).sum();
+    }
+
+    private static CacheService<Integer> createCacheService(String cacheServiceName) {
+        switch (cacheServiceName) {
+            case "simple":
+                return new SimpleCacheService.Builder<Integer>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(3600)
+                        .timeService(new TimeService())
+                        .build();
+            case "guava":
+                return new GuavaCacheService.Builder<Integer>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(3600)
+                        .build();
+            default:
+                return new CaffeineCacheService.Builder<Integer>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(3600)
+                        .build();
+        }
+    }
+}
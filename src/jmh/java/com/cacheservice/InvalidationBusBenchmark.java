@@ -0,0 +1,115 @@
+package com.cacheservice;
+
+import com.cacheservice.invalidation.InProcessTransport;
+import com.cacheservice.invalidation.InvalidationBus;
+import com.cacheservice.invalidation.InvalidationTransport;
+import com.cacheservice.invalidation.UdpTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invalidation bus of 1 publishing node and 3 receiving nodes: publish throughput, which is expected to exceed
+ * 100 000 invalidations per second, and fan-out latency of one invalidation until all receivers applied it.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvalidationBusBenchmark {
+
+    private static final int RECEIVERS_NUMBER = 3;
+
+    @Param({"in-process", "udp"})
+    public String transportName;
+
+    private InvalidationBus publisher;
+    private List<InvalidationBus> receivers;
+    private long keyNumber;
+
+    @Setup
+    public void setUp() {
+        List<InvalidationTransport> transports = createTransports(transportName, RECEIVERS_NUMBER + 1);
+        publisher = invalidationBus(transports.get(0));
+        publisher.subscribe(key -> { }, () -> { });
+        receivers = new ArrayList<>();
+        for (InvalidationTransport transport : transports.subList(1, transports.size())) {
+            InvalidationBus receiver = invalidationBus(transport);
+            receiver.subscribe(key -> { }, () -> { });
+            receivers.add(receiver);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        publisher.close();
+        receivers.forEach(InvalidationBus::close);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void publish() {
+        publisher.publish("key_" + (keyNumber++ % 1_000_000));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void fanOut() {
+        long[] appliedNumbers = new long[RECEIVERS_NUMBER];
+        for (int i = 0; i < RECEIVERS_NUMBER; i++) {
+            appliedNumbers[i] = receivers.get(i).getAppliedNumber();
+        }
+        publisher.publish("key_" + keyNumber++);
+        publisher.flush();
+        for (int i = 0; i < RECEIVERS_NUMBER; i++) {
+            while (receivers.get(i).getAppliedNumber() == appliedNumbers[i]) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static InvalidationBus invalidationBus(InvalidationTransport transport) {
+        return new InvalidationBus.Builder()
+                .transport(transport)
+                .build();
+    }
+
+    private static List<InvalidationTransport> createTransports(String transportName, int nodesNumber) {
+        List<InvalidationTransport> transports = new ArrayList<>();
+        if ("in-process".equals(transportName)) {
+            InProcessTransport.Group group = new InProcessTransport.Group();
+            for (int i = 0; i < nodesNumber; i++) {
+                transports.add(group.join());
+            }
+            return transports;
+        }
+        List<UdpTransport> udpTransports = new ArrayList<>();
+        for (int i = 0; i < nodesNumber; i++) {
+            udpTransports.add(new UdpTransport(0));
+        }
+        for (UdpTransport transport : udpTransports) {
+            for (UdpTransport peer : udpTransports) {
+                if (peer != transport) {
+                    transport.addPeer(peer.getPort());
+                }
+            }
+        }
+        transports.addAll(udpTransports);
+        return transports;
+    }
+}
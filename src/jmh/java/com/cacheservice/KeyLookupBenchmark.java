@@ -0,0 +1,94 @@
+package com.cacheservice;
+
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hits of Simple Java cache service by keys read as UTF-8 bytes: decoding bytes to String before lookup
+ * versus looking up by byte[] slice and byte buffer key views. Run with gc profiler to see bytes allocated
+ * per operation (gc.alloc.rate.norm); time service reads system clock, so it does not allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyLookupBenchmark {
+
+    private static final int KEYS_NUMBER = 1024;
+
+    @Param({"ascii", "utf8"})
+    public String keyCharset;
+
+    private SimpleCacheService<Integer> cacheService;
+    private byte[][] keyBytes;
+    private ByteBuffer[] keyBuffers;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        cacheService = new SimpleCacheService.Builder<Integer>()
+                .maxCacheSize(KEYS_NUMBER)
+                .timeoutInSec(3600)
+                .timeService(new TimeService() {
+                    @Override
+                    public long getTimeWithSystemDefaultZoneEpochMilli() {
+                        return System.currentTimeMillis();
+                    }
+                })
+                .build();
+        keyBytes = new byte[KEYS_NUMBER][];
+        keyBuffers = new ByteBuffer[KEYS_NUMBER];
+        String keyPrefix = "ascii".equals(keyCharset) ? "session:user:" : "\u0441\u0435\u0441\u0441\u0438\u044f:\u7528\u6237:";
+        for (int i = 0; i < KEYS_NUMBER; i++) {
+            String key = keyPrefix + i;
+            cacheService.put(key, i);
+            keyBytes[i] = key.getBytes(StandardCharsets.UTF_8);
+            keyBuffers[i] = ByteBuffer.allocateDirect(keyBytes[i].length).put(keyBytes[i]).flip();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheService.close();
+    }
+
+    @Benchmark
+    public Integer decodedString() {
+        byte[] key = keyBytes[nextIndex()];
+        return cacheService.get(new String(key, 0, key.length, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public Integer byteArrayView() {
+        byte[] key = keyBytes[nextIndex()];
+        return cacheService.get(key, 0, key.length);
+    }
+
+    @Benchmark
+    public Integer byteBufferView() {
+        return cacheService.get(keyBuffers[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (KEYS_NUMBER - 1);
+        return index;
+    }
+}
@@ -0,0 +1,85 @@
+package com.cacheservice.compression;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compression and decompression throughput of codecs for several value sizes and levels of entropy:
+ * - low: JSON-like repeating text
+ * - medium: JSON-like records with random numeric fields
+ * - high: random bytes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"deflate", "lzf"})
+    public String codecName;
+
+    @Param({"1024", "16384", "262144"})
+    public int valueSize;
+
+    @Param({"low", "medium", "high"})
+    public String entropy;
+
+    private Codec codec;
+    private byte[] value;
+    private byte[] compressedValue;
+
+    @Setup
+    public void setUp() {
+        codec = codecName.equals("deflate") ? new DeflateCodec(6) : new LzfCodec();
+        value = createValue(valueSize, entropy, new Random(42));
+        compressedValue = codec.compress(value);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return codec.compress(value);
+    }
+
+    @Benchmark
+    public byte[] decompress() {
+        return codec.decompress(compressedValue, value.length);
+    }
+
+    private static byte[] createValue(int size, String entropy, Random random) {
+        byte[] bytes = new byte[size];
+        if (entropy.equals("high")) {
+            random.nextBytes(bytes);
+            return bytes;
+        }
+        StringBuilder json = new StringBuilder(size + 64);
+        int id = 0;
+        while (json.length() < size) {
+            if (entropy.equals("low")) {
+                json.append("{\"id\":1,\"name\":\"cached item\",\"active\":true},");
+            } else {
+                json.append("{\"id\":").append(id++)
+                        .append(",\"price\":").append(random.nextInt(1_000_000))
+                        .append(",\"rating\":").append(random.nextDouble())
+                        .append("},");
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) json.charAt(i);
+        }
+        return bytes;
+    }
+}
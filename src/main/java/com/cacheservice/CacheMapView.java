@@ -0,0 +1,217 @@
+package com.cacheservice;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Weakly consistent concurrent map view of cache service.
+ * <p>
+ * Iteration streams entries of cache service by its {@link CacheService#entries()} spliterator: it does not copy
+ * the cache, does not count as an access and skips expired entries. Lookups by key are gets of cache service,
+ * and changes are operations of cache service, so they update statistics, eviction order and the store
+ * as the operations do. Every removal (by key, by entry, through iterator or clear) is a compute of cache service
+ * returning null, so it deletes the value from the store as well. Size and equality scan the cache.
+ * Entries are immutable snapshots of key and value.
+ *
+ * @param <T>
+ */
+public final class CacheMapView<T> extends AbstractMap<String, T> implements ConcurrentMap<String, T> {
+
+    private final CacheService<T> cacheService;
+    private final EntrySet entrySet = new EntrySet();
+
+    /**
+     * Cache map view constructor
+     *
+     * @param cacheService cache service
+     */
+    public CacheMapView(CacheService<T> cacheService) {
+        UtilityAssertions.assertInputObjectsNotNull(cacheService);
+
+        this.cacheService = cacheService;
+    }
+
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+        return entrySet;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !entrySet.iterator().hasNext();
+    }
+
+    @Override
+    public T get(Object key) {
+        return key instanceof String ? cacheService.get((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public T put(String key, T value) {
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        Object[] previousValue = new Object[1];
+        cacheService.compute(key, (x, currentValue) -> {
+            previousValue[0] = currentValue;
+            return value;
+        });
+        return cast(previousValue[0]);
+    }
+
+    @Override
+    public T remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        Object[] previousValue = new Object[1];
+        cacheService.compute((String) key, (x, currentValue) -> {
+            previousValue[0] = currentValue;
+            return null;
+        });
+        return cast(previousValue[0]);
+    }
+
+    @Override
+    public T putIfAbsent(String key, T value) {
+        return cacheService.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!(key instanceof String) || value == null) {
+            return false;
+        }
+        boolean[] removed = new boolean[1];
+        cacheService.compute((String) key, (x, currentValue) -> {
+            removed[0] = value.equals(currentValue);
+            return removed[0] ? null : currentValue;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public boolean replace(String key, T oldValue, T newValue) {
+        return cacheService.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public T replace(String key, T value) {
+        return cacheService.replace(key, value);
+    }
+
+    @Override
+    public T computeIfAbsent(String key, Function<? super String, ? extends T> mappingFunction) {
+        return cacheService.computeIfAbsent(key, mappingFunction::apply);
+    }
+
+    @Override
+    public T computeIfPresent(String key, BiFunction<? super String, ? super T, ? extends T> remappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(remappingFunction);
+
+        return cacheService.compute(key,
+                (x, currentValue) -> currentValue != null ? remappingFunction.apply(x, currentValue) : null);
+    }
+
+    @Override
+    public T compute(String key, BiFunction<? super String, ? super T, ? extends T> remappingFunction) {
+        return cacheService.compute(key, remappingFunction::apply);
+    }
+
+    @Override
+    public T merge(String key, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        return cacheService.merge(key, value, remappingFunction);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * Entry set streaming entries of cache service. Removing entry removes its key from the map view.
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, T>> {
+
+        @Override
+        public Iterator<Entry<String, T>> iterator() {
+            Iterator<Entry<String, T>> entries = Spliterators.iterator(spliterator());
+            return new Iterator<>() {
+
+                private Entry<String, T> lastEntry;
+
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Entry<String, T> next() {
+                    lastEntry = entries.next();
+                    return lastEntry;
+                }
+
+                @Override
+                public void remove() {
+                    if (lastEntry == null) {
+                        throw new IllegalStateException("Next entry is not returned yet!");
+                    }
+                    CacheMapView.this.remove(lastEntry.getKey());
+                    lastEntry = null;
+                }
+            };
+        }
+
+        @Override
+        public Spliterator<Entry<String, T>> spliterator() {
+            return cacheService.entries().spliterator();
+        }
+
+        @Override
+        public Stream<Entry<String, T>> stream() {
+            return cacheService.entries();
+        }
+
+        @Override
+        public Stream<Entry<String, T>> parallelStream() {
+            return cacheService.entries().parallel();
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, cacheService.entries().count());
+        }
+
+        @Override
+        public boolean contains(Object object) {
+            if (!(object instanceof Map.Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) object;
+            T value = CacheMapView.this.get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object object) {
+            if (!(object instanceof Map.Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) object;
+            return CacheMapView.this.remove(entry.getKey(), entry.getValue());
+        }
+    }
+}
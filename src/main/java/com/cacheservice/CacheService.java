@@ -1,12 +1,84 @@
 package com.cacheservice;
 
-public interface CacheService<T> {
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public interface CacheService<T> extends AutoCloseable {
 
     T get(String key);
 
     void put(String key, T value);
 
+    /**
+     * Puts value by key and tags the key. Tags replace previous tags of the key.
+     *
+     * @param key   key
+     * @param value value
+     * @param tags  tags
+     */
+    void put(String key, T value, String... tags);
+
+    T putIfAbsent(String key, T value);
+
+    T computeIfAbsent(String key, Function<String, ? extends T> mappingFunction);
+
+    T compute(String key, BiFunction<String, ? super T, ? extends T> remappingFunction);
+
+    T merge(String key, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction);
+
+    T replace(String key, T value);
+
+    boolean replace(String key, T oldValue, T newValue);
+
+    /**
+     * Removes object with key from cache
+     *
+     * @param key key
+     * @return true if cache contained the key
+     */
+    boolean invalidate(String key);
+
+    /**
+     * Removes all objects with keys tagged by tag
+     *
+     * @param tag tag
+     * @return number of removed objects
+     */
+    int invalidateByTag(String tag);
+
+    /**
+     * Removes all objects with keys starting with prefix
+     *
+     * @param prefix prefix
+     * @return number of removed objects
+     */
+    int invalidateByPrefix(String prefix);
+
+    Stream<Map.Entry<String, T>> entries();
+
+    /**
+     * Returns weakly consistent concurrent map view of cache
+     *
+     * @return map view
+     */
+    default ConcurrentMap<String, T> asMap() {
+        return new CacheMapView<>(this);
+    }
+
     CacheStatisticsObject returnCacheStatistics();
 
     void cacheCleanUp();
+
+    /**
+     * Closes cache service and releases its resources. Closed cache service does not get new objects: puts,
+     * atomic operations and loads throw {@link IllegalStateException}. Cache services keeping objects in the process
+     * remove them on close, so gets of closed cache service return null; cache service over storage shared
+     * with other processes keeps its objects for them and may reject other operations as well.
+     * Closing closed cache service does nothing.
+     */
+    @Override
+    void close();
 }
@@ -1,14 +1,34 @@
 package com.cacheservice;
 
+import com.cacheservice.hotkeys.HotKey;
+import com.cacheservice.missratio.HitRatioPoint;
+
+import java.util.List;
+
 /**
- * Cache statistics object. Has 2 fields:
+ * Cache statistics object. Has fields:
  * - eviction count number
  * - average load penalty in secs
+ * - hot keys (empty if hot keys are not tracked)
+ * - effective capacity and number of its resizes (0 if capacity is not adaptive)
+ * - number of background maintenance runs, their average and max time in millis (0 if maintenance is not tracked);
+ *   they are not included into string representation
+ * - deduplication ratio and bytes saved by deduplication of values (0 if values are not deduplicated)
+ * - hit ratio curve: predicted hit ratios of hypothetical capacities (empty if miss ratio curve is not estimated)
  */
 public class CacheStatisticsObject {
 
     private final long evictionCount;
     private final double averageLoadPenalty;
+    private final List<HotKey> hotKeys;
+    private final long effectiveCapacity;
+    private final long capacityResizeCount;
+    private final long maintenanceRunsNumber;
+    private final double averageMaintenanceTime;
+    private final double maxMaintenanceTime;
+    private final double deduplicationRatio;
+    private final long deduplicationSavedBytes;
+    private final List<HitRatioPoint> hitRatioCurve;
 
     /**
      * Cache statistics constructor
@@ -17,14 +37,173 @@ public class CacheStatisticsObject {
      * @param averageLoadPenalty average load penalty
      */
     public CacheStatisticsObject(long evictionCount, double averageLoadPenalty) {
+        this(evictionCount, averageLoadPenalty, List.of());
+    }
+
+    /**
+     * Cache statistics constructor
+     *
+     * @param evictionCount      eviction count
+     * @param averageLoadPenalty average load penalty
+     * @param hotKeys            hot keys sorted by estimated count descending
+     */
+    public CacheStatisticsObject(long evictionCount, double averageLoadPenalty, List<HotKey> hotKeys) {
+        this(evictionCount, averageLoadPenalty, hotKeys, 0, 0, 0, 0, 0, 0, 0, List.of());
+    }
+
+    private CacheStatisticsObject(long evictionCount,
+                                  double averageLoadPenalty,
+                                  List<HotKey> hotKeys,
+                                  long effectiveCapacity,
+                                  long capacityResizeCount,
+                                  long maintenanceRunsNumber,
+                                  double averageMaintenanceTime,
+                                  double maxMaintenanceTime,
+                                  double deduplicationRatio,
+                                  long deduplicationSavedBytes,
+                                  List<HitRatioPoint> hitRatioCurve) {
+        UtilityAssertions.assertInputObjectsNotNull(hotKeys, hitRatioCurve);
+
         this.evictionCount = evictionCount;
         this.averageLoadPenalty = averageLoadPenalty;
+        this.hotKeys = List.copyOf(hotKeys);
+        this.effectiveCapacity = effectiveCapacity;
+        this.capacityResizeCount = capacityResizeCount;
+        this.maintenanceRunsNumber = maintenanceRunsNumber;
+        this.averageMaintenanceTime = averageMaintenanceTime;
+        this.maxMaintenanceTime = maxMaintenanceTime;
+        this.deduplicationRatio = deduplicationRatio;
+        this.deduplicationSavedBytes = deduplicationSavedBytes;
+        this.hitRatioCurve = List.copyOf(hitRatioCurve);
+    }
+
+    /**
+     * Returns copy of statistics with given hot keys
+     *
+     * @param hotKeys hot keys sorted by estimated count descending
+     * @return cache statistics object
+     */
+    public CacheStatisticsObject withHotKeys(List<HotKey> hotKeys) {
+        return new CacheStatisticsObject(evictionCount, averageLoadPenalty, hotKeys, effectiveCapacity, capacityResizeCount,
+                maintenanceRunsNumber, averageMaintenanceTime, maxMaintenanceTime, deduplicationRatio, deduplicationSavedBytes,
+                hitRatioCurve);
+    }
+
+    /**
+     * Returns copy of statistics with given adaptive capacity information
+     *
+     * @param effectiveCapacity   current effective capacity
+     * @param capacityResizeCount number of effective capacity resizes
+     * @return cache statistics object
+     */
+    public CacheStatisticsObject withCapacity(long effectiveCapacity, long capacityResizeCount) {
+        return new CacheStatisticsObject(evictionCount, averageLoadPenalty, hotKeys, effectiveCapacity, capacityResizeCount,
+                maintenanceRunsNumber, averageMaintenanceTime, maxMaintenanceTime, deduplicationRatio, deduplicationSavedBytes,
+                hitRatioCurve);
+    }
+
+    /**
+     * Returns copy of statistics with given maintenance information
+     *
+     * @param maintenanceRunsNumber  number of maintenance runs
+     * @param averageMaintenanceTime average maintenance run time in millis
+     * @param maxMaintenanceTime     max maintenance run time in millis
+     * @return cache statistics object
+     */
+    public CacheStatisticsObject withMaintenance(long maintenanceRunsNumber, double averageMaintenanceTime, double maxMaintenanceTime) {
+        return new CacheStatisticsObject(evictionCount, averageLoadPenalty, hotKeys, effectiveCapacity, capacityResizeCount,
+                maintenanceRunsNumber, averageMaintenanceTime, maxMaintenanceTime, deduplicationRatio, deduplicationSavedBytes,
+                hitRatioCurve);
+    }
+
+    /**
+     * Returns copy of statistics with given deduplication information
+     *
+     * @param deduplicationRatio      number of references per shared value
+     * @param deduplicationSavedBytes bytes which copies of shared values would take
+     * @return cache statistics object
+     */
+    public CacheStatisticsObject withDeduplication(double deduplicationRatio, long deduplicationSavedBytes) {
+        return new CacheStatisticsObject(evictionCount, averageLoadPenalty, hotKeys, effectiveCapacity, capacityResizeCount,
+                maintenanceRunsNumber, averageMaintenanceTime, maxMaintenanceTime, deduplicationRatio, deduplicationSavedBytes,
+                hitRatioCurve);
+    }
+
+    /**
+     * Returns copy of statistics with given hit ratio curve
+     *
+     * @param hitRatioCurve predicted hit ratios sorted by capacity
+     * @return cache statistics object
+     */
+    public CacheStatisticsObject withHitRatioCurve(List<HitRatioPoint> hitRatioCurve) {
+        return new CacheStatisticsObject(evictionCount, averageLoadPenalty, hotKeys, effectiveCapacity, capacityResizeCount,
+                maintenanceRunsNumber, averageMaintenanceTime, maxMaintenanceTime, deduplicationRatio, deduplicationSavedBytes,
+                hitRatioCurve);
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public double getAverageLoadPenalty() {
+        return averageLoadPenalty;
+    }
+
+    public List<HotKey> getHotKeys() {
+        return hotKeys;
+    }
+
+    public long getEffectiveCapacity() {
+        return effectiveCapacity;
+    }
+
+    public long getCapacityResizeCount() {
+        return capacityResizeCount;
+    }
+
+    public long getMaintenanceRunsNumber() {
+        return maintenanceRunsNumber;
+    }
+
+    public double getAverageMaintenanceTime() {
+        return averageMaintenanceTime;
+    }
+
+    public double getMaxMaintenanceTime() {
+        return maxMaintenanceTime;
+    }
+
+    public double getDeduplicationRatio() {
+        return deduplicationRatio;
+    }
+
+    public long getDeduplicationSavedBytes() {
+        return deduplicationSavedBytes;
+    }
+
+    public List<HitRatioPoint> getHitRatioCurve() {
+        return hitRatioCurve;
     }
 
     @Override
     public String toString() {
-        return "Statistics:\n" +
+        String statistics = "Statistics:\n" +
                 "Eviction count = " + evictionCount + "\n" +
                 "Average load penalty = " + averageLoadPenalty + " ms\n";
+        if (!hotKeys.isEmpty()) {
+            statistics += "Hot keys = " + hotKeys + "\n";
+        }
+        if (effectiveCapacity > 0) {
+            statistics += "Effective capacity = " + effectiveCapacity + "\n" +
+                    "Capacity resizes = " + capacityResizeCount + "\n";
+        }
+        if (deduplicationRatio > 0) {
+            statistics += "Deduplication ratio = " + deduplicationRatio + "\n" +
+                    "Deduplication saved bytes = " + deduplicationSavedBytes + "\n";
+        }
+        if (!hitRatioCurve.isEmpty()) {
+            statistics += "Predicted hit ratio by capacity = " + hitRatioCurve + "\n";
+        }
+        return statistics;
     }
 }
@@ -0,0 +1,81 @@
+package com.cacheservice;
+
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Spliterator of entries of cache service over spliterator of objects stored in its cache map.
+ * <p>
+ * Splitting is delegated to spliterator of stored objects, so parallel streams split as evenly as the cache map
+ * does. Stored objects are mapped to entries lazily; objects mapped to null (e.g. expired ones) are skipped.
+ *
+ * @param <S> type of stored objects
+ * @param <T> type of values
+ */
+public final class EntrySpliterator<S, T> implements Spliterator<Map.Entry<String, T>> {
+
+    private final Spliterator<S> storedObjects;
+    private final Function<? super S, ? extends Map.Entry<String, T>> entryMapper;
+
+    /**
+     * Entry spliterator constructor
+     *
+     * @param storedObjects spliterator of stored objects
+     * @param entryMapper   function mapping stored object to entry, or to null if the object is skipped
+     */
+    public EntrySpliterator(Spliterator<S> storedObjects, Function<? super S, ? extends Map.Entry<String, T>> entryMapper) {
+        UtilityAssertions.assertInputObjectsNotNull(storedObjects, entryMapper);
+
+        this.storedObjects = storedObjects;
+        this.entryMapper = entryMapper;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Map.Entry<String, T>> action) {
+        boolean[] advanced = new boolean[1];
+        while (!advanced[0] && storedObjects.tryAdvance(storedObject -> advanced[0] = accept(storedObject, action))) {
+            // skips objects mapped to null
+        }
+        return advanced[0];
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Map.Entry<String, T>> action) {
+        storedObjects.forEachRemaining(storedObject -> accept(storedObject, action));
+    }
+
+    @Override
+    public Spliterator<Map.Entry<String, T>> trySplit() {
+        Spliterator<S> prefix = storedObjects.trySplit();
+        return prefix != null ? new EntrySpliterator<>(prefix, entryMapper) : null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return storedObjects.estimateSize();
+    }
+
+    @Override
+    public int characteristics() {
+        // keys of cache map are distinct; skipped objects make size inexact
+        return DISTINCT | NONNULL | CONCURRENT;
+    }
+
+    /**
+     * Passes entry of stored object to action unless stored object is skipped
+     *
+     * @param storedObject stored object
+     * @param action       action
+     * @return true if entry is passed
+     */
+    private boolean accept(S storedObject, Consumer<? super Map.Entry<String, T>> action) {
+        Map.Entry<String, T> entry = entryMapper.apply(storedObject);
+        if (entry == null) {
+            return false;
+        }
+        action.accept(entry);
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package com.cacheservice;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy buffer of elements recorded on hot paths without a lock, as the read buffer of Caffeine.
+ * <p>
+ * Buffer is striped by thread, each stripe is a bounded ring. Any thread offers, and only the thread holding the lock
+ * of the structure fed by the buffer drains it, so drains never run concurrently. An element offered to a full stripe
+ * is dropped; offer reports a full stripe, so the caller can try to take its lock and drain.
+ *
+ * @param <E> type of elements
+ */
+public final class StripedReadBuffer<E> {
+
+    private static final int STRIPE_SIZE = 16;
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe<E>[] stripes;
+
+    /**
+     * Striped read buffer constructor. Number of stripes depends on number of available processors.
+     */
+    @SuppressWarnings("unchecked")
+    public StripedReadBuffer() {
+        int stripesNumber = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4),
+                MAX_STRIPES);
+        stripes = new Stripe[stripesNumber];
+        for (int i = 0; i < stripesNumber; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Offers element to the stripe of current thread. Element is dropped if the stripe is full.
+     *
+     * @param element element
+     * @return true if the stripe is full and should be drained
+     */
+    public boolean offer(E element) {
+        long threadId = Thread.currentThread().getId();
+        return stripes[(int) (threadId * 0x9E3779B97F4A7C15L >>> 32) & (stripes.length - 1)].offer(element);
+    }
+
+    /**
+     * Passes buffered elements to consumer in the order of offers per stripe. Must be called under the lock
+     * of the structure fed by the buffer.
+     *
+     * @param consumer consumer of elements
+     */
+    public void drain(Consumer<? super E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            stripe.drain(consumer);
+        }
+    }
+
+    private static final class Stripe<E> {
+
+        private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        // written by drain only
+        private volatile long readCounter;
+
+        private boolean offer(E element) {
+            while (true) {
+                long writeIndex = writeCounter.get();
+                if (writeIndex - readCounter >= STRIPE_SIZE) {
+                    return true;
+                }
+                if (writeCounter.compareAndSet(writeIndex, writeIndex + 1)) {
+                    buffer.lazySet((int) writeIndex & (STRIPE_SIZE - 1), element);
+                    return writeIndex + 1 - readCounter >= STRIPE_SIZE;
+                }
+            }
+        }
+
+        private void drain(Consumer<? super E> consumer) {
+            long readIndex = readCounter;
+            long writeIndex = writeCounter.get();
+            while (readIndex < writeIndex) {
+                int index = (int) readIndex & (STRIPE_SIZE - 1);
+                E element = buffer.get(index);
+                if (element == null) {
+                    // writer has taken the slot but not stored the element yet
+                    break;
+                }
+                buffer.lazySet(index, null);
+                consumer.accept(element);
+                readIndex++;
+            }
+            readCounter = readIndex;
+        }
+    }
+}
@@ -5,6 +5,17 @@ package com.cacheservice;
  */
 public final class UtilityAssertions {
 
+    /**
+     * Assertion for String field. Does not allocate varargs array on hot paths.
+     *
+     * @param field field
+     */
+    public static void assertInputStringsNotBlankOrNull(String field) {
+        if (field == null || field.isBlank()) {
+            throw new IllegalArgumentException("Input string #1 is null or blank!");
+        }
+    }
+
     /**
      * Assertions for String fields
      *
@@ -24,6 +35,17 @@ public final class UtilityAssertions {
         }
     }
 
+    /**
+     * Assertion for Object field. Does not allocate varargs array on hot paths.
+     *
+     * @param field field
+     */
+    public static void assertInputObjectsNotNull(Object field) {
+        if (field == null) {
+            throw new IllegalArgumentException("Input object #1 is null!");
+        }
+    }
+
     /**
      * Assertions for Object fields
      *
@@ -0,0 +1,14 @@
+package com.cacheservice.caffeine;
+
+public class CachedObject<T> {
+
+    private final T value;
+
+    public CachedObject(T value) {
+        this.value = value;
+    }
+
+    public T getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,17 @@
+package com.cacheservice.compression;
+
+/**
+ * Pass-through serializer of byte array values
+ */
+public class ByteArrayValueSerializer implements ValueSerializer<byte[]> {
+
+    @Override
+    public byte[] serialize(byte[] value) {
+        return value;
+    }
+
+    @Override
+    public byte[] deserialize(byte[] bytes) {
+        return bytes;
+    }
+}
@@ -0,0 +1,13 @@
+package com.cacheservice.compression;
+
+/**
+ * Compression codec of cached values
+ */
+public interface Codec {
+
+    String getName();
+
+    byte[] compress(byte[] bytes);
+
+    byte[] decompress(byte[] compressedBytes, int originalLength);
+}
@@ -0,0 +1,23 @@
+package com.cacheservice.compression;
+
+/**
+ * Compressed form of cached value stored in the underlying cache service
+ */
+final class CompressedValue {
+
+    private final byte[] compressedBytes;
+    private final int originalLength;
+
+    CompressedValue(byte[] compressedBytes, int originalLength) {
+        this.compressedBytes = compressedBytes;
+        this.originalLength = originalLength;
+    }
+
+    byte[] getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    int getOriginalLength() {
+        return originalLength;
+    }
+}
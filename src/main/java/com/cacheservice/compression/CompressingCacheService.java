@@ -0,0 +1,408 @@
+package com.cacheservice.compression;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheStatisticsObject;
+import com.cacheservice.EntrySpliterator;
+import com.cacheservice.UtilityAssertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cache service decorator compressing large values. Values which serialized size is at least threshold are
+ * compressed when they are put; they are decompressed only when they are read. Smaller values and values that
+ * do not get smaller after compression are stored unchanged. Works on top of Simple Java and Guava cache services.
+ *
+ * @param <T>
+ */
+public class CompressingCacheService<T> implements CacheService<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressingCacheService.class.getName());
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final CacheService<Object> cacheService;
+    private final Codec codec;
+    private final ValueSerializer<T> valueSerializer;
+    private final int thresholdInBytes;
+    private final CompressionStatistics compressionStatistics;
+    private final boolean cpuTimeSupported;
+
+    /**
+     * Compressing cache service constructor
+     *
+     * @param cacheService          underlying cache service storing plain and compressed values
+     * @param codec                 compression codec
+     * @param valueSerializer       value serializer
+     * @param thresholdInBytes      min serialized size of compressed values; if negative value or 0 provided,
+     *                              default value = 1024
+     * @param compressionStatistics compression statistics; if null provided, new one is created
+     */
+    public CompressingCacheService(CacheService<Object> cacheService,
+                                   Codec codec,
+                                   ValueSerializer<T> valueSerializer,
+                                   int thresholdInBytes,
+                                   CompressionStatistics compressionStatistics) {
+        UtilityAssertions.assertInputObjectsNotNull(cacheService, codec, valueSerializer);
+
+        this.cacheService = cacheService;
+        this.codec = codec;
+        this.valueSerializer = valueSerializer;
+        this.thresholdInBytes = thresholdInBytes > 0 ? thresholdInBytes : 1024;
+        this.compressionStatistics = compressionStatistics != null ? compressionStatistics : new CompressionStatistics();
+        this.cpuTimeSupported = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
+        LOGGER.info("CompressingCacheService is created with codec {}", codec.getName());
+    }
+
+    /**
+     * Get value by key decompressing it if needed. If there is no value in cache - returns null.
+     *
+     * @param key key
+     * @return value;
+     */
+    @Override
+    public T get(String key) {
+        return fromStoredValue(cacheService.get(key));
+    }
+
+    /**
+     * Put value by key compressing it if its serialized size is at least threshold
+     *
+     * @param key   key
+     * @param value value
+     */
+    @Override
+    public void put(String key, T value) {
+        cacheService.put(key, toStoredValue(key, value));
+    }
+
+    /**
+     * Put value by key compressing it if cache does not contain the key
+     *
+     * @param key   key
+     * @param value value
+     * @return current value, or null if value is put
+     */
+    @Override
+    public T putIfAbsent(String key, T value) {
+        return fromStoredValue(cacheService.putIfAbsent(key, toStoredValue(key, value)));
+    }
+
+    /**
+     * Get value by key. If there is no value in cache - computes it by mapping function and puts it into
+     * underlying cache atomically, compressing it if needed
+     *
+     * @param key             key
+     * @param mappingFunction function computing value by key; must not access the cache
+     * @return current or computed value
+     */
+    @Override
+    public T computeIfAbsent(String key, Function<String, ? extends T> mappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(mappingFunction);
+
+        return fromStoredValue(cacheService.computeIfAbsent(key, x -> toStoredValue(x, mappingFunction.apply(x))));
+    }
+
+    /**
+     * Atomically computes value by key from decompressed current value and compresses computed value if needed
+     *
+     * @param key               key
+     * @param remappingFunction function computing value by key and current value; must not access the cache
+     * @return computed value
+     */
+    @Override
+    public T compute(String key, BiFunction<String, ? super T, ? extends T> remappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(remappingFunction);
+
+        return fromStoredValue(cacheService.compute(key,
+                (x, storedValue) -> toStoredValue(x, remappingFunction.apply(x, fromStoredValue(storedValue)))));
+    }
+
+    /**
+     * Atomically merges decompressed current value with the value and compresses merged value if needed
+     *
+     * @param key               key
+     * @param value             value
+     * @param remappingFunction function merging current value and the value; must not access the cache
+     * @return merged value
+     */
+    @Override
+    public T merge(String key, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(value, remappingFunction);
+
+        return compute(key, (x, currentValue) -> currentValue != null ? remappingFunction.apply(currentValue, value) : value);
+    }
+
+    /**
+     * Replaces value by key if cache contains the key, compressing it if needed
+     *
+     * @param key   key
+     * @param value value
+     * @return replaced value, or null if cache does not contain the key
+     */
+    @Override
+    public T replace(String key, T value) {
+        return fromStoredValue(cacheService.replace(key, toStoredValue(key, value)));
+    }
+
+    /**
+     * Replaces value by key if decompressed current value equals to the old value. Compressed values are
+     * compared decompressed, so the comparison is done inside compute of underlying cache.
+     *
+     * @param key      key
+     * @param oldValue expected current value
+     * @param newValue new value
+     * @return true if value is replaced
+     */
+    @Override
+    public boolean replace(String key, T oldValue, T newValue) {
+        UtilityAssertions.assertInputObjectsNotNull(oldValue, newValue);
+
+        AtomicBoolean replaced = new AtomicBoolean();
+        cacheService.compute(key, (x, storedValue) -> {
+            if (!oldValue.equals(fromStoredValue(storedValue))) {
+                return storedValue;
+            }
+            replaced.set(true);
+            return toStoredValue(x, newValue);
+        });
+        return replaced.get();
+    }
+
+    /**
+     * Put value by key with tags compressing it if its serialized size is at least threshold
+     *
+     * @param key   key
+     * @param value value
+     * @param tags  tags
+     */
+    @Override
+    public void put(String key, T value, String... tags) {
+        cacheService.put(key, toStoredValue(key, value), tags);
+    }
+
+    /**
+     * Removes object with key from underlying cache
+     *
+     * @param key key
+     * @return true if cache contained the key
+     */
+    @Override
+    public boolean invalidate(String key) {
+        return cacheService.invalidate(key);
+    }
+
+    /**
+     * Removes objects tagged by tag from underlying cache
+     *
+     * @param tag tag
+     * @return number of removed objects
+     */
+    @Override
+    public int invalidateByTag(String tag) {
+        return cacheService.invalidateByTag(tag);
+    }
+
+    /**
+     * Removes objects with keys starting with prefix from underlying cache
+     *
+     * @param prefix prefix
+     * @return number of removed objects
+     */
+    @Override
+    public int invalidateByPrefix(String prefix) {
+        return cacheService.invalidateByPrefix(prefix);
+    }
+
+    /**
+     * Returns weakly consistent stream of entries of underlying cache service decompressing values lazily
+     *
+     * @return stream of entries
+     */
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        return StreamSupport.stream(new EntrySpliterator<Map.Entry<String, Object>, T>(cacheService.entries().spliterator(),
+                entry -> Map.entry(entry.getKey(), fromStoredValue(entry.getValue()))), false);
+    }
+
+    /**
+     * Return statistics of underlying cache service
+     *
+     * @return cache statistics object
+     */
+    @Override
+    public CacheStatisticsObject returnCacheStatistics() {
+        return cacheService.returnCacheStatistics();
+    }
+
+    /**
+     * Return compression statistics
+     *
+     * @return compression statistics object
+     */
+    public CompressionStatisticsObject returnCompressionStatistics() {
+        return compressionStatistics.returnCompressionStatistics();
+    }
+
+    /**
+     * Clean underlying cache from obsolete objects
+     */
+    @Override
+    public void cacheCleanUp() {
+        cacheService.cacheCleanUp();
+    }
+
+    /**
+     * Close underlying cache service
+     */
+    @Override
+    public void close() {
+        cacheService.close();
+    }
+
+    /**
+     * Converts value to stored value: compressed value if its serialized size is at least threshold
+     * and compression makes it smaller, otherwise the value itself
+     *
+     * @param key   key
+     * @param value value
+     * @return stored value
+     */
+    private Object toStoredValue(String key, T value) {
+        if (value == null) {
+            return null;
+        }
+
+        long startTime = currentThreadTime();
+        byte[] bytes = valueSerializer.serialize(value);
+        if (bytes.length < thresholdInBytes) {
+            compressionStatistics.recordUncompressed(currentThreadTime() - startTime);
+            return value;
+        }
+
+        byte[] compressedBytes = codec.compress(bytes);
+        long timeSpent = currentThreadTime() - startTime;
+        if (compressedBytes.length >= bytes.length) {
+            LOGGER.trace("Value with key {} is not compressible. Storing it unchanged", key);
+            compressionStatistics.recordUncompressed(timeSpent);
+            return value;
+        }
+        compressionStatistics.recordCompression(bytes.length, compressedBytes.length, timeSpent);
+        return new CompressedValue(compressedBytes, bytes.length);
+    }
+
+    /**
+     * Converts stored value to value decompressing it if needed
+     *
+     * @param storedValue stored value
+     * @return value
+     */
+    @SuppressWarnings("unchecked")
+    private T fromStoredValue(Object storedValue) {
+        if (!(storedValue instanceof CompressedValue)) {
+            return (T) storedValue;
+        }
+
+        CompressedValue compressedValue = (CompressedValue) storedValue;
+        long startTime = currentThreadTime();
+        byte[] bytes = codec.decompress(compressedValue.getCompressedBytes(), compressedValue.getOriginalLength());
+        T value = valueSerializer.deserialize(bytes);
+        compressionStatistics.recordDecompression(currentThreadTime() - startTime);
+        return value;
+    }
+
+    private long currentThreadTime() {
+        return cpuTimeSupported ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Builder for Compressing Cache Service
+     *
+     * @param <T>
+     */
+    public static class Builder<T> {
+
+        private CacheService<Object> cacheService;
+        private Codec codec;
+        private ValueSerializer<T> valueSerializer;
+        private int thresholdInBytes;
+        private CompressionStatistics compressionStatistics;
+
+        /**
+         * Set underlying cache service to builder
+         *
+         * @param cacheService underlying cache service
+         * @return builder
+         */
+        public Builder<T> cacheService(CacheService<Object> cacheService) {
+            this.cacheService = cacheService;
+            return this;
+        }
+
+        /**
+         * Set compression codec to builder
+         *
+         * @param codec compression codec
+         * @return builder
+         */
+        public Builder<T> codec(Codec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /**
+         * Set value serializer to builder
+         *
+         * @param valueSerializer value serializer
+         * @return builder
+         */
+        public Builder<T> valueSerializer(ValueSerializer<T> valueSerializer) {
+            this.valueSerializer = valueSerializer;
+            return this;
+        }
+
+        /**
+         * Set compression threshold in bytes to builder
+         *
+         * @param thresholdInBytes compression threshold in bytes
+         * @return builder
+         */
+        public Builder<T> thresholdInBytes(int thresholdInBytes) {
+            this.thresholdInBytes = thresholdInBytes;
+            return this;
+        }
+
+        /**
+         * Set compression statistics to builder
+         *
+         * @param compressionStatistics compression statistics
+         * @return builder
+         */
+        public Builder<T> compressionStatistics(CompressionStatistics compressionStatistics) {
+            this.compressionStatistics = compressionStatistics;
+            return this;
+        }
+
+        /**
+         * Builds Compressing Cache service instance
+         *
+         * @return Compressing Cache service instance
+         */
+        public CompressingCacheService<T> build() {
+            return new CompressingCacheService<>(
+                    cacheService,
+                    codec,
+                    valueSerializer,
+                    thresholdInBytes,
+                    compressionStatistics);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.cacheservice.compression;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gathers information about value compression:
+ * - number of compressed values and values stored unchanged
+ * - original and compressed bytes
+ * - CPU time spent in compression and decompression
+ */
+public class CompressionStatistics {
+
+    private final LongAdder compressedValuesCount = new LongAdder();
+    private final LongAdder uncompressedValuesCount = new LongAdder();
+    private final LongAdder originalBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressionTimeInNanos = new LongAdder();
+    private final LongAdder decompressionTimeInNanos = new LongAdder();
+
+    /**
+     * Records value stored compressed
+     *
+     * @param originalLength   original size in bytes
+     * @param compressedLength compressed size in bytes
+     * @param timeInNanos      CPU time spent in compression
+     */
+    void recordCompression(int originalLength, int compressedLength, long timeInNanos) {
+        compressedValuesCount.increment();
+        originalBytes.add(originalLength);
+        compressedBytes.add(compressedLength);
+        compressionTimeInNanos.add(timeInNanos);
+    }
+
+    /**
+     * Records value stored unchanged
+     *
+     * @param timeInNanos CPU time spent in serialization and compression attempt
+     */
+    void recordUncompressed(long timeInNanos) {
+        uncompressedValuesCount.increment();
+        compressionTimeInNanos.add(timeInNanos);
+    }
+
+    /**
+     * Records value decompression
+     *
+     * @param timeInNanos CPU time spent in decompression
+     */
+    void recordDecompression(long timeInNanos) {
+        decompressionTimeInNanos.add(timeInNanos);
+    }
+
+    /**
+     * Return compression statistics
+     *
+     * @return compression statistics object
+     */
+    public CompressionStatisticsObject returnCompressionStatistics() {
+        return new CompressionStatisticsObject(
+                compressedValuesCount.sum(),
+                uncompressedValuesCount.sum(),
+                originalBytes.sum(),
+                compressedBytes.sum(),
+                compressionTimeInNanos.sum() / 1_000_000d,
+                decompressionTimeInNanos.sum() / 1_000_000d);
+    }
+}
@@ -0,0 +1,84 @@
+package com.cacheservice.compression;
+
+/**
+ * Compression statistics object. Has fields:
+ * - number of compressed values and values stored unchanged
+ * - original and compressed bytes of compressed values
+ * - CPU time spent in compression and decompression in millis
+ */
+public class CompressionStatisticsObject {
+
+    private final long compressedValuesCount;
+    private final long uncompressedValuesCount;
+    private final long originalBytes;
+    private final long compressedBytes;
+    private final double compressionTimeInMillis;
+    private final double decompressionTimeInMillis;
+
+    /**
+     * Compression statistics constructor
+     *
+     * @param compressedValuesCount     number of values stored compressed
+     * @param uncompressedValuesCount   number of values stored unchanged
+     * @param originalBytes             original size of compressed values
+     * @param compressedBytes           compressed size of compressed values
+     * @param compressionTimeInMillis   CPU time spent in compression
+     * @param decompressionTimeInMillis CPU time spent in decompression
+     */
+    public CompressionStatisticsObject(long compressedValuesCount,
+                                       long uncompressedValuesCount,
+                                       long originalBytes,
+                                       long compressedBytes,
+                                       double compressionTimeInMillis,
+                                       double decompressionTimeInMillis) {
+        this.compressedValuesCount = compressedValuesCount;
+        this.uncompressedValuesCount = uncompressedValuesCount;
+        this.originalBytes = originalBytes;
+        this.compressedBytes = compressedBytes;
+        this.compressionTimeInMillis = compressionTimeInMillis;
+        this.decompressionTimeInMillis = decompressionTimeInMillis;
+    }
+
+    public long getCompressedValuesCount() {
+        return compressedValuesCount;
+    }
+
+    public long getUncompressedValuesCount() {
+        return uncompressedValuesCount;
+    }
+
+    public long getOriginalBytes() {
+        return originalBytes;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Returns original size divided by compressed size of compressed values; 1 if nothing is compressed
+     *
+     * @return compression ratio
+     */
+    public double getCompressionRatio() {
+        return compressedBytes == 0 ? 1 : (double) originalBytes / compressedBytes;
+    }
+
+    public double getCompressionTimeInMillis() {
+        return compressionTimeInMillis;
+    }
+
+    public double getDecompressionTimeInMillis() {
+        return decompressionTimeInMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Compression statistics:\n" +
+                "Compressed values = " + compressedValuesCount + "\n" +
+                "Uncompressed values = " + uncompressedValuesCount + "\n" +
+                "Compression ratio = " + getCompressionRatio() + "\n" +
+                "Compression time = " + compressionTimeInMillis + " ms\n" +
+                "Decompression time = " + decompressionTimeInMillis + " ms\n";
+    }
+}
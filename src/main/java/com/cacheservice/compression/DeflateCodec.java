@@ -0,0 +1,82 @@
+package com.cacheservice.compression;
+
+import com.cacheservice.UtilityAssertions;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * JDK Deflate codec
+ */
+public class DeflateCodec implements Codec {
+
+    private final int level;
+
+    /**
+     * Deflate codec constructor
+     *
+     * @param level compression level from 0 to 9; if value out of range provided, default level is used
+     */
+    public DeflateCodec(int level) {
+        this.level = level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION
+                ? level
+                : Deflater.DEFAULT_COMPRESSION;
+    }
+
+    @Override
+    public String getName() {
+        return "deflate";
+    }
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        UtilityAssertions.assertInputObjectsNotNull(bytes);
+
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buffer = new byte[bytes.length + (bytes.length >>> 3) + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public byte[] decompress(byte[] compressedBytes, int originalLength) {
+        UtilityAssertions.assertInputObjectsNotNull(compressedBytes);
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressedBytes);
+            byte[] bytes = new byte[originalLength];
+            int length = 0;
+            while (length < originalLength && !inflater.finished()) {
+                int inflated = inflater.inflate(bytes, length, originalLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != originalLength) {
+                throw new IllegalArgumentException("Compressed value is corrupted: expected " + originalLength
+                        + " bytes but was " + length);
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Compressed value is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.cacheservice.compression;
+
+import com.cacheservice.UtilityAssertions;
+
+import java.util.Arrays;
+
+/**
+ * Fast LZ77-family codec using LZF block format:
+ * - control byte below 32: literal run of (control + 1) bytes follows;
+ * - otherwise back reference: length in 3 high bits (7 means extra length byte follows),
+ * offset in 5 low bits plus next byte.
+ */
+public class LzfCodec implements Codec {
+
+    private static final int HASH_LOG = 14;
+    private static final int MAX_LITERAL_RUN = 32;
+    private static final int MAX_OFFSET = 1 << 13;
+    private static final int MAX_REFERENCE_LENGTH = (7 + 255) + 2;
+    private static final int MIN_MATCH = 3;
+
+    @Override
+    public String getName() {
+        return "lzf";
+    }
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        UtilityAssertions.assertInputObjectsNotNull(bytes);
+
+        int length = bytes.length;
+        byte[] out = new byte[length + (length >>> 5) + 1];
+        int[] hashTable = new int[1 << HASH_LOG];
+        int inPosition = 0;
+        int outPosition = 0;
+        int literalStart = 0;
+
+        while (inPosition + MIN_MATCH <= length) {
+            int hash = hash(bytes, inPosition);
+            int reference = hashTable[hash] - 1;
+            hashTable[hash] = inPosition + 1;
+            int offset = inPosition - reference - 1;
+
+            if (reference >= 0 && offset < MAX_OFFSET
+                    && bytes[reference] == bytes[inPosition]
+                    && bytes[reference + 1] == bytes[inPosition + 1]
+                    && bytes[reference + 2] == bytes[inPosition + 2]) {
+                outPosition = writeLiterals(bytes, literalStart, inPosition - literalStart, out, outPosition);
+
+                int maxMatch = Math.min(MAX_REFERENCE_LENGTH, length - inPosition);
+                int match = MIN_MATCH;
+                while (match < maxMatch && bytes[reference + match] == bytes[inPosition + match]) {
+                    match++;
+                }
+
+                int encodedLength = match - 2;
+                if (encodedLength < 7) {
+                    out[outPosition++] = (byte) ((encodedLength << 5) + (offset >>> 8));
+                } else {
+                    out[outPosition++] = (byte) ((7 << 5) + (offset >>> 8));
+                    out[outPosition++] = (byte) (encodedLength - 7);
+                }
+                out[outPosition++] = (byte) offset;
+
+                inPosition += match;
+                literalStart = inPosition;
+            } else {
+                inPosition++;
+            }
+        }
+        outPosition = writeLiterals(bytes, literalStart, length - literalStart, out, outPosition);
+        return Arrays.copyOf(out, outPosition);
+    }
+
+    @Override
+    public byte[] decompress(byte[] compressedBytes, int originalLength) {
+        UtilityAssertions.assertInputObjectsNotNull(compressedBytes);
+
+        byte[] out = new byte[originalLength];
+        int inPosition = 0;
+        int outPosition = 0;
+        try {
+            while (inPosition < compressedBytes.length) {
+                int control = compressedBytes[inPosition++] & 0xff;
+                if (control < MAX_LITERAL_RUN) {
+                    int literalLength = control + 1;
+                    System.arraycopy(compressedBytes, inPosition, out, outPosition, literalLength);
+                    inPosition += literalLength;
+                    outPosition += literalLength;
+                } else {
+                    int referenceLength = control >>> 5;
+                    if (referenceLength == 7) {
+                        referenceLength += compressedBytes[inPosition++] & 0xff;
+                    }
+                    referenceLength += 2;
+                    int reference = outPosition - ((control & 0x1f) << 8) - (compressedBytes[inPosition++] & 0xff) - 1;
+                    // byte by byte copy: reference may overlap with bytes being written
+                    for (int i = 0; i < referenceLength; i++) {
+                        out[outPosition++] = out[reference++];
+                    }
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Compressed value is corrupted", e);
+        }
+        if (outPosition != originalLength) {
+            throw new IllegalArgumentException("Compressed value is corrupted: expected " + originalLength
+                    + " bytes but was " + outPosition);
+        }
+        return out;
+    }
+
+    private static int writeLiterals(byte[] bytes, int start, int length, byte[] out, int outPosition) {
+        while (length > 0) {
+            int runLength = Math.min(length, MAX_LITERAL_RUN);
+            out[outPosition++] = (byte) (runLength - 1);
+            System.arraycopy(bytes, start, out, outPosition, runLength);
+            outPosition += runLength;
+            start += runLength;
+            length -= runLength;
+        }
+        return outPosition;
+    }
+
+    private static int hash(byte[] bytes, int position) {
+        int value = (bytes[position] & 0xff) << 16 | (bytes[position + 1] & 0xff) << 8 | (bytes[position + 2] & 0xff);
+        return (value * 0x9E3779B1) >>> (32 - HASH_LOG);
+    }
+}
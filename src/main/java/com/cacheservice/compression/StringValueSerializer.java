@@ -0,0 +1,19 @@
+package com.cacheservice.compression;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * UTF-8 serializer of String values
+ */
+public class StringValueSerializer implements ValueSerializer<String> {
+
+    @Override
+    public byte[] serialize(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String deserialize(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package com.cacheservice.compression;
+
+/**
+ * Converts cached values to bytes for compression and back
+ *
+ * @param <T>
+ */
+public interface ValueSerializer<T> {
+
+    byte[] serialize(T value);
+
+    T deserialize(byte[] bytes);
+}
@@ -0,0 +1,182 @@
+package com.cacheservice.dedup;
+
+import com.cacheservice.UtilityAssertions;
+import com.google.common.base.Equivalence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reference counted store of shared values, interning equivalent values to one instance.
+ * <p>
+ * Values are looked up by content hash and equality of equivalence, so equivalent values put by many keys are
+ * stored once: interning value returns the shared instance and counts one more reference to it, and releasing
+ * value counts one reference less. Shared value is dropped from the store when its last reference is released.
+ * Default equivalence is equals and hashCode of values; arrays need content based equivalence, e.g. one
+ * comparing them by Arrays.equals and Arrays.hashCode.
+ *
+ * @param <T>
+ */
+public class ValueDeduplicator<T> {
+
+    private final Equivalence<? super T> equivalence;
+    private final ToIntFunction<? super T> sizeEstimator;
+    private final Map<Equivalence.Wrapper<T>, SharedValue<T>> sharedValues = new ConcurrentHashMap<>();
+    private final AtomicLong referencesNumber = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    /**
+     * Value deduplicator constructor
+     *
+     * @param builder builder with value deduplicator settings
+     */
+    private ValueDeduplicator(Builder<T> builder) {
+        this.equivalence = builder.equivalence != null ? builder.equivalence : Equivalence.equals();
+        this.sizeEstimator = builder.sizeEstimator != null ? builder.sizeEstimator : value -> 0;
+    }
+
+    /**
+     * Returns shared instance of value and counts one more reference to it. If there is no value equivalent
+     * to the value in the store, the value becomes shared instance.
+     *
+     * @param value value
+     * @return shared instance equivalent to the value
+     */
+    public T intern(T value) {
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        SharedValue<T> sharedValue = sharedValues.compute(equivalence.wrap(value), (x, existingSharedValue) -> {
+            if (existingSharedValue == null) {
+                return new SharedValue<>(value, sizeEstimator.applyAsInt(value));
+            }
+            existingSharedValue.referencesNumber++;
+            savedBytes.addAndGet(existingSharedValue.size);
+            return existingSharedValue;
+        });
+        referencesNumber.incrementAndGet();
+        return sharedValue.value;
+    }
+
+    /**
+     * Counts one reference less to shared instance of value. Shared instance is dropped when its last reference
+     * is released. If there is no value equivalent to the value in the store, does nothing.
+     *
+     * @param value value
+     */
+    public void release(T value) {
+        if (value == null) {
+            return;
+        }
+        boolean[] released = new boolean[1];
+        sharedValues.computeIfPresent(equivalence.wrap(value), (x, sharedValue) -> {
+            released[0] = true;
+            if (--sharedValue.referencesNumber == 0) {
+                return null;
+            }
+            savedBytes.addAndGet(-sharedValue.size);
+            return sharedValue;
+        });
+        if (released[0]) {
+            referencesNumber.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns number of references to shared values
+     *
+     * @return number of references
+     */
+    public long getReferencesNumber() {
+        return referencesNumber.get();
+    }
+
+    /**
+     * Returns number of distinct shared values
+     *
+     * @return number of shared values
+     */
+    public int getSharedValuesNumber() {
+        return sharedValues.size();
+    }
+
+    /**
+     * Returns deduplication ratio: number of references per shared value; 1 if there is no duplicated value
+     *
+     * @return deduplication ratio
+     */
+    public double getDeduplicationRatio() {
+        int sharedValuesNumber = sharedValues.size();
+        return sharedValuesNumber > 0 ? (double) referencesNumber.get() / sharedValuesNumber : 1;
+    }
+
+    /**
+     * Returns bytes which copies of shared values would take, estimated by size estimator
+     *
+     * @return saved bytes
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    /**
+     * Shared instance of value with number of references to it, guarded by compute of its key
+     *
+     * @param <T>
+     */
+    private static final class SharedValue<T> {
+
+        private final T value;
+        private final int size;
+        private int referencesNumber = 1;
+
+        private SharedValue(T value, int size) {
+            this.value = value;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Builder for value deduplicator
+     *
+     * @param <T>
+     */
+    public static class Builder<T> {
+
+        private Equivalence<? super T> equivalence;
+        private ToIntFunction<? super T> sizeEstimator;
+
+        /**
+         * Set equivalence of values to builder
+         *
+         * @param equivalence equivalence hashing and comparing content of values;
+         *                    if null provided, default value = equals and hashCode of values
+         * @return builder
+         */
+        public Builder<T> equivalence(Equivalence<? super T> equivalence) {
+            this.equivalence = equivalence;
+            return this;
+        }
+
+        /**
+         * Set size estimator of values to builder, used for saved bytes
+         *
+         * @param sizeEstimator size of value in bytes; if null provided, saved bytes are not counted
+         * @return builder
+         */
+        public Builder<T> sizeEstimator(ToIntFunction<? super T> sizeEstimator) {
+            this.sizeEstimator = sizeEstimator;
+            return this;
+        }
+
+        /**
+         * Builds value deduplicator
+         *
+         * @return value deduplicator
+         */
+        public ValueDeduplicator<T> build() {
+            return new ValueDeduplicator<>(this);
+        }
+    }
+}
@@ -2,24 +2,61 @@ package com.cacheservice.guava;
 
 import com.cacheservice.CacheService;
 import com.cacheservice.CacheStatisticsObject;
+import com.cacheservice.EntrySpliterator;
 import com.cacheservice.UtilityAssertions;
+import com.cacheservice.hotkeys.HeavyHitters;
+import com.cacheservice.invalidation.InvalidationIndex;
+import com.cacheservice.jfr.CacheCleanUpEvent;
+import com.cacheservice.jfr.CacheEvents;
+import com.cacheservice.jfr.CacheEvictionEvent;
+import com.cacheservice.jfr.CacheGetEvent;
+import com.cacheservice.jfr.CachePutEvent;
+import com.cacheservice.missratio.MissRatioCurve;
+import com.cacheservice.writer.CacheWriter;
+import com.cacheservice.writer.KeyLocks;
+import com.cacheservice.simplejava.TimeService;
+import com.google.common.base.Ticker;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Guava implementation of cache service interface
+ * Guava implementation of cache service interface.
+ * <p>
+ * Puts and invalidations change cache and invalidation index holding the lock of the key stripe, and computes change
+ * the index inside compute of the key, so tags of a cached key always belong to its current value. Guava notifies
+ * removals after the change, so keys of removed objects are queued and removed from the index later under the lock
+ * of their stripe, unless the key has been put again since.
  *
  * @param <T>
  */
 public class GuavaCacheService<T> implements CacheService<T> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GuavaCacheService.class.getName());
+    private static final String[] NO_TAGS = new String[0];
+    private static final int INDEX_LOCKS_NUMBER = 64;
 
     private final Cache<String, CachedObject<T>> cache;
+    private final HeavyHitters heavyHitters;
+    private final MissRatioCurve missRatioCurve;
+    private final InvalidationIndex invalidationIndex;
+    private final CacheWriter<T> cacheWriter;
+    private final KeyLocks keyLocks;
+    private final String name;
+    private volatile boolean closed;
+    private final Object[] indexLocks = new Object[INDEX_LOCKS_NUMBER];
+    private final Queue<String> removedKeys = new ConcurrentLinkedQueue<>();
 
     /**
      * Guava cache service constructor
@@ -29,18 +66,49 @@ public class GuavaCacheService<T> implements CacheService<T> {
      * @param concurrencyLevel concurrency level; if negative value or 0 provided, default value = 1
      */
     public GuavaCacheService(long maxCacheSize, int timeoutInSec, int concurrencyLevel) {
-        maxCacheSize = maxCacheSize > 0 ? maxCacheSize : 100_000;
-        concurrencyLevel = concurrencyLevel > 0 ? concurrencyLevel : 1;
-        timeoutInSec = timeoutInSec > 0 ? timeoutInSec : 5;
+        this(new Builder<T>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(timeoutInSec)
+                .concurrencyLevel(concurrencyLevel));
+    }
+
+    /**
+     * Guava cache service constructor
+     *
+     * @param builder builder with cache service settings
+     */
+    private GuavaCacheService(Builder<T> builder) {
+        long maxCacheSize = builder.maxCacheSize > 0 ? builder.maxCacheSize : 100_000;
+        int concurrencyLevel = builder.concurrencyLevel > 0 ? builder.concurrencyLevel : 1;
+        int timeoutInSec = builder.timeoutInSec > 0 ? builder.timeoutInSec : 5;
+        this.heavyHitters = builder.heavyHitters;
+        this.missRatioCurve = builder.missRatioCurve;
+        this.invalidationIndex = new InvalidationIndex(builder.prefixIndex);
+        this.cacheWriter = builder.cacheWriter;
+        this.keyLocks = this.cacheWriter != null ? new KeyLocks() : null;
+        this.name = builder.name != null ? builder.name : CacheEvents.defaultCacheName("guava");
+        for (int i = 0; i < INDEX_LOCKS_NUMBER; i++) {
+            indexLocks[i] = new Object();
+        }
 
         cache = CacheBuilder.newBuilder()
                 .concurrencyLevel(concurrencyLevel)
                 .maximumSize(maxCacheSize)
                 .expireAfterWrite(timeoutInSec, TimeUnit.SECONDS)
+                .ticker(toTicker(builder.timeService))
                 .recordStats()
-                .removalListener(notification ->
-                        LOGGER.trace("Object with key {} is being removed. Cause: {}", notification.getKey(), notification.getCause()))
+                .<String, CachedObject<T>>removalListener(notification -> {
+                    LOGGER.trace("Object with key {} is being removed. Cause: {}", notification.getKey(), notification.getCause());
+                    if (notification.getCause() != RemovalCause.REPLACED) {
+                        // listener may run while this thread holds lock of another stripe
+                        removedKeys.add(notification.getKey());
+                    }
+                    if (notification.wasEvicted()) {
+                        commitEvictionEvent(notification.getCause());
+                    }
+                })
                 .build();
+        CacheEvents.registerStatistics(this.name, cache::size, this::returnCacheStatistics);
         LOGGER.info("CacheService is created");
     }
 
@@ -51,9 +119,31 @@ public class GuavaCacheService<T> implements CacheService<T> {
      * @return value;
      */
     public T get(String key) {
+        CacheGetEvent event = CacheEvents.isRecording() ? new CacheGetEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        T value = getValue(key);
+        if (event != null && event.shouldCommit()) {
+            event.cacheName = name;
+            event.key = key;
+            event.hit = value != null;
+            event.commit();
+        }
+        return value;
+    }
+
+    /**
+     * Get value by key. If there is no value in cache - returns null.
+     *
+     * @param key key
+     * @return value;
+     */
+    private T getValue(String key) {
         UtilityAssertions.assertInputStringsNotBlankOrNull(key);
 
         LOGGER.trace("Getting value with key {} from cache", key);
+        offerKey(key);
         CachedObject<T> cachedObject = cache.getIfPresent(key);
 
         if (cachedObject != null) {
@@ -65,18 +155,213 @@ public class GuavaCacheService<T> implements CacheService<T> {
     }
 
     /**
-     * Put value by key in cache
+     * Put value by key in cache. If cache writer is provided, writes value to the store first.
      *
      * @param key   key
      * @param value value
      */
     public void put(String key, T value) {
+        putValue(key, value, NO_TAGS);
+    }
+
+    /**
+     * Puts value by key and indexes the key holding the lock of the key stripe. If cache writer is provided,
+     * writes value to the store first.
+     *
+     * @param key   key
+     * @param value value
+     * @param tags  tags replacing previous tags of the key; if empty, previous tags are kept
+     */
+    private void putValue(String key, T value, String[] tags) {
         UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        assertNotClosed();
 
+        CachePutEvent event = CacheEvents.isRecording() ? new CachePutEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        offerHotKey(key);
         CachedObject<T> cachedObject = new CachedObject<>(value);
+        KeyLocks.KeyLock keyLock = lockKey(key);
+        try {
+            writeToStore(key, value);
+            LOGGER.trace("Putting object with key {} into cache", key);
+            synchronized (indexLock(key)) {
+                cache.put(key, cachedObject);
+                invalidationIndex.onPut(key, tags);
+            }
+        } finally {
+            unlockKey(keyLock);
+        }
+        removeKeysFromIndex();
+        if (event != null && event.shouldCommit()) {
+            event.cacheName = name;
+            event.key = key;
+            event.commit();
+        }
+    }
+
+    /**
+     * Put value by key in cache if cache does not contain the key. If cache writer is provided,
+     * writes put value to the store.
+     *
+     * @param key   key
+     * @param value value
+     * @return current value, or null if value is put
+     */
+    @Override
+    public T putIfAbsent(String key, T value) {
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        return computeValue(key, (x, currentValue) -> currentValue != null ? currentValue : value).currentValue;
+    }
+
+    /**
+     * Get value by key. If there is no value in cache - computes it by mapping function and puts it into cache
+     * atomically. If mapping function returns null, nothing is put.
+     *
+     * @param key             key
+     * @param mappingFunction function computing value by key; must not access the cache
+     * @return current or computed value
+     */
+    @Override
+    public T computeIfAbsent(String key, Function<String, ? extends T> mappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(mappingFunction);
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        offerReadKey(key);
+        return computeValue(key, (x, currentValue) -> currentValue != null ? currentValue : mappingFunction.apply(x)).newValue;
+    }
+
+    /**
+     * Atomically computes value by key from the current value (null if cache does not contain the key).
+     * If remapping function returns null, the key is removed.
+     *
+     * @param key               key
+     * @param remappingFunction function computing value by key and current value; must not access the cache
+     * @return computed value
+     */
+    @Override
+    public T compute(String key, BiFunction<String, ? super T, ? extends T> remappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(remappingFunction);
 
-        LOGGER.trace("Putting object with key {} into cache", key);
-        cache.put(key, cachedObject);
+        return computeValue(key, remappingFunction).newValue;
+    }
+
+    /**
+     * Atomically puts value by key if cache does not contain the key, otherwise merges current value
+     * with the value by remapping function. If remapping function returns null, the key is removed.
+     *
+     * @param key               key
+     * @param value             value
+     * @param remappingFunction function merging current value and the value; must not access the cache
+     * @return merged value
+     */
+    @Override
+    public T merge(String key, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(value, remappingFunction);
+
+        return computeValue(key, (x, currentValue) -> currentValue != null ? remappingFunction.apply(currentValue, value) : value).newValue;
+    }
+
+    /**
+     * Replaces value by key if cache contains the key
+     *
+     * @param key   key
+     * @param value value
+     * @return replaced value, or null if cache does not contain the key
+     */
+    @Override
+    public T replace(String key, T value) {
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        return computeValue(key, (x, currentValue) -> currentValue != null ? value : null).currentValue;
+    }
+
+    /**
+     * Replaces value by key if current value equals to the old value
+     *
+     * @param key      key
+     * @param oldValue expected current value
+     * @param newValue new value
+     * @return true if value is replaced
+     */
+    @Override
+    public boolean replace(String key, T oldValue, T newValue) {
+        UtilityAssertions.assertInputObjectsNotNull(oldValue, newValue);
+
+        return oldValue.equals(computeValue(key, (x, currentValue) -> oldValue.equals(currentValue) ? newValue : currentValue).currentValue);
+    }
+
+    /**
+     * Put value by key in cache and tag the key. Tags replace previous tags of the key.
+     *
+     * @param key   key
+     * @param value value
+     * @param tags  tags
+     */
+    public void put(String key, T value, String... tags) {
+        UtilityAssertions.assertInputObjectsNotNull((Object) tags);
+
+        putValue(key, value, tags);
+    }
+
+    /**
+     * Removes object with key from cache
+     *
+     * @param key key
+     * @return true if cache contained the key
+     */
+    public boolean invalidate(String key) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        boolean invalidated;
+        synchronized (indexLock(key)) {
+            invalidated = cache.asMap().remove(key) != null;
+            invalidationIndex.onRemove(key);
+        }
+        removeKeysFromIndex();
+        return invalidated;
+    }
+
+    /**
+     * Removes all objects with keys tagged by tag
+     *
+     * @param tag tag
+     * @return number of removed objects
+     */
+    public int invalidateByTag(String tag) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(tag);
+
+        int invalidatedNumber = 0;
+        for (String key : invalidationIndex.removeTag(tag)) {
+            if (invalidate(key)) {
+                invalidatedNumber++;
+            }
+        }
+        LOGGER.trace("{} objects with tag {} are invalidated", invalidatedNumber, tag);
+        return invalidatedNumber;
+    }
+
+    /**
+     * Removes all objects with keys starting with prefix. Uses prefix index if it is enabled,
+     * otherwise scans cache keys.
+     *
+     * @param prefix prefix
+     * @return number of removed objects
+     */
+    public int invalidateByPrefix(String prefix) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(prefix);
+
+        Iterable<String> keys = invalidationIndex.hasPrefixIndex() ? invalidationIndex.keysByPrefix(prefix) : cache.asMap().keySet();
+        int invalidatedNumber = 0;
+        for (String key : keys) {
+            if (key.startsWith(prefix) && invalidate(key)) {
+                invalidatedNumber++;
+            }
+        }
+        LOGGER.trace("{} objects with prefix {} are invalidated", invalidatedNumber, prefix);
+        return invalidatedNumber;
     }
 
     /**
@@ -85,7 +370,55 @@ public class GuavaCacheService<T> implements CacheService<T> {
      */
     public void cacheCleanUp() {
         LOGGER.trace("Cleaning cache from obsolete entries");
+        CacheCleanUpEvent event = new CacheCleanUpEvent();
+        event.begin();
+        long sizeBeforeCleanUp = cache.size();
         cache.cleanUp();
+        removeKeysFromIndex();
+        if (event.shouldCommit()) {
+            event.cacheName = name;
+            event.incremental = false;
+            // Guava does not report how many objects its clean up scans
+            event.scannedObjectsNumber = CacheCleanUpEvent.UNKNOWN;
+            event.removedObjectsNumber = (int) Math.max(0, sizeBeforeCleanUp - cache.size());
+            event.commit();
+        }
+    }
+
+    /**
+     * Closes cache writer and removes all objects from cache. Guava cache has no background threads to stop.
+     * Closed cache service throws {@link IllegalStateException} on puts and atomic operations.
+     * Closing closed cache service does nothing.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        CacheEvents.unregisterStatistics(name);
+        if (cacheWriter != null) {
+            cacheWriter.close();
+        }
+        cache.invalidateAll();
+        cache.cleanUp();
+        LOGGER.info("CacheService is closed");
+    }
+
+    /**
+     * Returns weakly consistent stream of entries which are not expired. Streaming does not copy cache and
+     * does not count as an access. Guava cache map has no splittable spliterator, so parallel stream is split
+     * by batches of entries copied from its iterator.
+     *
+     * @return stream of entries
+     */
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        return StreamSupport.stream(new EntrySpliterator<Map.Entry<String, CachedObject<T>>, T>(
+                cache.asMap().entrySet().spliterator(), entry -> {
+            T value = entry.getValue().getValue();
+            return value != null ? Map.entry(entry.getKey(), value) : null;
+        }), false);
     }
 
     /**
@@ -94,7 +427,247 @@ public class GuavaCacheService<T> implements CacheService<T> {
      * @return cache statistics object
      */
     public CacheStatisticsObject returnCacheStatistics() {
-        return new CacheStatisticsObject(cache.stats().evictionCount(), cache.stats().averageLoadPenalty());
+        CacheStatisticsObject cacheStatisticsObject =
+                new CacheStatisticsObject(cache.stats().evictionCount(), cache.stats().averageLoadPenalty());
+        if (heavyHitters != null) {
+            cacheStatisticsObject = cacheStatisticsObject.withHotKeys(heavyHitters.returnHotKeys());
+        }
+        if (missRatioCurve != null) {
+            cacheStatisticsObject = cacheStatisticsObject.withHitRatioCurve(missRatioCurve.returnHitRatioCurve());
+        }
+        return cacheStatisticsObject;
+    }
+
+    /**
+     * Atomically computes value by key with one compute of cache map view. Remapping function gets current value,
+     * null if cache does not contain the key; unchanged value is kept as is. Changed value is written to the store
+     * after the compute holding the lock of the key only, and failed write rolls the change back.
+     *
+     * @param key               key
+     * @param remappingFunction function computing new value by key and current value
+     * @return computation with current and new values
+     */
+    private Computation<T> computeValue(String key, BiFunction<? super String, ? super T, ? extends T> remappingFunction) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        assertNotClosed();
+
+        offerHotKey(key);
+        Computation<T> computation = new Computation<>();
+        KeyLocks.KeyLock keyLock = lockKey(key);
+        CachedObject<T> cachedObject;
+        try {
+            cachedObject = cache.asMap().compute(key, (x, existingCachedObject) -> {
+                T currentValue = existingCachedObject != null ? existingCachedObject.getValue() : null;
+                T newValue = remappingFunction.apply(x, currentValue);
+                computation.previousCachedObject = existingCachedObject;
+                computation.currentValue = currentValue;
+                computation.newValue = newValue;
+                if (newValue == currentValue) {
+                    return existingCachedObject;
+                }
+                if (newValue == null) {
+                    invalidationIndex.onRemove(key);
+                    return null;
+                }
+                invalidationIndex.onPut(key);
+                return new CachedObject<>(newValue);
+            });
+            if (computation.newValue != computation.currentValue) {
+                writeChangeToStore(key, computation, cachedObject);
+            }
+        } finally {
+            unlockKey(keyLock);
+        }
+        removeKeysFromIndex();
+        return computation;
+    }
+
+    /**
+     * Removes keys of removed objects from invalidation index, unless the key has been put again since
+     */
+    private void removeKeysFromIndex() {
+        String key;
+        while ((key = removedKeys.poll()) != null) {
+            synchronized (indexLock(key)) {
+                if (!cache.asMap().containsKey(key)) {
+                    invalidationIndex.onRemove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns lock of the stripe of key, which guards put or invalidation of the key together with its index update
+     *
+     * @param key key
+     * @return lock of key stripe
+     */
+    private Object indexLock(String key) {
+        int hash = key.hashCode();
+        return indexLocks[(hash ^ (hash >>> 16)) & (INDEX_LOCKS_NUMBER - 1)];
+    }
+
+    /**
+     * Writes value to the store. If cache writer is not provided in Cache Service, does nothing.
+     *
+     * @param key   key
+     * @param value value
+     */
+    private void writeToStore(String key, T value) {
+        if (cacheWriter != null) {
+            cacheWriter.write(key, value);
+        }
+    }
+
+    /**
+     * Writes computed value to the store, or deletes removed value from it. If the store call fails, restores
+     * the previous cached object, unless the key has been removed or changed since, and rethrows the exception.
+     * If cache writer is not provided in Cache Service, does nothing.
+     *
+     * @param key          key
+     * @param computation  computation with previous cached object and new value
+     * @param cachedObject cached object of new value; null if the value is removed
+     */
+    private void writeChangeToStore(String key, Computation<T> computation, CachedObject<T> cachedObject) {
+        if (cacheWriter == null) {
+            return;
+        }
+        try {
+            if (computation.newValue != null) {
+                cacheWriter.write(key, computation.newValue);
+            } else {
+                cacheWriter.delete(key);
+            }
+        } catch (RuntimeException e) {
+            CachedObject<T> previousCachedObject = computation.previousCachedObject;
+            if (cachedObject == null) {
+                cache.asMap().computeIfAbsent(key, x -> {
+                    invalidationIndex.onPut(key);
+                    return previousCachedObject;
+                });
+            } else if (previousCachedObject == null) {
+                cache.asMap().computeIfPresent(key, (x, currentCachedObject) -> {
+                    if (currentCachedObject != cachedObject) {
+                        return currentCachedObject;
+                    }
+                    invalidationIndex.onRemove(key);
+                    return null;
+                });
+            } else {
+                cache.asMap().replace(key, cachedObject, previousCachedObject);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Locks key for writing it to the store. If cache writer is not provided in Cache Service, does nothing.
+     *
+     * @param key key
+     * @return held lock of the key, or null if cache writer is not provided
+     */
+    private KeyLocks.KeyLock lockKey(String key) {
+        return keyLocks != null ? keyLocks.lock(key) : null;
+    }
+
+    /**
+     * Unlocks key locked for writing it to the store
+     *
+     * @param keyLock held lock of the key; may be null
+     */
+    private static void unlockKey(KeyLocks.KeyLock keyLock) {
+        if (keyLock != null) {
+            keyLock.unlock();
+        }
+    }
+
+    /**
+     * Commits eviction event if it is enabled. Guava evicts objects one by one inside its segments,
+     * so every eviction is reported as a batch of one object.
+     *
+     * @param cause removal cause
+     */
+    private void commitEvictionEvent(RemovalCause cause) {
+        CacheEvictionEvent event = new CacheEvictionEvent();
+        if (event.shouldCommit()) {
+            event.cacheName = name;
+            event.evictedObjectsNumber = 1;
+            event.cause = cause.name();
+            event.commit();
+        }
+    }
+
+    /**
+     * Offers read key to hot keys tracker and miss ratio curve. If they are not provided in Cache Service, does nothing.
+     *
+     * @param key key
+     */
+    private void offerKey(String key) {
+        offerHotKey(key);
+        offerReadKey(key);
+    }
+
+    /**
+     * Offers read key to miss ratio curve. If miss ratio curve is not provided in Cache Service, does nothing.
+     *
+     * @param key key
+     */
+    private void offerReadKey(String key) {
+        if (missRatioCurve != null) {
+            missRatioCurve.offer(key);
+        }
+    }
+
+    /**
+     * Offers key to hot keys tracker. If hot keys tracker is not provided in Cache Service, does nothing.
+     * Writes are offered to hot keys tracker only: put after miss is not offered to miss ratio curve,
+     * so the miss is not counted twice.
+     *
+     * @param key key
+     */
+    private void offerHotKey(String key) {
+        if (heavyHitters != null) {
+            heavyHitters.offer(key);
+        }
+    }
+
+    /**
+     * Throws {@link IllegalStateException} if cache service is closed, so closed cache does not get new objects
+     */
+    private void assertNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Cache service is closed!");
+        }
+    }
+
+    /**
+     * Adapts time service to Guava ticker
+     *
+     * @param timeService time service; may be null
+     * @return ticker reading time service millis as nanos, or system ticker if time service is null
+     */
+    private static Ticker toTicker(TimeService timeService) {
+        if (timeService == null) {
+            return Ticker.systemTicker();
+        }
+        return new Ticker() {
+            @Override
+            public long read() {
+                return TimeUnit.MILLISECONDS.toNanos(timeService.getTimeWithSystemDefaultZoneEpochMilli());
+            }
+        };
+    }
+
+    /**
+     * Current and new values of one compute
+     *
+     * @param <T>
+     */
+    private static final class Computation<T> {
+
+        private CachedObject<T> previousCachedObject;
+        private T currentValue;
+        private T newValue;
     }
 
     /**
@@ -107,6 +680,12 @@ public class GuavaCacheService<T> implements CacheService<T> {
         private long maxCacheSize;
         private int timeoutInSec;
         private int concurrencyLevel;
+        private TimeService timeService;
+        private HeavyHitters heavyHitters;
+        private MissRatioCurve missRatioCurve;
+        private boolean prefixIndex;
+        private CacheWriter<T> cacheWriter;
+        private String name;
 
         /**
          * Set max cache size to builder
@@ -114,7 +693,7 @@ public class GuavaCacheService<T> implements CacheService<T> {
          * @param maxCacheSize max cache size
          * @return builder
          */
-        public GuavaCacheService.Builder<T> maxCacheSize(int maxCacheSize) {
+        public GuavaCacheService.Builder<T> maxCacheSize(long maxCacheSize) {
             this.maxCacheSize = maxCacheSize;
             return this;
         }
@@ -141,13 +720,81 @@ public class GuavaCacheService<T> implements CacheService<T> {
             return this;
         }
 
+        /**
+         * Set time service to builder
+         *
+         * @param timeService time service
+         * @return builder
+         */
+        public GuavaCacheService.Builder<T> timeService(TimeService timeService) {
+            this.timeService = timeService;
+            return this;
+        }
+
+        /**
+         * Set hot keys tracker to builder
+         *
+         * @param heavyHitters hot keys tracker
+         * @return builder
+         */
+        public GuavaCacheService.Builder<T> heavyHitters(HeavyHitters heavyHitters) {
+            this.heavyHitters = heavyHitters;
+            return this;
+        }
+
+        /**
+         * Set miss ratio curve to builder
+         *
+         * @param missRatioCurve estimator of hit ratios of hypothetical capacities by keys of gets;
+         *                       puts and other writes are not offered to it, so a miss is counted once
+         * @return builder
+         */
+        public GuavaCacheService.Builder<T> missRatioCurve(MissRatioCurve missRatioCurve) {
+            this.missRatioCurve = missRatioCurve;
+            return this;
+        }
+
+        /**
+         * Set prefix index to builder: keeps sorted set of keys, so prefix invalidation does not scan the cache
+         *
+         * @param prefixIndex whether to keep prefix index
+         * @return builder
+         */
+        public GuavaCacheService.Builder<T> prefixIndex(boolean prefixIndex) {
+            this.prefixIndex = prefixIndex;
+            return this;
+        }
+
+        /**
+         * Set cache writer to builder: puts write values to the store through it.
+         * Wrap it into write-behind cache writer to write behind
+         *
+         * @param cacheWriter cache writer
+         * @return builder
+         */
+        public GuavaCacheService.Builder<T> cacheWriter(CacheWriter<T> cacheWriter) {
+            this.cacheWriter = cacheWriter;
+            return this;
+        }
+
+        /**
+         * Set name to builder, used in Flight Recorder events
+         *
+         * @param name unique cache name; if null provided, default value = guava-N
+         * @return builder
+         */
+        public GuavaCacheService.Builder<T> name(String name) {
+            this.name = name;
+            return this;
+        }
+
         /**
          * Builds Guava Cache service instance
          *
          * @return Guava Cache service instance
          */
         public GuavaCacheService<T> build() {
-            return new GuavaCacheService<>(maxCacheSize, timeoutInSec, concurrencyLevel);
+            return new GuavaCacheService<>(this);
         }
     }
 }
@@ -0,0 +1,187 @@
+package com.cacheservice.hotkeys;
+
+import com.cacheservice.StripedReadBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Streaming top-K hot keys tracker based on Space-Saving algorithm (Metwally, Agrawal, El Abbadi).
+ * <p>
+ * Monitors a bounded number of counters kept in an indexed min-heap, so memory does not depend on key space
+ * and every sampled update takes O(log counters). When an unmonitored key arrives and all counters are taken,
+ * the counter with the minimal count is reassigned to the new key, and the minimal count becomes its error bound.
+ * <p>
+ * Only one of every sampleInterval offered keys is counted (chosen randomly), so non-sampled accesses cost
+ * a thread local random number only. Estimated counts and error bounds are scaled back by sampleInterval.
+ * The Space-Saving error bound holds for sampled counts only: with sampleInterval greater than 1 the scaled estimate
+ * also has a sampling error with standard deviation of about sqrt(count * (sampleInterval - 1)), which is not
+ * included in the reported error bound.
+ * <p>
+ * Sampled keys do not take the lock of the counters: they are offered to a striped read buffer which is applied
+ * by the thread finding its stripe full and getting the lock without waiting, and before hot keys are returned.
+ * Under contention a key offered to a full stripe is dropped, which lowers counts as sampling does.
+ */
+public class HeavyHitters {
+
+    private static final int COUNTERS_PER_TOP_KEY = 4;
+
+    private final int topK;
+    private final int sampleInterval;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final StripedReadBuffer<String> readBuffer = new StripedReadBuffer<>();
+    // created once, so draining does not allocate
+    private final Consumer<String> recorder = this::record;
+    // guarded by lock
+    private final Map<String, Counter> countersByKey;
+    private final Counter[] heap;
+    private int size;
+
+    /**
+     * Heavy hitters constructor
+     *
+     * @param topK           number of reported hot keys; if negative value or 0 provided, default value = 10
+     * @param sampleInterval one of sampleInterval accesses is counted; if negative value or 0 provided,
+     *                       every access is counted
+     */
+    public HeavyHitters(int topK, int sampleInterval) {
+        this.topK = topK > 0 ? topK : 10;
+        this.sampleInterval = sampleInterval > 0 ? sampleInterval : 1;
+        int countersNumber = this.topK * COUNTERS_PER_TOP_KEY;
+        this.countersByKey = new HashMap<>(countersNumber * 2);
+        this.heap = new Counter[countersNumber];
+    }
+
+    /**
+     * Offers accessed key to the tracker. Key is counted with probability 1 / sampleInterval.
+     *
+     * @param key accessed key
+     */
+    public void offer(String key) {
+        if (sampleInterval > 1 && ThreadLocalRandom.current().nextInt(sampleInterval) != 0) {
+            return;
+        }
+        if (readBuffer.offer(key) && lock.tryLock()) {
+            try {
+                readBuffer.drain(recorder);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void record(String key) {
+        Counter counter = countersByKey.get(key);
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.heapIndex);
+            return;
+        }
+
+        if (size < heap.length) {
+            counter = new Counter(key, 1, 0);
+            counter.heapIndex = size;
+            heap[size++] = counter;
+            countersByKey.put(key, counter);
+            siftUp(counter.heapIndex);
+            return;
+        }
+
+        Counter minCounter = heap[0];
+        countersByKey.remove(minCounter.key);
+        minCounter.key = key;
+        minCounter.error = minCounter.count;
+        minCounter.count++;
+        countersByKey.put(key, minCounter);
+        siftDown(0);
+    }
+
+    /**
+     * Returns top-K hot keys sorted by estimated count descending
+     *
+     * @return hot keys
+     */
+    public List<HotKey> returnHotKeys() {
+        Counter[] counters;
+        lock.lock();
+        try {
+            readBuffer.drain(recorder);
+            counters = new Counter[size];
+            for (int i = 0; i < size; i++) {
+                counters[i] = new Counter(heap[i].key, heap[i].count, heap[i].error);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(counters, Comparator.comparingLong((Counter counter) -> counter.count).reversed());
+
+        int hotKeysNumber = Math.min(topK, counters.length);
+        List<HotKey> hotKeys = new ArrayList<>(hotKeysNumber);
+        for (int i = 0; i < hotKeysNumber; i++) {
+            hotKeys.add(new HotKey(counters[i].key,
+                    counters[i].count * sampleInterval,
+                    counters[i].error * sampleInterval));
+        }
+        return hotKeys;
+    }
+
+    private void siftUp(int index) {
+        Counter counter = heap[index];
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            Counter parent = heap[parentIndex];
+            if (parent.count <= counter.count) {
+                break;
+            }
+            place(parent, index);
+            index = parentIndex;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            Counter child = heap[childIndex];
+            int rightIndex = childIndex + 1;
+            if (rightIndex < size && heap[rightIndex].count < child.count) {
+                childIndex = rightIndex;
+                child = heap[rightIndex];
+            }
+            if (counter.count <= child.count) {
+                break;
+            }
+            place(child, index);
+            index = childIndex;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter counter, int index) {
+        heap[index] = counter;
+        counter.heapIndex = index;
+    }
+
+    private static final class Counter {
+
+        private String key;
+        private long count;
+        private long error;
+        private int heapIndex;
+
+        private Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
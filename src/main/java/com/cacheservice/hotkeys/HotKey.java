@@ -0,0 +1,55 @@
+package com.cacheservice.hotkeys;
+
+/**
+ * Hot key reported by heavy hitters tracker. Has 3 fields:
+ * - key
+ * - estimated access count
+ * - error bound: estimated count overestimates the real count by at most this value. With sampling the bound
+ * applies to sampled counts scaled by the sample interval; sampling error is not included.
+ */
+public class HotKey {
+
+    private final String key;
+    private final long estimatedCount;
+    private final long errorBound;
+
+    /**
+     * Hot key constructor
+     *
+     * @param key            key
+     * @param estimatedCount estimated access count
+     * @param errorBound     max overestimation of (sampled) access count
+     */
+    public HotKey(String key, long estimatedCount, long errorBound) {
+        this.key = key;
+        this.estimatedCount = estimatedCount;
+        this.errorBound = errorBound;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getEstimatedCount() {
+        return estimatedCount;
+    }
+
+    public long getErrorBound() {
+        return errorBound;
+    }
+
+    /**
+     * Returns access count the key is guaranteed to have. With sampling it is guaranteed for sampled count only
+     * and the real count may differ by sampling error.
+     *
+     * @return estimated count minus error bound
+     */
+    public long getGuaranteedCount() {
+        return estimatedCount - errorBound;
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + estimatedCount + " (error <= " + errorBound + ")";
+    }
+}
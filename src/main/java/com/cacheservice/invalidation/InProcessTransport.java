@@ -0,0 +1,68 @@
+package com.cacheservice.invalidation;
+
+import com.cacheservice.UtilityAssertions;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transport of invalidation bus messages between nodes of one JVM, standing in for network transport in tests.
+ * Nodes join group of transports; message sent by node is delivered to the other nodes of the group
+ * by the sending thread, without loss and in order.
+ */
+public class InProcessTransport implements InvalidationTransport {
+
+    private final Group group;
+    private volatile Consumer<byte[]> receiver;
+
+    private InProcessTransport(Group group) {
+        this.group = group;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        UtilityAssertions.assertInputObjectsNotNull(receiver);
+
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void send(byte[] message) {
+        UtilityAssertions.assertInputObjectsNotNull(message);
+
+        for (InProcessTransport transport : group.transports) {
+            Consumer<byte[]> transportReceiver = transport.receiver;
+            if (transport != this && transportReceiver != null) {
+                transportReceiver.accept(message);
+            }
+        }
+    }
+
+    /**
+     * Leaves group of transports
+     */
+    @Override
+    public void close() {
+        group.transports.remove(this);
+    }
+
+    /**
+     * Group of in-process transports delivering messages to each other
+     */
+    public static class Group {
+
+        private final List<InProcessTransport> transports = new CopyOnWriteArrayList<>();
+
+        /**
+         * Creates transport of new node of the group
+         *
+         * @return transport
+         */
+        public InProcessTransport join() {
+            InProcessTransport transport = new InProcessTransport(this);
+            transports.add(transport);
+            return transport;
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package com.cacheservice.invalidation;
+
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.compression.Codec;
+import com.cacheservice.compression.DeflateCodec;
+import com.cacheservice.simplejava.MaintenanceScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+
+/**
+ * Invalidation bus keeping near caches of nodes coherent: keys changed on one node are invalidated
+ * in caches of the other nodes.
+ * <p>
+ * Published keys are queued, coalescing repeated keys, and sent by transport in batches when batch size keys
+ * are queued or flush interval has passed. Batches are compressed and sent by sender thread of the bus, so slow
+ * or blocked transport delays neither publishing threads nor maintenance scheduler. Batch is compressed by codec
+ * if it gets smaller. Every batch of node has the next sequence number; receivers apply batches asynchronously
+ * on applier thread. When receiver sees sequence gap, i.e. batch of the sender is lost, it flushes its whole
+ * cache, because it does not know which keys are stale. Late, duplicated and malformed batches are ignored.
+ * The first batch of unknown sender is expected to have sequence number 1, so a node joining running nodes flushes
+ * its cache once per sender. Loss of the last batch leaves no gap until the next batch, so sender which has not sent
+ * batches for heartbeat interval announces sequence number of its last batch by heartbeat message.
+ */
+public class InvalidationBus implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InvalidationBus.class.getName());
+
+    private static final AtomicInteger BUS_NUMBER = new AtomicInteger();
+    // batch with header fits into UDP datagram even if it is not compressed
+    private static final int MAX_BATCH_BYTES = 60_000;
+    // batch is either keys of max batch bytes or one key of max UTF length with 2 bytes of length
+    private static final int MAX_PAYLOAD_BYTES = Math.max(MAX_BATCH_BYTES, 2 + 65_535);
+    private static final byte COMPRESSED = 1;
+    private static final byte HEARTBEAT = 2;
+
+    private final InvalidationTransport transport;
+    private final Codec codec;
+    private final int batchSize;
+    private final long nodeId = UUID.randomUUID().getMostSignificantBits();
+    private final ScheduledFuture<?> flushTask;
+    private final ScheduledFuture<?> heartbeatTask;
+    private final ExecutorService sender;
+    private final ExecutorService applier;
+
+    // guarded by this
+    private final LinkedHashSet<String> pendingKeys = new LinkedHashSet<>();
+    private boolean closed;
+
+    private final AtomicBoolean sendRequested = new AtomicBoolean();
+    // accessed by sender thread only
+    private long sequence;
+    private boolean sentSinceHeartbeat;
+
+    // accessed by applier thread only
+    private final Map<Long, Long> lastSequences = new HashMap<>();
+    private Consumer<String> invalidator;
+    private Runnable flusher;
+
+    private final AtomicLong publishedNumber = new AtomicLong();
+    private final AtomicLong coalescedNumber = new AtomicLong();
+    private final AtomicLong sentBatchesNumber = new AtomicLong();
+    private final AtomicLong sentHeartbeatsNumber = new AtomicLong();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong appliedNumber = new AtomicLong();
+    private final AtomicLong ignoredBatchesNumber = new AtomicLong();
+    private final AtomicLong fullFlushesNumber = new AtomicLong();
+
+    /**
+     * Invalidation bus constructor
+     *
+     * @param builder builder with invalidation bus settings
+     */
+    private InvalidationBus(Builder builder) {
+        UtilityAssertions.assertInputObjectsNotNull(builder.transport);
+        this.transport = builder.transport;
+        this.codec = builder.codec != null ? builder.codec : new DeflateCodec(Deflater.BEST_SPEED);
+        this.batchSize = builder.batchSize > 0 ? builder.batchSize : 1000;
+
+        int busNumber = BUS_NUMBER.incrementAndGet();
+        this.sender = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-bus-sender-" + busNumber);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.applier = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-bus-" + busNumber);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // scheduled tasks only hand work to sender thread, so they do not occupy maintenance scheduler
+        MaintenanceScheduler maintenanceScheduler = builder.maintenanceScheduler != null
+                ? builder.maintenanceScheduler : MaintenanceScheduler.sharedScheduler();
+        this.flushTask = maintenanceScheduler.schedule(() -> executeBySender(() -> sendPending(false)),
+                builder.flushIntervalInMillis > 0 ? builder.flushIntervalInMillis : 10);
+        this.heartbeatTask = maintenanceScheduler.schedule(() -> executeBySender(this::sendHeartbeat),
+                builder.heartbeatIntervalInMillis > 0 ? builder.heartbeatIntervalInMillis : 1000);
+    }
+
+    /**
+     * Subscribes cache of this node to invalidations of the other nodes and starts transport
+     *
+     * @param invalidator invalidator of key in cache, which must not publish the key
+     * @param flusher     flusher of the whole cache, which must not publish keys
+     */
+    public synchronized void subscribe(Consumer<String> invalidator, Runnable flusher) {
+        UtilityAssertions.assertInputObjectsNotNull(invalidator, flusher);
+        if (this.invalidator != null) {
+            throw new IllegalStateException("Invalidation bus already has subscriber!");
+        }
+
+        // applier thread sees subscriber, because it is started by the first receive after this
+        this.invalidator = invalidator;
+        this.flusher = flusher;
+        transport.start(this::receive);
+    }
+
+    /**
+     * Queues invalidation of key in caches of the other nodes. If the key is already queued, does not queue it again.
+     * Full batch is sent by sender thread, so publishing thread does not wait for transport.
+     *
+     * @param key key
+     */
+    public void publish(String key) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        boolean batchIsFull;
+        synchronized (this) {
+            if (!pendingKeys.add(key)) {
+                coalescedNumber.incrementAndGet();
+            }
+            batchIsFull = pendingKeys.size() >= batchSize;
+        }
+        publishedNumber.incrementAndGet();
+        if (batchIsFull && sendRequested.compareAndSet(false, true)) {
+            executeBySender(() -> sendPending(true));
+        }
+    }
+
+    /**
+     * Sends all queued invalidations by sender thread and waits until they are sent. Failed send is logged;
+     * receivers detect it as sequence gap. If the bus is closed, does nothing.
+     */
+    public void flush() {
+        Future<?> sent;
+        try {
+            sent = sender.submit(() -> sendPending(false));
+        } catch (RejectedExecutionException e) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                sent.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                LOGGER.error("Queued invalidations are not sent", e.getCause());
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends queued invalidations, stops flushing and applying invalidations and closes transport.
+     * Closing closed bus does nothing.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flushTask.cancel(false);
+        heartbeatTask.cancel(false);
+        flush();
+        sender.shutdown();
+        transport.close();
+        applier.shutdown();
+        LOGGER.info("Invalidation bus is closed. Published: {}, coalesced: {}, sent in {} batches of {} bytes, applied: {}, full flushes: {}",
+                getPublishedNumber(), getCoalescedNumber(), getSentBatchesNumber(), getSentBytes(), getAppliedNumber(),
+                getFullFlushesNumber());
+    }
+
+    /**
+     * Returns number of published invalidations
+     *
+     * @return number of published invalidations
+     */
+    public long getPublishedNumber() {
+        return publishedNumber.get();
+    }
+
+    /**
+     * Returns number of published invalidations of keys which were already queued
+     *
+     * @return number of coalesced invalidations
+     */
+    public long getCoalescedNumber() {
+        return coalescedNumber.get();
+    }
+
+    /**
+     * Returns number of sent batches
+     *
+     * @return number of sent batches
+     */
+    public long getSentBatchesNumber() {
+        return sentBatchesNumber.get();
+    }
+
+    /**
+     * Returns number of sent heartbeats announcing sequence number of the last batch
+     *
+     * @return number of sent heartbeats
+     */
+    public long getSentHeartbeatsNumber() {
+        return sentHeartbeatsNumber.get();
+    }
+
+    /**
+     * Returns bytes of sent batches
+     *
+     * @return sent bytes
+     */
+    public long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    /**
+     * Returns bytes which sent batches would take without compression
+     *
+     * @return uncompressed bytes
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+
+    /**
+     * Returns number of invalidations of the other nodes applied to cache of this node
+     *
+     * @return number of applied invalidations
+     */
+    public long getAppliedNumber() {
+        return appliedNumber.get();
+    }
+
+    /**
+     * Returns number of late, duplicated and malformed batches which were ignored
+     *
+     * @return number of ignored batches
+     */
+    public long getIgnoredBatchesNumber() {
+        return ignoredBatchesNumber.get();
+    }
+
+    /**
+     * Returns number of flushes of the whole cache caused by sequence gaps
+     *
+     * @return number of full flushes
+     */
+    public long getFullFlushesNumber() {
+        return fullFlushesNumber.get();
+    }
+
+    private void executeBySender(Runnable task) {
+        try {
+            sender.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.trace("Invalidation bus is closed. Task is dropped");
+        }
+    }
+
+    /**
+     * Sends queued invalidations in batches. Batches are taken under the lock of the queue and sent outside it,
+     * so publishing threads are not blocked by transport. Called by sender thread.
+     *
+     * @param fullBatchesOnly whether only full batches are sent, and the rest waits for flush
+     */
+    private void sendPending(boolean fullBatchesOnly) {
+        if (fullBatchesOnly) {
+            sendRequested.set(false);
+        }
+        while (true) {
+            List<String> keys;
+            synchronized (this) {
+                if (pendingKeys.isEmpty() || fullBatchesOnly && pendingKeys.size() < batchSize) {
+                    return;
+                }
+                keys = takeBatch();
+            }
+            try {
+                sendBatch(keys);
+            } catch (RuntimeException e) {
+                LOGGER.error("Batch of {} invalidations is not sent", keys.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Sends heartbeat with sequence number of the last batch if no batch was sent since the previous heartbeat.
+     * Called by sender thread.
+     */
+    private void sendHeartbeat() {
+        if (sentSinceHeartbeat || sequence == 0) {
+            sentSinceHeartbeat = false;
+            return;
+        }
+        try {
+            transport.send(message(sequence, HEARTBEAT, 0, 0, new byte[0]));
+            sentHeartbeatsNumber.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Heartbeat of batch {} is not sent", sequence, e);
+        }
+    }
+
+    /**
+     * Takes batch of keys from the queue. Batch ends earlier if its keys would not fit into max batch bytes.
+     *
+     * @return keys
+     */
+    private List<String> takeBatch() {
+        List<String> keys = new ArrayList<>(Math.min(batchSize, pendingKeys.size()));
+        int batchBytes = 0;
+        Iterator<String> iterator = pendingKeys.iterator();
+        while (iterator.hasNext() && keys.size() < batchSize) {
+            String key = iterator.next();
+            // UTF-8 takes at most 3 bytes per char, plus 2 bytes of length
+            int keyBytes = 2 + key.length() * 3;
+            if (!keys.isEmpty() && batchBytes + keyBytes > MAX_BATCH_BYTES) {
+                break;
+            }
+            keys.add(key);
+            iterator.remove();
+            batchBytes += keyBytes;
+        }
+        return keys;
+    }
+
+    /**
+     * Sends batch of keys with the next sequence number, compressed if it gets smaller. Called by sender thread.
+     *
+     * @param keys keys
+     */
+    private void sendBatch(List<String> keys) {
+        long batchSequence = ++sequence;
+        sentSinceHeartbeat = true;
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            DataOutputStream payloadOutput = new DataOutputStream(payloadBytes);
+            for (String key : keys) {
+                payloadOutput.writeUTF(key);
+            }
+            byte[] payload = payloadBytes.toByteArray();
+            byte[] compressedPayload = codec.compress(payload);
+            boolean compressed = compressedPayload.length < payload.length;
+            byte[] body = compressed ? compressedPayload : payload;
+            byte[] message = message(batchSequence, compressed ? COMPRESSED : 0, keys.size(), payload.length, body);
+
+            transport.send(message);
+            sentBatchesNumber.incrementAndGet();
+            sentBytes.addAndGet(message.length);
+            uncompressedBytes.addAndGet(message.length - body.length + payload.length);
+            LOGGER.trace("Batch {} of {} invalidations is sent in {} bytes", batchSequence, keys.size(), message.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds message of this node
+     *
+     * @param messageSequence sequence number of batch, or of the last batch for heartbeat
+     * @param flags           COMPRESSED, HEARTBEAT or 0
+     * @param keysNumber      number of keys
+     * @param payloadLength   length of uncompressed payload
+     * @param body            payload, compressed if it is flagged
+     * @return message
+     */
+    private byte[] message(long messageSequence, byte flags, int keysNumber, int payloadLength, byte[] body) throws IOException {
+        ByteArrayOutputStream messageBytes = new ByteArrayOutputStream(body.length + 29);
+        DataOutputStream messageOutput = new DataOutputStream(messageBytes);
+        messageOutput.writeLong(nodeId);
+        messageOutput.writeLong(messageSequence);
+        messageOutput.writeByte(flags);
+        messageOutput.writeInt(keysNumber);
+        messageOutput.writeInt(payloadLength);
+        messageOutput.writeInt(body.length);
+        messageOutput.write(body);
+        return messageBytes.toByteArray();
+    }
+
+    /**
+     * Hands received message to applier thread. Called by transport thread.
+     *
+     * @param message message
+     */
+    private void receive(byte[] message) {
+        try {
+            applier.execute(() -> apply(message));
+        } catch (RejectedExecutionException e) {
+            LOGGER.trace("Invalidation bus is closed. Message is dropped");
+        }
+    }
+
+    /**
+     * Applies batch of invalidations of the other node, flushing the whole cache if batches of the node are lost
+     *
+     * @param message message
+     */
+    private void apply(byte[] message) {
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(message));
+            long senderId = input.readLong();
+            long batchSequence = input.readLong();
+            if (senderId == nodeId) {
+                return;
+            }
+            byte flags = input.readByte();
+            boolean heartbeat = flags == HEARTBEAT;
+            boolean compressed = flags == COMPRESSED;
+            int keysNumber = input.readInt();
+            int payloadLength = input.readInt();
+            int bodyLength = input.readInt();
+            // lengths come from the network, so they are checked before allocation
+            if (payloadLength < 0 || payloadLength > MAX_PAYLOAD_BYTES
+                    || bodyLength < 0 || bodyLength > payloadLength || bodyLength != input.available()) {
+                ignoredBatchesNumber.incrementAndGet();
+                LOGGER.warn("Message {} of node {} has invalid length. Ignoring it", batchSequence, senderId);
+                return;
+            }
+            byte[] body = new byte[bodyLength];
+            input.readFully(body);
+
+            long expectedSequence = lastSequences.getOrDefault(senderId, 0L) + 1;
+            // heartbeat carries sequence number of the last sent batch, batch carries its own one
+            long lastSentSequence = heartbeat ? batchSequence : batchSequence - 1;
+            if (lastSentSequence < expectedSequence - 1) {
+                if (!heartbeat) {
+                    ignoredBatchesNumber.incrementAndGet();
+                }
+                LOGGER.trace("Message {} of node {} is late or duplicated. Ignoring it", batchSequence, senderId);
+                return;
+            }
+            if (lastSentSequence >= expectedSequence) {
+                LOGGER.warn("Batches {}..{} of node {} are lost. Flushing cache", expectedSequence, lastSentSequence, senderId);
+                fullFlushesNumber.incrementAndGet();
+                flusher.run();
+            }
+            lastSequences.put(senderId, batchSequence);
+            if (heartbeat) {
+                return;
+            }
+
+            byte[] payload = compressed ? codec.decompress(body, payloadLength) : body;
+            DataInputStream keys = new DataInputStream(new ByteArrayInputStream(payload));
+            for (int i = 0; i < keysNumber; i++) {
+                invalidator.accept(keys.readUTF());
+                appliedNumber.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Invalidation message is not applied", e);
+        }
+    }
+
+    /**
+     * Builder for invalidation bus
+     */
+    public static class Builder {
+
+        private InvalidationTransport transport;
+        private Codec codec;
+        private int batchSize;
+        private long flushIntervalInMillis;
+        private long heartbeatIntervalInMillis;
+        private MaintenanceScheduler maintenanceScheduler;
+
+        /**
+         * Set transport to builder
+         *
+         * @param transport transport of messages between nodes
+         * @return builder
+         */
+        public Builder transport(InvalidationTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * Set compression codec of batches to builder
+         *
+         * @param codec compression codec; if null provided, default value = Deflate with best speed
+         * @return builder
+         */
+        public Builder codec(Codec codec) {
+            this.codec = codec;
+            return this;
+        }
+
+        /**
+         * Set batch size to builder
+         *
+         * @param batchSize max number of invalidations in one batch; if negative value or 0 provided,
+         *                  default value = 1000
+         * @return builder
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Set flush interval in millis to builder
+         *
+         * @param flushIntervalInMillis max time queued invalidations wait for batch in millis;
+         *                              if negative value or 0 provided, default value = 10
+         * @return builder
+         */
+        public Builder flushIntervalInMillis(long flushIntervalInMillis) {
+            this.flushIntervalInMillis = flushIntervalInMillis;
+            return this;
+        }
+
+        /**
+         * Set heartbeat interval in millis to builder
+         *
+         * @param heartbeatIntervalInMillis interval of announcing sequence number of the last batch when no batch
+         *                                  was sent, so receivers detect loss of the last batch;
+         *                                  if negative value or 0 provided, default value = 1000
+         * @return builder
+         */
+        public Builder heartbeatIntervalInMillis(long heartbeatIntervalInMillis) {
+            this.heartbeatIntervalInMillis = heartbeatIntervalInMillis;
+            return this;
+        }
+
+        /**
+         * Set maintenance scheduler flushing queued invalidations to builder
+         *
+         * @param maintenanceScheduler maintenance scheduler; if null provided, shared scheduler is used
+         * @return builder
+         */
+        public Builder maintenanceScheduler(MaintenanceScheduler maintenanceScheduler) {
+            this.maintenanceScheduler = maintenanceScheduler;
+            return this;
+        }
+
+        /**
+         * Builds invalidation bus and starts flushing queued invalidations
+         *
+         * @return invalidation bus
+         */
+        public InvalidationBus build() {
+            return new InvalidationBus(this);
+        }
+    }
+}
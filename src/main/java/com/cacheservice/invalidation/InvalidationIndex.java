@@ -0,0 +1,133 @@
+package com.cacheservice.invalidation;
+
+import com.cacheservice.UtilityAssertions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Secondary index of cache keys for bulk invalidation:
+ * - tag index: tag to keys and key to tags (for clean up when key is removed)
+ * - optional prefix index: sorted set of all keys, so keys with prefix are found without full scan.
+ * Without prefix index, cache service finds keys by prefix scanning its keys.
+ * <p>
+ * Index is weakly consistent with cache: key removed from cache concurrently with tagging it may stay in the index
+ * until its tag is invalidated, which is harmless because invalidation of absent key does nothing.
+ */
+public class InvalidationIndex {
+
+    private static final String[] NO_TAGS = new String[0];
+
+    private final Map<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    private final Map<String, String[]> tagsByKey = new ConcurrentHashMap<>();
+    private final NavigableSet<String> sortedKeys;
+
+    /**
+     * Invalidation index constructor
+     *
+     * @param prefixIndex whether to keep sorted set of all keys for prefix invalidation
+     */
+    public InvalidationIndex(boolean prefixIndex) {
+        this.sortedKeys = prefixIndex ? new ConcurrentSkipListSet<>() : null;
+    }
+
+    /**
+     * Indexes put key. If tags are provided, they replace previous tags of the key;
+     * otherwise previous tags are kept.
+     *
+     * @param key  key
+     * @param tags tags
+     */
+    public void onPut(String key, String... tags) {
+        if (sortedKeys != null) {
+            sortedKeys.add(key);
+        }
+        if (tags.length == 0) {
+            return;
+        }
+        for (String tag : tags) {
+            UtilityAssertions.assertInputStringsNotBlankOrNull(tag);
+        }
+
+        String[] previousTags = tagsByKey.put(key, tags.clone());
+        removeFromTags(key, previousTags != null ? previousTags : NO_TAGS);
+        for (String tag : tags) {
+            // add inside compute, so it can not race with removal of emptied key set
+            keysByTag.compute(tag, (x, keys) -> {
+                Set<String> tagKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                tagKeys.add(key);
+                return tagKeys;
+            });
+        }
+    }
+
+    /**
+     * Removes key from index
+     *
+     * @param key key
+     */
+    public void onRemove(String key) {
+        if (sortedKeys != null) {
+            sortedKeys.remove(key);
+        }
+        String[] tags = tagsByKey.remove(key);
+        if (tags != null) {
+            removeFromTags(key, tags);
+        }
+    }
+
+    /**
+     * Removes tag from index and returns keys which had the tag
+     *
+     * @param tag tag
+     * @return keys
+     */
+    public Set<String> removeTag(String tag) {
+        Set<String> keys = keysByTag.remove(tag);
+        return keys != null ? keys : Collections.emptySet();
+    }
+
+    /**
+     * Returns whether index keeps sorted set of all keys
+     *
+     * @return true if prefix index is kept
+     */
+    public boolean hasPrefixIndex() {
+        return sortedKeys != null;
+    }
+
+    /**
+     * Returns keys with prefix from prefix index
+     *
+     * @param prefix prefix
+     * @return keys
+     */
+    public List<String> keysByPrefix(String prefix) {
+        if (sortedKeys == null) {
+            throw new IllegalStateException("Prefix index is not enabled!");
+        }
+        List<String> keys = new ArrayList<>();
+        for (String key : sortedKeys.tailSet(prefix, true)) {
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    private void removeFromTags(String key, String[] tags) {
+        for (String tag : tags) {
+            keysByTag.computeIfPresent(tag, (x, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.cacheservice.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport of invalidation bus messages between nodes.
+ * <p>
+ * Message sent by node is delivered to the other nodes, not to the sender. Delivery may lose and reorder
+ * messages: invalidation bus detects lost messages by their sequence numbers.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    /**
+     * Starts delivering messages of other nodes to receiver. Receiver is called by transport thread
+     * and must not block.
+     *
+     * @param receiver receiver of messages
+     */
+    void start(Consumer<byte[]> receiver);
+
+    /**
+     * Sends message to the other nodes
+     *
+     * @param message message
+     */
+    void send(byte[] message);
+
+    /**
+     * Stops delivering and sending messages. Does nothing by default.
+     */
+    @Override
+    default void close() {
+    }
+}
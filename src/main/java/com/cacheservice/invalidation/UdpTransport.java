@@ -0,0 +1,119 @@
+package com.cacheservice.invalidation;
+
+import com.cacheservice.UtilityAssertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * UDP transport of invalidation bus messages between nodes on loopback interface, e.g. service instances
+ * sharing one host. Every message is one datagram sent to each peer; datagrams may be lost or reordered.
+ */
+public class UdpTransport implements InvalidationTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UdpTransport.class.getName());
+
+    // max payload of UDP datagram
+    private static final int MAX_DATAGRAM_SIZE = 65_507;
+
+    private final DatagramSocket socket;
+    private final List<InetSocketAddress> peers = new CopyOnWriteArrayList<>();
+    private Thread receiverThread;
+
+    /**
+     * UDP transport constructor. Binds socket to the port of loopback address.
+     *
+     * @param port port; if 0 provided, ephemeral port is bound
+     */
+    public UdpTransport(int port) {
+        try {
+            this.socket = new DatagramSocket(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (SocketException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds peer node listening on the port of loopback address
+     *
+     * @param port port of peer
+     */
+    public void addPeer(int port) {
+        peers.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Returns bound port
+     *
+     * @return port
+     */
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public synchronized void start(Consumer<byte[]> receiver) {
+        UtilityAssertions.assertInputObjectsNotNull(receiver);
+        if (receiverThread != null) {
+            throw new IllegalStateException("UDP transport is already started!");
+        }
+
+        receiverThread = new Thread(() -> receive(receiver), "invalidation-udp-" + getPort());
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    @Override
+    public void send(byte[] message) {
+        UtilityAssertions.assertInputObjectsNotNull(message);
+        if (message.length > MAX_DATAGRAM_SIZE) {
+            throw new IllegalArgumentException("Message does not fit into UDP datagram!");
+        }
+
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(message, message.length, peer));
+            } catch (IOException e) {
+                // lost datagram is detected by receiver as sequence gap
+                LOGGER.warn("Invalidation message is not sent to {}", peer, e);
+            }
+        }
+    }
+
+    /**
+     * Closes socket, which stops receiver thread
+     */
+    @Override
+    public void close() {
+        socket.close();
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!socket.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                receiver.accept(Arrays.copyOfRange(buffer, packet.getOffset(), packet.getOffset() + packet.getLength()));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    LOGGER.warn("Invalidation message is not received", e);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Invalidation message is not delivered", e);
+            }
+        }
+    }
+}
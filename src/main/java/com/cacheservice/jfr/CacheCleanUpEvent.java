@@ -0,0 +1,30 @@
+package com.cacheservice.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Clean up of cache from obsolete objects: full clean up or time sliced maintenance run
+ */
+@Name("com.cacheservice.CleanUp")
+@Label("Cache Clean Up")
+@Description("Clean up of cache from obsolete objects: full clean up or time sliced maintenance run")
+public class CacheCleanUpEvent extends CacheEvent {
+
+    /**
+     * Value of number fields which cache service does not know
+     */
+    public static final int UNKNOWN = -1;
+
+    @Label("Incremental")
+    @Description("Whether it is a time sliced maintenance run")
+    public boolean incremental;
+
+    @Label("Scanned Objects")
+    @Description("Number of objects scanned by clean up, or -1 if cache does not report it (Guava)")
+    public int scannedObjectsNumber;
+
+    @Label("Removed Objects")
+    public int removedObjectsNumber;
+}
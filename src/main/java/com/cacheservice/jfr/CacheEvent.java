@@ -0,0 +1,19 @@
+package com.cacheservice.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of cache service Flight Recorder events: every event carries the name of the cache service.
+ * <p>
+ * Events cost almost nothing when they are disabled or shorter than their threshold: cache services check
+ * {@link #shouldCommit()} before filling event fields. Events of get, put and listener dispatch are created
+ * only while {@link CacheEvents#isRecording()}, so these hot paths do not allocate without recording.
+ */
+@Category("Cache Service")
+public abstract class CacheEvent extends Event {
+
+    @Label("Cache Name")
+    public String cacheName;
+}
@@ -0,0 +1,124 @@
+package com.cacheservice.jfr;
+
+import com.cacheservice.CacheStatisticsObject;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Utility class registering cache services for periodic statistics event and naming them in events.
+ * <p>
+ * One periodic hook emits statistics event of every registered cache service. Whether any recording is running
+ * is tracked by recorder listener, so hot paths create events only while recording.
+ */
+public final class CacheEvents {
+
+    private static final AtomicInteger CACHE_NUMBER = new AtomicInteger();
+    private static final Map<String, StatisticsSource> STATISTICS_SOURCES = new ConcurrentHashMap<>();
+    private static volatile boolean recording;
+
+    static {
+        if (FlightRecorder.isAvailable()) {
+            FlightRecorder.addPeriodicEvent(CacheStatisticsEvent.class, CacheEvents::emitStatistics);
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recorderInitialized(FlightRecorder recorder) {
+                    updateRecording(recorder);
+                }
+
+                @Override
+                public void recordingStateChanged(Recording changedRecording) {
+                    updateRecording(FlightRecorder.getFlightRecorder());
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns whether any Flight Recorder recording is running. Events of hot paths are created only while
+     * recording: once events were committed, JIT may no longer eliminate allocation of not committed events.
+     *
+     * @return true if any recording is running
+     */
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Returns unique cache name for events of cache service which is not given a name
+     *
+     * @param cacheType cache type, e.g. simple
+     * @return cache name
+     */
+    public static String defaultCacheName(String cacheType) {
+        return cacheType + "-" + CACHE_NUMBER.incrementAndGet();
+    }
+
+    /**
+     * Registers cache service for periodic statistics event. Registration with the name of registered cache
+     * service replaces it, so cache names should be unique.
+     *
+     * @param cacheName  cache name
+     * @param size       supplier of cache size
+     * @param statistics supplier of cache statistics
+     */
+    public static void registerStatistics(String cacheName, LongSupplier size, Supplier<CacheStatisticsObject> statistics) {
+        STATISTICS_SOURCES.put(cacheName, new StatisticsSource(size, statistics));
+    }
+
+    /**
+     * Unregisters cache service from periodic statistics event
+     *
+     * @param cacheName cache name
+     */
+    public static void unregisterStatistics(String cacheName) {
+        STATISTICS_SOURCES.remove(cacheName);
+    }
+
+    private static void updateRecording(FlightRecorder recorder) {
+        recording = recorder.getRecordings().stream()
+                .anyMatch(runningRecording -> runningRecording.getState() == RecordingState.RUNNING);
+    }
+
+    private static void emitStatistics() {
+        STATISTICS_SOURCES.forEach((cacheName, statisticsSource) -> {
+            CacheStatisticsEvent event = new CacheStatisticsEvent();
+            if (!event.isEnabled()) {
+                return;
+            }
+            CacheStatisticsObject cacheStatisticsObject = statisticsSource.statistics.get();
+            event.cacheName = cacheName;
+            event.size = statisticsSource.size.getAsLong();
+            event.evictionCount = cacheStatisticsObject.getEvictionCount();
+            event.averageLoadPenalty = cacheStatisticsObject.getAverageLoadPenalty();
+            event.effectiveCapacity = cacheStatisticsObject.getEffectiveCapacity();
+            event.maintenanceRunsNumber = cacheStatisticsObject.getMaintenanceRunsNumber();
+            event.commit();
+        });
+    }
+
+    /**
+     * Suppliers of cache size and statistics
+     */
+    private static final class StatisticsSource {
+
+        private final LongSupplier size;
+        private final Supplier<CacheStatisticsObject> statistics;
+
+        private StatisticsSource(LongSupplier size, Supplier<CacheStatisticsObject> statistics) {
+            this.size = size;
+            this.statistics = statistics;
+        }
+    }
+
+    private CacheEvents() {
+        throw new AssertionError("CacheEvents constructor should not be used!");
+    }
+}
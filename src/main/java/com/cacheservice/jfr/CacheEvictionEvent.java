@@ -0,0 +1,20 @@
+package com.cacheservice.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Batch of objects evicted at once
+ */
+@Name("com.cacheservice.Eviction")
+@Label("Cache Eviction")
+@Description("Batch of objects evicted at once")
+public class CacheEvictionEvent extends CacheEvent {
+
+    @Label("Evicted Objects")
+    public int evictedObjectsNumber;
+
+    @Label("Cause")
+    public String cause;
+}
@@ -0,0 +1,22 @@
+package com.cacheservice.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Get call slower than threshold (10 ms by default, configurable in recording settings)
+ */
+@Name("com.cacheservice.Get")
+@Label("Cache Get")
+@Description("Get call slower than threshold")
+@Threshold("10 ms")
+public class CacheGetEvent extends CacheEvent {
+
+    @Label("Key")
+    public String key;
+
+    @Label("Hit")
+    public boolean hit;
+}
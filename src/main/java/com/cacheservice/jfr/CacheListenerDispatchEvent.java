@@ -0,0 +1,22 @@
+package com.cacheservice.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Dispatch of cache event to listeners slower than threshold (1 ms by default, configurable in recording settings)
+ */
+@Name("com.cacheservice.ListenerDispatch")
+@Label("Cache Listener Dispatch")
+@Description("Dispatch of cache event to listeners slower than threshold")
+@Threshold("1 ms")
+public class CacheListenerDispatchEvent extends CacheEvent {
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Listeners")
+    public int listenersNumber;
+}
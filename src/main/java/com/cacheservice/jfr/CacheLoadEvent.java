@@ -0,0 +1,21 @@
+package com.cacheservice.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Loader call of get with loader
+ */
+@Name("com.cacheservice.Load")
+@Label("Cache Load")
+@Description("Loader call of get with loader")
+public class CacheLoadEvent extends CacheEvent {
+
+    @Label("Key")
+    public String key;
+
+    @Label("Found")
+    @Description("Whether loader has found value")
+    public boolean found;
+}
@@ -0,0 +1,20 @@
+package com.cacheservice.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Put call slower than threshold (10 ms by default, configurable in recording settings),
+ * including write to the store and eviction
+ */
+@Name("com.cacheservice.Put")
+@Label("Cache Put")
+@Description("Put call slower than threshold, including write to the store and eviction")
+@Threshold("10 ms")
+public class CachePutEvent extends CacheEvent {
+
+    @Label("Key")
+    public String key;
+}
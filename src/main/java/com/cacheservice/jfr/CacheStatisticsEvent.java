@@ -0,0 +1,35 @@
+package com.cacheservice.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodic snapshot of cache statistics (every 10 s by default, configurable in recording settings)
+ */
+@Name("com.cacheservice.Statistics")
+@Label("Cache Statistics")
+@Description("Periodic snapshot of cache statistics")
+@Period("10 s")
+@StackTrace(false)
+public class CacheStatisticsEvent extends CacheEvent {
+
+    @Label("Size")
+    public long size;
+
+    @Label("Evictions")
+    public long evictionCount;
+
+    @Label("Average Load Penalty")
+    @Description("Average load penalty in units of the cache service statistics")
+    public double averageLoadPenalty;
+
+    @Label("Effective Capacity")
+    @Description("Effective capacity of adaptive capacity cache, 0 otherwise")
+    public long effectiveCapacity;
+
+    @Label("Maintenance Runs")
+    public long maintenanceRunsNumber;
+}
@@ -0,0 +1,404 @@
+package com.cacheservice.loader;
+
+import com.cacheservice.UtilityAssertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Loader batching concurrent loads of keys into bulk loads, in the manner of DataLoader.
+ * <p>
+ * Batching loader is a loader of value by key, so it is given to get with loader of cache service, which stores
+ * loaded value into cache. Keys loaded by calling threads are collected for batch window since the first of them,
+ * or until max batch size keys are collected, and loaded by one call of bulk loader. Loads of the same key
+ * in one batch are merged: the key is loaded once and its value is returned to all callers. Keys which bulk loader
+ * does not return are absent, so their loads return null. If bulk loader fails, even by error, all loads of the batch
+ * fail, and the dispatcher thread keeps dispatching.
+ * <p>
+ * Batches are dispatched by dispatcher thread and loaded by it, or by executor if it is provided,
+ * so batches are loaded concurrently.
+ *
+ * @param <T>
+ */
+public class BatchingLoader<T> implements Function<String, T>, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingLoader.class.getName());
+
+    private static final AtomicInteger LOADER_NUMBER = new AtomicInteger();
+
+    private final Function<Set<String>, Map<String, T>> bulkLoader;
+    private final int maxBatchSize;
+    private final long batchWindowInNanos;
+    private final Executor executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition loadsAdded = lock.newCondition();
+    // guarded by lock; keeps order of the first load of each key
+    private final LinkedHashMap<String, PendingLoad<T>> pendingLoads = new LinkedHashMap<>();
+    private long firstPendingLoadTime;
+    private boolean closed;
+
+    private final Thread dispatcher;
+    // changed by dispatcher thread only
+    private boolean dispatcherInterrupted;
+    private final AtomicLong loadsNumber = new AtomicLong();
+    private final AtomicLong mergedLoadsNumber = new AtomicLong();
+    private final AtomicLong batchesNumber = new AtomicLong();
+    private final AtomicLong batchedKeysNumber = new AtomicLong();
+    private final AtomicLong maxBatchedKeysNumber = new AtomicLong();
+    private final AtomicLong failedBatchesNumber = new AtomicLong();
+    private final AtomicLong waitTimeInNanos = new AtomicLong();
+    private final AtomicLong maxWaitTimeInNanos = new AtomicLong();
+
+    /**
+     * Batching loader constructor
+     *
+     * @param builder builder with batching loader settings
+     */
+    private BatchingLoader(Builder<T> builder) {
+        UtilityAssertions.assertInputObjectsNotNull(builder.bulkLoader);
+        this.bulkLoader = builder.bulkLoader;
+        this.maxBatchSize = builder.maxBatchSize > 0 ? builder.maxBatchSize : 100;
+        this.batchWindowInNanos = TimeUnit.MICROSECONDS.toNanos(builder.batchWindowInMicros > 0 ? builder.batchWindowInMicros : 1000);
+        this.executor = builder.executor;
+
+        this.dispatcher = new Thread(this::dispatchContinuously, "cache-batching-loader-" + LOADER_NUMBER.incrementAndGet());
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Loads value by key in the next batch and waits until the batch is loaded
+     *
+     * @param key key
+     * @return value, or null if bulk loader has not returned the key
+     */
+    @Override
+    public T apply(String key) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        PendingLoad<T> pendingLoad;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Batching loader is closed!");
+            }
+            pendingLoad = pendingLoads.get(key);
+            if (pendingLoad != null) {
+                mergedLoadsNumber.incrementAndGet();
+            } else {
+                pendingLoad = new PendingLoad<>();
+                if (pendingLoads.isEmpty()) {
+                    firstPendingLoadTime = System.nanoTime();
+                    loadsAdded.signal();
+                }
+                pendingLoads.put(key, pendingLoad);
+                if (pendingLoads.size() >= maxBatchSize) {
+                    loadsAdded.signal();
+                }
+            }
+            loadsNumber.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+
+        long loadStartTime = System.nanoTime();
+        try {
+            return pendingLoad.value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Batch load of key " + key + " failed!", e.getCause());
+        } finally {
+            long waitTime = System.nanoTime() - loadStartTime;
+            waitTimeInNanos.addAndGet(waitTime);
+            maxWaitTimeInNanos.accumulateAndGet(waitTime, Math::max);
+        }
+    }
+
+    /**
+     * Rejects new loads, loads all pending loads and stops dispatcher thread.
+     * Executor provided to builder is not shut down. Closing closed loader does nothing.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            loadsAdded.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("Batching loader is closed. Loads: {}, merged: {}, batches: {}, average batch size: {}",
+                getLoadsNumber(), getMergedLoadsNumber(), getBatchesNumber(), getAverageBatchSize());
+    }
+
+    /**
+     * Returns number of loads of keys
+     *
+     * @return number of loads
+     */
+    public long getLoadsNumber() {
+        return loadsNumber.get();
+    }
+
+    /**
+     * Returns number of loads merged with load of the same key in the same batch
+     *
+     * @return number of merged loads
+     */
+    public long getMergedLoadsNumber() {
+        return mergedLoadsNumber.get();
+    }
+
+    /**
+     * Returns number of batches, i.e. calls of bulk loader
+     *
+     * @return number of batches
+     */
+    public long getBatchesNumber() {
+        return batchesNumber.get();
+    }
+
+    /**
+     * Returns number of batches for which bulk loader failed
+     *
+     * @return number of failed batches
+     */
+    public long getFailedBatchesNumber() {
+        return failedBatchesNumber.get();
+    }
+
+    /**
+     * Returns average number of distinct keys in batch; 0 if there are no batches
+     *
+     * @return average batch size
+     */
+    public double getAverageBatchSize() {
+        long batches = batchesNumber.get();
+        return batches > 0 ? (double) batchedKeysNumber.get() / batches : 0;
+    }
+
+    /**
+     * Returns max number of distinct keys in batch
+     *
+     * @return max batch size
+     */
+    public long getMaxBatchSize() {
+        return maxBatchedKeysNumber.get();
+    }
+
+    /**
+     * Returns average time load waited for its batch in micros; 0 if there are no loads
+     *
+     * @return average wait time in micros
+     */
+    public double getAverageWaitTimeInMicros() {
+        long loads = loadsNumber.get();
+        return loads > 0 ? (double) TimeUnit.NANOSECONDS.toMicros(waitTimeInNanos.get()) / loads : 0;
+    }
+
+    /**
+     * Returns max time load waited for its batch in micros
+     *
+     * @return max wait time in micros
+     */
+    public long getMaxWaitTimeInMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxWaitTimeInNanos.get());
+    }
+
+    /**
+     * Dispatches batches until loader is closed and all pending loads are dispatched
+     */
+    private void dispatchContinuously() {
+        while (true) {
+            Map<String, PendingLoad<T>> batch = takeBatch();
+            if (batch == null) {
+                if (dispatcherInterrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+            if (executor == null) {
+                loadBatch(batch);
+                continue;
+            }
+            try {
+                executor.execute(() -> loadBatch(batch));
+            } catch (RejectedExecutionException e) {
+                loadBatch(batch);
+            }
+        }
+    }
+
+    /**
+     * Waits until max batch size keys are pending, batch window of the first pending key has passed,
+     * or loader is closed, and takes batch of pending loads
+     *
+     * @return batch, or null if loader is closed and there are no pending loads
+     */
+    private Map<String, PendingLoad<T>> takeBatch() {
+        lock.lock();
+        try {
+            while (!closed && pendingLoads.size() < maxBatchSize) {
+                if (pendingLoads.isEmpty()) {
+                    loadsAdded.awaitUninterruptibly();
+                    continue;
+                }
+                long remainingWindowInNanos = firstPendingLoadTime + batchWindowInNanos - System.nanoTime();
+                if (remainingWindowInNanos <= 0) {
+                    break;
+                }
+                try {
+                    loadsAdded.awaitNanos(remainingWindowInNanos);
+                } catch (InterruptedException e) {
+                    // dispatcher is stopped by close, and interrupt restored at once would make every next wait
+                    // of the window return at once, so it is restored when dispatcher stops
+                    dispatcherInterrupted = true;
+                }
+            }
+            if (pendingLoads.isEmpty()) {
+                return null;
+            }
+
+            Map<String, PendingLoad<T>> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, PendingLoad<T>>> iterator = pendingLoads.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                Map.Entry<String, PendingLoad<T>> pendingLoad = iterator.next();
+                batch.put(pendingLoad.getKey(), pendingLoad.getValue());
+                iterator.remove();
+            }
+            // keys left over by full batch have waited already, so they go in the next batch without window
+            firstPendingLoadTime = System.nanoTime() - batchWindowInNanos;
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads batch by bulk loader and completes its loads. Loads are completed even if bulk loader throws error,
+     * so callers do not wait forever, and the error is not rethrown, so it does not stop dispatcher thread.
+     *
+     * @param batch batch
+     */
+    private void loadBatch(Map<String, PendingLoad<T>> batch) {
+        batchesNumber.incrementAndGet();
+        batchedKeysNumber.addAndGet(batch.size());
+        maxBatchedKeysNumber.accumulateAndGet(batch.size(), Math::max);
+        try {
+            Map<String, T> values = bulkLoader.apply(new LinkedHashSet<>(batch.keySet()));
+            batch.forEach((key, pendingLoad) -> pendingLoad.value.complete(values != null ? values.get(key) : null));
+            LOGGER.trace("Batch of {} keys is loaded", batch.size());
+        } catch (Throwable e) {
+            failedBatchesNumber.incrementAndGet();
+            LOGGER.error("Batch of {} keys is not loaded", batch.size(), e);
+            batch.values().forEach(pendingLoad -> pendingLoad.value.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Pending load of key shared by all loads of the key in one batch
+     *
+     * @param <T>
+     */
+    private static final class PendingLoad<T> {
+
+        private final CompletableFuture<T> value = new CompletableFuture<>();
+    }
+
+    /**
+     * Builder for batching loader
+     *
+     * @param <T>
+     */
+    public static class Builder<T> {
+
+        private Function<Set<String>, Map<String, T>> bulkLoader;
+        private int maxBatchSize;
+        private long batchWindowInMicros;
+        private Executor executor;
+
+        /**
+         * Set bulk loader to builder
+         *
+         * @param bulkLoader loader of values by set of keys, returning map of found keys to their values
+         * @return builder
+         */
+        public Builder<T> bulkLoader(Function<Set<String>, Map<String, T>> bulkLoader) {
+            this.bulkLoader = bulkLoader;
+            return this;
+        }
+
+        /**
+         * Set max batch size to builder
+         *
+         * @param maxBatchSize max number of distinct keys in one bulk load; if negative value or 0 provided,
+         *                     default value = 100
+         * @return builder
+         */
+        public Builder<T> maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Set batch window in micros to builder
+         *
+         * @param batchWindowInMicros max time the first key of batch waits for other keys in micros;
+         *                            if negative value or 0 provided, default value = 1000
+         * @return builder
+         */
+        public Builder<T> batchWindowInMicros(long batchWindowInMicros) {
+            this.batchWindowInMicros = batchWindowInMicros;
+            return this;
+        }
+
+        /**
+         * Set executor of bulk loads to builder
+         *
+         * @param executor executor; if null provided, batches are loaded one by one by dispatcher thread
+         * @return builder
+         */
+        public Builder<T> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Builds batching loader and starts its dispatcher thread
+         *
+         * @return batching loader
+         */
+        public BatchingLoader<T> build() {
+            return new BatchingLoader<>(this);
+        }
+    }
+}
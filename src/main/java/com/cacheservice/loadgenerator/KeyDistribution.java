@@ -0,0 +1,46 @@
+package com.cacheservice.loadgenerator;
+
+/**
+ * Key access distributions of load generator:
+ * - UNIFORM: every key is accessed with the same probability
+ * - ZIPF: key of rank i is accessed with probability proportional to 1 / i^exponent
+ * - HOTSPOT: hot fraction of keys receives hot access fraction of accesses, both sets are accessed uniformly
+ */
+public enum KeyDistribution {
+
+    UNIFORM {
+        @Override
+        public KeyGenerator createKeyGenerator(LoadConfiguration loadConfiguration) {
+            int keySpace = loadConfiguration.getKeySpace();
+            return random -> random.nextInt(keySpace);
+        }
+    },
+    ZIPF {
+        @Override
+        public KeyGenerator createKeyGenerator(LoadConfiguration loadConfiguration) {
+            return new ZipfKeyGenerator(loadConfiguration.getKeySpace(), loadConfiguration.getZipfExponent());
+        }
+    },
+    HOTSPOT {
+        @Override
+        public KeyGenerator createKeyGenerator(LoadConfiguration loadConfiguration) {
+            int keySpace = loadConfiguration.getKeySpace();
+            int hotKeysNumber = Math.max(1, Math.min(keySpace, (int) (keySpace * loadConfiguration.getHotKeyFraction())));
+            double hotAccessFraction = loadConfiguration.getHotAccessFraction();
+            return random -> {
+                if (random.nextDouble() < hotAccessFraction || hotKeysNumber == keySpace) {
+                    return random.nextInt(hotKeysNumber);
+                }
+                return hotKeysNumber + random.nextInt(keySpace - hotKeysNumber);
+            };
+        }
+    };
+
+    /**
+     * Creates key generator for key space and distribution settings of load configuration
+     *
+     * @param loadConfiguration load configuration
+     * @return key generator
+     */
+    public abstract KeyGenerator createKeyGenerator(LoadConfiguration loadConfiguration);
+}
@@ -0,0 +1,12 @@
+package com.cacheservice.loadgenerator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generator of key indexes from 0 (inclusive) to key space size (exclusive).
+ * Generators are immutable and may be shared by threads; every thread uses its own random.
+ */
+public interface KeyGenerator {
+
+    int nextKeyIndex(SplittableRandom random);
+}
@@ -0,0 +1,144 @@
+package com.cacheservice.loadgenerator;
+
+import com.cacheservice.UtilityAssertions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear histogram of latencies in nanos with relative error below 1%.
+ * <p>
+ * Values below 256 are counted exactly; larger values are counted in 128 linear sub-buckets per power of 2,
+ * so the histogram has fixed size regardless of recorded values. Recording is lock free: one thread records
+ * while another one reads a consistent enough copy for periodic reports.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKETS_NUMBER = SUB_BUCKET_COUNT + (Long.SIZE - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS_NUMBER);
+
+    /**
+     * Records latency
+     *
+     * @param latencyInNanos latency in nanos; negative value is recorded as 0
+     */
+    public void record(long latencyInNanos) {
+        counts.incrementAndGet(bucketIndex(Math.max(latencyInNanos, 0)));
+    }
+
+    /**
+     * Adds counts of other histogram to this histogram
+     *
+     * @param histogram histogram
+     */
+    public void add(LatencyHistogram histogram) {
+        UtilityAssertions.assertInputObjectsNotNull(histogram);
+
+        for (int i = 0; i < BUCKETS_NUMBER; i++) {
+            long count = histogram.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * Returns new histogram with counts of this histogram minus counts of earlier copy of it
+     *
+     * @param earlierHistogram earlier copy of this histogram
+     * @return histogram of values recorded after the copy was made
+     */
+    public LatencyHistogram subtract(LatencyHistogram earlierHistogram) {
+        UtilityAssertions.assertInputObjectsNotNull(earlierHistogram);
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < BUCKETS_NUMBER; i++) {
+            histogram.counts.set(i, counts.get(i) - earlierHistogram.counts.get(i));
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns copy of this histogram
+     *
+     * @return histogram
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.add(this);
+        return histogram;
+    }
+
+    /**
+     * Returns number of recorded latencies
+     *
+     * @return count
+     */
+    public long getTotalCount() {
+        long totalCount = 0;
+        for (int i = 0; i < BUCKETS_NUMBER; i++) {
+            totalCount += counts.get(i);
+        }
+        return totalCount;
+    }
+
+    /**
+     * Returns latency at percentile: the highest value equivalent to the bucket the percentile falls into
+     *
+     * @param percentile percentile from 0 to 100
+     * @return latency in nanos; 0 if histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile should be from 0 to 100!");
+        }
+
+        long totalCount = getTotalCount();
+        if (totalCount == 0) {
+            return 0;
+        }
+        long targetCount = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKETS_NUMBER; i++) {
+            cumulativeCount += counts.get(i);
+            if (cumulativeCount >= targetCount) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return getMaxValue();
+    }
+
+    /**
+     * Returns the highest recorded latency, rounded up to its bucket
+     *
+     * @return latency in nanos; 0 if histogram is empty
+     */
+    public long getMaxValue() {
+        for (int i = BUCKETS_NUMBER - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return 0;
+    }
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKET_COUNT + (shift - 1) * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift) - HALF_SUB_BUCKET_COUNT;
+    }
+
+    private static long highestEquivalentValue(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int shift = (bucketIndex - SUB_BUCKET_COUNT) / HALF_SUB_BUCKET_COUNT + 1;
+        long subBucket = (bucketIndex - SUB_BUCKET_COUNT) % HALF_SUB_BUCKET_COUNT + HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,265 @@
+package com.cacheservice.loadgenerator;
+
+/**
+ * Load generator configuration. Is created by builder; every setting has default value.
+ */
+public class LoadConfiguration {
+
+    private final int threadsNumber;
+    private final int keySpace;
+    private final KeyDistribution keyDistribution;
+    private final double zipfExponent;
+    private final double hotKeyFraction;
+    private final double hotAccessFraction;
+    private final int minValueSizeInBytes;
+    private final int maxValueSizeInBytes;
+    private final double readRatio;
+    private final long durationInSec;
+    private final long targetThroughput;
+    private final long reportIntervalInSec;
+    private final long seed;
+
+    private LoadConfiguration(Builder builder) {
+        this.threadsNumber = builder.threadsNumber > 0 ? builder.threadsNumber : 4;
+        this.keySpace = builder.keySpace > 0 ? builder.keySpace : 100_000;
+        this.keyDistribution = builder.keyDistribution != null ? builder.keyDistribution : KeyDistribution.ZIPF;
+        this.zipfExponent = builder.zipfExponent > 0 ? builder.zipfExponent : 0.99;
+        this.hotKeyFraction = builder.hotKeyFraction > 0 ? builder.hotKeyFraction : 0.2;
+        this.hotAccessFraction = builder.hotAccessFraction > 0 ? builder.hotAccessFraction : 0.8;
+        this.minValueSizeInBytes = builder.minValueSizeInBytes > 0 ? builder.minValueSizeInBytes : 100;
+        this.maxValueSizeInBytes = Math.max(builder.maxValueSizeInBytes, this.minValueSizeInBytes);
+        this.readRatio = builder.readRatio >= 0 ? builder.readRatio : 0.9;
+        this.durationInSec = builder.durationInSec > 0 ? builder.durationInSec : 60;
+        this.targetThroughput = builder.targetThroughput > 0 ? builder.targetThroughput : 100_000;
+        this.reportIntervalInSec = builder.reportIntervalInSec > 0 ? builder.reportIntervalInSec : 5;
+        this.seed = builder.seed;
+
+        if (hotKeyFraction > 1 || hotAccessFraction > 1 || readRatio > 1) {
+            throw new IllegalArgumentException("Fractions and read ratio should not be greater than 1!");
+        }
+    }
+
+    public int getThreadsNumber() {
+        return threadsNumber;
+    }
+
+    public int getKeySpace() {
+        return keySpace;
+    }
+
+    public KeyDistribution getKeyDistribution() {
+        return keyDistribution;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public double getHotKeyFraction() {
+        return hotKeyFraction;
+    }
+
+    public double getHotAccessFraction() {
+        return hotAccessFraction;
+    }
+
+    public int getMinValueSizeInBytes() {
+        return minValueSizeInBytes;
+    }
+
+    public int getMaxValueSizeInBytes() {
+        return maxValueSizeInBytes;
+    }
+
+    public double getReadRatio() {
+        return readRatio;
+    }
+
+    public long getDurationInSec() {
+        return durationInSec;
+    }
+
+    public long getTargetThroughput() {
+        return targetThroughput;
+    }
+
+    public long getReportIntervalInSec() {
+        return reportIntervalInSec;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadConfiguration{" +
+                "threadsNumber=" + threadsNumber +
+                ", keySpace=" + keySpace +
+                ", keyDistribution=" + keyDistribution +
+                (keyDistribution == KeyDistribution.ZIPF ? ", zipfExponent=" + zipfExponent : "") +
+                (keyDistribution == KeyDistribution.HOTSPOT
+                        ? ", hotKeyFraction=" + hotKeyFraction + ", hotAccessFraction=" + hotAccessFraction : "") +
+                ", valueSizeInBytes=" + minValueSizeInBytes + "-" + maxValueSizeInBytes +
+                ", readRatio=" + readRatio +
+                ", durationInSec=" + durationInSec +
+                ", targetThroughput=" + targetThroughput +
+                '}';
+    }
+
+    /**
+     * Builder for load configuration
+     */
+    public static class Builder {
+
+        private int threadsNumber;
+        private int keySpace;
+        private KeyDistribution keyDistribution;
+        private double zipfExponent;
+        private double hotKeyFraction;
+        private double hotAccessFraction;
+        private int minValueSizeInBytes;
+        private int maxValueSizeInBytes;
+        private double readRatio = -1;
+        private long durationInSec;
+        private long targetThroughput;
+        private long reportIntervalInSec;
+        private long seed = System.nanoTime();
+
+        /**
+         * Set number of load threads to builder
+         *
+         * @param threadsNumber number of load threads; if negative value or 0 provided, default value = 4
+         * @return builder
+         */
+        public Builder threadsNumber(int threadsNumber) {
+            this.threadsNumber = threadsNumber;
+            return this;
+        }
+
+        /**
+         * Set key space to builder
+         *
+         * @param keySpace number of distinct keys; if negative value or 0 provided, default value = 100 000
+         * @return builder
+         */
+        public Builder keySpace(int keySpace) {
+            this.keySpace = keySpace;
+            return this;
+        }
+
+        /**
+         * Set key distribution to builder
+         *
+         * @param keyDistribution key distribution; if null provided, default value = ZIPF
+         * @return builder
+         */
+        public Builder keyDistribution(KeyDistribution keyDistribution) {
+            this.keyDistribution = keyDistribution;
+            return this;
+        }
+
+        /**
+         * Set Zipf exponent to builder
+         *
+         * @param zipfExponent Zipf exponent from 0 to 1 exclusive; if negative value or 0 provided, default value = 0.99
+         * @return builder
+         */
+        public Builder zipfExponent(double zipfExponent) {
+            this.zipfExponent = zipfExponent;
+            return this;
+        }
+
+        /**
+         * Set hotspot settings to builder
+         *
+         * @param hotKeyFraction    fraction of hot keys; if negative value or 0 provided, default value = 0.2
+         * @param hotAccessFraction fraction of accesses to hot keys; if negative value or 0 provided, default value = 0.8
+         * @return builder
+         */
+        public Builder hotspot(double hotKeyFraction, double hotAccessFraction) {
+            this.hotKeyFraction = hotKeyFraction;
+            this.hotAccessFraction = hotAccessFraction;
+            return this;
+        }
+
+        /**
+         * Set value size range to builder. Value sizes are distributed uniformly in range.
+         *
+         * @param minValueSizeInBytes min value size; if negative value or 0 provided, default value = 100
+         * @param maxValueSizeInBytes max value size; if less than min value size, min value size is used
+         * @return builder
+         */
+        public Builder valueSizeInBytes(int minValueSizeInBytes, int maxValueSizeInBytes) {
+            this.minValueSizeInBytes = minValueSizeInBytes;
+            this.maxValueSizeInBytes = maxValueSizeInBytes;
+            return this;
+        }
+
+        /**
+         * Set read ratio to builder: fraction of gets among operations, the rest are puts
+         *
+         * @param readRatio read ratio from 0 to 1; if negative value provided, default value = 0.9
+         * @return builder
+         */
+        public Builder readRatio(double readRatio) {
+            this.readRatio = readRatio;
+            return this;
+        }
+
+        /**
+         * Set duration in secs to builder
+         *
+         * @param durationInSec duration in secs; if negative value or 0 provided, default value = 60
+         * @return builder
+         */
+        public Builder durationInSec(long durationInSec) {
+            this.durationInSec = durationInSec;
+            return this;
+        }
+
+        /**
+         * Set target throughput to builder. Operations are scheduled at this rate and latency is measured
+         * from scheduled start, so stalls are not hidden by coordinated omission.
+         *
+         * @param targetThroughput target operations per sec of all threads;
+         *                         if negative value or 0 provided, default value = 100 000
+         * @return builder
+         */
+        public Builder targetThroughput(long targetThroughput) {
+            this.targetThroughput = targetThroughput;
+            return this;
+        }
+
+        /**
+         * Set report interval in secs to builder
+         *
+         * @param reportIntervalInSec report interval in secs; if negative value or 0 provided, default value = 5
+         * @return builder
+         */
+        public Builder reportIntervalInSec(long reportIntervalInSec) {
+            this.reportIntervalInSec = reportIntervalInSec;
+            return this;
+        }
+
+        /**
+         * Set random seed to builder
+         *
+         * @param seed random seed; if not provided, current nano time is used
+         * @return builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Builds load configuration
+         *
+         * @return load configuration
+         */
+        public LoadConfiguration build() {
+            return new LoadConfiguration(this);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.cacheservice.loadgenerator;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-threaded load generator for cache services.
+ * <p>
+ * Every thread issues operations at its share of the target throughput. A get is followed by a put of a new value
+ * on miss, as a loading cache would do; the rest of operations are puts. Latency of an operation is measured from
+ * its scheduled start rather than from its actual start, so when cache service stalls, operations queued behind
+ * the stall are recorded with the time they waited (coordinated omission correction).
+ * Throughput, hit ratio and latency percentiles are reported periodically and summarized at the end of run.
+ */
+public class LoadGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadGenerator.class.getName());
+
+    private static final int VALUES_NUMBER = 1024;
+    private static final long SPIN_WAIT_THRESHOLD_IN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final LoadConfiguration loadConfiguration;
+    private final KeyGenerator keyGenerator;
+    private final String[] keys;
+    private final byte[][] values;
+
+    /**
+     * Load generator constructor
+     *
+     * @param loadConfiguration load configuration
+     */
+    public LoadGenerator(LoadConfiguration loadConfiguration) {
+        UtilityAssertions.assertInputObjectsNotNull(loadConfiguration);
+
+        this.loadConfiguration = loadConfiguration;
+        this.keyGenerator = loadConfiguration.getKeyDistribution().createKeyGenerator(loadConfiguration);
+        this.keys = new String[loadConfiguration.getKeySpace()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key_" + i;
+        }
+        // values are created once, so value allocation does not add to latency of cache operations
+        SplittableRandom random = new SplittableRandom(loadConfiguration.getSeed());
+        int valueSizeRange = loadConfiguration.getMaxValueSizeInBytes() - loadConfiguration.getMinValueSizeInBytes() + 1;
+        this.values = new byte[VALUES_NUMBER][];
+        for (int i = 0; i < VALUES_NUMBER; i++) {
+            values[i] = new byte[loadConfiguration.getMinValueSizeInBytes() + random.nextInt(valueSizeRange)];
+        }
+    }
+
+    /**
+     * Runs load against cache service and prints interval reports
+     *
+     * @param cacheServiceName cache service name for reports
+     * @param cacheService     cache service
+     * @param reportStream     stream for interval reports
+     * @return load result of the whole run
+     */
+    public LoadResult run(String cacheServiceName, CacheService<byte[]> cacheService, PrintStream reportStream) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(cacheServiceName);
+        UtilityAssertions.assertInputObjectsNotNull(cacheService, reportStream);
+
+        LOGGER.info("Running load against {}: {}", cacheServiceName, loadConfiguration);
+        int threadsNumber = loadConfiguration.getThreadsNumber();
+        long operationIntervalInNanos = Math.max(1, TimeUnit.SECONDS.toNanos(threadsNumber) / loadConfiguration.getTargetThroughput());
+        long evictionCountBefore = cacheService.returnCacheStatistics().getEvictionCount();
+        LoadCounters loadCounters = new LoadCounters();
+        List<LatencyHistogram> latencyHistograms = new ArrayList<>(threadsNumber);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(threadsNumber, runnable ->
+                new Thread(runnable, "load-generator-" + threadNumber.incrementAndGet()));
+        try {
+            long startTime = System.nanoTime();
+            long endTime = startTime + TimeUnit.SECONDS.toNanos(loadConfiguration.getDurationInSec());
+            SplittableRandom seedRandom = new SplittableRandom(loadConfiguration.getSeed());
+            List<Future<?>> futures = new ArrayList<>(threadsNumber);
+            for (int i = 0; i < threadsNumber; i++) {
+                LatencyHistogram latencyHistogram = new LatencyHistogram();
+                latencyHistograms.add(latencyHistogram);
+                // threads are staggered, so their operations do not start at the same instants
+                long firstStartTime = startTime + operationIntervalInNanos * i / threadsNumber;
+                SplittableRandom random = seedRandom.split();
+                futures.add(executorService.submit(() -> runLoad(cacheService, random, firstStartTime, endTime,
+                        operationIntervalInNanos, latencyHistogram, loadCounters)));
+            }
+
+            reportStream.print(LoadReport.formatIntervalHeader());
+            reportIntervals(cacheServiceName, startTime, endTime, latencyHistograms, loadCounters, reportStream);
+            for (Future<?> future : futures) {
+                awaitLoad(future, cacheServiceName);
+            }
+            long durationInNanos = System.nanoTime() - startTime;
+
+            long evictionCount = cacheService.returnCacheStatistics().getEvictionCount() - evictionCountBefore;
+            return new LoadResult(cacheServiceName, loadCounters.operationCount.sum(), loadCounters.readCount.sum(),
+                    loadCounters.hitCount.sum(), durationInNanos, evictionCount, merge(latencyHistograms));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void runLoad(CacheService<byte[]> cacheService,
+                         SplittableRandom random,
+                         long firstStartTime,
+                         long endTime,
+                         long operationIntervalInNanos,
+                         LatencyHistogram latencyHistogram,
+                         LoadCounters loadCounters) {
+        double readRatio = loadConfiguration.getReadRatio();
+        for (long scheduledStartTime = firstStartTime; scheduledStartTime < endTime; scheduledStartTime += operationIntervalInNanos) {
+            // cache service slower than target throughput does not prolong the run with operations overdue
+            if (!waitUntil(scheduledStartTime) || System.nanoTime() >= endTime) {
+                return;
+            }
+
+            String key = keys[keyGenerator.nextKeyIndex(random)];
+            if (random.nextDouble() < readRatio) {
+                loadCounters.readCount.increment();
+                if (cacheService.get(key) != null) {
+                    loadCounters.hitCount.increment();
+                } else {
+                    cacheService.put(key, values[random.nextInt(VALUES_NUMBER)]);
+                }
+            } else {
+                cacheService.put(key, values[random.nextInt(VALUES_NUMBER)]);
+            }
+            latencyHistogram.record(System.nanoTime() - scheduledStartTime);
+            loadCounters.operationCount.increment();
+        }
+    }
+
+    private void reportIntervals(String cacheServiceName,
+                                 long startTime,
+                                 long endTime,
+                                 List<LatencyHistogram> latencyHistograms,
+                                 LoadCounters loadCounters,
+                                 PrintStream reportStream) {
+        long reportIntervalInNanos = TimeUnit.SECONDS.toNanos(loadConfiguration.getReportIntervalInSec());
+        LatencyHistogram previousHistogram = new LatencyHistogram();
+        LoadCounters previousCounters = new LoadCounters();
+        long previousReportTime = startTime;
+        for (long reportTime = startTime + reportIntervalInNanos; reportTime <= endTime; reportTime += reportIntervalInNanos) {
+            if (!waitUntil(reportTime)) {
+                return;
+            }
+
+            LatencyHistogram currentHistogram = merge(latencyHistograms);
+            LoadCounters currentCounters = loadCounters.copy();
+            long now = System.nanoTime();
+            LoadResult intervalResult = new LoadResult(cacheServiceName,
+                    currentCounters.operationCount.sum() - previousCounters.operationCount.sum(),
+                    currentCounters.readCount.sum() - previousCounters.readCount.sum(),
+                    currentCounters.hitCount.sum() - previousCounters.hitCount.sum(),
+                    now - previousReportTime, 0, currentHistogram.subtract(previousHistogram));
+            reportStream.print(LoadReport.formatInterval(intervalResult, TimeUnit.NANOSECONDS.toSeconds(now - startTime)));
+
+            previousHistogram = currentHistogram;
+            previousCounters = currentCounters;
+            previousReportTime = now;
+        }
+    }
+
+    /**
+     * Waits until time comes: parks while it is far, spins when it is close
+     *
+     * @param time nano time
+     * @return false if thread is interrupted
+     */
+    private static boolean waitUntil(long time) {
+        long remainingTime;
+        while ((remainingTime = time - System.nanoTime()) > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            if (remainingTime > SPIN_WAIT_THRESHOLD_IN_NANOS) {
+                LockSupport.parkNanos(remainingTime - SPIN_WAIT_THRESHOLD_IN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    private static LatencyHistogram merge(List<LatencyHistogram> latencyHistograms) {
+        LatencyHistogram mergedHistogram = new LatencyHistogram();
+        for (LatencyHistogram latencyHistogram : latencyHistograms) {
+            mergedHistogram.add(latencyHistogram);
+        }
+        return mergedHistogram;
+    }
+
+    private static void awaitLoad(Future<?> future, String cacheServiceName) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load generation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load generation against " + cacheServiceName + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Creates cache service by name
+     *
+     * @param cacheServiceName cache service name: simple, guava or caffeine
+     * @param maxCacheSize     max cache size
+     * @param timeoutInSec     timeout time in secs
+     * @param concurrencyLevel concurrency level of Guava cache service
+     * @return cache service
+     */
+    static CacheService<byte[]> createCacheService(String cacheServiceName, int maxCacheSize, int timeoutInSec, int concurrencyLevel) {
+        switch (cacheServiceName) {
+            case "simple":
+                CacheStatistics cacheStatistics = new CacheStatistics(maxCacheSize);
+                return new SimpleCacheService.Builder<byte[]>()
+                        .maxCacheSize(maxCacheSize)
+                        .timeoutInSec(timeoutInSec)
+                        .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                        .cacheStatistics(cacheStatistics)
+                        .timeService(new TimeService())
+                        .build();
+            case "guava":
+                return new GuavaCacheService.Builder<byte[]>()
+                        .maxCacheSize(maxCacheSize)
+                        .timeoutInSec(timeoutInSec)
+                        .concurrencyLevel(concurrencyLevel)
+                        .build();
+            case "caffeine":
+                return new CaffeineCacheService.Builder<byte[]>()
+                        .maxCacheSize(maxCacheSize)
+                        .timeoutInSec(timeoutInSec)
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown cache service " + cacheServiceName + "!");
+        }
+    }
+
+    /**
+     * Runs load against every given cache service one after another and prints interval reports and summary table.
+     * Options (all optional, in --name=value form):
+     * --caches=simple,guava,caffeine --threads=4 --keys=100000 --distribution=uniform|zipf|hotspot --zipf-exponent=0.99
+     * --hot-keys=0.2 --hot-accesses=0.8 --value-size=100-1000 --read-ratio=0.9 --duration=60 --rate=100000
+     * --report-interval=5 --max-cache-size=10000 --timeout=60 --seed=N --output=summary file
+     *
+     * @param args options
+     * @throws IOException if output file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        String[] valueSizes = options.getOrDefault("value-size", "100-1000").split("-");
+        LoadConfiguration.Builder builder = new LoadConfiguration.Builder()
+                .threadsNumber(Integer.parseInt(options.getOrDefault("threads", "4")))
+                .keySpace(Integer.parseInt(options.getOrDefault("keys", "100000")))
+                .keyDistribution(KeyDistribution.valueOf(options.getOrDefault("distribution", "zipf").toUpperCase(Locale.ROOT)))
+                .zipfExponent(Double.parseDouble(options.getOrDefault("zipf-exponent", "0.99")))
+                .hotspot(Double.parseDouble(options.getOrDefault("hot-keys", "0.2")),
+                        Double.parseDouble(options.getOrDefault("hot-accesses", "0.8")))
+                .valueSizeInBytes(Integer.parseInt(valueSizes[0]),
+                        Integer.parseInt(valueSizes[valueSizes.length - 1]))
+                .readRatio(Double.parseDouble(options.getOrDefault("read-ratio", "0.9")))
+                .durationInSec(Long.parseLong(options.getOrDefault("duration", "60")))
+                .targetThroughput(Long.parseLong(options.getOrDefault("rate", "100000")))
+                .reportIntervalInSec(Long.parseLong(options.getOrDefault("report-interval", "5")));
+        if (options.containsKey("seed")) {
+            builder.seed(Long.parseLong(options.get("seed")));
+        }
+        LoadConfiguration loadConfiguration = builder.build();
+        int maxCacheSize = Integer.parseInt(options.getOrDefault("max-cache-size", "10000"));
+        int timeoutInSec = Integer.parseInt(options.getOrDefault("timeout", "60"));
+
+        LoadGenerator loadGenerator = new LoadGenerator(loadConfiguration);
+        System.out.println(loadConfiguration);
+        List<LoadResult> loadResults = new ArrayList<>();
+        for (String cacheServiceName : options.getOrDefault("caches", "simple,guava,caffeine").split(",")) {
+            try (CacheService<byte[]> cacheService = createCacheService(cacheServiceName.trim(), maxCacheSize,
+                    timeoutInSec, loadConfiguration.getThreadsNumber())) {
+                loadResults.add(loadGenerator.run(cacheServiceName.trim(), cacheService, System.out));
+            }
+            // garbage of previous run should not be collected during the next one
+            System.gc();
+        }
+
+        String summary = LoadReport.formatSummary(loadResults);
+        System.out.println();
+        System.out.print(summary);
+        if (options.containsKey("output")) {
+            Files.writeString(Paths.get(options.get("output")), summary);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separatorIndex = arg.indexOf('=');
+            if (!arg.startsWith("--") || separatorIndex < 0) {
+                throw new IllegalArgumentException("Option " + arg + " should be in --name=value form!");
+            }
+            options.put(arg.substring(2, separatorIndex), arg.substring(separatorIndex + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Operation counters shared by load threads
+     */
+    private static final class LoadCounters {
+
+        private final LongAdder operationCount = new LongAdder();
+        private final LongAdder readCount = new LongAdder();
+        private final LongAdder hitCount = new LongAdder();
+
+        private LoadCounters copy() {
+            LoadCounters loadCounters = new LoadCounters();
+            loadCounters.operationCount.add(operationCount.sum());
+            loadCounters.readCount.add(readCount.sum());
+            loadCounters.hitCount.add(hitCount.sum());
+            return loadCounters;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.cacheservice.loadgenerator;
+
+import com.cacheservice.UtilityAssertions;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utility class formatting load generator reports as plain text
+ */
+public final class LoadReport {
+
+    private static final String INTERVAL_FORMAT = "%-16s %8s %14s %10s %12s %12s %12s%n";
+    private static final String SUMMARY_FORMAT = "%-16s %12s %14s %10s %12s %12s %12s %12s %12s %10s%n";
+
+    /**
+     * Formats header of interval report lines
+     *
+     * @return header line
+     */
+    public static String formatIntervalHeader() {
+        return String.format(Locale.ROOT, INTERVAL_FORMAT,
+                "Cache service", "Time, s", "Throughput/s", "Hit ratio", "p50, us", "p99, us", "p999, us");
+    }
+
+    /**
+     * Formats interval report line
+     *
+     * @param intervalResult result of the interval
+     * @param elapsedInSec   secs elapsed since start of run
+     * @return report line
+     */
+    public static String formatInterval(LoadResult intervalResult, long elapsedInSec) {
+        UtilityAssertions.assertInputObjectsNotNull(intervalResult);
+
+        LatencyHistogram latencyHistogram = intervalResult.getLatencyHistogram();
+        return String.format(Locale.ROOT, INTERVAL_FORMAT,
+                intervalResult.getCacheServiceName(),
+                elapsedInSec,
+                String.format(Locale.ROOT, "%.0f", intervalResult.getThroughput()),
+                percent(intervalResult.getHitRatio()),
+                micros(latencyHistogram.getValueAtPercentile(50)),
+                micros(latencyHistogram.getValueAtPercentile(99)),
+                micros(latencyHistogram.getValueAtPercentile(99.9)));
+    }
+
+    /**
+     * Formats summary table with one row per cache service run
+     *
+     * @param loadResults load results
+     * @return summary table
+     */
+    public static String formatSummary(List<LoadResult> loadResults) {
+        UtilityAssertions.assertInputObjectsNotNull(loadResults);
+
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, SUMMARY_FORMAT,
+                "Cache service", "Operations", "Throughput/s", "Hit ratio",
+                "p50, us", "p90, us", "p99, us", "p999, us", "max, us", "Evictions"));
+        for (LoadResult loadResult : loadResults) {
+            LatencyHistogram latencyHistogram = loadResult.getLatencyHistogram();
+            table.append(String.format(Locale.ROOT, SUMMARY_FORMAT,
+                    loadResult.getCacheServiceName(),
+                    loadResult.getOperationCount(),
+                    String.format(Locale.ROOT, "%.0f", loadResult.getThroughput()),
+                    percent(loadResult.getHitRatio()),
+                    micros(latencyHistogram.getValueAtPercentile(50)),
+                    micros(latencyHistogram.getValueAtPercentile(90)),
+                    micros(latencyHistogram.getValueAtPercentile(99)),
+                    micros(latencyHistogram.getValueAtPercentile(99.9)),
+                    micros(latencyHistogram.getMaxValue()),
+                    loadResult.getEvictionCount()));
+        }
+        return table.toString();
+    }
+
+    private static String percent(double ratio) {
+        return String.format(Locale.ROOT, "%.2f %%", ratio * 100);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1000.0);
+    }
+
+    private LoadReport() {
+        throw new AssertionError("LoadReport constructor should not be used!");
+    }
+}
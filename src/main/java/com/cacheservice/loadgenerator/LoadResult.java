@@ -0,0 +1,93 @@
+package com.cacheservice.loadgenerator;
+
+import com.cacheservice.UtilityAssertions;
+
+/**
+ * Result of load generator run of one cache service
+ */
+public class LoadResult {
+
+    private final String cacheServiceName;
+    private final long operationCount;
+    private final long readCount;
+    private final long hitCount;
+    private final long durationInNanos;
+    private final long evictionCount;
+    private final LatencyHistogram latencyHistogram;
+
+    /**
+     * Load result constructor
+     *
+     * @param cacheServiceName cache service name
+     * @param operationCount   number of gets and puts
+     * @param readCount        number of gets
+     * @param hitCount         number of gets returned value
+     * @param durationInNanos  run duration in nanos
+     * @param evictionCount    eviction count of cache service during run
+     * @param latencyHistogram latencies of operations measured from their scheduled start
+     */
+    public LoadResult(String cacheServiceName,
+                      long operationCount,
+                      long readCount,
+                      long hitCount,
+                      long durationInNanos,
+                      long evictionCount,
+                      LatencyHistogram latencyHistogram) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(cacheServiceName);
+        UtilityAssertions.assertInputObjectsNotNull(latencyHistogram);
+
+        this.cacheServiceName = cacheServiceName;
+        this.operationCount = operationCount;
+        this.readCount = readCount;
+        this.hitCount = hitCount;
+        this.durationInNanos = durationInNanos;
+        this.evictionCount = evictionCount;
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    public String getCacheServiceName() {
+        return cacheServiceName;
+    }
+
+    public long getOperationCount() {
+        return operationCount;
+    }
+
+    public long getReadCount() {
+        return readCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getDurationInNanos() {
+        return durationInNanos;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * Returns throughput
+     *
+     * @return operations per sec; 0 if duration is 0
+     */
+    public double getThroughput() {
+        return durationInNanos == 0 ? 0 : operationCount * 1_000_000_000.0 / durationInNanos;
+    }
+
+    /**
+     * Returns hit ratio
+     *
+     * @return hits divided by gets; 0 if there were no gets
+     */
+    public double getHitRatio() {
+        return readCount == 0 ? 0 : (double) hitCount / readCount;
+    }
+}
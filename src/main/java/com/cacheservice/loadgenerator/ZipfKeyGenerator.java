@@ -0,0 +1,59 @@
+package com.cacheservice.loadgenerator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipf key generator by Gray et al. "Quickly generating billion-record synthetic databases":
+ * zeta constant is computed once in O(key space), every key is then generated in O(1).
+ * Key index 0 is the most popular one.
+ */
+final class ZipfKeyGenerator implements KeyGenerator {
+
+    private final int keySpace;
+    private final double zetaN;
+    private final double alpha;
+    private final double eta;
+    private final double secondKeyThreshold;
+
+    /**
+     * Zipf key generator constructor
+     *
+     * @param keySpace number of keys
+     * @param exponent skew exponent, from 0 to 1 exclusive
+     */
+    ZipfKeyGenerator(int keySpace, double exponent) {
+        if (keySpace <= 0) {
+            throw new IllegalArgumentException("Key space should be positive!");
+        }
+        if (!(exponent > 0 && exponent < 1)) {
+            throw new IllegalArgumentException("Zipf exponent should be between 0 and 1 exclusive!");
+        }
+        this.keySpace = keySpace;
+        this.zetaN = zeta(keySpace, exponent);
+        double zeta2 = zeta(2, exponent);
+        this.alpha = 1 / (1 - exponent);
+        this.eta = (1 - Math.pow(2.0 / keySpace, 1 - exponent)) / (1 - zeta2 / zetaN);
+        this.secondKeyThreshold = 1 + Math.pow(0.5, exponent);
+    }
+
+    @Override
+    public int nextKeyIndex(SplittableRandom random) {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1) {
+            return 0;
+        }
+        if (uz < secondKeyThreshold) {
+            return Math.min(1, keySpace - 1);
+        }
+        return Math.min((int) (keySpace * Math.pow(eta * u - eta + 1, alpha)), keySpace - 1);
+    }
+
+    private static double zeta(int n, double exponent) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, exponent);
+        }
+        return sum;
+    }
+}
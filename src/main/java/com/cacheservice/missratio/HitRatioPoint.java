@@ -0,0 +1,38 @@
+package com.cacheservice.missratio;
+
+import java.util.Locale;
+
+/**
+ * Point of hit ratio curve estimated by miss ratio curve. Has 2 fields:
+ * - cache capacity in objects
+ * - predicted hit ratio of LRU cache of the capacity
+ */
+public class HitRatioPoint {
+
+    private final long capacity;
+    private final double predictedHitRatio;
+
+    /**
+     * Hit ratio point constructor
+     *
+     * @param capacity          cache capacity in objects
+     * @param predictedHitRatio predicted hit ratio
+     */
+    public HitRatioPoint(long capacity, double predictedHitRatio) {
+        this.capacity = capacity;
+        this.predictedHitRatio = predictedHitRatio;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public double getPredictedHitRatio() {
+        return predictedHitRatio;
+    }
+
+    @Override
+    public String toString() {
+        return capacity + "=" + String.format(Locale.ROOT, "%.3f", predictedHitRatio);
+    }
+}
@@ -0,0 +1,263 @@
+package com.cacheservice.missratio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Online miss ratio curve estimator based on fixed-size SHARDS (Waldspurger, Park, Garthwaite, Ahmad):
+ * spatially hashed sampling of reuse distances.
+ * <p>
+ * Key is sampled if its hash modulo P is below threshold T, so all accesses of a sampled key are sampled and
+ * sampling rate is T / P. Reuse distance of sampled access is the number of distinct sampled keys accessed since
+ * the previous access of the key, found by Fenwick tree over access times; scaled by 1 / sampling rate, it is
+ * the number of distinct keys, i.e. LRU cache of greater capacity has the access as hit. Scaled distances are
+ * counted in histogram with buckets of capacity step.
+ * <p>
+ * At most maxSamples keys are tracked: when one more is sampled, threshold is lowered to the greatest hash of
+ * tracked keys, keys which are not sampled anymore are forgotten, and histogram is rescaled to the new rate.
+ * Histogram is adjusted by the difference between expected and actual number of sampled accesses (SHARDS-adj).
+ * Not sampled access costs one hash and one counter increment. Predicted hit ratios are of LRU cache, so they are
+ * a guide for other eviction policies rather than exact. Keys are identified by 32-bit hash, so rare colliding keys
+ * are counted as one.
+ */
+public class MissRatioCurve {
+
+    private static final int MODULUS = 1 << 24;
+
+    private final int maxSamples;
+    private final long capacityStep;
+    private final LongAdder accessesNumber = new LongAdder();
+    private volatile int threshold;
+
+    // guarded by this
+    private final double[] histogram;
+    private final Map<Integer, Sample> samplesByKey;
+    private final PriorityQueue<Sample> samplesByHash;
+    private final int[] accessTimes;
+    private int clock;
+    private double overflowCount;
+    private double coldMissesCount;
+
+    /**
+     * Miss ratio curve constructor
+     *
+     * @param maxCapacity  max capacity of predicted hit ratios; if negative value or 0 provided,
+     *                     default value = 100 000
+     * @param pointsNumber number of predicted hit ratios, for capacities evenly spaced up to max capacity;
+     *                     if negative value or 0 provided, default value = 20
+     * @param samplingRate initial share of sampled keys; if negative value or 0 provided, default value = 0.01;
+     *                     if more than 1, every key is sampled
+     * @param maxSamples   max number of tracked keys; if negative value or 0 provided, default value = 8192
+     */
+    public MissRatioCurve(long maxCapacity, int pointsNumber, double samplingRate, int maxSamples) {
+        int points = pointsNumber > 0 ? pointsNumber : 20;
+        long capacity = maxCapacity > 0 ? maxCapacity : 100_000;
+        this.capacityStep = Math.max(1, (capacity + points - 1) / points);
+        this.histogram = new double[points];
+        this.threshold = (int) Math.max(1, Math.min(MODULUS, Math.round((samplingRate > 0 ? samplingRate : 0.01) * MODULUS)));
+        this.maxSamples = maxSamples > 0 ? maxSamples : 8192;
+        this.samplesByKey = new HashMap<>(this.maxSamples * 2);
+        this.samplesByHash = new PriorityQueue<>(Comparator.comparingInt((Sample sample) -> sample.hash).reversed());
+        this.accessTimes = new int[this.maxSamples * 2 + 1];
+    }
+
+    /**
+     * Offers accessed key to the estimator. Key is sampled if its hash is below threshold.
+     *
+     * @param key accessed key
+     */
+    public void offer(String key) {
+        offerHashCode(key.hashCode());
+    }
+
+    /**
+     * Offers accessed key by its hash code, so key which is not materialized as String, e.g. key view, is offered
+     * without allocation
+     *
+     * @param hashCode hash code of accessed key, equal to hash code of the key as String
+     */
+    public void offerHashCode(int hashCode) {
+        accessesNumber.increment();
+        int keyHash = hash(hashCode);
+        int hash = (keyHash >>> 8) & (MODULUS - 1);
+        if (hash < threshold) {
+            record(keyHash, hash);
+        }
+    }
+
+    /**
+     * Returns predicted hit ratios of LRU cache for capacities evenly spaced up to max capacity
+     *
+     * @return hit ratio points sorted by capacity; empty list if no access is sampled yet
+     */
+    public synchronized List<HitRatioPoint> returnHitRatioCurve() {
+        double[] adjustedHistogram = histogram.clone();
+        double sampledCount = Arrays.stream(histogram).sum() + overflowCount + coldMissesCount;
+        // SHARDS-adj: expected number of sampled accesses minus actual one is counted as reuse with minimal distance
+        double expectedCount = accessesNumber.sum() * getSamplingRate();
+        adjustedHistogram[0] = Math.max(0, adjustedHistogram[0] + expectedCount - sampledCount);
+        double totalCount = sampledCount - histogram[0] + adjustedHistogram[0];
+        if (totalCount <= 0) {
+            return List.of();
+        }
+
+        List<HitRatioPoint> points = new ArrayList<>(histogram.length);
+        double hitsCount = 0;
+        for (int i = 0; i < adjustedHistogram.length; i++) {
+            hitsCount += adjustedHistogram[i];
+            points.add(new HitRatioPoint((i + 1) * capacityStep, Math.min(1, hitsCount / totalCount)));
+        }
+        return points;
+    }
+
+    /**
+     * Returns predicted hit ratio of LRU cache of capacity, rounded down to the nearest point of the curve
+     *
+     * @param capacity cache capacity
+     * @return predicted hit ratio; 0 if capacity is less than the first point or no access is sampled yet
+     */
+    public double predictHitRatio(long capacity) {
+        double hitRatio = 0;
+        for (HitRatioPoint point : returnHitRatioCurve()) {
+            if (point.getCapacity() > capacity) {
+                break;
+            }
+            hitRatio = point.getPredictedHitRatio();
+        }
+        return hitRatio;
+    }
+
+    /**
+     * Returns current share of sampled keys
+     *
+     * @return sampling rate
+     */
+    public double getSamplingRate() {
+        return (double) threshold / MODULUS;
+    }
+
+    /**
+     * Returns number of tracked keys
+     *
+     * @return number of samples
+     */
+    public synchronized int getSamplesNumber() {
+        return samplesByKey.size();
+    }
+
+    private synchronized void record(int keyHash, int hash) {
+        // threshold may have been lowered since the key was checked
+        if (hash >= threshold) {
+            return;
+        }
+        if (clock == accessTimes.length - 1) {
+            compactAccessTimes();
+        }
+
+        Sample sample = samplesByKey.get(keyHash);
+        if (sample != null) {
+            long distance = countLaterAccesses(sample.accessTime);
+            addToFenwickTree(sample.accessTime, -1);
+            long scaledDistance = (long) (distance / getSamplingRate());
+            long bucket = scaledDistance / capacityStep;
+            if (bucket < histogram.length) {
+                histogram[(int) bucket]++;
+            } else {
+                overflowCount++;
+            }
+        } else {
+            coldMissesCount++;
+            sample = new Sample(keyHash, hash);
+            samplesByKey.put(keyHash, sample);
+            samplesByHash.add(sample);
+        }
+
+        sample.accessTime = ++clock;
+        addToFenwickTree(sample.accessTime, 1);
+
+        while (samplesByKey.size() > maxSamples) {
+            lowerThreshold();
+        }
+    }
+
+    /**
+     * Lowers threshold to the greatest hash of tracked keys, forgets keys with the hash
+     * and rescales histogram to the new sampling rate
+     */
+    private void lowerThreshold() {
+        int newThreshold = samplesByHash.peek().hash;
+        double scale = (double) newThreshold / threshold;
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] *= scale;
+        }
+        overflowCount *= scale;
+        coldMissesCount *= scale;
+        threshold = newThreshold;
+
+        while (!samplesByHash.isEmpty() && samplesByHash.peek().hash >= newThreshold) {
+            Sample sample = samplesByHash.poll();
+            samplesByKey.remove(sample.keyHash);
+            addToFenwickTree(sample.accessTime, -1);
+        }
+    }
+
+    /**
+     * Renumbers access times of tracked keys from 1 in the same order, so access times stay within Fenwick tree
+     */
+    private void compactAccessTimes() {
+        Sample[] samples = samplesByKey.values().toArray(new Sample[0]);
+        Arrays.sort(samples, Comparator.comparingInt((Sample sample) -> sample.accessTime));
+        Arrays.fill(accessTimes, 0);
+        clock = 0;
+        for (Sample sample : samples) {
+            sample.accessTime = ++clock;
+            addToFenwickTree(sample.accessTime, 1);
+        }
+    }
+
+    private long countLaterAccesses(int accessTime) {
+        long count = 0;
+        for (int i = clock; i > 0; i -= i & -i) {
+            count += accessTimes[i];
+        }
+        for (int i = accessTime; i > 0; i -= i & -i) {
+            count -= accessTimes[i];
+        }
+        return count;
+    }
+
+    private void addToFenwickTree(int accessTime, int delta) {
+        for (int i = accessTime; i < accessTimes.length; i += i & -i) {
+            accessTimes[i] += delta;
+        }
+    }
+
+    private static int hash(int hashCode) {
+        // murmur3 finalizer, so structured keys like "key_1", "key_2" are sampled evenly
+        int hash = hashCode;
+        hash = (hash ^ (hash >>> 16)) * 0x85EBCA6B;
+        hash = (hash ^ (hash >>> 13)) * 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Tracked key
+     */
+    private static final class Sample {
+
+        private final int keyHash;
+        private final int hash;
+        private int accessTime;
+
+        private Sample(int keyHash, int hash) {
+            this.keyHash = keyHash;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.cacheservice.negativecache;
+
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.simplejava.TimeService;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Negative cache of keys known to be absent in the backing store, kept in two generations of Bloom filters.
+ * <p>
+ * Absent keys are added to the current generation; lookups check both generations. Generations rotate when
+ * half of the timeout has passed since the current generation was created or the current generation holds
+ * as many keys as its memory allows for the false positive rate: the previous generation is dropped and
+ * the current one becomes previous. Previous generation is not checked once the timeout has passed since its
+ * creation, so an absent key is never remembered longer than the timeout, and memory never exceeds
+ * the configured one. Negative entries do not take main cache capacity.
+ * <p>
+ * Bloom filter can not remove keys, so keys which become present (put or invalidated in cache) are kept
+ * in a small set of present keys of the current generation, overriding both filters until that generation
+ * is dropped: by then the key has left both filters, because marking a key absent removes it from present keys.
+ * Present key may still be reported absent with the false positive rate.
+ */
+public class NegativeCache {
+
+    private static final double LN_2_SQUARED = Math.log(2) * Math.log(2);
+
+    private final TimeService timeService;
+    private final long rotationIntervalInMillis;
+    private final double falsePositiveRate;
+    private final int generationCapacity;
+    private final long memoryInBytes;
+
+    private volatile Generation currentGeneration;
+    private volatile Generation previousGeneration;
+    private final AtomicLong knownAbsentNumber = new AtomicLong();
+    private final AtomicLong rotationsNumber = new AtomicLong();
+
+    /**
+     * Negative cache constructor
+     *
+     * @param builder builder with negative cache settings
+     */
+    private NegativeCache(Builder builder) {
+        this.timeService = builder.timeService != null ? builder.timeService : new TimeService();
+        this.rotationIntervalInMillis = Math.max(1, (builder.timeoutInMillis > 0 ? builder.timeoutInMillis : 10_000) / 2);
+        this.falsePositiveRate = builder.falsePositiveRate > 0 && builder.falsePositiveRate < 1 ? builder.falsePositiveRate : 0.01;
+        long memoryInBytes = builder.memoryInBytes > 0 ? builder.memoryInBytes : 1024 * 1024;
+        // optimal number of keys for bits of one generation: n = -m * ln(2)^2 / ln(p)
+        long generationBits = memoryInBytes * Byte.SIZE / 2;
+        this.generationCapacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                -generationBits * LN_2_SQUARED / Math.log(this.falsePositiveRate)));
+        this.memoryInBytes = 2 * optimalBits(this.generationCapacity, this.falsePositiveRate) / Byte.SIZE;
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        this.currentGeneration = new Generation(generationCapacity, this.falsePositiveRate, currentTime);
+        this.previousGeneration = new Generation(1, this.falsePositiveRate, currentTime);
+    }
+
+    /**
+     * Checks if key is known to be absent. Present key is reported absent with the false positive rate.
+     *
+     * @param key key
+     * @return true if key is known to be absent
+     */
+    public boolean isKnownAbsent(String key) {
+        long currentTime = rotateIfNeeded();
+        if (mightContain(key, currentTime)) {
+            knownAbsentNumber.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers key as absent
+     *
+     * @param key key
+     */
+    public void markAbsent(String key) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        long currentTime = rotateIfNeeded();
+        Generation generation = currentGeneration;
+        previousGeneration.presentKeys.remove(key);
+        generation.presentKeys.remove(key);
+        generation.filter.put(key);
+        if (generation.size.incrementAndGet() >= generationCapacity) {
+            rotate(generation, currentTime);
+        }
+    }
+
+    /**
+     * Forgets key as absent because it has become present
+     *
+     * @param key key
+     */
+    public void markPresent(String key) {
+        if (mightContain(key, timeService.getTimeWithSystemDefaultZoneEpochMilli())) {
+            currentGeneration.presentKeys.add(key);
+        }
+    }
+
+    /**
+     * Forgets all absent keys, e.g. when changes of keys may have been missed
+     */
+    public synchronized void clear() {
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        previousGeneration = new Generation(1, falsePositiveRate, currentTime);
+        currentGeneration = new Generation(generationCapacity, falsePositiveRate, currentTime);
+    }
+
+    /**
+     * Returns number of lookups answered as known absent
+     *
+     * @return number of known absent lookups
+     */
+    public long getKnownAbsentNumber() {
+        return knownAbsentNumber.get();
+    }
+
+    /**
+     * Returns number of generation rotations
+     *
+     * @return number of rotations
+     */
+    public long getRotationsNumber() {
+        return rotationsNumber.get();
+    }
+
+    /**
+     * Returns number of absent keys one generation holds with the false positive rate
+     *
+     * @return generation capacity
+     */
+    public int getGenerationCapacity() {
+        return generationCapacity;
+    }
+
+    /**
+     * Returns memory of Bloom filters of both generations in bytes
+     *
+     * @return memory in bytes
+     */
+    public long getMemoryInBytes() {
+        return memoryInBytes;
+    }
+
+    private boolean mightContain(String key, long currentTime) {
+        Generation current = currentGeneration;
+        Generation previous = previousGeneration;
+        if (current.presentKeys.contains(key) || previous.presentKeys.contains(key)) {
+            return false;
+        }
+        boolean previousExpired = currentTime - previous.creationTime >= 2 * rotationIntervalInMillis;
+        return current.filter.mightContain(key) || !previousExpired && previous.filter.mightContain(key);
+    }
+
+    /**
+     * Rotates generations if half of the timeout has passed since the current generation was created
+     *
+     * @return current time
+     */
+    private long rotateIfNeeded() {
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        Generation generation = currentGeneration;
+        if (currentTime - generation.creationTime >= rotationIntervalInMillis) {
+            rotate(generation, currentTime);
+        }
+        return currentTime;
+    }
+
+    /**
+     * Rotates generations unless generation is already rotated by another thread
+     *
+     * @param generation  generation to be rotated
+     * @param currentTime current time
+     */
+    private synchronized void rotate(Generation generation, long currentTime) {
+        if (currentGeneration != generation) {
+            return;
+        }
+        Generation newGeneration = new Generation(generationCapacity, falsePositiveRate, currentTime);
+        previousGeneration = generation;
+        currentGeneration = newGeneration;
+        rotationsNumber.incrementAndGet();
+    }
+
+    private static long optimalBits(int capacity, double falsePositiveRate) {
+        return (long) (-capacity * Math.log(falsePositiveRate) / LN_2_SQUARED);
+    }
+
+    /**
+     * Generation of absent keys
+     */
+    private static class Generation {
+
+        private final BloomFilter<CharSequence> filter;
+        private final Set<String> presentKeys = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger size = new AtomicInteger();
+        private final long creationTime;
+
+        Generation(int capacity, double falsePositiveRate, long creationTime) {
+            this.filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, falsePositiveRate);
+            this.creationTime = creationTime;
+        }
+    }
+
+    /**
+     * Builder for negative cache
+     */
+    public static class Builder {
+
+        private long timeoutInMillis;
+        private double falsePositiveRate;
+        private long memoryInBytes;
+        private TimeService timeService;
+
+        /**
+         * Set timeout time in millis to builder
+         *
+         * @param timeoutInMillis max time in millis a key is remembered as absent;
+         *                        if negative value or 0 provided, default value = 10 000
+         * @return builder
+         */
+        public Builder timeoutInMillis(long timeoutInMillis) {
+            this.timeoutInMillis = timeoutInMillis;
+            return this;
+        }
+
+        /**
+         * Set false positive rate to builder
+         *
+         * @param falsePositiveRate probability of present key being reported absent;
+         *                          if value out of (0, 1) provided, default value = 0.01
+         * @return builder
+         */
+        public Builder falsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+            return this;
+        }
+
+        /**
+         * Set memory in bytes to builder
+         *
+         * @param memoryInBytes memory of Bloom filters of both generations in bytes;
+         *                      if negative value or 0 provided, default value = 1 MiB
+         * @return builder
+         */
+        public Builder memoryInBytes(long memoryInBytes) {
+            this.memoryInBytes = memoryInBytes;
+            return this;
+        }
+
+        /**
+         * Set time service to builder
+         *
+         * @param timeService time service
+         * @return builder
+         */
+        public Builder timeService(TimeService timeService) {
+            this.timeService = timeService;
+            return this;
+        }
+
+        /**
+         * Builds negative cache
+         *
+         * @return negative cache
+         */
+        public NegativeCache build() {
+            return new NegativeCache(this);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.cacheservice.prefetch;
+
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.simplejava.TimeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Predictive prefetcher learning which keys are read after which keys and loading likely successors
+ * of a read key before they are read.
+ * <p>
+ * Every read of a thread is a transition from the previous read of the same thread, if it happened within
+ * transition window. Transitions are counted in bounded memory {@link TransitionSketch}. When a key is read,
+ * its successors with estimated probability of at least min probability are loaded asynchronously by loader
+ * and put into cache unless cache already has them. Prefetched value is used when it is read, and wasted when
+ * it is removed or replaced before that, or when loader has not found it. Prefetched values enter eviction order
+ * as new objects, so in a full LFU cache they are the first to be evicted; many wasted prefetches show it.
+ *
+ * @param <T>
+ */
+public class Prefetcher<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Prefetcher.class.getName());
+
+    private static final AtomicInteger PREFETCHER_NUMBER = new AtomicInteger();
+
+    private final Function<String, T> loader;
+    private final TimeService timeService;
+    private final long transitionWindowInMillis;
+    private final double minProbability;
+    private final long minObservations;
+    private final TransitionSketch transitionSketch;
+    private final Executor executor;
+    private final ExecutorService ownExecutor;
+    private final ThreadLocal<LastRead> lastReads = ThreadLocal.withInitial(LastRead::new);
+    // prefetched keys which are not read yet; false while value is loading
+    private final Map<String, Boolean> prefetchedKeys = new ConcurrentHashMap<>();
+
+    private volatile Predicate<String> cachedKeys;
+    private volatile BiPredicate<String, T> valueStore;
+
+    private final AtomicLong prefetchesNumber = new AtomicLong();
+    private final AtomicLong usedNumber = new AtomicLong();
+    private final AtomicLong wastedNumber = new AtomicLong();
+    private final AtomicLong droppedNumber = new AtomicLong();
+
+    /**
+     * Prefetcher constructor
+     *
+     * @param builder builder with prefetcher settings
+     */
+    private Prefetcher(Builder<T> builder) {
+        UtilityAssertions.assertInputObjectsNotNull(builder.loader);
+        this.loader = builder.loader;
+        this.timeService = builder.timeService != null ? builder.timeService : new TimeService();
+        this.transitionWindowInMillis = builder.transitionWindowInMillis > 0 ? builder.transitionWindowInMillis : 50;
+        this.minProbability = builder.minProbability > 0 ? builder.minProbability : 0.5;
+        this.minObservations = builder.minObservations > 0 ? builder.minObservations : 3;
+        this.transitionSketch = new TransitionSketch(builder.maxPredecessors > 0 ? builder.maxPredecessors : 10_000,
+                builder.successorsPerKey > 0 ? builder.successorsPerKey : 4);
+        if (builder.executor != null) {
+            this.executor = builder.executor;
+            this.ownExecutor = null;
+        } else {
+            int prefetcherNumber = PREFETCHER_NUMBER.incrementAndGet();
+            this.ownExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(builder.maxPendingLoads > 0 ? builder.maxPendingLoads : 1000),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "prefetcher-" + prefetcherNumber);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.executor = ownExecutor;
+        }
+    }
+
+    /**
+     * Attaches prefetcher to cache
+     *
+     * @param cachedKeys predicate telling whether cache has key
+     * @param valueStore store of prefetched value by key into cache, which returns false if cache already has the key
+     */
+    public synchronized void attach(Predicate<String> cachedKeys, BiPredicate<String, T> valueStore) {
+        UtilityAssertions.assertInputObjectsNotNull(cachedKeys, valueStore);
+        if (this.valueStore != null) {
+            throw new IllegalStateException("Prefetcher is already attached to cache!");
+        }
+
+        this.cachedKeys = cachedKeys;
+        this.valueStore = valueStore;
+    }
+
+    /**
+     * Records read of key, counting prefetched value as used if it is read, and prefetches likely successors
+     * of the key
+     *
+     * @param key key
+     * @param hit whether cache had value of the key
+     */
+    public void recordRead(String key, boolean hit) {
+        if (hit && prefetchedKeys.remove(key, Boolean.TRUE)) {
+            usedNumber.incrementAndGet();
+        }
+
+        LastRead lastRead = lastReads.get();
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        String predecessor = lastRead.key != null && !lastRead.key.equals(key)
+                && currentTime - lastRead.time <= transitionWindowInMillis ? lastRead.key : null;
+        lastRead.key = key;
+        lastRead.time = currentTime;
+
+        List<String> successors = transitionSketch.recordAndPredict(predecessor, key, minProbability, minObservations);
+        for (String successor : successors) {
+            prefetch(successor);
+        }
+    }
+
+    /**
+     * Counts prefetched value of key as wasted if it is not read yet. Called when value is removed from cache
+     * or replaced in it.
+     *
+     * @param key key
+     */
+    public void forget(String key) {
+        if (prefetchedKeys.remove(key, Boolean.TRUE)) {
+            wastedNumber.incrementAndGet();
+        }
+    }
+
+    /**
+     * Stops prefetching. Executor provided to builder is not shut down.
+     */
+    @Override
+    public void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdownNow();
+        }
+        LOGGER.info("Prefetcher is closed. Prefetches: {}, used: {}, wasted: {}, dropped: {}",
+                getPrefetchesNumber(), getUsedNumber(), getWastedNumber(), getDroppedNumber());
+    }
+
+    /**
+     * Returns number of loads of predicted keys
+     *
+     * @return number of prefetches
+     */
+    public long getPrefetchesNumber() {
+        return prefetchesNumber.get();
+    }
+
+    /**
+     * Returns number of prefetched values which were read, i.e. misses avoided
+     *
+     * @return number of used prefetches
+     */
+    public long getUsedNumber() {
+        return usedNumber.get();
+    }
+
+    /**
+     * Returns number of prefetched values which were not found, or removed or replaced before they were read
+     *
+     * @return number of wasted prefetches
+     */
+    public long getWastedNumber() {
+        return wastedNumber.get();
+    }
+
+    /**
+     * Returns number of prefetches dropped because too many loads were pending
+     *
+     * @return number of dropped prefetches
+     */
+    public long getDroppedNumber() {
+        return droppedNumber.get();
+    }
+
+    /**
+     * Returns prefetch accuracy: share of used prefetches among used and wasted ones; 0 if there are none
+     *
+     * @return prefetch accuracy
+     */
+    public double getAccuracy() {
+        long used = usedNumber.get();
+        long finished = used + wastedNumber.get();
+        return finished > 0 ? (double) used / finished : 0;
+    }
+
+    /**
+     * Returns number of predecessors tracked by transition sketch
+     *
+     * @return number of predecessors
+     */
+    public int getPredecessorsNumber() {
+        return transitionSketch.getPredecessorsNumber();
+    }
+
+    /**
+     * Loads key asynchronously unless cache has it or it is already prefetched
+     *
+     * @param key key
+     */
+    private void prefetch(String key) {
+        Predicate<String> cachedKeys = this.cachedKeys;
+        if (cachedKeys == null || cachedKeys.test(key) || prefetchedKeys.putIfAbsent(key, Boolean.FALSE) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> load(key));
+        } catch (RejectedExecutionException e) {
+            prefetchedKeys.remove(key);
+            droppedNumber.incrementAndGet();
+            LOGGER.trace("Too many pending prefetches. Prefetch of key {} is dropped", key);
+        }
+    }
+
+    /**
+     * Loads value of key by loader and stores it into cache
+     *
+     * @param key key
+     */
+    private void load(String key) {
+        prefetchesNumber.incrementAndGet();
+        try {
+            T value = loader.apply(key);
+            // marked before storing, so read right after storing counts the value as used
+            prefetchedKeys.put(key, Boolean.TRUE);
+            if (value == null || !valueStore.test(key, value)) {
+                forget(key);
+                return;
+            }
+            LOGGER.trace("Value with key {} is prefetched", key);
+        } catch (RuntimeException e) {
+            prefetchedKeys.remove(key);
+            wastedNumber.incrementAndGet();
+            LOGGER.error("Value with key {} is not prefetched", key, e);
+        }
+    }
+
+    /**
+     * Last read of thread
+     */
+    private static final class LastRead {
+
+        private String key;
+        private long time;
+    }
+
+    /**
+     * Builder for prefetcher
+     *
+     * @param <T>
+     */
+    public static class Builder<T> {
+
+        private Function<String, T> loader;
+        private TimeService timeService;
+        private long transitionWindowInMillis;
+        private double minProbability;
+        private long minObservations;
+        private int maxPredecessors;
+        private int successorsPerKey;
+        private int maxPendingLoads;
+        private Executor executor;
+
+        /**
+         * Set loader to builder
+         *
+         * @param loader loader of value by key, returning null if the key is absent
+         * @return builder
+         */
+        public Builder<T> loader(Function<String, T> loader) {
+            this.loader = loader;
+            return this;
+        }
+
+        /**
+         * Set time service to builder
+         *
+         * @param timeService time service; if null provided, default time service is used
+         * @return builder
+         */
+        public Builder<T> timeService(TimeService timeService) {
+            this.timeService = timeService;
+            return this;
+        }
+
+        /**
+         * Set transition window in millis to builder
+         *
+         * @param transitionWindowInMillis max time between reads of thread counted as transition;
+         *                                 if negative value or 0 provided, default value = 50
+         * @return builder
+         */
+        public Builder<T> transitionWindowInMillis(long transitionWindowInMillis) {
+            this.transitionWindowInMillis = transitionWindowInMillis;
+            return this;
+        }
+
+        /**
+         * Set min probability of prefetched successors to builder
+         *
+         * @param minProbability min estimated probability of successor to be prefetched;
+         *                       if negative value or 0 provided, default value = 0.5
+         * @return builder
+         */
+        public Builder<T> minProbability(double minProbability) {
+            this.minProbability = minProbability;
+            return this;
+        }
+
+        /**
+         * Set min observations to builder
+         *
+         * @param minObservations min number of transitions from key before its successors are prefetched;
+         *                        if negative value or 0 provided, default value = 3
+         * @return builder
+         */
+        public Builder<T> minObservations(long minObservations) {
+            this.minObservations = minObservations;
+            return this;
+        }
+
+        /**
+         * Set max predecessors to builder
+         *
+         * @param maxPredecessors max number of keys which successors are tracked;
+         *                        if negative value or 0 provided, default value = 10 000
+         * @return builder
+         */
+        public Builder<T> maxPredecessors(int maxPredecessors) {
+            this.maxPredecessors = maxPredecessors;
+            return this;
+        }
+
+        /**
+         * Set successors per key to builder
+         *
+         * @param successorsPerKey number of tracked successors of key; if negative value or 0 provided,
+         *                         default value = 4
+         * @return builder
+         */
+        public Builder<T> successorsPerKey(int successorsPerKey) {
+            this.successorsPerKey = successorsPerKey;
+            return this;
+        }
+
+        /**
+         * Set max pending loads to builder, used by own executor only
+         *
+         * @param maxPendingLoads max number of queued prefetches, the others are dropped;
+         *                        if negative value or 0 provided, default value = 1000
+         * @return builder
+         */
+        public Builder<T> maxPendingLoads(int maxPendingLoads) {
+            this.maxPendingLoads = maxPendingLoads;
+            return this;
+        }
+
+        /**
+         * Set executor of loads to builder
+         *
+         * @param executor executor; if null provided, prefetcher loads by its own thread
+         * @return builder
+         */
+        public Builder<T> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Builds prefetcher
+         *
+         * @return prefetcher
+         */
+        public Prefetcher<T> build() {
+            return new Prefetcher<>(this);
+        }
+    }
+}
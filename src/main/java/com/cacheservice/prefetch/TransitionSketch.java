@@ -0,0 +1,159 @@
+package com.cacheservice.prefetch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded memory sketch of first-order transitions between keys (Markov successors).
+ * <p>
+ * At most maxPredecessors keys are tracked, the least recently read one is forgotten first. Every predecessor
+ * has a fixed number of successor counters maintained by Space-Saving algorithm: when an unmonitored successor
+ * arrives and all counters are taken, the counter with the minimal count is reassigned to it and the minimal count
+ * becomes its error bound. Probability of successor is estimated by its guaranteed count (count minus error),
+ * so reassigned counters do not predict successors which were seen once.
+ * <p>
+ * Predecessors are split into stripes by key hash, each with its own lock and its own share of max predecessors,
+ * so reads of different keys rarely contend. The least recently read predecessor is forgotten within its stripe.
+ */
+final class TransitionSketch {
+
+    private final int successorsPerKey;
+    private final Stripe[] stripes;
+
+    /**
+     * Transition sketch constructor
+     *
+     * @param maxPredecessors  max number of tracked predecessors
+     * @param successorsPerKey number of successor counters of predecessor
+     */
+    TransitionSketch(int maxPredecessors, int successorsPerKey) {
+        this.successorsPerKey = successorsPerKey;
+        int stripesNumber = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4),
+                Integer.highestOneBit(maxPredecessors));
+        this.stripes = new Stripe[stripesNumber];
+        for (int i = 0; i < stripesNumber; i++) {
+            // shares of max predecessors add up to it
+            stripes[i] = new Stripe(maxPredecessors / stripesNumber + (i < maxPredecessors % stripesNumber ? 1 : 0));
+        }
+    }
+
+    /**
+     * Records transition from predecessor to key if predecessor is provided, and returns likely successors of key
+     *
+     * @param predecessor     key read before key, or null if there is no transition
+     * @param key             read key
+     * @param minProbability  min estimated probability of returned successors
+     * @param minObservations min number of transitions from key before its successors are returned
+     * @return likely successors of key; empty list if there are none
+     */
+    List<String> recordAndPredict(String predecessor, String key, double minProbability, long minObservations) {
+        if (predecessor != null) {
+            stripe(predecessor).record(predecessor, key, successorsPerKey);
+        }
+        return stripe(key).predict(key, minProbability, minObservations);
+    }
+
+    /**
+     * Returns number of tracked predecessors
+     *
+     * @return number of predecessors
+     */
+    int getPredecessorsNumber() {
+        int predecessorsNumber = 0;
+        for (Stripe stripe : stripes) {
+            predecessorsNumber += stripe.size();
+        }
+        return predecessorsNumber;
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * Predecessors of one stripe with their successors, the least recently read first
+     */
+    private static final class Stripe {
+
+        private final Map<String, Successors> successorsByPredecessor;
+
+        private Stripe(int maxPredecessors) {
+            this.successorsByPredecessor = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Successors> eldest) {
+                    return size() > maxPredecessors;
+                }
+            };
+        }
+
+        private synchronized void record(String predecessor, String key, int successorsPerKey) {
+            successorsByPredecessor.computeIfAbsent(predecessor, x -> new Successors(successorsPerKey)).record(key);
+        }
+
+        private synchronized List<String> predict(String key, double minProbability, long minObservations) {
+            Successors successors = successorsByPredecessor.get(key);
+            return successors != null ? successors.likely(minProbability, minObservations) : List.of();
+        }
+
+        private synchronized int size() {
+            return successorsByPredecessor.size();
+        }
+    }
+
+    /**
+     * Space-Saving counters of successors of one predecessor
+     */
+    private static final class Successors {
+
+        private final String[] keys;
+        private final long[] counts;
+        private final long[] errors;
+        private int size;
+        private long transitionsNumber;
+
+        private Successors(int successorsPerKey) {
+            this.keys = new String[successorsPerKey];
+            this.counts = new long[successorsPerKey];
+            this.errors = new long[successorsPerKey];
+        }
+
+        private void record(String key) {
+            transitionsNumber++;
+            int minIndex = 0;
+            for (int i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    counts[i]++;
+                    return;
+                }
+                if (counts[i] < counts[minIndex]) {
+                    minIndex = i;
+                }
+            }
+            if (size < keys.length) {
+                keys[size] = key;
+                counts[size] = 1;
+                errors[size++] = 0;
+                return;
+            }
+            keys[minIndex] = key;
+            errors[minIndex] = counts[minIndex];
+            counts[minIndex]++;
+        }
+
+        private List<String> likely(double minProbability, long minObservations) {
+            if (transitionsNumber < minObservations) {
+                return List.of();
+            }
+            List<String> likelyKeys = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (counts[i] - errors[i] >= minProbability * transitionsNumber) {
+                    likelyKeys.add(keys[i]);
+                }
+            }
+            return likelyKeys;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.cacheservice.sharedmemory;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheStatisticsObject;
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.invalidation.InvalidationIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Cache service of byte array values stored in shared memory segment, so processes of the host which use
+ * the same segment share cached values. Gets return copies of values; {@link #read(String, Function)} reads
+ * value in place without copying it.
+ * <p>
+ * Objects expire timeout after they are put, not after last access, since reads do not write to the segment.
+ * Byte array values are compared by content. Tags are indexed by this process only, so invalidation by tag removes
+ * objects tagged by this process. Statistics have eviction count of the segment, shared by all processes.
+ */
+public class SharedMemoryCacheService implements CacheService<byte[]> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryCacheService.class.getName());
+
+    private final SharedMemorySegment segment;
+    private final long timeoutInMillis;
+    private final InvalidationIndex invalidationIndex = new InvalidationIndex(false);
+
+    /**
+     * Shared memory cache service constructor
+     *
+     * @param builder builder with shared memory cache service settings
+     */
+    private SharedMemoryCacheService(Builder builder) {
+        UtilityAssertions.assertInputObjectsNotNull(builder.segment);
+
+        this.segment = builder.segment;
+        this.timeoutInMillis = (builder.timeoutInSec > 0 ? builder.timeoutInSec : 5) * 1000;
+        LOGGER.info("SharedMemoryCacheService is created with segment {}", segment.getPath());
+    }
+
+    /**
+     * Get copy of value by key. If there is no value in cache - returns null.
+     *
+     * @param key key
+     * @return value;
+     */
+    @Override
+    public byte[] get(String key) {
+        return segment.get(key);
+    }
+
+    /**
+     * Reads value by key in place without copying it
+     *
+     * @param key    key
+     * @param reader reader of value bytes; see {@link SharedMemorySegment#read(String, Function)}
+     * @param <R>    type of read result
+     * @return read result, or null if there is no value in cache
+     */
+    public <R> R read(String key, Function<ByteBuffer, R> reader) {
+        return segment.read(key, reader);
+    }
+
+    /**
+     * Put value by key
+     *
+     * @param key   key
+     * @param value value
+     */
+    @Override
+    public void put(String key, byte[] value) {
+        segment.put(key, value, timeoutInMillis);
+    }
+
+    /**
+     * Put value by key with tags indexed by this process. Tags are indexed under the write lock of the segment,
+     * so concurrent invalidation by this process never sees the value with tags of another put.
+     *
+     * @param key   key
+     * @param value value
+     * @param tags  tags
+     */
+    @Override
+    public void put(String key, byte[] value, String... tags) {
+        UtilityAssertions.assertInputObjectsNotNull(value, (Object) tags);
+
+        segment.compute(key, (x, storedValue) -> {
+            invalidationIndex.onPut(key, tags);
+            return value;
+        }, timeoutInMillis);
+    }
+
+    /**
+     * Put value by key if cache does not contain the key
+     *
+     * @param key   key
+     * @param value value
+     * @return current value, or null if value is put
+     */
+    @Override
+    public byte[] putIfAbsent(String key, byte[] value) {
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        byte[][] currentValue = new byte[1][];
+        segment.compute(key, (x, storedValue) -> {
+            currentValue[0] = storedValue;
+            return storedValue != null ? storedValue : value;
+        }, timeoutInMillis);
+        return currentValue[0];
+    }
+
+    /**
+     * Get value by key. If there is no value in cache - computes it by mapping function and puts it
+     * into cache atomically
+     *
+     * @param key             key
+     * @param mappingFunction function computing value by key; must not access the cache
+     * @return current or computed value
+     */
+    @Override
+    public byte[] computeIfAbsent(String key, Function<String, ? extends byte[]> mappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(mappingFunction);
+
+        byte[] value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return segment.compute(key, (x, storedValue) -> storedValue != null ? storedValue : mappingFunction.apply(x),
+                timeoutInMillis);
+    }
+
+    /**
+     * Atomically computes value by key and copy of current value. Null computed value removes the key.
+     *
+     * @param key               key
+     * @param remappingFunction function computing value by key and current value; must not access the cache
+     * @return computed value
+     */
+    @Override
+    public byte[] compute(String key, BiFunction<String, ? super byte[], ? extends byte[]> remappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(remappingFunction);
+
+        return segment.compute(key, remappingFunction::apply, timeoutInMillis);
+    }
+
+    /**
+     * Atomically merges copy of current value with the value
+     *
+     * @param key               key
+     * @param value             value
+     * @param remappingFunction function merging current value and the value; must not access the cache
+     * @return merged value
+     */
+    @Override
+    public byte[] merge(String key, byte[] value, BiFunction<? super byte[], ? super byte[], ? extends byte[]> remappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(value, remappingFunction);
+
+        return compute(key, (x, currentValue) -> currentValue != null ? remappingFunction.apply(currentValue, value) : value);
+    }
+
+    /**
+     * Replaces value by key if cache contains the key
+     *
+     * @param key   key
+     * @param value value
+     * @return replaced value, or null if cache does not contain the key
+     */
+    @Override
+    public byte[] replace(String key, byte[] value) {
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        byte[][] replacedValue = new byte[1][];
+        segment.compute(key, (x, storedValue) -> {
+            replacedValue[0] = storedValue;
+            return storedValue != null ? value : null;
+        }, timeoutInMillis);
+        return replacedValue[0];
+    }
+
+    /**
+     * Replaces value by key if current value has the same content as the old value
+     *
+     * @param key      key
+     * @param oldValue expected current value
+     * @param newValue new value
+     * @return true if value is replaced
+     */
+    @Override
+    public boolean replace(String key, byte[] oldValue, byte[] newValue) {
+        UtilityAssertions.assertInputObjectsNotNull(oldValue, newValue);
+
+        AtomicBoolean replaced = new AtomicBoolean();
+        segment.compute(key, (x, storedValue) -> {
+            if (!Arrays.equals(oldValue, storedValue)) {
+                return storedValue;
+            }
+            replaced.set(true);
+            return newValue;
+        }, timeoutInMillis);
+        return replaced.get();
+    }
+
+    /**
+     * Removes object with key from cache
+     *
+     * @param key key
+     * @return true if cache contained the key
+     */
+    @Override
+    public boolean invalidate(String key) {
+        boolean[] invalidated = new boolean[1];
+        segment.compute(key, (x, storedValue) -> {
+            invalidated[0] = storedValue != null;
+            invalidationIndex.onRemove(key);
+            return null;
+        }, timeoutInMillis);
+        return invalidated[0];
+    }
+
+    /**
+     * Removes objects tagged by tag by this process
+     *
+     * @param tag tag
+     * @return number of removed objects
+     */
+    @Override
+    public int invalidateByTag(String tag) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(tag);
+
+        int invalidatedNumber = 0;
+        for (String key : invalidationIndex.removeTag(tag)) {
+            if (invalidate(key)) {
+                invalidatedNumber++;
+            }
+        }
+        LOGGER.trace("{} objects with tag {} are invalidated", invalidatedNumber, tag);
+        return invalidatedNumber;
+    }
+
+    /**
+     * Removes objects with keys starting with prefix, scanning index of the segment
+     *
+     * @param prefix prefix
+     * @return number of removed objects
+     */
+    @Override
+    public int invalidateByPrefix(String prefix) {
+        return segment.removeByPrefix(prefix);
+    }
+
+    /**
+     * Returns weakly consistent stream of copies of entries of the segment which are not expired
+     *
+     * @return stream of entries
+     */
+    @Override
+    public Stream<Map.Entry<String, byte[]>> entries() {
+        return segment.entries();
+    }
+
+    /**
+     * Return statistics with eviction count of the segment
+     *
+     * @return cache statistics object
+     */
+    @Override
+    public CacheStatisticsObject returnCacheStatistics() {
+        return new CacheStatisticsObject(segment.getEvictionsNumber(), 0);
+    }
+
+    /**
+     * Remove expired objects from the segment
+     */
+    @Override
+    public void cacheCleanUp() {
+        int removedNumber = segment.removeExpired();
+        LOGGER.trace("{} expired objects are removed", removedNumber);
+    }
+
+    /**
+     * Close the segment. Its file and content stay for other processes.
+     */
+    @Override
+    public void close() {
+        segment.close();
+    }
+
+    /**
+     * Builder for Shared Memory Cache Service
+     */
+    public static class Builder {
+
+        private SharedMemorySegment segment;
+        private long timeoutInSec;
+
+        /**
+         * Set shared memory segment to builder
+         *
+         * @param segment shared memory segment
+         * @return builder
+         */
+        public Builder segment(SharedMemorySegment segment) {
+            this.segment = segment;
+            return this;
+        }
+
+        /**
+         * Set timeout time in secs to builder
+         *
+         * @param timeoutInSec time in secs after which put object expires; if negative value or 0 provided,
+         *                     default value = 5
+         * @return builder
+         */
+        public Builder timeoutInSec(long timeoutInSec) {
+            this.timeoutInSec = timeoutInSec;
+            return this;
+        }
+
+        /**
+         * Builds Shared Memory Cache service instance
+         *
+         * @return Shared Memory Cache service instance
+         */
+        public SharedMemoryCacheService build() {
+            return new SharedMemoryCacheService(this);
+        }
+    }
+}
@@ -0,0 +1,1102 @@
+package com.cacheservice.sharedmemory;
+
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.simplejava.TimeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Host-local cache segment in memory-mapped file, shared by all processes which open the same file. In /dev/shm
+ * the file lives in memory, so processes of the host keep one copy of cached values instead of one copy each.
+ * <p>
+ * Segment file consists of:
+ * - header with segment parameters and shared counters
+ * - index: open-addressing hash table of slots with linear probing; slot is empty, tombstone, or tag of key hash
+ *   and offset of entry
+ * - data area of entries: sequence number, expiry time, key length, value length, capacity, state, key and value
+ *   in UTF-8 and raw bytes. Entries are allocated from the start of data area to its end.
+ * <p>
+ * Reads are lock-free and do not write to the segment: slots are read by volatile reads, and entries are protected
+ * by seqlock, i.e. sequence number of entry is odd while the entry is written, so reader retries if the sequence
+ * number is odd or has changed while it read the entry, or if the slot does not point to the entry anymore. Value
+ * can be read in place by {@link #read(String, Function)} without copying it. Entry which stays odd is left by writer
+ * which died while writing it: reader which gets the write lock without waiting removes such entry, and reader
+ * which cannot get it gives up after a second and treats the key as absent.
+ * <p>
+ * Writes are done by one writer at a time: writer holds exclusive lock of the segment file, so processes do not
+ * write concurrently, and lock of this process, since file lock is held by process. Updated value which fits into
+ * capacity of its entry is written in place; otherwise new entry is written and published by replacing offset
+ * in the slot, and the old entry is marked removed. When max entries number is reached or data area is full,
+ * writer scans entries from its hand, like FIFO, and reuses removed and expired entries, then evicts live ones.
+ * When no single entry is large enough, adjacent entries are merged into one, so every value which fits into data
+ * area can be written.
+ * <p>
+ * Entries expire at expiry time stored in the entry, which is write time plus time to live, since reads do not
+ * write. Expired entries are not returned and are removed by writers. Segment size is fixed when the file is
+ * created; parameters of existing segment file win over builder ones.
+ */
+public class SharedMemorySegment implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemorySegment.class.getName());
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private static final int MAGIC = 0x43534D53;
+    private static final int VERSION = 1;
+
+    // header
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOTS_NUMBER_OFFSET = 8;
+    private static final int MAX_ENTRIES_OFFSET = 12;
+    private static final int TOP_OFFSET = 16;
+    private static final int HAND_OFFSET = 24;
+    private static final int ENTRIES_NUMBER_OFFSET = 32;
+    private static final int EVICTIONS_NUMBER_OFFSET = 40;
+    private static final int HEADER_SIZE = 64;
+
+    // slots
+    private static final long EMPTY = 0;
+    private static final long TOMBSTONE = -1;
+
+    // entry
+    private static final int SEQUENCE_OFFSET = 0;
+    private static final int EXPIRY_OFFSET = 8;
+    private static final int KEY_LENGTH_OFFSET = 16;
+    private static final int VALUE_LENGTH_OFFSET = 20;
+    private static final int CAPACITY_OFFSET = 24;
+    private static final int STATE_OFFSET = 28;
+    private static final int ENTRY_HEADER_SIZE = 32;
+    private static final int LIVE = 1;
+    private static final int REMOVED = 2;
+
+    // read results other than value
+    private static final Object OTHER_KEY = new Object();
+    private static final Object ABSENT = new Object();
+
+    private static final int SPINS_BEFORE_YIELD = 1000;
+    private static final long MAX_READ_WAIT_IN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final Map<Path, ReentrantLock> PROCESS_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path path;
+    private final TimeService timeService;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int sizeInBytes;
+    private final int slotsNumber;
+    private final int maxEntries;
+    private final int dataStart;
+    private final ReentrantLock processLock;
+    // guarded by write lock
+    private final ByteBuffer writeView;
+    private FileLock fileLock;
+    // pooled by segment, not by thread locals, so threads do not keep closed segment and its mapping reachable
+    private final AtomicReferenceArray<ByteBuffer> readViews;
+    private final LongAdder readRetriesNumber = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Shared memory segment constructor. Opens segment file, creating and initializing it if it does not exist.
+     *
+     * @param builder builder with shared memory segment settings
+     */
+    private SharedMemorySegment(Builder builder) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(builder.name);
+        this.path = (builder.directory != null ? builder.directory : Paths.get("/dev/shm")).resolve(builder.name)
+                .toAbsolutePath().normalize();
+        this.timeService = builder.timeService != null ? builder.timeService : new TimeService();
+        this.processLock = PROCESS_LOCKS.computeIfAbsent(path, x -> new ReentrantLock());
+
+        int requestedMaxEntries = builder.maxEntries > 0 ? builder.maxEntries : 10_000;
+        long requestedDataSize = builder.dataSizeInBytes > 0 ? builder.dataSizeInBytes : 64L * 1024 * 1024;
+        int requestedSlotsNumber = Integer.highestOneBit(Math.max(requestedMaxEntries, 1) * 2 - 1) << 1;
+        long requestedSize = HEADER_SIZE + (long) requestedSlotsNumber * Long.BYTES + align(requestedDataSize);
+        if (requestedMaxEntries > 1 << 28 || requestedSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment of " + requestedMaxEntries + " entries and "
+                    + requestedDataSize + " bytes of data is too large");
+        }
+
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            processLock.lock();
+            try (FileLock ignored = channel.lock()) {
+                boolean created = channel.size() == 0;
+                if (created) {
+                    channel.write(ByteBuffer.allocate(1), requestedSize - 1);
+                }
+                this.sizeInBytes = (int) channel.size();
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeInBytes);
+                buffer.order(ByteOrder.nativeOrder());
+                if (created) {
+                    buffer.putInt(VERSION_OFFSET, VERSION);
+                    buffer.putInt(SLOTS_NUMBER_OFFSET, requestedSlotsNumber);
+                    buffer.putInt(MAX_ENTRIES_OFFSET, requestedMaxEntries);
+                    buffer.putLong(TOP_OFFSET, HEADER_SIZE + (long) requestedSlotsNumber * Long.BYTES);
+                    buffer.putLong(HAND_OFFSET, HEADER_SIZE + (long) requestedSlotsNumber * Long.BYTES);
+                    INTS.setVolatile(buffer, MAGIC_OFFSET, MAGIC);
+                }
+            } finally {
+                processLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Segment file " + path + " is not opened", e);
+        }
+
+        if ((int) INTS.getVolatile(buffer, MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION) {
+            close();
+            throw new IllegalStateException("File " + path + " is not a shared memory segment of version " + VERSION);
+        }
+        this.slotsNumber = buffer.getInt(SLOTS_NUMBER_OFFSET);
+        this.maxEntries = buffer.getInt(MAX_ENTRIES_OFFSET);
+        this.dataStart = HEADER_SIZE + slotsNumber * Long.BYTES;
+        this.writeView = buffer.duplicate();
+        this.readViews = new AtomicReferenceArray<>(Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2);
+        LOGGER.info("Shared memory segment {} of {} bytes for {} entries is opened", path, sizeInBytes, maxEntries);
+    }
+
+    /**
+     * Reads value by key in place. Reader gets read-only buffer which position and limit are bounds of the value
+     * in the segment, so the value is not copied. Reader may be called again if the value is changed while it is
+     * read, so it must not have side effects, must tolerate inconsistent bytes, must not keep the buffer
+     * and must not access the segment.
+     *
+     * @param key    key
+     * @param reader reader of value bytes
+     * @param <R>    type of read result
+     * @return read result, or null if segment does not contain the key or its entry is expired
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R read(String key, Function<ByteBuffer, R> reader) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(reader);
+        assertOpen();
+
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        int hash = hash(key);
+        int tag = tag(hash);
+        int mask = slotsNumber - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < slotsNumber; probes++, slot = (slot + 1) & mask) {
+            long slotValue = getSlot(slot);
+            while (slotValue != EMPTY && slotValue != TOMBSTONE && slotTag(slotValue) == tag) {
+                Object result = readConsistently(slotOffset(slotValue), (entryOffset, keyLength, valueLength) -> {
+                    if (!keyEquals(entryOffset + ENTRY_HEADER_SIZE, keyLength, key)) {
+                        return OTHER_KEY;
+                    }
+                    if (isExpired(buffer.getLong(entryOffset + EXPIRY_OFFSET), currentTime)) {
+                        return ABSENT;
+                    }
+                    int valueStart = entryOffset + ENTRY_HEADER_SIZE + keyLength;
+                    ByteBuffer view = borrowReadView();
+                    try {
+                        view.clear().limit(valueStart + valueLength).position(valueStart);
+                        return reader.apply(view);
+                    } finally {
+                        returnReadView(view);
+                    }
+                });
+                // entry may be replaced, removed or merged into another entry while it was read, so its result
+                // is returned only if the slot still points to it
+                long currentSlotValue = getSlot(slot);
+                if (currentSlotValue == slotValue) {
+                    if (result == ABSENT) {
+                        return null;
+                    }
+                    if (result != OTHER_KEY) {
+                        return (R) result;
+                    }
+                    break;
+                }
+                slotValue = currentSlotValue;
+            }
+            if (slotValue == EMPTY) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns copy of value by key
+     *
+     * @param key key
+     * @return value, or null if segment does not contain the key or its entry is expired
+     */
+    public byte[] get(String key) {
+        return read(key, view -> {
+            byte[] value = new byte[view.remaining()];
+            view.get(value);
+            return value;
+        });
+    }
+
+    /**
+     * Returns whether segment contains key which entry is not expired
+     *
+     * @param key key
+     * @return true if segment contains the key
+     */
+    public boolean containsKey(String key) {
+        return read(key, view -> Boolean.TRUE) != null;
+    }
+
+    /**
+     * Puts value by key
+     *
+     * @param key                key
+     * @param value              value
+     * @param timeToLiveInMillis time to live of the entry in millis; if negative value or 0 provided,
+     *                           the entry does not expire
+     */
+    public void put(String key, byte[] value, long timeToLiveInMillis) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        lockForWrite();
+        try {
+            write(keyBytes, hash, findSlot(keyBytes, hash), value, expiryTime(timeToLiveInMillis));
+        } finally {
+            unlockForWrite();
+        }
+    }
+
+    /**
+     * Atomically computes value by key and current value. Null computed value removes the key. Computed value
+     * which is current value itself is not written, so its expiry time is kept.
+     *
+     * @param key                key
+     * @param remappingFunction  function computing value by key and copy of current value, or null if there is
+     *                           no current value; must not access the segment
+     * @param timeToLiveInMillis time to live of written entry in millis; if negative value or 0 provided,
+     *                           the entry does not expire
+     * @return computed value
+     */
+    public byte[] compute(String key, BiFunction<String, byte[], byte[]> remappingFunction, long timeToLiveInMillis) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(remappingFunction);
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        lockForWrite();
+        try {
+            int slot = findSlot(keyBytes, hash);
+            byte[] currentValue = null;
+            if (slot >= 0) {
+                int entryOffset = slotOffset(getSlot(slot));
+                if (isExpired(buffer.getLong(entryOffset + EXPIRY_OFFSET), timeService.getTimeWithSystemDefaultZoneEpochMilli())) {
+                    removeAt(slot);
+                    slot = -1;
+                } else {
+                    currentValue = copyValue(entryOffset);
+                }
+            }
+
+            byte[] newValue = remappingFunction.apply(key, currentValue);
+            if (newValue == null) {
+                if (slot >= 0) {
+                    removeAt(slot);
+                }
+            } else if (newValue != currentValue) {
+                write(keyBytes, hash, slot, newValue, expiryTime(timeToLiveInMillis));
+            }
+            return newValue;
+        } finally {
+            unlockForWrite();
+        }
+    }
+
+    /**
+     * Removes key from segment
+     *
+     * @param key key
+     * @return true if segment contained the key and its entry was not expired
+     */
+    public boolean remove(String key) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lockForWrite();
+        try {
+            int slot = findSlot(keyBytes, hash(key));
+            if (slot < 0) {
+                return false;
+            }
+            boolean expired = isExpired(buffer.getLong(slotOffset(getSlot(slot)) + EXPIRY_OFFSET),
+                    timeService.getTimeWithSystemDefaultZoneEpochMilli());
+            removeAt(slot);
+            return !expired;
+        } finally {
+            unlockForWrite();
+        }
+    }
+
+    /**
+     * Removes keys starting with prefix from segment, scanning the index
+     *
+     * @param prefix prefix
+     * @return number of removed keys
+     */
+    public int removeByPrefix(String prefix) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(prefix);
+
+        return removeIf((key, entryOffset) -> key.startsWith(prefix));
+    }
+
+    /**
+     * Removes expired entries from segment, scanning the index
+     *
+     * @return number of removed entries
+     */
+    public int removeExpired() {
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        return removeIf((key, entryOffset) -> isExpired(buffer.getLong(entryOffset + EXPIRY_OFFSET), currentTime));
+    }
+
+    /**
+     * Returns weakly consistent stream of copies of entries which are not expired. Entries are read lock-free
+     * by scanning the index.
+     *
+     * @return stream of entries
+     */
+    public Stream<Map.Entry<String, byte[]>> entries() {
+        assertOpen();
+
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        return IntStream.range(0, slotsNumber)
+                .mapToObj(slot -> {
+                    long slotValue = getSlot(slot);
+                    if (slotValue == EMPTY || slotValue == TOMBSTONE) {
+                        return null;
+                    }
+                    Object entry = readConsistently(slotOffset(slotValue), (entryOffset, keyLength, valueLength) ->
+                            isExpired(buffer.getLong(entryOffset + EXPIRY_OFFSET), currentTime)
+                                    ? ABSENT
+                                    : Map.entry(readKey(entryOffset, keyLength), copyValue(entryOffset)));
+                    return entry instanceof Map.Entry && getSlot(slot) == slotValue ? castEntry(entry) : null;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Returns number of live entries, including expired ones which are not removed yet
+     *
+     * @return number of entries
+     */
+    public long getEntriesNumber() {
+        return (long) LONGS.getVolatile(buffer, ENTRIES_NUMBER_OFFSET);
+    }
+
+    /**
+     * Returns max number of entries
+     *
+     * @return max number of entries
+     */
+    public int getMaxEntriesNumber() {
+        return maxEntries;
+    }
+
+    /**
+     * Returns number of entries evicted by writers of all processes
+     *
+     * @return number of evictions
+     */
+    public long getEvictionsNumber() {
+        return (long) LONGS.getVolatile(buffer, EVICTIONS_NUMBER_OFFSET);
+    }
+
+    /**
+     * Returns number of bytes of data area taken by entries, including removed ones which may be reused
+     *
+     * @return used bytes
+     */
+    public long getUsedBytes() {
+        return (long) LONGS.getVolatile(buffer, TOP_OFFSET) - dataStart;
+    }
+
+    /**
+     * Returns size of segment file in bytes
+     *
+     * @return size in bytes
+     */
+    public int getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /**
+     * Returns number of reads of this process retried because entry was written while it was read
+     *
+     * @return number of read retries
+     */
+    public long getReadRetriesNumber() {
+        return readRetriesNumber.sum();
+    }
+
+    /**
+     * Returns path of segment file
+     *
+     * @return path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Closes segment file. The file and its content stay for other processes; the mapping is released
+     * when it is garbage collected. Closing closed segment does nothing.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.error("Segment file {} is not closed", path, e);
+        }
+        LOGGER.info("Shared memory segment {} is closed", path);
+    }
+
+    /**
+     * Reads entry until it is not written while it is read and returns result of visitor
+     *
+     * @param entryOffset entry offset
+     * @param visitor     visitor of live entry
+     * @return result of visitor, or OTHER_KEY if entry is not live, was left written by writer which died,
+     * or is written for too long
+     */
+    private Object readConsistently(int entryOffset, EntryVisitor visitor) {
+        long deadline = 0;
+        for (int attempt = 0; ; attempt++) {
+            long sequence = (long) LONGS.getVolatile(buffer, entryOffset + SEQUENCE_OFFSET);
+            if ((sequence & 1) == 0) {
+                Object result = null;
+                RuntimeException failure = null;
+                try {
+                    result = visitLive(entryOffset, visitor);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                VarHandle.loadLoadFence();
+                if ((long) LONGS.getVolatile(buffer, entryOffset + SEQUENCE_OFFSET) == sequence) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    return result;
+                }
+            }
+
+            readRetriesNumber.increment();
+            if (attempt < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (deadline == 0) {
+                if (repairIfWriterDied(entryOffset)) {
+                    return OTHER_KEY;
+                }
+                deadline = System.nanoTime() + MAX_READ_WAIT_IN_NANOS;
+            } else if (System.nanoTime() > deadline) {
+                LOGGER.warn("Entry at {} of segment {} is written for too long and is not read", entryOffset, path);
+                return OTHER_KEY;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Removes entry which sequence number stays odd if no writer holds the write lock, so the entry was left
+     * by writer which died while writing it. Lock is not waited for, so reader is not blocked by live writers.
+     *
+     * @return true if reader should not read the entry anymore
+     */
+    private boolean repairIfWriterDied(int entryOffset) {
+        // file lock is held by process, so thread which already writes the segment must not lock the file again
+        if (closed || processLock.isHeldByCurrentThread() || !processLock.tryLock()) {
+            return false;
+        }
+        try (FileLock lock = channel.tryLock()) {
+            if (lock == null || ((long) LONGS.getVolatile(buffer, entryOffset + SEQUENCE_OFFSET) & 1) == 0) {
+                return false;
+            }
+            // entry of torn key is found by offset, not by hash of the key
+            for (int slot = 0; slot < slotsNumber; slot++) {
+                long slotValue = getSlot(slot);
+                if (slotValue != EMPTY && slotValue != TOMBSTONE && slotOffset(slotValue) == entryOffset) {
+                    removeAt(slot);
+                    LOGGER.warn("Entry at {} of segment {} left written by writer which died is removed",
+                            entryOffset, path);
+                    break;
+                }
+            }
+            // entry which no slot points to is reused by writers, which end its write
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Segment file {} is not locked for repair", path, e);
+            return false;
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    private Object visitLive(int entryOffset, EntryVisitor visitor) {
+        if (buffer.getInt(entryOffset + STATE_OFFSET) != LIVE) {
+            return OTHER_KEY;
+        }
+        int keyLength = buffer.getInt(entryOffset + KEY_LENGTH_OFFSET);
+        int valueLength = buffer.getInt(entryOffset + VALUE_LENGTH_OFFSET);
+        int capacity = buffer.getInt(entryOffset + CAPACITY_OFFSET);
+        // lengths of entry written concurrently may be inconsistent
+        if (keyLength < 0 || valueLength < 0 || (long) keyLength + valueLength > capacity
+                || (long) entryOffset + ENTRY_HEADER_SIZE + capacity > sizeInBytes) {
+            return OTHER_KEY;
+        }
+        return visitor.visit(entryOffset, keyLength, valueLength);
+    }
+
+    /**
+     * Compares key bytes in segment with key without encoding ASCII key
+     */
+    private boolean keyEquals(int keyOffset, int keyLength, String key) {
+        int length = key.length();
+        if (keyLength < length) {
+            return false;
+        }
+        if (keyLength == length) {
+            for (int i = 0; i < length; i++) {
+                char c = key.charAt(i);
+                // non-ASCII key is longer in UTF-8
+                if (c >= 0x80 || buffer.get(keyOffset + i) != (byte) c) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        return keyBytes.length == keyLength && bytesEqual(keyOffset, keyBytes);
+    }
+
+    private boolean bytesEqual(int offset, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(offset + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readKey(int entryOffset, int keyLength) {
+        byte[] keyBytes = new byte[keyLength];
+        ByteBuffer view = borrowReadView();
+        try {
+            view.clear().position(entryOffset + ENTRY_HEADER_SIZE);
+            view.get(keyBytes);
+        } finally {
+            returnReadView(view);
+        }
+        return new String(keyBytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] copyValue(int entryOffset) {
+        int keyLength = buffer.getInt(entryOffset + KEY_LENGTH_OFFSET);
+        byte[] value = new byte[buffer.getInt(entryOffset + VALUE_LENGTH_OFFSET)];
+        ByteBuffer view = borrowReadView();
+        try {
+            view.clear().position(entryOffset + ENTRY_HEADER_SIZE + keyLength);
+            view.get(value);
+        } finally {
+            returnReadView(view);
+        }
+        return value;
+    }
+
+    /**
+     * Takes read-only view of the segment from the pool, or creates it if the pool has no view for current thread
+     */
+    private ByteBuffer borrowReadView() {
+        ByteBuffer view = readViews.getAndSet(readViewIndex(), null);
+        return view != null ? view : buffer.asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private void returnReadView(ByteBuffer view) {
+        readViews.lazySet(readViewIndex(), view);
+    }
+
+    private int readViewIndex() {
+        return (int) Thread.currentThread().getId() & (readViews.length() - 1);
+    }
+
+    /**
+     * Finds slot of live entry with key. Called by writer.
+     *
+     * @return slot, or -1 if segment does not contain the key
+     */
+    private int findSlot(byte[] keyBytes, int hash) {
+        int tag = tag(hash);
+        int mask = slotsNumber - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < slotsNumber; probes++, slot = (slot + 1) & mask) {
+            long slotValue = getSlot(slot);
+            if (slotValue == EMPTY) {
+                return -1;
+            }
+            if (slotValue != TOMBSTONE && slotTag(slotValue) == tag) {
+                int entryOffset = slotOffset(slotValue);
+                if (buffer.getInt(entryOffset + KEY_LENGTH_OFFSET) == keyBytes.length
+                        && bytesEqual(entryOffset + ENTRY_HEADER_SIZE, keyBytes)) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds slot pointing to entry. Called by writer.
+     *
+     * @return slot, or -1 if no slot points to the entry
+     */
+    private int findSlot(int entryOffset) {
+        int keyLength = buffer.getInt(entryOffset + KEY_LENGTH_OFFSET);
+        int hash = hash(readKey(entryOffset, keyLength));
+        int mask = slotsNumber - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < slotsNumber; probes++, slot = (slot + 1) & mask) {
+            long slotValue = getSlot(slot);
+            if (slotValue == EMPTY) {
+                return -1;
+            }
+            if (slotValue != TOMBSTONE && slotOffset(slotValue) == entryOffset) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes value of key in place if it fits into current entry, otherwise into new entry which replaces
+     * the current one in the index. Called by writer.
+     */
+    private void write(byte[] keyBytes, int hash, int slot, byte[] value, long expiryTime) {
+        if (ENTRY_HEADER_SIZE + align((long) keyBytes.length + value.length) > sizeInBytes - dataStart) {
+            throw new IllegalArgumentException("Entry of " + (keyBytes.length + value.length)
+                    + " bytes is larger than data area of segment " + path + "!");
+        }
+        if (slot >= 0) {
+            int entryOffset = slotOffset(getSlot(slot));
+            if ((long) keyBytes.length + value.length <= buffer.getInt(entryOffset + CAPACITY_OFFSET)) {
+                beginWrite(entryOffset);
+                buffer.putLong(entryOffset + EXPIRY_OFFSET, expiryTime);
+                buffer.putInt(entryOffset + VALUE_LENGTH_OFFSET, value.length);
+                writeView.clear().position(entryOffset + ENTRY_HEADER_SIZE + keyBytes.length);
+                writeView.put(value);
+                endWrite(entryOffset);
+                return;
+            }
+        }
+
+        int entryOffset = allocate(keyBytes.length + value.length, slot >= 0);
+        beginWrite(entryOffset);
+        buffer.putLong(entryOffset + EXPIRY_OFFSET, expiryTime);
+        buffer.putInt(entryOffset + KEY_LENGTH_OFFSET, keyBytes.length);
+        buffer.putInt(entryOffset + VALUE_LENGTH_OFFSET, value.length);
+        buffer.putInt(entryOffset + STATE_OFFSET, LIVE);
+        writeView.clear().position(entryOffset + ENTRY_HEADER_SIZE);
+        writeView.put(keyBytes).put(value);
+        endWrite(entryOffset);
+
+        // allocation may have evicted the current entry
+        slot = findSlot(keyBytes, hash);
+        long slotValue = ((long) tag(hash) << 32) | entryOffset;
+        if (slot >= 0) {
+            int previousEntryOffset = slotOffset(getSlot(slot));
+            LONGS.setVolatile(buffer, slotPosition(slot), slotValue);
+            retire(previousEntryOffset);
+            return;
+        }
+        LONGS.setVolatile(buffer, slotPosition(freeSlot(hash)), slotValue);
+        addToLong(ENTRIES_NUMBER_OFFSET, 1);
+    }
+
+    /**
+     * Returns the first tombstone or empty slot in probe sequence of hash. Called by writer, after it has made sure
+     * segment does not contain the key.
+     */
+    private int freeSlot(int hash) {
+        int mask = slotsNumber - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < slotsNumber; probes++, slot = (slot + 1) & mask) {
+            long slotValue = getSlot(slot);
+            if (slotValue == EMPTY || slotValue == TOMBSTONE) {
+                return slot;
+            }
+        }
+        throw new IllegalStateException("Index of segment " + path + " is full");
+    }
+
+    /**
+     * Allocates entry with capacity of at least size bytes: from free data area, or by reusing removed, expired
+     * or evicted entries found from hand. Called by writer.
+     *
+     * @param size     key and value size in bytes
+     * @param replaces whether the entry replaces an entry of the same key, so number of entries does not grow
+     * @return entry offset
+     */
+    private int allocate(int size, boolean replaces) {
+        while (!replaces && getEntriesNumber() >= maxEntries) {
+            reclaim(0, true);
+        }
+
+        int capacity = (int) align(size);
+        long top = (long) LONGS.get(buffer, TOP_OFFSET);
+        if (top + ENTRY_HEADER_SIZE + capacity <= sizeInBytes) {
+            buffer.putInt((int) top + CAPACITY_OFFSET, capacity);
+            LONGS.setVolatile(buffer, TOP_OFFSET, top + ENTRY_HEADER_SIZE + capacity);
+            return (int) top;
+        }
+
+        int entryOffset = reclaim(capacity, false);
+        if (entryOffset < 0) {
+            entryOffset = reclaim(capacity, true);
+        }
+        if (entryOffset < 0) {
+            throw new IllegalStateException("Segment " + path + " has no room for entry of " + size + " bytes");
+        }
+        return entryOffset;
+    }
+
+    /**
+     * Scans entries from hand and returns the first run of adjacent removed or expired entries, or live ones
+     * if eviction is allowed, which has room for entry of min capacity. Run which ends at top also has room
+     * of free data area. Live entries of the run are removed from index, and entries of the run are merged into
+     * one entry. Runs do not wrap around the end of data area, so run which starts before hand is scanned
+     * past hand. Hand is moved after returned entry. Called by writer.
+     *
+     * @return entry offset, or -1 if there is no such run
+     */
+    private int reclaim(int minCapacity, boolean evict) {
+        int top = (int) (long) LONGS.get(buffer, TOP_OFFSET);
+        if (top == dataStart) {
+            return -1;
+        }
+        int hand = (int) (long) LONGS.get(buffer, HAND_OFFSET);
+        int start = hand < top ? hand : dataStart;
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        int entryOffset = start;
+        int runStart = -1;
+        boolean wrapped = false;
+        while (!wrapped || entryOffset < start || runStart >= 0) {
+            int nextEntryOffset = entryOffset + ENTRY_HEADER_SIZE + buffer.getInt(entryOffset + CAPACITY_OFFSET);
+            int state = buffer.getInt(entryOffset + STATE_OFFSET);
+            if (state != LIVE || evict || isExpired(buffer.getLong(entryOffset + EXPIRY_OFFSET), currentTime)) {
+                runStart = runStart >= 0 ? runStart : entryOffset;
+                if (nextEntryOffset - runStart - ENTRY_HEADER_SIZE >= minCapacity) {
+                    return takeRun(runStart, nextEntryOffset, nextEntryOffset, currentTime);
+                }
+                if (nextEntryOffset >= top && (long) runStart + ENTRY_HEADER_SIZE + minCapacity <= sizeInBytes) {
+                    return takeRun(runStart, nextEntryOffset, runStart + ENTRY_HEADER_SIZE + minCapacity, currentTime);
+                }
+            } else {
+                runStart = -1;
+            }
+            if (nextEntryOffset < top) {
+                entryOffset = nextEntryOffset;
+            } else if (wrapped) {
+                return -1;
+            } else {
+                wrapped = true;
+                entryOffset = dataStart;
+                runStart = -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes live entries of run from index and merges entries of the run into one entry. Entry which ends
+     * past the run takes free data area after top. Called by writer.
+     *
+     * @return offset of merged entry
+     */
+    private int takeRun(int runStart, int runEnd, int entryEnd, long currentTime) {
+        for (int entryOffset = runStart; entryOffset < runEnd; ) {
+            int nextEntryOffset = entryOffset + ENTRY_HEADER_SIZE + buffer.getInt(entryOffset + CAPACITY_OFFSET);
+            if (buffer.getInt(entryOffset + STATE_OFFSET) == LIVE) {
+                boolean expired = isExpired(buffer.getLong(entryOffset + EXPIRY_OFFSET), currentTime);
+                removeAt(findSlot(entryOffset));
+                if (!expired) {
+                    addToLong(EVICTIONS_NUMBER_OFFSET, 1);
+                }
+            }
+            entryOffset = nextEntryOffset;
+        }
+
+        // readers of merged entries check that slots still point to them, and no slot points to them anymore
+        buffer.putInt(runStart + CAPACITY_OFFSET, entryEnd - runStart - ENTRY_HEADER_SIZE);
+        int top = (int) (long) LONGS.get(buffer, TOP_OFFSET);
+        if (entryEnd != runEnd) {
+            top = entryEnd;
+            LONGS.setVolatile(buffer, TOP_OFFSET, (long) top);
+        }
+        LONGS.setVolatile(buffer, HAND_OFFSET, (long) (entryEnd < top ? entryEnd : dataStart));
+        return runStart;
+    }
+
+    /**
+     * Removes entry of slot from index and marks it removed. Tombstones which precede empty slot are not needed
+     * by probing, so they are emptied. Called by writer.
+     */
+    private void removeAt(int slot) {
+        int entryOffset = slotOffset(getSlot(slot));
+        int mask = slotsNumber - 1;
+        LONGS.setVolatile(buffer, slotPosition(slot), TOMBSTONE);
+        if (getSlot((slot + 1) & mask) == EMPTY) {
+            for (int emptied = slot; getSlot(emptied) == TOMBSTONE; emptied = (emptied - 1) & mask) {
+                LONGS.setVolatile(buffer, slotPosition(emptied), EMPTY);
+            }
+        }
+        retire(entryOffset);
+        addToLong(ENTRIES_NUMBER_OFFSET, -1);
+    }
+
+    private void retire(int entryOffset) {
+        beginWrite(entryOffset);
+        buffer.putInt(entryOffset + STATE_OFFSET, REMOVED);
+        endWrite(entryOffset);
+    }
+
+    private int removeIf(BiPredicate<String, Integer> condition) {
+        lockForWrite();
+        try {
+            int removedNumber = 0;
+            for (int slot = 0; slot < slotsNumber; slot++) {
+                long slotValue = getSlot(slot);
+                if (slotValue == EMPTY || slotValue == TOMBSTONE) {
+                    continue;
+                }
+                int entryOffset = slotOffset(slotValue);
+                String key = readKey(entryOffset, buffer.getInt(entryOffset + KEY_LENGTH_OFFSET));
+                if (condition.test(key, entryOffset)) {
+                    removeAt(slot);
+                    removedNumber++;
+                }
+            }
+            LOGGER.trace("{} entries are removed from segment {}", removedNumber, path);
+            return removedNumber;
+        } finally {
+            unlockForWrite();
+        }
+    }
+
+    /**
+     * Makes sequence number of entry odd, so readers retry until the entry is written. Odd sequence number left
+     * by writer which died while writing stays odd.
+     */
+    private void beginWrite(int entryOffset) {
+        long sequence = (long) LONGS.get(buffer, entryOffset + SEQUENCE_OFFSET);
+        LONGS.setVolatile(buffer, entryOffset + SEQUENCE_OFFSET, sequence | 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite(int entryOffset) {
+        long sequence = (long) LONGS.get(buffer, entryOffset + SEQUENCE_OFFSET);
+        LONGS.setRelease(buffer, entryOffset + SEQUENCE_OFFSET, sequence + 1);
+    }
+
+    private void lockForWrite() {
+        assertOpen();
+        processLock.lock();
+        try {
+            fileLock = channel.lock();
+        } catch (IOException e) {
+            processLock.unlock();
+            throw new UncheckedIOException("Segment file " + path + " is not locked", e);
+        }
+    }
+
+    private void unlockForWrite() {
+        try {
+            fileLock.release();
+        } catch (IOException e) {
+            LOGGER.error("Segment file {} is not unlocked", path, e);
+        } finally {
+            fileLock = null;
+            processLock.unlock();
+        }
+    }
+
+    private void addToLong(int offset, long delta) {
+        LONGS.setVolatile(buffer, offset, (long) LONGS.get(buffer, offset) + delta);
+    }
+
+    private long getSlot(int slot) {
+        return (long) LONGS.getVolatile(buffer, slotPosition(slot));
+    }
+
+    private long expiryTime(long timeToLiveInMillis) {
+        return timeToLiveInMillis > 0 ? timeService.getTimeWithSystemDefaultZoneEpochMilli() + timeToLiveInMillis : 0;
+    }
+
+    private void assertOpen() {
+        if (closed) {
+            throw new IllegalStateException("Segment " + path + " is closed!");
+        }
+    }
+
+    private static boolean isExpired(long expiryTime, long currentTime) {
+        return expiryTime != 0 && expiryTime <= currentTime;
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_SIZE + slot * Long.BYTES;
+    }
+
+    private static int slotTag(long slotValue) {
+        return (int) (slotValue >>> 32);
+    }
+
+    private static int slotOffset(long slotValue) {
+        return (int) slotValue;
+    }
+
+    /**
+     * Hash of key, the same in every process since hash code of string is specified
+     */
+    private static int hash(String key) {
+        int hash = key.hashCode();
+        hash = (hash ^ (hash >>> 16)) * 0x85EBCA6B;
+        hash = (hash ^ (hash >>> 13)) * 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tag(int hash) {
+        return hash & Integer.MAX_VALUE;
+    }
+
+    private static long align(long size) {
+        return (size + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map.Entry<String, byte[]> castEntry(Object entry) {
+        return (Map.Entry<String, byte[]>) entry;
+    }
+
+    /**
+     * Visitor of live entry which lengths are consistent
+     */
+    @FunctionalInterface
+    private interface EntryVisitor {
+
+        Object visit(int entryOffset, int keyLength, int valueLength);
+    }
+
+    /**
+     * Builder for shared memory segment
+     */
+    public static class Builder {
+
+        private Path directory;
+        private String name;
+        private int maxEntries;
+        private long dataSizeInBytes;
+        private TimeService timeService;
+
+        /**
+         * Set directory of segment file to builder
+         *
+         * @param directory directory; if null provided, default value = /dev/shm
+         * @return builder
+         */
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Set name of segment file to builder
+         *
+         * @param name file name; processes opening the same file share the segment
+         * @return builder
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Set max entries number of created segment to builder
+         *
+         * @param maxEntries max number of entries; if negative value or 0 provided, default value = 10 000
+         * @return builder
+         */
+        public Builder maxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Set data area size of created segment to builder
+         *
+         * @param dataSizeInBytes size of keys and values with entry headers in bytes;
+         *                        if negative value or 0 provided, default value = 64 MB
+         * @return builder
+         */
+        public Builder dataSizeInBytes(long dataSizeInBytes) {
+            this.dataSizeInBytes = dataSizeInBytes;
+            return this;
+        }
+
+        /**
+         * Set time service to builder
+         *
+         * @param timeService time service; if null provided, default time service is used
+         * @return builder
+         */
+        public Builder timeService(TimeService timeService) {
+            this.timeService = timeService;
+            return this;
+        }
+
+        /**
+         * Opens shared memory segment, creating its file if it does not exist
+         *
+         * @return shared memory segment
+         */
+        public SharedMemorySegment build() {
+            return new SharedMemorySegment(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.cacheservice.simplejava;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Effective capacity of cache service adapting to heap pressure within [min cache size, max cache size]:
+ * halves on heap pressure and evicts down to the new capacity, grows by a quarter when pressure is relieved.
+ */
+final class AdaptiveCapacity implements HeapPressureListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveCapacity.class.getName());
+
+    private final int minCacheSize;
+    private final int maxCacheSize;
+    private final IntConsumer evictionToCapacity;
+    private final AtomicLong resizeCount = new AtomicLong();
+    private volatile int effectiveCapacity;
+
+    /**
+     * Adaptive capacity constructor
+     *
+     * @param minCacheSize       lower bound of effective capacity
+     * @param maxCacheSize       upper bound and initial value of effective capacity
+     * @param evictionToCapacity evicts cache objects until cache size does not exceed given capacity
+     */
+    AdaptiveCapacity(int minCacheSize, int maxCacheSize, IntConsumer evictionToCapacity) {
+        this.maxCacheSize = maxCacheSize;
+        this.minCacheSize = Math.min(Math.max(minCacheSize, 1), maxCacheSize);
+        this.evictionToCapacity = evictionToCapacity;
+        this.effectiveCapacity = maxCacheSize;
+    }
+
+    int getEffectiveCapacity() {
+        return effectiveCapacity;
+    }
+
+    long getResizeCount() {
+        return resizeCount.get();
+    }
+
+    @Override
+    public void onHeapPressure(double occupancy) {
+        int capacity = resize(Math.max(minCacheSize, effectiveCapacity / 2));
+        evictionToCapacity.accept(capacity);
+    }
+
+    @Override
+    public void onHeapPressureRelieved(double occupancy) {
+        int capacity = effectiveCapacity;
+        resize(Math.min(maxCacheSize, capacity + Math.max(1, capacity / 4)));
+    }
+
+    private synchronized int resize(int capacity) {
+        if (capacity != effectiveCapacity) {
+            LOGGER.debug("Effective capacity is changed from {} to {}", effectiveCapacity, capacity);
+            effectiveCapacity = capacity;
+            resizeCount.incrementAndGet();
+        }
+        return capacity;
+    }
+}
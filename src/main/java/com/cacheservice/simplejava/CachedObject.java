@@ -2,21 +2,47 @@ package com.cacheservice.simplejava;
 
 import com.cacheservice.UtilityAssertions;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Entry object of Cache Service.
+ * <p>
+ * Entry is kept compact: frequency and timestamps are primitive fields accessed through VarHandles instead of
+ * separate atomic objects, and the entry itself is the node of the eviction order (see {@link FrequencyOrder}),
+ * so no extra node object is allocated per entry. Entries of cost aware eviction orders are
+ * {@link CostAwareCachedObject}s, which add the fields of {@link CostAwareOrder}.
  */
-public class CachedObject<T> implements Comparable<CachedObject<T>> {
+public class CachedObject<T> {
+
+    private static final VarHandle VALUE;
+    private static final VarHandle FREQUENCY;
+    private static final VarHandle LAST_ACCESS_DATE_TIME_EPOCH_MILLI;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            VALUE = lookup.findVarHandle(CachedObject.class, "value", Object.class);
+            FREQUENCY = lookup.findVarHandle(CachedObject.class, "frequency", int.class);
+            LAST_ACCESS_DATE_TIME_EPOCH_MILLI = lookup.findVarHandle(CachedObject.class, "lastAccessDateTimeEpochMilli", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     private final String key;
-    private T value;
-    private final AtomicInteger frequency;
+    private Object value;
+    private int frequency;
+    private int puttingValueTime;
     private long lastAccessDateTimeEpochMilli;
-    private long puttingValueTime;
+
+    // frequency order links, guarded by FrequencyOrder lock
+    FrequencyOrder.Bucket<T> bucket;
+    CachedObject<T> previous;
+    CachedObject<T> next;
 
     /**
      * Cached object constructor
@@ -32,45 +58,69 @@ public class CachedObject<T> implements Comparable<CachedObject<T>> {
         }
 
         this.key = key;
-        this.value = value;
-        this.lastAccessDateTimeEpochMilli = lastAccessDateTimeEpochMilli;
-        this.frequency = new AtomicInteger(1);
+        VALUE.setRelease(this, value);
+        LAST_ACCESS_DATE_TIME_EPOCH_MILLI.setRelease(this, lastAccessDateTimeEpochMilli);
+        FREQUENCY.setRelease(this, 1);
     }
 
     public String getKey() {
         return key;
     }
 
+    @SuppressWarnings("unchecked")
     T getValue() {
-        return value;
+        Object storedValue = VALUE.getAcquire(this);
+        if (storedValue instanceof ValueReference) {
+            return ((ValueReference<T>) storedValue).get();
+        }
+        return (T) storedValue;
+    }
+
+    Object getStoredValue() {
+        return VALUE.getAcquire(this);
     }
 
-    AtomicInteger getFrequency() {
-        return frequency;
+    /**
+     * Checks whether value is soft or weak referenced and already collected by GC
+     *
+     * @return true if value is collected
+     */
+    boolean isValueCollected() {
+        Object storedValue = VALUE.getAcquire(this);
+        return storedValue instanceof ValueReference && ((ValueReference<?>) storedValue).get() == null;
+    }
+
+    int getFrequency() {
+        return (int) FREQUENCY.getAcquire(this);
     }
 
     long getLastAccessDateTimeEpochMilli() {
-        return lastAccessDateTimeEpochMilli;
+        return (long) LAST_ACCESS_DATE_TIME_EPOCH_MILLI.getAcquire(this);
     }
 
     public long getPuttingValueTime() {
         return puttingValueTime;
     }
 
-    void setValue(T value) {
-        this.value = value;
+    /**
+     * Sets value or soft or weak reference to value
+     *
+     * @param storedValue value or {@link ValueReference} to value
+     */
+    void setStoredValue(Object storedValue) {
+        VALUE.setRelease(this, storedValue);
     }
 
     void setPuttingValueTime(long puttingValueTime) {
-        this.puttingValueTime = puttingValueTime;
+        this.puttingValueTime = (int) Math.min(puttingValueTime, Integer.MAX_VALUE);
     }
 
     void setLastAccessDateTimeEpochMilli(long lastAccessDateTimeEpochMilli) {
-        this.lastAccessDateTimeEpochMilli = lastAccessDateTimeEpochMilli;
+        LAST_ACCESS_DATE_TIME_EPOCH_MILLI.setRelease(this, lastAccessDateTimeEpochMilli);
     }
 
     void incrementFrequency() {
-        frequency.incrementAndGet();
+        FREQUENCY.getAndAdd(this, 1);
     }
 
     @Override
@@ -90,33 +140,12 @@ public class CachedObject<T> implements Comparable<CachedObject<T>> {
 
     @Override
     public String toString() {
-        Instant lastAccessInstant = Instant.ofEpochMilli(lastAccessDateTimeEpochMilli);
+        Instant lastAccessInstant = Instant.ofEpochMilli(getLastAccessDateTimeEpochMilli());
         ZonedDateTime lastAccessZonedDateTime = ZonedDateTime.ofInstant(lastAccessInstant, ZoneId.systemDefault());
         return "CachedObject{" +
                 "key='" + key + '\'' +
-                ", frequency=" + frequency +
+                ", frequency=" + getFrequency() +
                 ", lastAccessDateTime=" + lastAccessZonedDateTime +
                 '}';
     }
-
-    @Override
-    public int compareTo(CachedObject<T> that) {
-        if (this.getKey().equals(that.getKey())) {
-            return 0;
-        }
-
-        int frequencyComparison = Integer.compare(this.getFrequency().intValue(), that.getFrequency().intValue());
-        if (frequencyComparison != 0) {
-            return frequencyComparison;
-        }
-
-        int lastAccessComparison = Long.compare(
-                this.getLastAccessDateTimeEpochMilli(), that.getLastAccessDateTimeEpochMilli()
-        );
-        if (lastAccessComparison != 0) {
-            return lastAccessComparison;
-        }
-
-        return this.getKey().compareTo(that.getKey());
-    }
 }
@@ -0,0 +1,39 @@
+package com.cacheservice.simplejava;
+
+/**
+ * Cached object of LFU-DA and GDSF caches: node of {@link CostAwareOrder} with load cost per size of its value.
+ * Objects of LFU caches are plain cached objects, so they do not pay for these fields.
+ *
+ * @param <T>
+ */
+final class CostAwareCachedObject<T> extends CachedObject<T> {
+
+    private float costPerSize = 1;
+
+    // heap index, guarded by CostAwareOrder lock; 0 means the object is not in the heap
+    int heapIndex;
+
+    /**
+     * Cost aware cached object constructor
+     *
+     * @param key                          key
+     * @param value                        value
+     * @param lastAccessDateTimeEpochMilli last access date time epoch in millis
+     */
+    CostAwareCachedObject(String key, T value, long lastAccessDateTimeEpochMilli) {
+        super(key, value, lastAccessDateTimeEpochMilli);
+    }
+
+    float getCostPerSize() {
+        return costPerSize;
+    }
+
+    /**
+     * Sets load cost per size unit of the value, used by GDSF eviction policy
+     *
+     * @param costPerSize load cost in millis divided by value size
+     */
+    void setCostPerSize(float costPerSize) {
+        this.costPerSize = costPerSize;
+    }
+}
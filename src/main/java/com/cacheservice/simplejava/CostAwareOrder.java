@@ -0,0 +1,176 @@
+package com.cacheservice.simplejava;
+
+import java.util.Arrays;
+
+/**
+ * Eviction order of LFU with dynamic aging (LFU-DA) and Greedy-Dual-Size-Frequency (GDSF) policies.
+ * <p>
+ * Every cached object has priority = age + frequency * (cost aware ? load cost / size : 1), computed when it is
+ * added or accessed. The object with the lowest priority is evicted, and its priority becomes the new age,
+ * so newly accessed objects start above objects which have not been accessed since age was lower:
+ * frequency gathered long ago does not keep an object forever.
+ * <p>
+ * Cached objects are kept in an indexed binary min-heap (1-based, cached objects store their heap index),
+ * so add, access, remove and eviction take O(log n). Heap index and cost per size are fields of
+ * {@link CostAwareCachedObject}, which the order creates, so objects of LFU caches do not pay for them; priorities
+ * are kept in an array parallel to the heap.
+ *
+ * @param <T>
+ */
+final class CostAwareOrder<T> implements EvictionOrder<T> {
+
+    private final boolean costAware;
+    private CostAwareCachedObject<T>[] heap;
+    private double[] priorities;
+    private int size;
+    private double age;
+
+    /**
+     * Cost aware order constructor
+     *
+     * @param costAware whether priority accounts for load cost per size (GDSF) or frequency only (LFU-DA)
+     */
+    @SuppressWarnings("unchecked")
+    CostAwareOrder(boolean costAware) {
+        this.costAware = costAware;
+        this.heap = new CostAwareCachedObject[16];
+        this.priorities = new double[16];
+    }
+
+    @Override
+    public CachedObject<T> createCachedObject(String key, long lastAccessDateTimeEpochMilli) {
+        return new CostAwareCachedObject<>(key, null, lastAccessDateTimeEpochMilli);
+    }
+
+    /**
+     * Adds new cached object with priority computed from current age
+     *
+     * @param cachedObject cached object
+     */
+    @Override
+    public synchronized void add(CachedObject<T> cachedObject) {
+        if (++size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+            priorities = Arrays.copyOf(priorities, priorities.length * 2);
+        }
+        CostAwareCachedObject<T> costAwareCachedObject = (CostAwareCachedObject<T>) cachedObject;
+        siftUp(size, costAwareCachedObject, priority(costAwareCachedObject));
+    }
+
+    /**
+     * Increments frequency of cached object and recomputes its priority from current age.
+     * Does nothing if cached object is already removed.
+     *
+     * @param cachedObject cached object
+     */
+    @Override
+    public synchronized void recordAccess(CachedObject<T> cachedObject) {
+        CostAwareCachedObject<T> costAwareCachedObject = (CostAwareCachedObject<T>) cachedObject;
+        int index = costAwareCachedObject.heapIndex;
+        if (index == 0) {
+            return;
+        }
+        costAwareCachedObject.incrementFrequency();
+        double priority = priority(costAwareCachedObject);
+        // priority usually grows, but may drop when updated value has lower cost per size
+        siftDown(index, costAwareCachedObject, priority);
+        siftUp(costAwareCachedObject.heapIndex, costAwareCachedObject, priority);
+    }
+
+    /**
+     * Removes cached object from order. Does nothing if cached object is already removed.
+     *
+     * @param cachedObject cached object
+     */
+    @Override
+    public synchronized void remove(CachedObject<T> cachedObject) {
+        int index = ((CostAwareCachedObject<T>) cachedObject).heapIndex;
+        if (index == 0) {
+            return;
+        }
+        removeAt(index);
+    }
+
+    /**
+     * Removes and returns the lowest priority cached object and raises age to its priority
+     *
+     * @return cached object or null if order is empty
+     */
+    @Override
+    public synchronized CachedObject<T> pollVictim() {
+        if (size == 0) {
+            return null;
+        }
+        CostAwareCachedObject<T> cachedObject = heap[1];
+        age = priorities[1];
+        removeAt(1);
+        return cachedObject;
+    }
+
+    /**
+     * Returns current age
+     *
+     * @return priority of the last evicted object
+     */
+    synchronized double getAge() {
+        return age;
+    }
+
+    private double priority(CostAwareCachedObject<T> cachedObject) {
+        double frequency = cachedObject.getFrequency();
+        return age + (costAware ? frequency * cachedObject.getCostPerSize() : frequency);
+    }
+
+    private void removeAt(int index) {
+        heap[index].heapIndex = 0;
+        CostAwareCachedObject<T> lastCachedObject = heap[size];
+        double lastPriority = priorities[size];
+        heap[size--] = null;
+        if (index <= size) {
+            siftDown(index, lastCachedObject, lastPriority);
+            siftUp(lastCachedObject.heapIndex, lastCachedObject, lastPriority);
+        }
+    }
+
+    /**
+     * Moves cached object with priority up from index until its parent has lower or equal priority
+     */
+    private void siftUp(int index, CostAwareCachedObject<T> cachedObject, double priority) {
+        while (index > 1) {
+            int parentIndex = index >>> 1;
+            if (priorities[parentIndex] <= priority) {
+                break;
+            }
+            place(index, heap[parentIndex], priorities[parentIndex]);
+            index = parentIndex;
+        }
+        place(index, cachedObject, priority);
+    }
+
+    /**
+     * Moves cached object with priority down from index until its children have higher or equal priority
+     */
+    private void siftDown(int index, CostAwareCachedObject<T> cachedObject, double priority) {
+        while (true) {
+            int childIndex = index << 1;
+            if (childIndex > size) {
+                break;
+            }
+            if (childIndex < size && priorities[childIndex + 1] < priorities[childIndex]) {
+                childIndex++;
+            }
+            if (priority <= priorities[childIndex]) {
+                break;
+            }
+            place(index, heap[childIndex], priorities[childIndex]);
+            index = childIndex;
+        }
+        place(index, cachedObject, priority);
+    }
+
+    private void place(int index, CostAwareCachedObject<T> cachedObject, double priority) {
+        heap[index] = cachedObject;
+        priorities[index] = priority;
+        cachedObject.heapIndex = index;
+    }
+}
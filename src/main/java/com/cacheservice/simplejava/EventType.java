@@ -6,6 +6,8 @@ package com.cacheservice.simplejava;
 public enum EventType {
     REMOVE_OBSOLETE_OBJECT,
     REMOVE_LEAST_FREQUENCY_OBJECT,
+    REMOVE_COLLECTED_OBJECT,
+    REMOVE_INVALIDATED_OBJECT,
     PUT_NEW_OBJECT
 }
 
@@ -0,0 +1,46 @@
+package com.cacheservice.simplejava;
+
+/**
+ * Order in which Simple Java Cache Service evicts cached objects when cache is full
+ *
+ * @param <T>
+ */
+interface EvictionOrder<T> {
+
+    /**
+     * Creates cached object which can be added to this order
+     *
+     * @param key                          key
+     * @param lastAccessDateTimeEpochMilli last access date time epoch in millis
+     * @return cached object without value
+     */
+    CachedObject<T> createCachedObject(String key, long lastAccessDateTimeEpochMilli);
+
+    /**
+     * Adds new cached object
+     *
+     * @param cachedObject cached object
+     */
+    void add(CachedObject<T> cachedObject);
+
+    /**
+     * Records access of cached object. Does nothing if cached object is already removed.
+     *
+     * @param cachedObject cached object
+     */
+    void recordAccess(CachedObject<T> cachedObject);
+
+    /**
+     * Removes cached object from order. Does nothing if cached object is already removed.
+     *
+     * @param cachedObject cached object
+     */
+    void remove(CachedObject<T> cachedObject);
+
+    /**
+     * Removes and returns cached object to be evicted first
+     *
+     * @return cached object or null if order is empty
+     */
+    CachedObject<T> pollVictim();
+}
@@ -0,0 +1,41 @@
+package com.cacheservice.simplejava;
+
+/**
+ * Eviction policies of Simple Java Cache Service:
+ * - LFU: the least frequency object is evicted first, then the least recently accessed one
+ * - LFU_DA: LFU with dynamic aging: priority = age + frequency, where age is the priority of the last
+ * evicted object, so objects which were popular long ago are evicted once their frequency is outgrown
+ * - GDSF: Greedy-Dual-Size-Frequency: priority = age + frequency * load cost / size, so objects which are
+ * expensive to load and small are kept longer. Reduces total load time rather than only raising hit ratio.
+ * Load cost is measured in millis around the loader of {@link SimpleCacheService#get(String, java.util.function.Function)};
+ * objects put directly cost 1 ms.
+ * LFU takes O(1) per operation, LFU_DA and GDSF take O(log n).
+ */
+public enum EvictionPolicy {
+    LFU {
+        @Override
+        <T> EvictionOrder<T> createEvictionOrder() {
+            return new FrequencyOrder<>();
+        }
+    },
+    LFU_DA {
+        @Override
+        <T> EvictionOrder<T> createEvictionOrder() {
+            return new CostAwareOrder<>(false);
+        }
+    },
+    GDSF {
+        @Override
+        <T> EvictionOrder<T> createEvictionOrder() {
+            return new CostAwareOrder<>(true);
+        }
+    };
+
+    /**
+     * Creates eviction order of the policy
+     *
+     * @param <T> value type
+     * @return eviction order
+     */
+    abstract <T> EvictionOrder<T> createEvictionOrder();
+}
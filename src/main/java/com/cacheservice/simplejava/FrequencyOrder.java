@@ -0,0 +1,230 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.StripedReadBuffer;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Least frequency order of cached objects with O(1) operations.
+ * <p>
+ * Cached objects with the same frequency are kept in a bucket, ordered from the least recently accessed
+ * to the most recently accessed one; buckets are linked in frequency ascending order. Cached objects are
+ * intrusive list nodes themselves, so only one bucket per distinct frequency is allocated. Buckets are reused:
+ * the only object of a bucket moves by incrementing frequency of its bucket, and the last emptied bucket is kept
+ * as a spare for the next frequency, so recording accesses does not allocate.
+ * Eviction order is the same as before: the least frequency first, then the least recently accessed.
+ * <p>
+ * Cache hits do not take the lock of the order: an access is offered to a striped read buffer and applied later
+ * by the thread which finds its stripe full and gets the lock without waiting, or before a victim is polled.
+ * Read buffers are lossy, so an access offered to a full stripe while another thread holds the lock is dropped;
+ * frequencies are approximate under contention, as in Caffeine, but hits scale with the number of threads.
+ *
+ * @param <T>
+ */
+final class FrequencyOrder<T> implements EvictionOrder<T> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final StripedReadBuffer<CachedObject<T>> readBuffer = new StripedReadBuffer<>();
+    // created once, so draining does not allocate
+    private final Consumer<CachedObject<T>> accessApplier = this::applyAccess;
+    // guarded by lock
+    private Bucket<T> lowestBucket;
+    private Bucket<T> spareBucket;
+
+    @Override
+    public CachedObject<T> createCachedObject(String key, long lastAccessDateTimeEpochMilli) {
+        return new CachedObject<>(key, null, lastAccessDateTimeEpochMilli);
+    }
+
+    /**
+     * Adds new cached object with frequency 1 as the most recently accessed one
+     *
+     * @param cachedObject cached object
+     */
+    @Override
+    public void add(CachedObject<T> cachedObject) {
+        lock.lock();
+        try {
+            addLocked(cachedObject);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addLocked(CachedObject<T> cachedObject) {
+        Bucket<T> bucket = lowestBucket;
+        if (bucket == null || bucket.frequency != cachedObject.getFrequency()) {
+            bucket = newBucket(cachedObject.getFrequency());
+            bucket.next = lowestBucket;
+            if (lowestBucket != null) {
+                lowestBucket.previous = bucket;
+            }
+            lowestBucket = bucket;
+        }
+        append(bucket, cachedObject);
+    }
+
+    /**
+     * Records access of cached object in the read buffer. When the stripe of the current thread is full, buffered
+     * accesses are applied if the lock of the order is free; otherwise they wait for the next drain.
+     *
+     * @param cachedObject cached object
+     */
+    @Override
+    public void recordAccess(CachedObject<T> cachedObject) {
+        if (readBuffer.offer(cachedObject) && lock.tryLock()) {
+            try {
+                readBuffer.drain(accessApplier);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Increments frequency of cached object and moves it to the next frequency bucket
+     * as the most recently accessed one. Does nothing if cached object is already removed.
+     *
+     * @param cachedObject cached object
+     */
+    private void applyAccess(CachedObject<T> cachedObject) {
+        Bucket<T> bucket = cachedObject.bucket;
+        if (bucket == null) {
+            return;
+        }
+
+        cachedObject.incrementFrequency();
+        int frequency = cachedObject.getFrequency();
+        Bucket<T> nextBucket = bucket.next;
+        if (bucket.head == bucket.tail && (nextBucket == null || nextBucket.frequency != frequency)) {
+            bucket.frequency = frequency;
+            return;
+        }
+        if (nextBucket == null || nextBucket.frequency != frequency) {
+            nextBucket = newBucket(frequency);
+            nextBucket.previous = bucket;
+            nextBucket.next = bucket.next;
+            if (bucket.next != null) {
+                bucket.next.previous = nextBucket;
+            }
+            bucket.next = nextBucket;
+        }
+        unlink(cachedObject);
+        append(nextBucket, cachedObject);
+    }
+
+    /**
+     * Removes cached object from order. Does nothing if cached object is already removed.
+     *
+     * @param cachedObject cached object
+     */
+    @Override
+    public void remove(CachedObject<T> cachedObject) {
+        lock.lock();
+        try {
+            if (cachedObject.bucket != null) {
+                unlink(cachedObject);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the least frequency, least recently accessed cached object.
+     * Buffered accesses are applied first.
+     *
+     * @return cached object or null if order is empty
+     */
+    @Override
+    public CachedObject<T> pollVictim() {
+        lock.lock();
+        try {
+            readBuffer.drain(accessApplier);
+            if (lowestBucket == null) {
+                return null;
+            }
+            CachedObject<T> cachedObject = lowestBucket.head;
+            unlink(cachedObject);
+            return cachedObject;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(Bucket<T> bucket, CachedObject<T> cachedObject) {
+        cachedObject.bucket = bucket;
+        cachedObject.previous = bucket.tail;
+        cachedObject.next = null;
+        if (bucket.tail == null) {
+            bucket.head = cachedObject;
+        } else {
+            bucket.tail.next = cachedObject;
+        }
+        bucket.tail = cachedObject;
+    }
+
+    private void unlink(CachedObject<T> cachedObject) {
+        Bucket<T> bucket = cachedObject.bucket;
+        if (cachedObject.previous == null) {
+            bucket.head = cachedObject.next;
+        } else {
+            cachedObject.previous.next = cachedObject.next;
+        }
+        if (cachedObject.next == null) {
+            bucket.tail = cachedObject.previous;
+        } else {
+            cachedObject.next.previous = cachedObject.previous;
+        }
+        cachedObject.bucket = null;
+        cachedObject.previous = null;
+        cachedObject.next = null;
+
+        if (bucket.head == null) {
+            removeBucket(bucket);
+        }
+    }
+
+    private void removeBucket(Bucket<T> bucket) {
+        if (bucket.previous == null) {
+            lowestBucket = bucket.next;
+        } else {
+            bucket.previous.next = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.previous = bucket.previous;
+        }
+        bucket.previous = null;
+        bucket.next = null;
+        spareBucket = bucket;
+    }
+
+    private Bucket<T> newBucket(int frequency) {
+        Bucket<T> bucket = spareBucket;
+        if (bucket == null) {
+            return new Bucket<>(frequency);
+        }
+        spareBucket = null;
+        bucket.frequency = frequency;
+        return bucket;
+    }
+
+    /**
+     * Cached objects with the same frequency
+     *
+     * @param <T>
+     */
+    static final class Bucket<T> {
+
+        private int frequency;
+        private CachedObject<T> head;
+        private CachedObject<T> tail;
+        private Bucket<T> previous;
+        private Bucket<T> next;
+
+        private Bucket(int frequency) {
+            this.frequency = frequency;
+        }
+    }
+}
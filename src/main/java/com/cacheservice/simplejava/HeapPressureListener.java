@@ -0,0 +1,28 @@
+package com.cacheservice.simplejava;
+
+import java.util.EventListener;
+
+/**
+ * Listener of heap pressure reported by {@link HeapPressureMonitor}.
+ * <p>
+ * Monitor reports old generation occupancy only after GC which has collected old generation, so garbage waiting
+ * for collection is never reported as pressure. Occupancy between the low-water and the high-water marks is not reported, so listeners do not
+ * resize back and forth around one mark. Methods are called on JMX notification threads and should return quickly.
+ */
+public interface HeapPressureListener extends EventListener {
+
+    /**
+     * Called after GC which left old generation occupancy at or above the high-water mark.
+     * Called after every such GC while pressure lasts.
+     *
+     * @param occupancy old generation occupancy after GC from 0 to 1
+     */
+    void onHeapPressure(double occupancy);
+
+    /**
+     * Called after GC which left old generation occupancy below the low-water mark
+     *
+     * @param occupancy old generation occupancy after GC from 0 to 1
+     */
+    void onHeapPressureRelieved(double occupancy);
+}
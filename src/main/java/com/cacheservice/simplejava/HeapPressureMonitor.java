@@ -0,0 +1,206 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.UtilityAssertions;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Watches old generation occupancy and notifies heap pressure listeners.
+ * <p>
+ * Only occupancy after GC is checked: usage before GC includes garbage, so it would report pressure which the next
+ * collection relieves. Sets collection usage threshold of the old generation memory pool at the high-water mark and
+ * listens to its notifications, and listens to GC notifications to check old generation usage after every collection
+ * which has collected old generation.
+ * Post-GC occupancy at or above the high-water mark is reported as heap pressure, occupancy below the low-water mark
+ * is reported as relieved pressure, occupancy between them is not reported. One monitor can serve many cache services.
+ * <p>
+ * Memory pool thresholds are JVM-wide settings: other code setting thresholds of the same pool overrides them.
+ */
+public class HeapPressureMonitor implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeapPressureMonitor.class.getName());
+
+    private final double highWaterMark;
+    private final double lowWaterMark;
+    private final MemoryPoolMXBean oldGenerationPool;
+    private final Collection<HeapPressureListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<NotificationEmitter> notificationEmitters = new ArrayList<>();
+    private final NotificationListener notificationListener = this::handleNotification;
+
+    /**
+     * Heap pressure monitor constructor
+     *
+     * @param highWaterMark old generation occupancy from 0 to 1 treated as heap pressure
+     * @param lowWaterMark  old generation occupancy from 0 to 1 below which heap pressure is relieved;
+     *                      should be less than high-water mark
+     */
+    public HeapPressureMonitor(double highWaterMark, double lowWaterMark) {
+        this(highWaterMark, lowWaterMark, true);
+    }
+
+    /**
+     * Heap pressure monitor constructor
+     *
+     * @param highWaterMark         old generation occupancy treated as heap pressure
+     * @param lowWaterMark          old generation occupancy below which heap pressure is relieved
+     * @param listenToNotifications whether to listen to JVM memory and GC notifications;
+     *                              if false, occupancy is reported through {@link #onOccupancy(double)} only
+     */
+    HeapPressureMonitor(double highWaterMark, double lowWaterMark, boolean listenToNotifications) {
+        if (!(lowWaterMark > 0 && lowWaterMark < highWaterMark && highWaterMark < 1)) {
+            throw new IllegalArgumentException("Water marks should satisfy 0 < low-water mark < high-water mark < 1!");
+        }
+        this.highWaterMark = highWaterMark;
+        this.lowWaterMark = lowWaterMark;
+        this.oldGenerationPool = findOldGenerationPool();
+
+        if (!listenToNotifications) {
+            return;
+        }
+        if (oldGenerationPool == null) {
+            LOGGER.warn("Old generation memory pool with usage threshold support is not found. Heap pressure is not monitored");
+            return;
+        }
+        if (oldGenerationPool.isCollectionUsageThresholdSupported()) {
+            oldGenerationPool.setCollectionUsageThreshold((long) (oldGenerationPool.getUsage().getMax() * highWaterMark));
+        }
+
+        addNotificationListener(ManagementFactory.getMemoryMXBean());
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            addNotificationListener(garbageCollector);
+        }
+        LOGGER.info("HeapPressureMonitor is created for memory pool {}", oldGenerationPool.getName());
+    }
+
+    /**
+     * Registers heap pressure listener
+     *
+     * @param listener heap pressure listener
+     */
+    public void addListener(HeapPressureListener listener) {
+        UtilityAssertions.assertInputObjectsNotNull(listener);
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters heap pressure listener
+     *
+     * @param listener heap pressure listener
+     */
+    public void removeListener(HeapPressureListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns current old generation occupancy
+     *
+     * @return occupancy from 0 to 1; 0 if old generation pool is not found
+     */
+    public double currentOccupancy() {
+        return oldGenerationPool == null ? 0 : occupancy(oldGenerationPool.getUsage());
+    }
+
+    /**
+     * Stops listening to memory and GC notifications
+     */
+    @Override
+    public void close() {
+        for (NotificationEmitter notificationEmitter : notificationEmitters) {
+            try {
+                notificationEmitter.removeNotificationListener(notificationListener);
+            } catch (ListenerNotFoundException e) {
+                LOGGER.debug("Notification listener is already removed", e);
+            }
+        }
+        notificationEmitters.clear();
+        listeners.clear();
+    }
+
+    /**
+     * Reports occupancy to listeners as heap pressure, relieved pressure or nothing
+     *
+     * @param occupancy old generation occupancy after GC from 0 to 1
+     */
+    void onOccupancy(double occupancy) {
+        if (occupancy >= highWaterMark) {
+            LOGGER.debug("Heap pressure: old generation occupancy is {}", occupancy);
+            for (HeapPressureListener listener : listeners) {
+                listener.onHeapPressure(occupancy);
+            }
+        } else if (occupancy < lowWaterMark) {
+            for (HeapPressureListener listener : listeners) {
+                listener.onHeapPressureRelieved(occupancy);
+            }
+        }
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        String type = notification.getType();
+        if (type.equals(MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED)) {
+            onOccupancy(occupancy(oldGenerationPool.getCollectionUsage()));
+        } else if (type.equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+            GcInfo gcInfo = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo();
+            MemoryUsage usageBeforeGc = gcInfo.getMemoryUsageBeforeGc().get(oldGenerationPool.getName());
+            MemoryUsage usageAfterGc = gcInfo.getMemoryUsageAfterGc().get(oldGenerationPool.getName());
+            // young collections only promote to old generation, so its usage after them still includes its garbage
+            if (usageBeforeGc != null && usageAfterGc != null && usageAfterGc.getUsed() < usageBeforeGc.getUsed()) {
+                onOccupancy(occupancy(usageAfterGc));
+            }
+        }
+    }
+
+    private void addNotificationListener(Object mxBean) {
+        if (mxBean instanceof NotificationEmitter) {
+            NotificationEmitter notificationEmitter = (NotificationEmitter) mxBean;
+            notificationEmitter.addNotificationListener(notificationListener, null, null);
+            notificationEmitters.add(notificationEmitter);
+        }
+    }
+
+    private static double occupancy(MemoryUsage memoryUsage) {
+        long max = memoryUsage.getMax() > 0 ? memoryUsage.getMax() : memoryUsage.getCommitted();
+        return max > 0 ? (double) memoryUsage.getUsed() / max : 0;
+    }
+
+    /**
+     * Finds old generation heap pool: pool with usage threshold support named as old or tenured generation,
+     * otherwise the largest heap pool with usage threshold support
+     *
+     * @return memory pool or null if no heap pool supports usage threshold
+     */
+    private static MemoryPoolMXBean findOldGenerationPool() {
+        MemoryPoolMXBean largestPool = null;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isUsageThresholdSupported() || pool.getUsage().getMax() <= 0) {
+                continue;
+            }
+            String name = pool.getName().toLowerCase(Locale.ROOT);
+            if (name.contains("old") || name.contains("tenured")) {
+                return pool;
+            }
+            if (largestPool == null || pool.getUsage().getMax() > largestPool.getUsage().getMax()) {
+                largestPool = pool;
+            }
+        }
+        return largestPool;
+    }
+}
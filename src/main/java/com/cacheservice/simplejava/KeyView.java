@@ -0,0 +1,232 @@
+package com.cacheservice.simplejava;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Reusable view of key given as char sequence, UTF-8 byte[] slice or UTF-8 byte buffer, used to look up cache
+ * map of String keys without materializing the key.
+ * <p>
+ * Hash code of the view equals to hash code of the String the view decodes to, and the view equals to that
+ * String, so ConcurrentHashMap finds stored key by the view: the map compares stored keys with the view by
+ * the view's equals. The equality is one-sided, so the view must never be stored in a map.
+ * <p>
+ * UTF-8 bytes are decoded on the fly, both for hash and for comparison. Malformed UTF-8 input is decoded
+ * to String once, so it matches the key which String decoding gives.
+ */
+final class KeyView {
+
+    private static final long MALFORMED = -1;
+
+    private CharSequence chars;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+    private int hash;
+
+    /**
+     * Sets view of char sequence
+     *
+     * @param key key
+     * @return this view
+     */
+    KeyView set(CharSequence key) {
+        clear();
+        chars = key;
+        length = key.length();
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        hash = h;
+        return this;
+    }
+
+    /**
+     * Sets view of UTF-8 byte[] slice
+     *
+     * @param key    bytes of key
+     * @param offset offset of key in bytes
+     * @param length length of key in bytes
+     * @return this view
+     */
+    KeyView set(byte[] key, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, key.length);
+        clear();
+        this.bytes = key;
+        this.offset = offset;
+        this.length = length;
+        if (!hashUtf8()) {
+            this.bytes = null;
+            set(new String(key, offset, length, StandardCharsets.UTF_8));
+        }
+        return this;
+    }
+
+    /**
+     * Sets view of UTF-8 bytes of byte buffer between its position and limit. Position of buffer is not changed.
+     *
+     * @param key byte buffer with key
+     * @return this view
+     */
+    KeyView set(ByteBuffer key) {
+        clear();
+        this.buffer = key;
+        this.offset = key.position();
+        this.length = key.remaining();
+        if (!hashUtf8()) {
+            this.buffer = null;
+            set(StandardCharsets.UTF_8.decode(key.duplicate()).toString());
+        }
+        return this;
+    }
+
+    /**
+     * Releases viewed key, so the view does not retain it
+     */
+    void clear() {
+        chars = null;
+        bytes = null;
+        buffer = null;
+    }
+
+    boolean isEmpty() {
+        return length == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof String)) {
+            return false;
+        }
+        String key = (String) object;
+        return chars != null ? charsEqual(key) : utf8Equal(key);
+    }
+
+    /**
+     * Materializes viewed key
+     *
+     * @return key
+     */
+    @Override
+    public String toString() {
+        if (chars != null) {
+            return chars.toString();
+        }
+        if (bytes != null) {
+            return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        }
+        return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+    }
+
+    private boolean charsEqual(String key) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != chars.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean utf8Equal(String key) {
+        int keyLength = key.length();
+        int charIndex = 0;
+        for (int i = 0; i < length; ) {
+            // bytes are validated by hashing
+            long decoded = decode(i);
+            int codePoint = (int) decoded;
+            if (Character.isBmpCodePoint(codePoint)) {
+                if (charIndex >= keyLength || key.charAt(charIndex++) != codePoint) {
+                    return false;
+                }
+            } else if (charIndex + 1 >= keyLength
+                    || key.charAt(charIndex++) != Character.highSurrogate(codePoint)
+                    || key.charAt(charIndex++) != Character.lowSurrogate(codePoint)) {
+                return false;
+            }
+            i += (int) (decoded >>> 32);
+        }
+        return charIndex == keyLength;
+    }
+
+    /**
+     * Computes String hash code of UTF-16 chars which UTF-8 bytes decode to
+     *
+     * @return false if bytes are malformed UTF-8
+     */
+    private boolean hashUtf8() {
+        int h = 0;
+        for (int i = 0; i < length; ) {
+            long decoded = decode(i);
+            if (decoded == MALFORMED) {
+                return false;
+            }
+            int codePoint = (int) decoded;
+            if (Character.isBmpCodePoint(codePoint)) {
+                h = 31 * h + codePoint;
+            } else {
+                h = 31 * (31 * h + Character.highSurrogate(codePoint)) + Character.lowSurrogate(codePoint);
+            }
+            i += (int) (decoded >>> 32);
+        }
+        hash = h;
+        return true;
+    }
+
+    /**
+     * Decodes UTF-8 code point starting at index. Overlong forms, surrogates and code points above U+10FFFF
+     * are malformed.
+     *
+     * @param index index of first byte of code point
+     * @return number of bytes of code point in high 32 bits and code point in low 32 bits, or -1 if malformed
+     */
+    private long decode(int index) {
+        int firstByte = byteAt(index);
+        if (firstByte < 0x80) {
+            return 1L << 32 | firstByte;
+        }
+        int bytesNumber;
+        int codePoint;
+        if (firstByte >= 0xC2 && firstByte <= 0xDF) {
+            bytesNumber = 2;
+            codePoint = firstByte & 0x1F;
+        } else if (firstByte >= 0xE0 && firstByte <= 0xEF) {
+            bytesNumber = 3;
+            codePoint = firstByte & 0x0F;
+        } else if (firstByte >= 0xF0 && firstByte <= 0xF4) {
+            bytesNumber = 4;
+            codePoint = firstByte & 0x07;
+        } else {
+            return MALFORMED;
+        }
+        if (index + bytesNumber > length) {
+            return MALFORMED;
+        }
+        for (int i = 1; i < bytesNumber; i++) {
+            int nextByte = byteAt(index + i);
+            if ((nextByte & 0xC0) != 0x80) {
+                return MALFORMED;
+            }
+            codePoint = codePoint << 6 | nextByte & 0x3F;
+        }
+        if (bytesNumber == 3 && (codePoint < 0x800 || Character.isSurrogate((char) codePoint))
+                || bytesNumber == 4 && (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT)) {
+            return MALFORMED;
+        }
+        return (long) bytesNumber << 32 | codePoint;
+    }
+
+    private int byteAt(int index) {
+        return (bytes != null ? bytes[offset + index] : buffer.get(offset + index)) & 0xFF;
+    }
+}
@@ -0,0 +1,98 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.UtilityAssertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs periodic maintenance tasks of cache services on daemon threads.
+ * <p>
+ * Cache services share {@link #sharedScheduler()} by default, so the number of maintenance threads does not grow
+ * with the number of caches. Maintenance tasks should be short: the Simple Java cache service bounds every run
+ * with a time slice and resumes from where the previous run stopped.
+ */
+public final class MaintenanceScheduler implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaintenanceScheduler.class.getName());
+
+    private static final AtomicInteger SCHEDULER_NUMBER = new AtomicInteger();
+    private static final MaintenanceScheduler SHARED_SCHEDULER = new MaintenanceScheduler("cache-maintenance-shared", 1);
+
+    private final ScheduledExecutorService executorService;
+
+    /**
+     * Maintenance scheduler constructor
+     *
+     * @param threadsNumber number of maintenance threads; if negative value or 0 provided, default value = 1
+     */
+    public MaintenanceScheduler(int threadsNumber) {
+        this("cache-maintenance-" + SCHEDULER_NUMBER.incrementAndGet(), threadsNumber);
+    }
+
+    /**
+     * Maintenance scheduler constructor
+     *
+     * @param threadNamePrefix prefix of names of maintenance threads
+     * @param threadsNumber    number of maintenance threads; if negative value or 0 provided, default value = 1
+     */
+    private MaintenanceScheduler(String threadNamePrefix, int threadsNumber) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executorService = Executors.newScheduledThreadPool(threadsNumber > 0 ? threadsNumber : 1, runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns maintenance scheduler shared by cache services which are not given their own scheduler
+     *
+     * @return shared maintenance scheduler
+     */
+    public static MaintenanceScheduler sharedScheduler() {
+        return SHARED_SCHEDULER;
+    }
+
+    /**
+     * Schedules task to run periodically. Exception thrown by task is logged and does not stop next runs.
+     *
+     * @param task           maintenance task
+     * @param periodInMillis period between runs in millis
+     * @return scheduled future to cancel the task
+     * @throws IllegalStateException if scheduler is closed
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long periodInMillis) {
+        UtilityAssertions.assertInputObjectsNotNull(task);
+        if (periodInMillis <= 0) {
+            throw new IllegalArgumentException("Maintenance period should be positive!");
+        }
+        if (executorService.isShutdown()) {
+            throw new IllegalStateException("Maintenance scheduler is closed!");
+        }
+
+        return executorService.scheduleWithFixedDelay(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Maintenance task has failed", e);
+            }
+        }, periodInMillis, periodInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops maintenance threads. Shared scheduler can not be closed.
+     */
+    @Override
+    public void close() {
+        if (this == SHARED_SCHEDULER) {
+            throw new IllegalStateException("Shared maintenance scheduler can not be closed!");
+        }
+        executorService.shutdownNow();
+    }
+}
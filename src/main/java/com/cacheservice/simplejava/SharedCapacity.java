@@ -0,0 +1,152 @@
+package com.cacheservice.simplejava;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Capacity shared by cache services of tenants of tenant cache manager.
+ * <p>
+ * Fair share of tenant is its min quota plus equal part of capacity not guaranteed by min quotas, limited by its
+ * max quota. When total size exceeds capacity, objects are evicted from the tenant which size exceeds its fair
+ * share the most; tenants within their min quota are never evicted for other tenants.
+ * <p>
+ * Total size is counted by tenant cache services as they add and remove objects, so checking it on put does not
+ * visit tenants. Lock is taken only to evict when total size exceeds capacity, and by one thread at a time: puts
+ * which find eviction running leave it to the evicting thread, which checks total size again before it returns.
+ */
+final class SharedCapacity {
+
+    private final int capacity;
+    private final Map<String, Quota> quotas = new ConcurrentHashMap<>();
+    private volatile int guaranteedSize;
+    private final LongAdder size = new LongAdder();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    /**
+     * Shared capacity constructor
+     *
+     * @param capacity capacity shared by all tenants
+     */
+    SharedCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Registers tenant cache service with its quotas
+     *
+     * @param tenant       tenant
+     * @param cacheService tenant cache service
+     * @param minQuota     min number of objects guaranteed to tenant
+     * @param maxQuota     max number of objects of tenant
+     */
+    synchronized void register(String tenant, SimpleCacheService<?> cacheService, int minQuota, int maxQuota) {
+        if (guaranteedSize + minQuota > capacity) {
+            throw new IllegalArgumentException("Sum of min quotas of tenants can not exceed shared capacity!");
+        }
+        quotas.put(tenant, new Quota(cacheService, minQuota, maxQuota));
+        guaranteedSize += minQuota;
+    }
+
+    /**
+     * Unregisters tenant cache service
+     *
+     * @param tenant tenant
+     */
+    synchronized void unregister(String tenant) {
+        Quota quota = quotas.remove(tenant);
+        if (quota != null) {
+            guaranteedSize -= quota.minQuota;
+        }
+    }
+
+    /**
+     * Evicts the least frequency objects of tenants over their fair share until total size does not exceed
+     * capacity. Called by tenant cache service after it has put new object.
+     */
+    void makeRoom() {
+        while (size() > capacity && evictionLock.tryLock()) {
+            try {
+                while (size() > capacity) {
+                    Quota victimQuota = selectVictimQuota();
+                    if (victimQuota == null
+                            || victimQuota.cacheService.removeLeastFrequencyObjects(victimQuota.cacheService.size() - 1) == 0) {
+                        // all tenants are within min quotas, or victim has only objects being put
+                        return;
+                    }
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds change of size of tenant cache service to total size. Called by tenant cache service when it adds
+     * or removes objects.
+     *
+     * @param delta change of size
+     */
+    void add(int delta) {
+        size.add(delta);
+    }
+
+    /**
+     * Returns total number of objects of all tenants
+     *
+     * @return total size
+     */
+    int size() {
+        return (int) size.sum();
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns fair share of tenant
+     *
+     * @param minQuota min quota of tenant
+     * @param maxQuota max quota of tenant
+     * @return fair share
+     */
+    int fairShare(int minQuota, int maxQuota) {
+        int tenantsNumber = Math.max(1, quotas.size());
+        return Math.min(maxQuota, minQuota + (capacity - guaranteedSize) / tenantsNumber);
+    }
+
+    private Quota selectVictimQuota() {
+        Quota victimQuota = null;
+        int maxExcess = Integer.MIN_VALUE;
+        for (Quota quota : quotas.values()) {
+            int size = quota.cacheService.size();
+            if (size <= quota.minQuota) {
+                continue;
+            }
+            int excess = size - fairShare(quota.minQuota, quota.maxQuota);
+            if (excess > maxExcess) {
+                maxExcess = excess;
+                victimQuota = quota;
+            }
+        }
+        return victimQuota;
+    }
+
+    /**
+     * Tenant cache service with its quotas
+     */
+    private static final class Quota {
+
+        private final SimpleCacheService<?> cacheService;
+        private final int minQuota;
+        private final int maxQuota;
+
+        private Quota(SimpleCacheService<?> cacheService, int minQuota, int maxQuota) {
+            this.cacheService = cacheService;
+            this.minQuota = minQuota;
+            this.maxQuota = maxQuota;
+        }
+    }
+}
@@ -2,18 +2,44 @@ package com.cacheservice.simplejava;
 
 import com.cacheservice.CacheService;
 import com.cacheservice.CacheStatisticsObject;
+import com.cacheservice.EntrySpliterator;
+import com.cacheservice.dedup.ValueDeduplicator;
 import com.cacheservice.UtilityAssertions;
+import com.cacheservice.hotkeys.HeavyHitters;
+import com.cacheservice.invalidation.InvalidationBus;
+import com.cacheservice.invalidation.InvalidationIndex;
+import com.cacheservice.jfr.CacheCleanUpEvent;
+import com.cacheservice.jfr.CacheEvents;
+import com.cacheservice.jfr.CacheEvictionEvent;
+import com.cacheservice.jfr.CacheGetEvent;
+import com.cacheservice.jfr.CacheListenerDispatchEvent;
+import com.cacheservice.jfr.CacheLoadEvent;
+import com.cacheservice.jfr.CachePutEvent;
+import com.cacheservice.missratio.MissRatioCurve;
+import com.cacheservice.negativecache.NegativeCache;
+import com.cacheservice.prefetch.Prefetcher;
 import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.cachestatistics.MaintenanceStatistics;
 import com.cacheservice.simplejava.listener.Listener;
+import com.cacheservice.writer.CacheWriter;
+import com.cacheservice.writer.KeyLocks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Simple Java implementation of cache service interface
@@ -23,142 +49,1160 @@ import java.util.concurrent.ConcurrentSkipListSet;
 public class SimpleCacheService<T> implements CacheService<T> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleCacheService.class.getName());
+    private static final String[] NO_TAGS = new String[0];
+    // key views are reused by thread, so lookups by key view do not allocate
+    private static final ThreadLocal<KeyView> KEY_VIEWS = ThreadLocal.withInitial(KeyView::new);
+    // computations of put are reused by thread; cleared computation does not reference its cache service
+    private static final ThreadLocal<Computation<?>> COMPUTATIONS = ThreadLocal.withInitial(Computation::new);
 
     private final Map<String, CachedObject<T>> cache;
-    private final ConcurrentSkipListSet<CachedObject<T>> frequencySortedCachedObjects;
+    private final EvictionOrder<T> evictionOrder;
+    private final ToIntFunction<T> sizeEstimator;
     private final Collection<Listener> listeners;
     private final CacheStatistics cacheStatistics;
     private final int maxCacheSize;
     private final TimeService timeService;
     private final long timeoutInSec;
+    private final HeavyHitters heavyHitters;
+    private final MissRatioCurve missRatioCurve;
+    private final AdaptiveCapacity adaptiveCapacity;
+    private final ValueStrength valueStrength;
+    private final ReferenceQueue<T> referenceQueue;
+    private final InvalidationIndex invalidationIndex;
+    private final HeapPressureMonitor heapPressureMonitor;
+    private final long maintenanceTimeSliceInNanos;
+    private final MaintenanceStatistics maintenanceStatistics = new MaintenanceStatistics();
+    private final ScheduledFuture<?> maintenanceTask;
+    private final CacheWriter<T> cacheWriter;
+    private final KeyLocks keyLocks;
+    private final NegativeCache negativeCache;
+    private final String name;
+    private final SharedCapacity sharedCapacity;
+    private final ValueDeduplicator<T> valueDeduplicator;
+    private final InvalidationBus invalidationBus;
+    private final Prefetcher<T> prefetcher;
+    // accessed by maintenance task only, runs of the task are sequential
+    private Iterator<CachedObject<T>> maintenanceCursor;
 
+    /**
+     * Simple Java cache service constructor
+     *
+     * @param maxCacheSize    max cache size; if negative value or 0 provided, default value = 100 000
+     * @param timeoutInSec    timeout time in secs for removing obsolete cache items
+     * @param listeners       listeners
+     * @param cacheStatistics cache statistics for simple java cache service
+     * @param timeService     time service
+     */
+    public SimpleCacheService(int maxCacheSize,
+                              long timeoutInSec,
+                              Collection<Listener> listeners,
+                              CacheStatistics cacheStatistics,
+                              TimeService timeService) {
+        this(new Builder<T>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(timeoutInSec)
+                .listeners(listeners)
+                .cacheStatistics(cacheStatistics)
+                .timeService(timeService));
+    }
+
+    /**
+     * Simple Java cache service constructor
+     *
+     * @param builder builder with cache service settings
+     */
+    private SimpleCacheService(Builder<T> builder) {
+        this.maxCacheSize = builder.maxCacheSize > 0 ? builder.maxCacheSize : 100_000;
+        this.sharedCapacity = builder.sharedCapacity;
+        // cache sharing capacity is not presized by its max size, so idle tenant does not hold memory
+        this.cache = new ConcurrentHashMap<>(this.sharedCapacity != null ? 16 : this.maxCacheSize);
+        EvictionPolicy evictionPolicy = builder.evictionPolicy != null ? builder.evictionPolicy : EvictionPolicy.LFU;
+        this.evictionOrder = evictionPolicy.createEvictionOrder();
+        // only GDSF accounts for load cost per size
+        this.sizeEstimator = evictionPolicy == EvictionPolicy.GDSF
+                ? (builder.sizeEstimator != null ? builder.sizeEstimator : value -> 1) : null;
+        this.timeoutInSec = builder.timeoutInSec > 0 ? builder.timeoutInSec : 5;
+        this.listeners = builder.listeners;
+        this.cacheStatistics = builder.cacheStatistics;
+        this.timeService = builder.timeService;
+        this.heavyHitters = builder.heavyHitters;
+        this.missRatioCurve = builder.missRatioCurve;
+        this.valueStrength = builder.valueStrength != null ? builder.valueStrength : ValueStrength.STRONG;
+        this.referenceQueue = this.valueStrength != ValueStrength.STRONG ? new ReferenceQueue<>() : null;
+        this.invalidationIndex = new InvalidationIndex(builder.prefixIndex);
+        this.heapPressureMonitor = builder.heapPressureMonitor;
+        this.cacheWriter = builder.cacheWriter;
+        this.keyLocks = this.cacheWriter != null ? new KeyLocks() : null;
+        this.negativeCache = builder.negativeCache;
+        if (builder.valueDeduplicator != null && this.valueStrength != ValueStrength.STRONG) {
+            throw new IllegalArgumentException("Deduplicated values are strongly referenced by shared value store!");
+        }
+        this.valueDeduplicator = builder.valueDeduplicator;
+        this.invalidationBus = builder.invalidationBus;
+        if (this.invalidationBus != null) {
+            this.invalidationBus.subscribe(this::removeInvalidatedObject, this::removeAllObjects);
+        }
+        this.prefetcher = builder.prefetcher;
+        if (this.prefetcher != null) {
+            this.prefetcher.attach(cache::containsKey, this::storePrefetchedValue);
+        }
+        this.name = builder.name != null ? builder.name : CacheEvents.defaultCacheName("simple");
+        if (builder.heapPressureMonitor != null) {
+            this.adaptiveCapacity = new AdaptiveCapacity(builder.minCacheSize, this.maxCacheSize, this::removeLeastFrequencyObjects);
+            builder.heapPressureMonitor.addListener(adaptiveCapacity);
+        } else {
+            this.adaptiveCapacity = null;
+        }
+
+        long maintenanceTimeSliceInMillis = builder.maintenanceTimeSliceInMillis > 0 ? builder.maintenanceTimeSliceInMillis : 2;
+        this.maintenanceTimeSliceInNanos = TimeUnit.MILLISECONDS.toNanos(maintenanceTimeSliceInMillis);
+        MaintenanceScheduler maintenanceScheduler = builder.maintenanceScheduler != null
+                ? builder.maintenanceScheduler : MaintenanceScheduler.sharedScheduler();
+        this.maintenanceTask = maintenanceScheduler.schedule(this::runMaintenance,
+                builder.maintenanceIntervalInMillis > 0 ? builder.maintenanceIntervalInMillis : 500);
+        if (this.cacheStatistics != null) {
+            CacheEvents.registerStatistics(this.name, cache::size, this::returnCacheStatistics);
+        }
+        LOGGER.info("CacheService is created");
+    }
+
+    /**
+     * Get value by key. If there is no value in cache - returns null.
+     *
+     * @param key key
+     * @return value;
+     */
+    @Override
+    public T get(String key) {
+        CacheGetEvent event = CacheEvents.isRecording() ? new CacheGetEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        T value = getValue(key);
+        if (event != null && event.shouldCommit()) {
+            event.cacheName = name;
+            event.key = key;
+            event.hit = value != null;
+            event.commit();
+        }
+        return value;
+    }
+
+    /**
+     * Get value by key. If there is no value in cache - returns null.
+     *
+     * @param key key
+     * @return value;
+     */
+    private T getValue(String key) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        LOGGER.trace("Getting value with key {} from cache", key);
+        offerKey(key);
+        T value = readValue(cache.get(key), key);
+        recordRead(key, value != null);
+        return value;
+    }
+
+    /**
+     * Get value by key given as char sequence without converting it to String.
+     * If there is no value in cache - returns null.
+     *
+     * @param key key
+     * @return value;
+     */
+    public T get(CharSequence key) {
+        UtilityAssertions.assertInputObjectsNotNull(key);
+        if (key instanceof String) {
+            return get((String) key);
+        }
+        return getByKeyView(KEY_VIEWS.get().set(key));
+    }
+
+    /**
+     * Get value by key given as UTF-8 byte[] slice, e.g. read from network buffer, without decoding it to String.
+     * If there is no value in cache - returns null.
+     *
+     * @param key    bytes of key
+     * @param offset offset of key in bytes
+     * @param length length of key in bytes
+     * @return value;
+     */
+    public T get(byte[] key, int offset, int length) {
+        UtilityAssertions.assertInputObjectsNotNull(key);
+        return getByKeyView(KEY_VIEWS.get().set(key, offset, length));
+    }
+
+    /**
+     * Get value by key given as UTF-8 bytes of byte buffer between its position and limit, without decoding
+     * it to String. Position of buffer is not changed. If there is no value in cache - returns null.
+     *
+     * @param key byte buffer with key
+     * @return value;
+     */
+    public T get(ByteBuffer key) {
+        UtilityAssertions.assertInputObjectsNotNull(key);
+        return getByKeyView(KEY_VIEWS.get().set(key));
+    }
+
+    /**
+     * Get value by key view. Key view is not checked for blank: blank keys are never put, so they are not found.
+     * Key is materialized only on miss, if hot keys tracker or prefetcher is provided or get event is recorded;
+     * miss ratio curve is offered hash code of key view.
+     *
+     * @param keyView key view
+     * @return value;
+     */
+    private T getByKeyView(KeyView keyView) {
+        CacheGetEvent event = CacheEvents.isRecording() ? new CacheGetEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        try {
+            if (keyView.isEmpty()) {
+                throw new IllegalArgumentException("Input key is empty!");
+            }
+            LOGGER.trace("Getting value with key {} from cache", keyView);
+            CachedObject<T> cachedObject = cache.get(keyView);
+            String key = cachedObject != null ? cachedObject.getKey() : null;
+            if (heavyHitters != null) {
+                offerHotKey(key != null ? key : keyView.toString());
+            }
+            if (missRatioCurve != null) {
+                missRatioCurve.offerHashCode(keyView.hashCode());
+            }
+            T value = readValue(cachedObject, keyView);
+            if (prefetcher != null) {
+                recordRead(key != null ? key : keyView.toString(), value != null);
+            }
+            if (event != null && event.shouldCommit()) {
+                event.cacheName = name;
+                event.key = key != null ? key : keyView.toString();
+                event.hit = value != null;
+                event.commit();
+            }
+            return value;
+        } finally {
+            keyView.clear();
+        }
+    }
+
+    /**
+     * Reads value of cached object updating its last access time and eviction order
+     *
+     * @param cachedObject cached object; may be null
+     * @param key          key or key view, used in logs
+     * @return value, or null if cached object is null or its value is collected by GC
+     */
+    private T readValue(CachedObject<T> cachedObject, Object key) {
+        if (cachedObject != null && !cachedObject.isValueCollected()) {
+            cachedObject.setLastAccessDateTimeEpochMilli(timeService.getTimeWithSystemDefaultZoneEpochMilli());
+            evictionOrder.recordAccess(cachedObject);
+
+            LOGGER.trace("Object with key {} is retrieved from cache", key);
+            return cachedObject.getValue();
+        }
+        LOGGER.trace("Cache does not contain key {}. Returning null", key);
+        return null;
+    }
+
+    /**
+     * Get value by key. If there is no value in cache - loads it by loader and puts it into cache
+     * without writing it to the store. If loader returns null, the key is remembered in negative cache
+     * (if it is provided), and the loader is skipped for the key until negative cache forgets it.
+     * Loader may be called concurrently for the same key. Time spent by loader is the load cost
+     * used by GDSF eviction policy.
+     *
+     * @param key    key
+     * @param loader loader of value by key
+     * @return value, or null if the key is absent
+     */
+    public T get(String key, Function<String, T> loader) {
+        UtilityAssertions.assertInputObjectsNotNull(loader);
+        T value = get(key);
+        if (value != null) {
+            return value;
+        }
+        if (negativeCache != null && negativeCache.isKnownAbsent(key)) {
+            LOGGER.trace("Key {} is known to be absent. Returning null", key);
+            return null;
+        }
+
+        CacheLoadEvent event = new CacheLoadEvent();
+        event.begin();
+        long loadStartTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        value = loader.apply(key);
+        long loadCostInMillis = timeService.getTimeWithSystemDefaultZoneEpochMilli() - loadStartTime;
+        if (event.shouldCommit()) {
+            event.cacheName = name;
+            event.key = key;
+            event.found = value != null;
+            event.commit();
+        }
+        if (value == null) {
+            LOGGER.trace("Key {} is absent. Returning null", key);
+            if (negativeCache != null) {
+                negativeCache.markAbsent(key);
+            }
+            return null;
+        }
+        // value put concurrently while loading wins over the loaded one
+        T loadedValue = value;
+        return computeObject(key, (x, currentValue) -> currentValue != null ? currentValue : loadedValue,
+                loadCostInMillis, false, true).newValue;
+    }
+
+    /**
+     * Put value by key into cache. If cache already has the key - updates entry's frequency and last access time.
+     * If cache writer is provided, writes value to the store; failed write leaves cache unchanged.
+     *
+     * @param key   key
+     * @param value value
+     */
+    @Override
+    public void put(String key, T value) {
+        putValue(key, value, NO_TAGS);
+    }
+
+    /**
+     * Put value by key into cache and tag the key. Tags replace previous tags of the key.
+     *
+     * @param key   key
+     * @param value value
+     * @param tags  tags
+     */
+    @Override
+    public void put(String key, T value, String... tags) {
+        UtilityAssertions.assertInputObjectsNotNull((Object) tags);
+
+        putValue(key, value, tags);
+    }
+
+    /**
+     * Puts value by key into cache and indexes the key with tags inside the compute of the key, so concurrent
+     * invalidation by tag never sees the value with tags of another put
+     *
+     * @param key   key
+     * @param value value
+     * @param tags  tags replacing previous tags of the key; if empty, previous tags are kept
+     */
+    private void putValue(String key, T value, String[] tags) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        CachePutEvent event = CacheEvents.isRecording() ? new CachePutEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        @SuppressWarnings("unchecked")
+        Computation<T> computation = (Computation<T>) COMPUTATIONS.get();
+        if (computation.busy) {
+            // put by listener during put of the same thread
+            computation = new Computation<>();
+        }
+        computation.start(this, null, value, 0, true, false);
+        computation.tags = tags;
+        try {
+            computeObject(key, computation);
+        } finally {
+            computation.clear();
+        }
+        if (event != null && event.shouldCommit()) {
+            event.cacheName = name;
+            event.key = key;
+            event.commit();
+        }
+    }
+
+    /**
+     * Put value by key into cache if cache does not contain the key. If cache writer is provided,
+     * writes put value to the store.
+     *
+     * @param key   key
+     * @param value value
+     * @return current value, or null if value is put
+     */
+    @Override
+    public T putIfAbsent(String key, T value) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        return computeObject(key, (x, currentValue) -> currentValue != null ? currentValue : value, 0, true, true).currentValue;
+    }
+
+    /**
+     * Get value by key. If there is no value in cache - computes it by mapping function and puts it into cache
+     * atomically, so mapping function is called once for concurrent calls with the same key. Present value is
+     * read without locking. If mapping function returns null, nothing is put.
+     *
+     * @param key             key
+     * @param mappingFunction function computing value by key; must not access the cache
+     * @return current or computed value
+     */
+    @Override
+    public T computeIfAbsent(String key, Function<String, ? extends T> mappingFunction) {
+        UtilityAssertions.assertInputObjectsNotNull(mappingFunction);
+        T value = get(key);
+        if (value != null) {
+            return value;
+        }
+        return computeObject(key, (x, currentValue) -> currentValue != null ? currentValue : mappingFunction.apply(x),
+                0, true, true).newValue;
+    }
+
+    /**
+     * Atomically computes value by key from the current value (null if cache does not contain the key).
+     * If remapping function returns null, the key is removed.
+     *
+     * @param key               key
+     * @param remappingFunction function computing value by key and current value; must not access the cache
+     * @return computed value
+     */
+    @Override
+    public T compute(String key, BiFunction<String, ? super T, ? extends T> remappingFunction) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(remappingFunction);
+
+        return computeObject(key, remappingFunction, 0, true, true).newValue;
+    }
+
+    /**
+     * Atomically puts value by key if cache does not contain the key, otherwise merges current value
+     * with the value by remapping function. If remapping function returns null, the key is removed.
+     *
+     * @param key               key
+     * @param value             value
+     * @param remappingFunction function merging current value and the value; must not access the cache
+     * @return merged value
+     */
+    @Override
+    public T merge(String key, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(value, remappingFunction);
+
+        return computeObject(key, (x, currentValue) -> currentValue != null ? remappingFunction.apply(currentValue, value) : value,
+                0, true, true).newValue;
+    }
+
+    /**
+     * Replaces value by key if cache contains the key
+     *
+     * @param key   key
+     * @param value value
+     * @return replaced value, or null if cache does not contain the key
+     */
+    @Override
+    public T replace(String key, T value) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        return computeObject(key, (x, currentValue) -> currentValue != null ? value : null, 0, true, true).currentValue;
+    }
+
+    /**
+     * Replaces value by key if current value equals to the old value
+     *
+     * @param key      key
+     * @param oldValue expected current value
+     * @param newValue new value
+     * @return true if value is replaced
+     */
+    @Override
+    public boolean replace(String key, T oldValue, T newValue) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(oldValue, newValue);
+
+        Computation<T> computation = computeObject(key,
+                (x, currentValue) -> oldValue.equals(currentValue) ? newValue : currentValue, 0, true, true);
+        return oldValue.equals(computation.currentValue);
+    }
+
+    /**
+     * Atomically computes value by key with one compute of cache map, so concurrent operations with the key
+     * do not interleave and the key is looked up once. Remapping function gets current value: null if cache
+     * does not contain the key or its value is collected by GC. Changed value is written to the store after
+     * the compute holding the lock of the key only, so slow store does not block other keys of the map bin,
+     * and failed write rolls the change back. Invalidation index is updated inside the compute, so tags of the key
+     * always belong to its value; eviction order and listeners are updated after the compute, and new object is added
+     * to eviction order after eviction, so it is never the victim of its own put.
+     *
+     * @param key               key
+     * @param remappingFunction function computing new value by key and current value
+     * @param loadCostInMillis  time spent for loading value before the compute in millis; together with time
+     *                          spent by remapping function it is the load cost used by GDSF eviction policy
+     * @param writeThrough      whether to write changed value to the store, if cache writer is provided
+     * @param removeIfNull      whether null new value removes the key and unchanged value is kept as is;
+     *                          otherwise new value is always put, null value as well
+     * @return computation with current and new values
+     */
+    private Computation<T> computeObject(String key,
+                                         BiFunction<? super String, ? super T, ? extends T> remappingFunction,
+                                         long loadCostInMillis,
+                                         boolean writeThrough,
+                                         boolean removeIfNull) {
+        Computation<T> computation = new Computation<>();
+        computation.start(this, remappingFunction, null, loadCostInMillis, writeThrough, removeIfNull);
+        return computeObject(key, computation);
+    }
+
+    /**
+     * Atomically computes value by key with prepared computation, see
+     * {@link #computeObject(String, BiFunction, long, boolean, boolean)}
+     *
+     * @param key         key
+     * @param computation computation with remapping function and compute settings
+     * @return the computation with current and new values
+     */
+    private Computation<T> computeObject(String key, Computation<T> computation) {
+        if (maintenanceTask.isCancelled()) {
+            throw new IllegalStateException("Cache service is closed!");
+        }
+        long methodStartTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+
+        LOGGER.trace("Computing value with key {} in cache", key);
+        markPresent(key);
+        // read of get with loader and computeIfAbsent is offered to miss ratio curve by their get
+        offerHotKey(key);
+        removeCollectedObjects();
+        KeyLocks.KeyLock keyLock = computation.writeThrough ? lockKey(key) : null;
+        CachedObject<T> cachedObject;
+        try {
+            cachedObject = cache.compute(key, computation);
+            changeSharedSize((cachedObject != null ? 1 : 0) - (computation.previousCachedObject != null ? 1 : 0));
+            if (computation.writeThrough && computation.changed) {
+                writeChangeToStore(key, computation, cachedObject);
+            }
+        } finally {
+            unlockKey(keyLock);
+        }
+        if (computation.changed) {
+            releaseValue(computation.currentValue);
+        }
+
+        if (computation.writeThrough && computation.newValue != computation.currentValue) {
+            publishInvalidation(key);
+            forgetPrefetched(key);
+        }
+        CachedObject<T> previousCachedObject = computation.previousCachedObject;
+        if (cachedObject == null) {
+            if (previousCachedObject != null) {
+                evictionOrder.remove(previousCachedObject);
+                LOGGER.trace("Object with key {} has been removed by computed null value", key);
+                eventHappens(EventType.REMOVE_INVALIDATED_OBJECT, previousCachedObject);
+            }
+            return computation;
+        }
+        if (cachedObject == previousCachedObject) {
+            evictionOrder.recordAccess(cachedObject);
+            LOGGER.trace("Cache already has object with key {}. The object has been updated", key);
+            return computation;
+        }
+
+        removeLeastFrequencyObjectIfNeeded();
+        if (sharedCapacity != null) {
+            sharedCapacity.makeRoom();
+        }
+        evictionOrder.add(cachedObject);
+
+        long methodEndTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        long timeSpentForPuttingValue = methodEndTime - methodStartTime;
+        cachedObject.setPuttingValueTime(timeSpentForPuttingValue);
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Object with key '{}' has put into cache. Time spent for putting: {} ms", cachedObject.getKey(), timeSpentForPuttingValue);
+        }
+        eventHappens(EventType.PUT_NEW_OBJECT, cachedObject);
+        return computation;
+    }
+
+    /**
+     * Removes object with key from cache. Negative cache forgets the key, because it may have been created.
+     * If invalidation bus is provided, the key is invalidated in caches of the other nodes as well.
+     *
+     * @param key key
+     * @return true if cache contained the key
+     */
+    @Override
+    public boolean invalidate(String key) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        publishInvalidation(key);
+        return removeInvalidatedObject(key);
+    }
+
+    /**
+     * Removes object with key from cache of this node only. Negative cache forgets the key.
+     *
+     * @param key key
+     * @return true if cache contained the key
+     */
+    private boolean removeInvalidatedObject(String key) {
+        markPresent(key);
+        CachedObject<T> cachedObject = cache.get(key);
+        return cachedObject != null && removeCachedObject(cachedObject, EventType.REMOVE_INVALIDATED_OBJECT);
+    }
+
+    /**
+     * Removes all objects from cache of this node only, when invalidations of the other nodes are lost.
+     * Negative cache forgets all keys.
+     */
+    private void removeAllObjects() {
+        if (negativeCache != null) {
+            negativeCache.clear();
+        }
+        for (CachedObject<T> cachedObject : cache.values()) {
+            removeCachedObject(cachedObject, EventType.REMOVE_INVALIDATED_OBJECT);
+        }
+    }
+
+    /**
+     * Removes all objects with keys tagged by tag
+     *
+     * @param tag tag
+     * @return number of removed objects
+     */
+    @Override
+    public int invalidateByTag(String tag) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(tag);
+
+        int invalidatedNumber = 0;
+        for (String key : invalidationIndex.removeTag(tag)) {
+            if (invalidate(key)) {
+                invalidatedNumber++;
+            }
+        }
+        LOGGER.trace("{} objects with tag {} are invalidated", invalidatedNumber, tag);
+        return invalidatedNumber;
+    }
+
+    /**
+     * Removes all objects with keys starting with prefix. Uses prefix index if it is enabled,
+     * otherwise scans cache keys.
+     *
+     * @param prefix prefix
+     * @return number of removed objects
+     */
+    @Override
+    public int invalidateByPrefix(String prefix) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(prefix);
+
+        Iterable<String> keys = invalidationIndex.hasPrefixIndex() ? invalidationIndex.keysByPrefix(prefix) : cache.keySet();
+        int invalidatedNumber = 0;
+        for (String key : keys) {
+            if (key.startsWith(prefix) && invalidate(key)) {
+                invalidatedNumber++;
+            }
+        }
+        LOGGER.trace("{} objects with prefix {} are invalidated", invalidatedNumber, prefix);
+        return invalidatedNumber;
+    }
+
+    /**
+     * Returns weakly consistent stream of entries of objects which are not obsolete and which values are not
+     * collected by GC. Streaming does not copy cache and does not count as an access; parallel stream splits
+     * cache map evenly.
+     *
+     * @return stream of entries
+     */
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        long expirationTime = timeService.getTimeWithSystemDefaultZoneEpochMilli() - timeoutInSec * 1000;
+        return StreamSupport.stream(new EntrySpliterator<CachedObject<T>, T>(cache.values().spliterator(), cachedObject -> {
+            T value = cachedObject.getLastAccessDateTimeEpochMilli() >= expirationTime ? cachedObject.getValue() : null;
+            return value != null ? Map.entry(cachedObject.getKey(), value) : null;
+        }), false);
+    }
+
+    /**
+     * Return Simple Java cache statistics
+     *
+     * @return cache statistics object
+     */
+    @Override
+    public CacheStatisticsObject returnCacheStatistics() {
+        CacheStatisticsObject cacheStatisticsObject = cacheStatistics.returnCacheStatistics();
+        if (heavyHitters != null) {
+            cacheStatisticsObject = cacheStatisticsObject.withHotKeys(heavyHitters.returnHotKeys());
+        }
+        if (missRatioCurve != null) {
+            cacheStatisticsObject = cacheStatisticsObject.withHitRatioCurve(missRatioCurve.returnHitRatioCurve());
+        }
+        if (adaptiveCapacity != null) {
+            cacheStatisticsObject = cacheStatisticsObject.withCapacity(
+                    adaptiveCapacity.getEffectiveCapacity(), adaptiveCapacity.getResizeCount());
+        }
+        if (valueDeduplicator != null) {
+            cacheStatisticsObject = cacheStatisticsObject.withDeduplication(
+                    valueDeduplicator.getDeduplicationRatio(), valueDeduplicator.getSavedBytes());
+        }
+        return cacheStatisticsObject.withMaintenance(maintenanceStatistics.getRunsNumber(),
+                maintenanceStatistics.getAverageRunTimeInMillis(), maintenanceStatistics.getMaxRunTimeInMillis());
+    }
+
+    /**
+     * Performs full clean up of cache from obsolete objects and objects which values are collected by GC
+     * (background maintenance cleans cache incrementally)
+     */
+    @Override
+    public void cacheCleanUp() {
+        CacheCleanUpEvent event = new CacheCleanUpEvent();
+        event.begin();
+        removeCollectedObjects();
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        int scannedObjectsNumber = 0;
+        int removedObjectsNumber = 0;
+        for (CachedObject<T> cachedObject : cache.values()) {
+            scannedObjectsNumber++;
+            if (removeObjectIfObsolete(cachedObject, currentTime)) {
+                removedObjectsNumber++;
+            }
+        }
+        commitCleanUpEvent(event, false, scannedObjectsNumber, removedObjectsNumber);
+    }
+
+    /**
+     * Stops background maintenance, closes cache writer, detaches cache from heap pressure monitor and removes
+     * all objects without triggering removal events. Closing closed cache does nothing. Closed cache returns no values
+     * and throws {@link IllegalStateException} on puts and computes.
+     */
+    @Override
+    public void close() {
+        if (maintenanceTask.isCancelled()) {
+            return;
+        }
+        maintenanceTask.cancel(false);
+        CacheEvents.unregisterStatistics(name);
+        if (cacheWriter != null) {
+            cacheWriter.close();
+        }
+        if (invalidationBus != null) {
+            invalidationBus.close();
+        }
+        if (prefetcher != null) {
+            prefetcher.close();
+        }
+        if (adaptiveCapacity != null) {
+            heapPressureMonitor.removeListener(adaptiveCapacity);
+        }
+        for (CachedObject<T> cachedObject : cache.values()) {
+            if (removeFromCache(cachedObject)) {
+                changeSharedSize(-1);
+                evictionOrder.remove(cachedObject);
+                releaseValue(cachedObject.getValue());
+            }
+        }
+        LOGGER.info("CacheService is closed");
+    }
+
+    /**
+     * Removes objects which values are collected by GC and continues scanning cache for obsolete objects
+     * from where the previous run stopped, until the time slice is spent. Runs periodically
+     * on maintenance scheduler.
+     */
+    void runMaintenance() {
+        CacheCleanUpEvent event = new CacheCleanUpEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        long deadline = startTime + maintenanceTimeSliceInNanos;
+        removeCollectedObjects();
+
+        if (maintenanceCursor == null || !maintenanceCursor.hasNext()) {
+            maintenanceCursor = cache.values().iterator();
+        }
+        long currentTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
+        int scannedObjectsNumber = 0;
+        int removedObjectsNumber = 0;
+        while (maintenanceCursor.hasNext()) {
+            if (removeObjectIfObsolete(maintenanceCursor.next(), currentTime)) {
+                removedObjectsNumber++;
+            }
+            scannedObjectsNumber++;
+            // reading clock is not free, check it once per batch of objects
+            if (scannedObjectsNumber % 64 == 0 && System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        maintenanceStatistics.recordRun(System.nanoTime() - startTime, scannedObjectsNumber);
+        commitCleanUpEvent(event, true, scannedObjectsNumber, removedObjectsNumber);
+    }
+
+    /**
+     * Commits clean up event if it is enabled
+     *
+     * @param event                clean up event
+     * @param incremental          whether it is a time sliced maintenance run
+     * @param scannedObjectsNumber number of scanned objects
+     * @param removedObjectsNumber number of removed objects
+     */
+    private void commitCleanUpEvent(CacheCleanUpEvent event, boolean incremental, int scannedObjectsNumber, int removedObjectsNumber) {
+        if (event.shouldCommit()) {
+            event.cacheName = name;
+            event.incremental = incremental;
+            event.scannedObjectsNumber = scannedObjectsNumber;
+            event.removedObjectsNumber = removedObjectsNumber;
+            event.commit();
+        }
+    }
+
+    /**
+     * Removes cached object if it has not been accessed for more than timeout time
+     *
+     * @param cachedObject cached object
+     * @param currentTime  current time epoch millis
+     * @return true if cached object is removed by this call
+     */
+    private boolean removeObjectIfObsolete(CachedObject<T> cachedObject, long currentTime) {
+        return currentTime - cachedObject.getLastAccessDateTimeEpochMilli() > timeoutInSec * 1000
+                && removeCachedObject(cachedObject, EventType.REMOVE_OBSOLETE_OBJECT);
+    }
+
+    /**
+     * Removes cached object from cache, eviction order and invalidation index and triggers removal event.
+     * Does nothing if cached object is already removed.
+     *
+     * @param cachedObject cached object
+     * @param eventType    removal event type
+     * @return true if cached object is removed by this call
+     */
+    private boolean removeCachedObject(CachedObject<T> cachedObject, EventType eventType) {
+        if (!removeFromCache(cachedObject)) {
+            return false;
+        }
+        changeSharedSize(-1);
+        evictionOrder.remove(cachedObject);
+        releaseValue(cachedObject.getValue());
+        forgetPrefetched(cachedObject.getKey());
+        eventHappens(eventType, cachedObject);
+        return true;
+    }
+
+    /**
+     * Removes cached object from cache map and invalidation index inside the compute of its key, so tags of
+     * a new object put by the key concurrently are kept. Does nothing if cached object is already removed.
+     *
+     * @param cachedObject cached object
+     * @return true if cached object is removed by this call
+     */
+    private boolean removeFromCache(CachedObject<T> cachedObject) {
+        boolean[] removed = new boolean[1];
+        cache.computeIfPresent(cachedObject.getKey(), (key, currentCachedObject) -> {
+            if (currentCachedObject != cachedObject) {
+                return currentCachedObject;
+            }
+            removed[0] = true;
+            invalidationIndex.onRemove(key);
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Adds change of number of objects in cache to size of shared capacity. If capacity is not shared, does nothing.
+     *
+     * @param delta change of cache size
+     */
+    private void changeSharedSize(int delta) {
+        if (sharedCapacity != null && delta != 0) {
+            sharedCapacity.add(delta);
+        }
+    }
+
+    /**
+     * Sets value to cached object according to value strength
+     *
+     * @param cachedObject cached object
+     * @param value        value
+     */
+    private void setValue(CachedObject<T> cachedObject, T value) {
+        cachedObject.setStoredValue(valueStrength.wrap(value, cachedObject, referenceQueue));
+    }
+
+    /**
+     * Records read of key to prefetcher. If prefetcher is not provided in Cache Service, does nothing.
+     *
+     * @param key key
+     * @param hit whether cache had value of the key
+     */
+    private void recordRead(String key, boolean hit) {
+        if (prefetcher != null) {
+            prefetcher.recordRead(key, hit);
+        }
+    }
+
+    /**
+     * Tells prefetcher that value of key is removed or replaced. If prefetcher is not provided in Cache Service,
+     * does nothing.
+     *
+     * @param key key
+     */
+    private void forgetPrefetched(String key) {
+        if (prefetcher != null) {
+            prefetcher.forget(key);
+        }
+    }
+
+    /**
+     * Puts prefetched value into cache without writing it to the store, unless cache already has the key
+     *
+     * @param key   key
+     * @param value prefetched value
+     * @return true if the value is put
+     */
+    private boolean storePrefetchedValue(String key, T value) {
+        return computeObject(key, (x, currentValue) -> currentValue != null ? currentValue : value,
+                0, false, true).currentValue == null;
+    }
+
+    /**
+     * Publishes invalidation of key to caches of the other nodes. If invalidation bus is not provided
+     * in Cache Service, does nothing.
+     *
+     * @param key key
+     */
+    private void publishInvalidation(String key) {
+        if (invalidationBus != null) {
+            invalidationBus.publish(key);
+        }
+    }
 
     /**
-     * Simple Java cache service constructor
+     * Returns shared instance of value if values are deduplicated, otherwise the value itself
      *
-     * @param maxCacheSize    max cache size; if negative value or 0 provided, default value = 100 000
-     * @param timeoutInSec    timeout time in secs for removing obsolete cache items
-     * @param listeners       listeners
-     * @param cacheStatistics cache statistics for simple java cache service
-     * @param timeService     time service
+     * @param value value; may be null
+     * @return value to be stored
      */
-    public SimpleCacheService(int maxCacheSize,
-                              long timeoutInSec,
-                              Collection<Listener> listeners,
-                              CacheStatistics cacheStatistics,
-                              TimeService timeService) {
-        this.maxCacheSize = maxCacheSize > 0 ? maxCacheSize : 100_000;
-        this.cache = new ConcurrentHashMap<>(this.maxCacheSize);
-        this.frequencySortedCachedObjects = new ConcurrentSkipListSet<>();
-        this.timeoutInSec = timeoutInSec > 0 ? timeoutInSec : 5;
-        this.listeners = listeners;
-        this.cacheStatistics = cacheStatistics;
-        this.timeService = timeService;
-
-        runCacheCleanUpPeriodicTask();
-        LOGGER.info("CacheService is created");
+    private T internValue(T value) {
+        return valueDeduplicator != null && value != null ? valueDeduplicator.intern(value) : value;
     }
 
     /**
-     * Get value by key. If there is no value in cache - returns null.
+     * Releases shared instance of value which is no longer stored. If values are not deduplicated, does nothing.
      *
-     * @param key key
-     * @return value;
+     * @param value value; may be null
      */
-    @Override
-    public T get(String key) {
-        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+    private void releaseValue(T value) {
+        if (valueDeduplicator != null) {
+            valueDeduplicator.release(value);
+        }
+    }
 
-        LOGGER.trace("Getting value with key {} from cache", key);
-        if (cache.containsKey(key)) {
-            CachedObject<T> cachedObject = cache.get(key);
-            frequencySortedCachedObjects.remove(cachedObject);
-            cachedObject.setLastAccessDateTimeEpochMilli(timeService.getTimeWithSystemDefaultZoneEpochMilli());
-            cachedObject.incrementFrequency();
-            frequencySortedCachedObjects.add(cachedObject);
+    /**
+     * Sets load cost per size unit of value to cached object. If eviction policy is not GDSF, does nothing.
+     *
+     * @param cachedObject     cached object
+     * @param value            value
+     * @param loadCostInMillis time spent for loading value in millis; less than 1 ms counts as 1 ms
+     */
+    private void setCostPerSize(CachedObject<T> cachedObject, T value, long loadCostInMillis) {
+        if (sizeEstimator == null) {
+            return;
+        }
+        int size = value != null ? Math.max(1, sizeEstimator.applyAsInt(value)) : 1;
+        ((CostAwareCachedObject<T>) cachedObject).setCostPerSize((float) Math.max(1, loadCostInMillis) / size);
+    }
 
-            LOGGER.trace("Object with key {} is retrieved from cache", key);
-            return cachedObject.getValue();
+    /**
+     * Removes objects which soft or weak referenced values are collected by GC.
+     * If values are strongly referenced, does nothing.
+     */
+    @SuppressWarnings("unchecked")
+    private void removeCollectedObjects() {
+        if (referenceQueue == null) {
+            return;
+        }
+        Reference<? extends T> reference;
+        while ((reference = referenceQueue.poll()) != null) {
+            CachedObject<T> collectedCachedObject = ((ValueReference<T>) reference).getCachedObject();
+            // value may be replaced after the collected one was put
+            if (collectedCachedObject.getStoredValue() == reference) {
+                removeCachedObject(collectedCachedObject, EventType.REMOVE_COLLECTED_OBJECT);
+            }
         }
-        LOGGER.trace("Cache does not contain key {}. Returning null", key);
-        return null;
     }
 
+    /**
+     * Removes the least frequency objects if cache size > cache capacity
+     */
+    private void removeLeastFrequencyObjectIfNeeded() {
+        int capacity = adaptiveCapacity != null ? adaptiveCapacity.getEffectiveCapacity() : maxCacheSize;
+        removeLeastFrequencyObjects(capacity);
+    }
 
     /**
-     * Put value by key into cache. If cache already has the key - updates entry's frequency and last access time.
+     * Removes the least frequency objects until cache size does not exceed target size
      *
-     * @param key   key
-     * @param value value
+     * @param targetSize target cache size
+     * @return number of removed objects
      */
-    @Override
-    public void put(String key, T value) {
-        long methodStartTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
-        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+    int removeLeastFrequencyObjects(int targetSize) {
+        if (cache.size() <= targetSize) {
+            return 0;
+        }
+        CacheEvictionEvent event = new CacheEvictionEvent();
+        event.begin();
+        int evictedObjectsNumber = 0;
+        while (cache.size() > targetSize) {
+            CachedObject<T> leastFrequencyCachedObject = evictionOrder.pollVictim();
+            if (leastFrequencyCachedObject == null) {
+                // concurrent put has added object to cache but not to eviction order yet
+                break;
+            }
+            if (removeCachedObject(leastFrequencyCachedObject, EventType.REMOVE_LEAST_FREQUENCY_OBJECT)) {
+                evictedObjectsNumber++;
+            }
+        }
+        if (evictedObjectsNumber > 0 && event.shouldCommit()) {
+            event.cacheName = name;
+            event.evictedObjectsNumber = evictedObjectsNumber;
+            event.cause = EventType.REMOVE_LEAST_FREQUENCY_OBJECT.name();
+            event.commit();
+        }
+        return evictedObjectsNumber;
+    }
 
-        LOGGER.trace("Putting value with key {} in cache", key);
-        if (cache.containsKey(key)) {
-            CachedObject<T> cachedObject = cache.get(key);
-            frequencySortedCachedObjects.remove(cachedObject);
-            cachedObject.setValue(value);
-            cachedObject.setLastAccessDateTimeEpochMilli(timeService.getTimeWithSystemDefaultZoneEpochMilli());
-            cachedObject.incrementFrequency();
-            frequencySortedCachedObjects.add(cachedObject);
-            LOGGER.trace("Cache already has object with key {}. The object has been updated", key);
+    /**
+     * Returns number of objects in cache
+     *
+     * @return cache size
+     */
+    int size() {
+        return cache.size();
+    }
+
+    /**
+     * Writes computed value to the store, or deletes removed value from it. If the store call fails,
+     * rolls the computation back and rethrows the exception. If cache writer is not provided in Cache Service,
+     * does nothing.
+     *
+     * @param key          key
+     * @param computation  computation with previous cached object and new value
+     * @param cachedObject cached object after the compute; null if the value is removed
+     */
+    private void writeChangeToStore(String key, Computation<T> computation, CachedObject<T> cachedObject) {
+        if (cacheWriter == null) {
             return;
         }
+        try {
+            if (computation.newValue != null) {
+                cacheWriter.write(key, computation.newValue);
+            } else {
+                cacheWriter.delete(key);
+            }
+        } catch (RuntimeException e) {
+            rollBackComputation(key, computation, cachedObject);
+            throw e;
+        }
+    }
 
-        removeLeastFrequencyObjectIfNeeded();
+    /**
+     * Rolls back computation which change has failed to be written to the store: puts removed object back,
+     * removes new object or restores previous value of updated object. Writers of the key wait for the lock
+     * of the key, so only invalidation or eviction may have changed the key since; their changes are kept.
+     *
+     * @param key          key
+     * @param computation  computation with previous cached object and value
+     * @param cachedObject cached object after the compute; null if the value is removed
+     */
+    private void rollBackComputation(String key, Computation<T> computation, CachedObject<T> cachedObject) {
+        CachedObject<T> previousCachedObject = computation.previousCachedObject;
+        if (cachedObject == null) {
+            if (cache.computeIfAbsent(key, x -> {
+                invalidationIndex.onPut(key);
+                return previousCachedObject;
+            }) != previousCachedObject) {
+                // the key is put again, so the removal stands
+                evictionOrder.remove(previousCachedObject);
+                releaseValue(computation.currentValue);
+            } else {
+                changeSharedSize(1);
+            }
+            return;
+        }
+        T newValue = cachedObject.getValue();
+        cache.computeIfPresent(key, (x, currentCachedObject) -> {
+            if (currentCachedObject != cachedObject) {
+                return currentCachedObject;
+            }
+            computation.rolledBack = true;
+            if (cachedObject != previousCachedObject) {
+                invalidationIndex.onRemove(key);
+                return null;
+            }
+            currentCachedObject.setStoredValue(computation.previousStoredValue);
+            return currentCachedObject;
+        });
+        if (computation.rolledBack) {
+            if (cachedObject != previousCachedObject) {
+                changeSharedSize(-1);
+            }
+            releaseValue(newValue);
+        } else if (cachedObject == previousCachedObject) {
+            // updated object is removed since together with the new value, previous value is not stored anymore
+            releaseValue(computation.currentValue);
+        }
+    }
 
-        CachedObject<T> cachedObject = new CachedObject<>(key, value, timeService.getTimeWithSystemDefaultZoneEpochMilli());
-        cache.put(key, cachedObject);
-        frequencySortedCachedObjects.add(cachedObject);
+    /**
+     * Locks key for writing it to the store. If cache writer is not provided in Cache Service, does nothing.
+     *
+     * @param key key
+     * @return held lock of the key, or null if cache writer is not provided
+     */
+    private KeyLocks.KeyLock lockKey(String key) {
+        return keyLocks != null ? keyLocks.lock(key) : null;
+    }
 
-        long methodEndTime = timeService.getTimeWithSystemDefaultZoneEpochMilli();
-        long timeSpentForPuttingValue = methodEndTime - methodStartTime;
-        cachedObject.setPuttingValueTime(timeSpentForPuttingValue);
-        LOGGER.trace("Object with key '{}' has put into cache. Time spent for putting: {} ms", cachedObject.getKey(), timeSpentForPuttingValue);
-        eventHappens(EventType.PUT_NEW_OBJECT, cachedObject);
+    /**
+     * Unlocks key locked for writing it to the store
+     *
+     * @param keyLock held lock of the key; may be null
+     */
+    private static void unlockKey(KeyLocks.KeyLock keyLock) {
+        if (keyLock != null) {
+            keyLock.unlock();
+        }
     }
 
     /**
-     * Return Simple Java cache statistics
+     * Forgets key in negative cache. If negative cache is not provided in Cache Service, does nothing.
      *
-     * @return cache statistics object
+     * @param key key
      */
-    @Override
-    public CacheStatisticsObject returnCacheStatistics() {
-        return cacheStatistics.returnCacheStatistics();
+    private void markPresent(String key) {
+        if (negativeCache != null) {
+            negativeCache.markPresent(key);
+        }
     }
 
     /**
-     * Clean cache from obsolete objects
+     * Offers read key to hot keys tracker and miss ratio curve. If they are not provided in Cache Service, does nothing.
+     *
+     * @param key key
      */
-    @Override
-    public void cacheCleanUp() {
-        cache.values().parallelStream()
-                .filter(cachedObject -> {
-                    long lastAccessDateTimeEpochMilli = cachedObject.getLastAccessDateTimeEpochMilli();
-                    return timeService.getTimeWithSystemDefaultZoneEpochMilli() - lastAccessDateTimeEpochMilli > timeoutInSec * 1000;
-                })
-                .forEach(obsoleteCachedObject -> {
-                    eventHappens(EventType.REMOVE_OBSOLETE_OBJECT, obsoleteCachedObject);
-                    cache.remove(obsoleteCachedObject.getKey());
-                    frequencySortedCachedObjects.remove(obsoleteCachedObject);
-                });
+    private void offerKey(String key) {
+        offerHotKey(key);
+        offerReadKey(key);
     }
 
     /**
-     * Removes the least frequency objects if cache size >= cache max size
+     * Offers read key to miss ratio curve. If miss ratio curve is not provided in Cache Service, does nothing.
+     *
+     * @param key key
      */
-    private void removeLeastFrequencyObjectIfNeeded() {
-        while (cache.size() >= maxCacheSize) {
-            CachedObject<T> leastFrequencyCachedObject = frequencySortedCachedObjects.pollFirst();
-            if (leastFrequencyCachedObject == null) {
-                throw new IllegalArgumentException("frequencySortedCachedObjects set should not contain null!");
-            }
-            cache.remove(leastFrequencyCachedObject.getKey());
-            eventHappens(EventType.REMOVE_LEAST_FREQUENCY_OBJECT, leastFrequencyCachedObject);
+    private void offerReadKey(String key) {
+        if (missRatioCurve != null) {
+            missRatioCurve.offer(key);
+        }
+    }
+
+    /**
+     * Offers key to hot keys tracker. If hot keys tracker is not provided in Cache Service, does nothing.
+     * Writes are offered to hot keys tracker only: put after miss is not offered to miss ratio curve,
+     * so the miss is not counted twice.
+     *
+     * @param key key
+     */
+    private void offerHotKey(String key) {
+        if (heavyHitters != null) {
+            heavyHitters.offer(key);
         }
     }
 
@@ -170,26 +1214,123 @@ public class SimpleCacheService<T> implements CacheService<T> {
      */
     private void eventHappens(EventType eventType, CachedObject<T> cachedObject) {
         if (listeners != null) {
-            assertInputObjectsNotNull(eventType, cachedObject);
+            UtilityAssertions.assertInputObjectsNotNull(eventType);
+            UtilityAssertions.assertInputObjectsNotNull(cachedObject);
 
+            CacheListenerDispatchEvent event = CacheEvents.isRecording() ? new CacheListenerDispatchEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
             for (Listener listener : listeners) {
                 listener.onEvent(eventType, cachedObject);
             }
+            if (event != null && event.shouldCommit()) {
+                event.cacheName = name;
+                event.eventType = eventType.name();
+                event.listenersNumber = listeners.size();
+                event.commit();
+            }
         }
     }
 
     /**
-     * Removes all objects that have been accessed more than timeout time.
-     * Task runs every 0.5 second.
+     * One compute of cache map: remapping function of cached object by key with compute settings, and current
+     * and new values after the compute. Computation of put is reused by the thread, so put does not allocate
+     * capturing lambdas. It is static and forgets its cache service when cleared, so thread local of reused
+     * computations does not keep closed cache services reachable.
+     *
+     * @param <T>
      */
-    private void runCacheCleanUpPeriodicTask() {
-        Timer timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                cacheCleanUp();
+    private static final class Computation<T> implements BiFunction<String, CachedObject<T>, CachedObject<T>> {
+
+        private SimpleCacheService<T> cacheService;
+        private BiFunction<? super String, ? super T, ? extends T> remappingFunction;
+        private T value;
+        private long loadCostInMillis;
+        private boolean writeThrough;
+        private boolean removeIfNull;
+        private String[] tags = NO_TAGS;
+        private boolean busy;
+
+        private CachedObject<T> previousCachedObject;
+        private Object previousStoredValue;
+        private T currentValue;
+        private T newValue;
+        // whether current value is replaced or removed, so it is written to the store and released
+        private boolean changed;
+        private boolean rolledBack;
+
+        /**
+         * Prepares computation
+         *
+         * @param cacheService      cache service which map is computed
+         * @param remappingFunction function computing new value by key and current value;
+         *                          if null provided, new value is the value
+         * @param value             new value if remapping function is not provided
+         * @param loadCostInMillis  time spent for loading value before the compute in millis
+         * @param writeThrough      whether to write changed value to the store, if cache writer is provided
+         * @param removeIfNull      whether null new value removes the key and unchanged value is kept as is
+         */
+        private void start(SimpleCacheService<T> cacheService,
+                           BiFunction<? super String, ? super T, ? extends T> remappingFunction, T value,
+                           long loadCostInMillis, boolean writeThrough, boolean removeIfNull) {
+            this.cacheService = cacheService;
+            this.remappingFunction = remappingFunction;
+            this.value = value;
+            this.loadCostInMillis = loadCostInMillis;
+            this.writeThrough = writeThrough;
+            this.removeIfNull = removeIfNull;
+            this.busy = true;
+        }
+
+        /**
+         * Forgets cache service and values, so reused computation does not keep them from GC
+         */
+        private void clear() {
+            cacheService = null;
+            remappingFunction = null;
+            value = null;
+            previousCachedObject = null;
+            previousStoredValue = null;
+            currentValue = null;
+            newValue = null;
+            tags = NO_TAGS;
+            changed = false;
+            rolledBack = false;
+            busy = false;
+        }
+
+        @Override
+        public CachedObject<T> apply(String key, CachedObject<T> existingCachedObject) {
+            T currentValue = existingCachedObject != null ? existingCachedObject.getValue() : null;
+            long computeStartTime = cacheService.timeService.getTimeWithSystemDefaultZoneEpochMilli();
+            T newValue = remappingFunction != null ? remappingFunction.apply(key, currentValue) : value;
+            long currentTime = cacheService.timeService.getTimeWithSystemDefaultZoneEpochMilli();
+            this.previousCachedObject = existingCachedObject;
+            this.currentValue = currentValue;
+            this.newValue = newValue;
+
+            if (removeIfNull && newValue == null) {
+                this.changed = currentValue != null;
+                if (existingCachedObject != null) {
+                    cacheService.invalidationIndex.onRemove(key);
+                }
+                return null;
+            }
+            if (removeIfNull && newValue == currentValue) {
+                existingCachedObject.setLastAccessDateTimeEpochMilli(currentTime);
+                return existingCachedObject;
             }
-        }, 0, 500);
+            this.changed = true;
+            CachedObject<T> newCachedObject = existingCachedObject != null
+                    ? existingCachedObject : cacheService.evictionOrder.createCachedObject(key, currentTime);
+            this.previousStoredValue = newCachedObject.getStoredValue();
+            cacheService.setValue(newCachedObject, cacheService.internValue(newValue));
+            cacheService.setCostPerSize(newCachedObject, newValue, loadCostInMillis + currentTime - computeStartTime);
+            newCachedObject.setLastAccessDateTimeEpochMilli(currentTime);
+            cacheService.invalidationIndex.onPut(key, tags);
+            return newCachedObject;
+        }
     }
 
     /**
@@ -204,6 +1345,24 @@ public class SimpleCacheService<T> implements CacheService<T> {
         private int maxCacheSize;
         private TimeService timeService;
         private long timeoutInSec;
+        private HeavyHitters heavyHitters;
+        private MissRatioCurve missRatioCurve;
+        private int minCacheSize;
+        private HeapPressureMonitor heapPressureMonitor;
+        private ValueStrength valueStrength;
+        private boolean prefixIndex;
+        private MaintenanceScheduler maintenanceScheduler;
+        private long maintenanceIntervalInMillis;
+        private long maintenanceTimeSliceInMillis;
+        private CacheWriter<T> cacheWriter;
+        private NegativeCache negativeCache;
+        private EvictionPolicy evictionPolicy;
+        private ToIntFunction<T> sizeEstimator;
+        private String name;
+        private SharedCapacity sharedCapacity;
+        private ValueDeduplicator<T> valueDeduplicator;
+        private InvalidationBus invalidationBus;
+        private Prefetcher<T> prefetcher;
 
         /**
          * Set max cache size to builder
@@ -222,7 +1381,7 @@ public class SimpleCacheService<T> implements CacheService<T> {
          * @param timeoutInSec timeout time in secs
          * @return builder
          */
-        public Builder<T> timeoutInSec(int timeoutInSec) {
+        public Builder<T> timeoutInSec(long timeoutInSec) {
             this.timeoutInSec = timeoutInSec;
             return this;
         }
@@ -260,18 +1419,210 @@ public class SimpleCacheService<T> implements CacheService<T> {
             return this;
         }
 
+        /**
+         * Set hot keys tracker to builder
+         *
+         * @param heavyHitters hot keys tracker
+         * @return builder
+         */
+        public Builder<T> heavyHitters(HeavyHitters heavyHitters) {
+            this.heavyHitters = heavyHitters;
+            return this;
+        }
+
+        /**
+         * Set miss ratio curve to builder
+         *
+         * @param missRatioCurve estimator of hit ratios of hypothetical capacities by keys of gets;
+         *                       puts and other writes are not offered to it, so a miss is counted once
+         * @return builder
+         */
+        public Builder<T> missRatioCurve(MissRatioCurve missRatioCurve) {
+            this.missRatioCurve = missRatioCurve;
+            return this;
+        }
+
+        /**
+         * Set adaptive capacity to builder: effective capacity shrinks on heap pressure reported by monitor
+         * down to min cache size and grows back up to max cache size when pressure is relieved
+         *
+         * @param minCacheSize        min cache size; if negative value or 0 provided, default value = 1
+         * @param heapPressureMonitor heap pressure monitor
+         * @return builder
+         */
+        public Builder<T> adaptiveCapacity(int minCacheSize, HeapPressureMonitor heapPressureMonitor) {
+            this.minCacheSize = minCacheSize;
+            this.heapPressureMonitor = heapPressureMonitor;
+            return this;
+        }
+
+        /**
+         * Set value strength to builder
+         *
+         * @param valueStrength value strength; if null provided, default value = STRONG
+         * @return builder
+         */
+        public Builder<T> valueStrength(ValueStrength valueStrength) {
+            this.valueStrength = valueStrength;
+            return this;
+        }
+
+        /**
+         * Set prefix index to builder: keeps sorted set of keys, so prefix invalidation does not scan the cache
+         *
+         * @param prefixIndex whether to keep prefix index
+         * @return builder
+         */
+        public Builder<T> prefixIndex(boolean prefixIndex) {
+            this.prefixIndex = prefixIndex;
+            return this;
+        }
+
+        /**
+         * Set maintenance scheduler to builder
+         *
+         * @param maintenanceScheduler maintenance scheduler; if null provided, shared scheduler is used
+         * @return builder
+         */
+        public Builder<T> maintenanceScheduler(MaintenanceScheduler maintenanceScheduler) {
+            this.maintenanceScheduler = maintenanceScheduler;
+            return this;
+        }
+
+        /**
+         * Set maintenance interval in millis to builder
+         *
+         * @param maintenanceIntervalInMillis interval between maintenance runs in millis;
+         *                                    if negative value or 0 provided, default value = 500
+         * @return builder
+         */
+        public Builder<T> maintenanceIntervalInMillis(long maintenanceIntervalInMillis) {
+            this.maintenanceIntervalInMillis = maintenanceIntervalInMillis;
+            return this;
+        }
+
+        /**
+         * Set maintenance time slice in millis to builder
+         *
+         * @param maintenanceTimeSliceInMillis max time of one maintenance run in millis;
+         *                                     if negative value or 0 provided, default value = 2
+         * @return builder
+         */
+        public Builder<T> maintenanceTimeSliceInMillis(long maintenanceTimeSliceInMillis) {
+            this.maintenanceTimeSliceInMillis = maintenanceTimeSliceInMillis;
+            return this;
+        }
+
+        /**
+         * Set cache writer to builder: puts write values to the store through it.
+         * Wrap it into write-behind cache writer to write behind
+         *
+         * @param cacheWriter cache writer
+         * @return builder
+         */
+        public Builder<T> cacheWriter(CacheWriter<T> cacheWriter) {
+            this.cacheWriter = cacheWriter;
+            return this;
+        }
+
+        /**
+         * Set negative cache to builder: keys which loader has not found are remembered as absent in it
+         *
+         * @param negativeCache negative cache
+         * @return builder
+         */
+        public Builder<T> negativeCache(NegativeCache negativeCache) {
+            this.negativeCache = negativeCache;
+            return this;
+        }
+
+        /**
+         * Set eviction policy to builder
+         *
+         * @param evictionPolicy eviction policy; if null provided, default value = LFU
+         * @return builder
+         */
+        public Builder<T> evictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+
+        /**
+         * Set size estimator of values to builder, used by GDSF eviction policy
+         *
+         * @param sizeEstimator size of value in any units, e.g. bytes; if null provided, every value has size 1
+         * @return builder
+         */
+        public Builder<T> sizeEstimator(ToIntFunction<T> sizeEstimator) {
+            this.sizeEstimator = sizeEstimator;
+            return this;
+        }
+
+        /**
+         * Set name to builder, used in Flight Recorder events
+         *
+         * @param name unique cache name; if null provided, default value = simple-N
+         * @return builder
+         */
+        public Builder<T> name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Set value deduplicator to builder. Values equivalent to stored ones are replaced by shared instances;
+         * deduplicated values must be strongly referenced.
+         *
+         * @param valueDeduplicator value deduplicator; if null provided, values are not deduplicated
+         * @return builder
+         */
+        public Builder<T> valueDeduplicator(ValueDeduplicator<T> valueDeduplicator) {
+            this.valueDeduplicator = valueDeduplicator;
+            return this;
+        }
+
+        /**
+         * Set invalidation bus to builder. Keys put, computed and invalidated in cache are invalidated in caches
+         * of the other nodes; loaded keys are not. Cache service closes the bus when it is closed.
+         *
+         * @param invalidationBus invalidation bus; if null provided, caches of other nodes are not invalidated
+         * @return builder
+         */
+        public Builder<T> invalidationBus(InvalidationBus invalidationBus) {
+            this.invalidationBus = invalidationBus;
+            return this;
+        }
+
+        /**
+         * Set prefetcher to builder. Reads of cache are recorded to it, and values it prefetches are put into cache
+         * without writing them to the store. Cache service closes the prefetcher when it is closed.
+         *
+         * @param prefetcher prefetcher; if null provided, values are not prefetched
+         * @return builder
+         */
+        public Builder<T> prefetcher(Prefetcher<T> prefetcher) {
+            this.prefetcher = prefetcher;
+            return this;
+        }
+
+        /**
+         * Set capacity shared with other tenants of tenant cache manager to builder
+         *
+         * @param sharedCapacity shared capacity
+         * @return builder
+         */
+        Builder<T> sharedCapacity(SharedCapacity sharedCapacity) {
+            this.sharedCapacity = sharedCapacity;
+            return this;
+        }
+
         /**
          * Builds Simple Java Cache service instance
          *
          * @return Simple Java Cache service instance
          */
         public SimpleCacheService<T> build() {
-            return new SimpleCacheService<>(
-                    maxCacheSize,
-                    timeoutInSec,
-                    listeners,
-                    cacheStatistics,
-                    timeService);
+            return new SimpleCacheService<>(this);
         }
     }
 }
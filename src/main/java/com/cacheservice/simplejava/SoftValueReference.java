@@ -0,0 +1,24 @@
+package com.cacheservice.simplejava;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+
+/**
+ * Soft reference to cached value
+ *
+ * @param <T>
+ */
+final class SoftValueReference<T> extends SoftReference<T> implements ValueReference<T> {
+
+    private final CachedObject<T> cachedObject;
+
+    SoftValueReference(T value, CachedObject<T> cachedObject, ReferenceQueue<T> referenceQueue) {
+        super(value, referenceQueue);
+        this.cachedObject = cachedObject;
+    }
+
+    @Override
+    public CachedObject<T> getCachedObject() {
+        return cachedObject;
+    }
+}
@@ -0,0 +1,237 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Manager of Simple Java cache services of tenants sharing one capacity.
+ * <p>
+ * Each tenant is guaranteed its min quota and is limited by its max quota; capacity not guaranteed by min quotas
+ * is used by tenants which need it, so idle tenants do not hold capacity busy tenants could use. When shared
+ * capacity is full, put of new object evicts the least frequency objects of the tenant most over its fair share.
+ * All tenants are maintained by one maintenance scheduler.
+ *
+ * @param <T>
+ */
+public class TenantCacheManager<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantCacheManager.class.getName());
+    // average putting value time of tenant is taken over this many last puts, not over its max quota
+    private static final int TENANT_PUTTING_VALUE_TIMES_NUMBER = 1024;
+
+    private final SharedCapacity sharedCapacity;
+    private final long timeoutInSec;
+    private final TimeService timeService;
+    private final EvictionPolicy evictionPolicy;
+    private final MaintenanceScheduler maintenanceScheduler;
+    private final Map<String, TenantCacheService<T>> tenantCacheServices = new ConcurrentSkipListMap<>();
+
+    /**
+     * Tenant cache manager constructor
+     *
+     * @param builder builder with tenant cache manager settings
+     */
+    private TenantCacheManager(Builder<T> builder) {
+        this.sharedCapacity = new SharedCapacity(builder.capacity > 0 ? builder.capacity : 100_000);
+        this.timeoutInSec = builder.timeoutInSec;
+        this.timeService = builder.timeService != null ? builder.timeService : new TimeService();
+        this.evictionPolicy = builder.evictionPolicy;
+        this.maintenanceScheduler = builder.maintenanceScheduler != null
+                ? builder.maintenanceScheduler : MaintenanceScheduler.sharedScheduler();
+        LOGGER.info("TenantCacheManager is created");
+    }
+
+    /**
+     * Adds tenant and creates its cache service
+     *
+     * @param tenant   tenant
+     * @param minQuota min number of objects guaranteed to tenant; sum of min quotas can not exceed capacity
+     * @param maxQuota max number of objects of tenant; if negative value or 0 provided, default value = capacity
+     * @return cache service of tenant
+     */
+    public synchronized CacheService<T> addTenant(String tenant, int minQuota, int maxQuota) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(tenant);
+        if (tenantCacheServices.containsKey(tenant)) {
+            throw new IllegalArgumentException("Tenant " + tenant + " is already added!");
+        }
+        int tenantMaxQuota = maxQuota > 0 ? Math.min(maxQuota, sharedCapacity.getCapacity()) : sharedCapacity.getCapacity();
+        if (minQuota < 0 || minQuota > tenantMaxQuota) {
+            throw new IllegalArgumentException("Min quota of tenant should be between 0 and max quota!");
+        }
+
+        CacheStatistics cacheStatistics = new CacheStatistics(TENANT_PUTTING_VALUE_TIMES_NUMBER);
+        SimpleCacheService<T> cacheService = new SimpleCacheService.Builder<T>()
+                .maxCacheSize(tenantMaxQuota)
+                .timeoutInSec(timeoutInSec)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(timeService)
+                .evictionPolicy(evictionPolicy)
+                .maintenanceScheduler(maintenanceScheduler)
+                .name("tenant-" + tenant)
+                .sharedCapacity(sharedCapacity)
+                .build();
+        try {
+            sharedCapacity.register(tenant, cacheService, minQuota, tenantMaxQuota);
+        } catch (IllegalArgumentException e) {
+            cacheService.close();
+            throw e;
+        }
+        TenantCacheService<T> tenantCacheService = new TenantCacheService<>(tenant, cacheService, minQuota, tenantMaxQuota);
+        tenantCacheServices.put(tenant, tenantCacheService);
+        LOGGER.info("Tenant {} is added with quotas {}..{}", tenant, minQuota, tenantMaxQuota);
+        return tenantCacheService;
+    }
+
+    /**
+     * Returns cache service of tenant
+     *
+     * @param tenant tenant
+     * @return cache service of tenant, or null if tenant is not added
+     */
+    public CacheService<T> getTenant(String tenant) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(tenant);
+
+        return tenantCacheServices.get(tenant);
+    }
+
+    /**
+     * Removes tenant, closes its cache service and releases its min quota
+     *
+     * @param tenant tenant
+     * @return true if tenant was added
+     */
+    public synchronized boolean removeTenant(String tenant) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(tenant);
+
+        TenantCacheService<T> tenantCacheService = tenantCacheServices.remove(tenant);
+        if (tenantCacheService == null) {
+            return false;
+        }
+        sharedCapacity.unregister(tenant);
+        tenantCacheService.close();
+        LOGGER.info("Tenant {} is removed", tenant);
+        return true;
+    }
+
+    /**
+     * Returns total number of objects of all tenants
+     *
+     * @return total size
+     */
+    public int size() {
+        return sharedCapacity.size();
+    }
+
+    /**
+     * Return statistics of tenants ordered by tenant
+     *
+     * @return tenant statistics objects
+     */
+    public List<TenantStatisticsObject> returnTenantStatistics() {
+        List<TenantStatisticsObject> tenantStatistics = new ArrayList<>();
+        for (TenantCacheService<T> tenantCacheService : tenantCacheServices.values()) {
+            int fairShare = sharedCapacity.fairShare(tenantCacheService.getMinQuota(), tenantCacheService.getMaxQuota());
+            tenantStatistics.add(tenantCacheService.returnTenantStatistics(fairShare));
+        }
+        return tenantStatistics;
+    }
+
+    /**
+     * Removes all tenants closing their cache services. Maintenance scheduler is not closed, because it may be shared.
+     */
+    @Override
+    public synchronized void close() {
+        for (String tenant : new ArrayList<>(tenantCacheServices.keySet())) {
+            removeTenant(tenant);
+        }
+        LOGGER.info("TenantCacheManager is closed");
+    }
+
+    /**
+     * Builder for Tenant Cache Manager
+     *
+     * @param <T>
+     */
+    public static class Builder<T> {
+
+        private int capacity;
+        private long timeoutInSec;
+        private TimeService timeService;
+        private EvictionPolicy evictionPolicy;
+        private MaintenanceScheduler maintenanceScheduler;
+
+        /**
+         * Set capacity shared by all tenants to builder
+         *
+         * @param capacity shared capacity; if negative value or 0 provided, default value = 100 000
+         * @return builder
+         */
+        public Builder<T> capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Set timeout time in secs to builder
+         *
+         * @param timeoutInSec timeout time in secs for removing obsolete cache items of all tenants
+         * @return builder
+         */
+        public Builder<T> timeoutInSec(long timeoutInSec) {
+            this.timeoutInSec = timeoutInSec;
+            return this;
+        }
+
+        /**
+         * Set time service to builder
+         *
+         * @param timeService time service; if null provided, new one is created
+         * @return builder
+         */
+        public Builder<T> timeService(TimeService timeService) {
+            this.timeService = timeService;
+            return this;
+        }
+
+        /**
+         * Set eviction policy of tenants to builder
+         *
+         * @param evictionPolicy eviction policy; if null provided, default value = LFU
+         * @return builder
+         */
+        public Builder<T> evictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+            return this;
+        }
+
+        /**
+         * Set maintenance scheduler of all tenants to builder
+         *
+         * @param maintenanceScheduler maintenance scheduler; if null provided, shared scheduler is used
+         * @return builder
+         */
+        public Builder<T> maintenanceScheduler(MaintenanceScheduler maintenanceScheduler) {
+            this.maintenanceScheduler = maintenanceScheduler;
+            return this;
+        }
+
+        /**
+         * Builds Tenant Cache Manager instance
+         *
+         * @return Tenant Cache Manager instance
+         */
+        public TenantCacheManager<T> build() {
+            return new TenantCacheManager<>(this);
+        }
+    }
+}
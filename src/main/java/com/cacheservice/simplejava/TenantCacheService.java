@@ -0,0 +1,149 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheStatisticsObject;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Cache service of tenant of tenant cache manager: Simple Java cache service sharing capacity with other tenants,
+ * counting hits and misses of gets
+ *
+ * @param <T>
+ */
+final class TenantCacheService<T> implements CacheService<T> {
+
+    private final String tenant;
+    private final SimpleCacheService<T> cacheService;
+    private final int minQuota;
+    private final int maxQuota;
+    private final LongAdder hitsNumber = new LongAdder();
+    private final LongAdder missesNumber = new LongAdder();
+
+    /**
+     * Tenant cache service constructor
+     *
+     * @param tenant       tenant
+     * @param cacheService Simple Java cache service of tenant
+     * @param minQuota     min number of objects guaranteed to tenant
+     * @param maxQuota     max number of objects of tenant
+     */
+    TenantCacheService(String tenant, SimpleCacheService<T> cacheService, int minQuota, int maxQuota) {
+        this.tenant = tenant;
+        this.cacheService = cacheService;
+        this.minQuota = minQuota;
+        this.maxQuota = maxQuota;
+    }
+
+    @Override
+    public T get(String key) {
+        T value = cacheService.get(key);
+        if (value != null) {
+            hitsNumber.increment();
+        } else {
+            missesNumber.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void put(String key, T value) {
+        cacheService.put(key, value);
+    }
+
+    @Override
+    public void put(String key, T value, String... tags) {
+        cacheService.put(key, value, tags);
+    }
+
+    @Override
+    public T putIfAbsent(String key, T value) {
+        return cacheService.putIfAbsent(key, value);
+    }
+
+    @Override
+    public T computeIfAbsent(String key, Function<String, ? extends T> mappingFunction) {
+        return cacheService.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public T compute(String key, BiFunction<String, ? super T, ? extends T> remappingFunction) {
+        return cacheService.compute(key, remappingFunction);
+    }
+
+    @Override
+    public T merge(String key, T value, BiFunction<? super T, ? super T, ? extends T> remappingFunction) {
+        return cacheService.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public T replace(String key, T value) {
+        return cacheService.replace(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, T oldValue, T newValue) {
+        return cacheService.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public boolean invalidate(String key) {
+        return cacheService.invalidate(key);
+    }
+
+    @Override
+    public int invalidateByTag(String tag) {
+        return cacheService.invalidateByTag(tag);
+    }
+
+    @Override
+    public int invalidateByPrefix(String prefix) {
+        return cacheService.invalidateByPrefix(prefix);
+    }
+
+    @Override
+    public Stream<Map.Entry<String, T>> entries() {
+        return cacheService.entries();
+    }
+
+    @Override
+    public CacheStatisticsObject returnCacheStatistics() {
+        return cacheService.returnCacheStatistics();
+    }
+
+    @Override
+    public void cacheCleanUp() {
+        cacheService.cacheCleanUp();
+    }
+
+    /**
+     * Closes Simple Java cache service of tenant. Tenant is removed from tenant cache manager by the manager only.
+     */
+    @Override
+    public void close() {
+        cacheService.close();
+    }
+
+    /**
+     * Return tenant statistics
+     *
+     * @param fairShare fair share of shared capacity
+     * @return tenant statistics object
+     */
+    TenantStatisticsObject returnTenantStatistics(int fairShare) {
+        return new TenantStatisticsObject(tenant, minQuota, maxQuota, fairShare, cacheService.size(),
+                hitsNumber.sum(), missesNumber.sum(), cacheService.returnCacheStatistics().getEvictionCount());
+    }
+
+    int getMinQuota() {
+        return minQuota;
+    }
+
+    int getMaxQuota() {
+        return maxQuota;
+    }
+}
@@ -0,0 +1,103 @@
+package com.cacheservice.simplejava;
+
+/**
+ * Tenant statistics object. Has fields:
+ * - tenant, its min and max quotas and fair share of shared capacity
+ * - number of objects of tenant
+ * - number of hits and misses of gets
+ * - number of objects removed by eviction and expiration
+ */
+public class TenantStatisticsObject {
+
+    private final String tenant;
+    private final int minQuota;
+    private final int maxQuota;
+    private final int fairShare;
+    private final int size;
+    private final long hitsNumber;
+    private final long missesNumber;
+    private final long evictionCount;
+
+    /**
+     * Tenant statistics constructor
+     *
+     * @param tenant        tenant
+     * @param minQuota      min number of objects guaranteed to tenant
+     * @param maxQuota      max number of objects of tenant
+     * @param fairShare     fair share of shared capacity
+     * @param size          number of objects of tenant
+     * @param hitsNumber    number of gets which found value
+     * @param missesNumber  number of gets which did not find value
+     * @param evictionCount number of objects removed by eviction and expiration
+     */
+    public TenantStatisticsObject(String tenant,
+                                  int minQuota,
+                                  int maxQuota,
+                                  int fairShare,
+                                  int size,
+                                  long hitsNumber,
+                                  long missesNumber,
+                                  long evictionCount) {
+        this.tenant = tenant;
+        this.minQuota = minQuota;
+        this.maxQuota = maxQuota;
+        this.fairShare = fairShare;
+        this.size = size;
+        this.hitsNumber = hitsNumber;
+        this.missesNumber = missesNumber;
+        this.evictionCount = evictionCount;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public int getMinQuota() {
+        return minQuota;
+    }
+
+    public int getMaxQuota() {
+        return maxQuota;
+    }
+
+    public int getFairShare() {
+        return fairShare;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHitsNumber() {
+        return hitsNumber;
+    }
+
+    public long getMissesNumber() {
+        return missesNumber;
+    }
+
+    /**
+     * Returns hits divided by gets; 0 if there are no gets
+     *
+     * @return hit ratio
+     */
+    public double getHitRatio() {
+        long getsNumber = hitsNumber + missesNumber;
+        return getsNumber == 0 ? 0 : (double) hitsNumber / getsNumber;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Tenant statistics:\n" +
+                "Tenant = " + tenant + "\n" +
+                "Quotas = " + minQuota + ".." + maxQuota + "\n" +
+                "Fair share = " + fairShare + "\n" +
+                "Size = " + size + "\n" +
+                "Hit ratio = " + getHitRatio() + "\n" +
+                "Eviction count = " + evictionCount;
+    }
+}
@@ -1,7 +1,6 @@
 package com.cacheservice.simplejava;
 
 import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.time.ZoneOffset;
 
 /**
@@ -19,11 +18,12 @@ public class TimeService {
     }
 
     /**
-     * Returns system default Epoch time in millis
+     * Returns system default Epoch time in millis. Epoch millis do not depend on zone, so they are read from
+     * system clock without allocating date time objects.
      *
      * @return system default Epoch time in millis
      */
     public long getTimeWithSystemDefaultZoneEpochMilli() {
-        return LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return System.currentTimeMillis();
     }
 }
@@ -0,0 +1,13 @@
+package com.cacheservice.simplejava;
+
+/**
+ * Soft or weak reference to cached value keeping its cached object for clean up after the value is collected
+ *
+ * @param <T>
+ */
+interface ValueReference<T> {
+
+    T get();
+
+    CachedObject<T> getCachedObject();
+}
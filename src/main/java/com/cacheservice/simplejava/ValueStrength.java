@@ -0,0 +1,42 @@
+package com.cacheservice.simplejava;
+
+import java.lang.ref.ReferenceQueue;
+
+/**
+ * How Simple Java Cache Service references cached values:
+ * - STRONG: values are kept until they are removed by cache service
+ * - SOFT: values may be collected by GC under memory pressure
+ * - WEAK: values are collected by GC as soon as nothing else references them
+ * Objects which values are collected are removed from cache during clean up.
+ */
+public enum ValueStrength {
+    STRONG {
+        @Override
+        <T> Object wrap(T value, CachedObject<T> cachedObject, ReferenceQueue<T> referenceQueue) {
+            return value;
+        }
+    },
+    SOFT {
+        @Override
+        <T> Object wrap(T value, CachedObject<T> cachedObject, ReferenceQueue<T> referenceQueue) {
+            return value == null ? null : new SoftValueReference<>(value, cachedObject, referenceQueue);
+        }
+    },
+    WEAK {
+        @Override
+        <T> Object wrap(T value, CachedObject<T> cachedObject, ReferenceQueue<T> referenceQueue) {
+            return value == null ? null : new WeakValueReference<>(value, cachedObject, referenceQueue);
+        }
+    };
+
+    /**
+     * Wraps value to be stored in cached object
+     *
+     * @param value          value
+     * @param cachedObject   cached object
+     * @param referenceQueue queue receiving references of collected values
+     * @param <T>            value type
+     * @return value or reference to value
+     */
+    abstract <T> Object wrap(T value, CachedObject<T> cachedObject, ReferenceQueue<T> referenceQueue);
+}
@@ -6,24 +6,31 @@ import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Deque;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Gathers information about Cache Service:
  * - number of removed obsolete objects
  * - number of removed least frequency objects
+ * - number of removed objects which values are collected by GC
  * - putting value time list (to calculate average putting value time)
+ * <p>
+ * Putting value times are kept in ring buffers striped by thread, each with its own lock and running sum, so puts
+ * of different threads do not contend and average putting value time takes O(number of stripes). Together
+ * the stripes keep about the last max cache size times. Ring buffer of a stripe is allocated on first time and grows
+ * by doubling up to its share of max cache size, so adding time allocates only while the buffer grows.
  */
 public class CacheStatistics {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheStatistics.class.getName());
+    private static final int MAX_STRIPES = 16;
+    private static final int INITIAL_STRIPE_SIZE = 16;
 
     private final AtomicInteger removedObsoleteObjectsNumber = new AtomicInteger();
     private final AtomicInteger removedLeastFrequencyObjectsNumber = new AtomicInteger();
-    private final Deque<Long> puttingValueTimeList = new ConcurrentLinkedDeque<>();
-    private final int maxCacheSize;
+    private final AtomicInteger removedCollectedObjectsNumber = new AtomicInteger();
+    private final PuttingValueTimes[] puttingValueTimeStripes;
 
     /**
      * Cache statistics constructor
@@ -34,7 +41,13 @@ public class CacheStatistics {
         if (maxCacheSize <= 0) {
             throw new IllegalArgumentException("Max cache size of simple cache service should be positive!");
         }
-        this.maxCacheSize = maxCacheSize;
+        int stripesNumber = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2),
+                MAX_STRIPES);
+        int stripeCapacity = Math.max(maxCacheSize / stripesNumber, 1);
+        this.puttingValueTimeStripes = new PuttingValueTimes[stripesNumber];
+        for (int i = 0; i < stripesNumber; i++) {
+            puttingValueTimeStripes[i] = new PuttingValueTimes(stripeCapacity);
+        }
         LOGGER.info("Cache Statistics is created");
     }
 
@@ -52,6 +65,13 @@ public class CacheStatistics {
         removedLeastFrequencyObjectsNumber.incrementAndGet();
     }
 
+    /**
+     * Increments number of removed objects which values are collected by GC
+     */
+    public void incrementRemovedCollectedObjectsNumber() {
+        removedCollectedObjectsNumber.incrementAndGet();
+    }
+
     /**
      * Adds putting value time to the putting value time list for further calculation
      * of putting value average time
@@ -63,10 +83,9 @@ public class CacheStatistics {
             throw new IllegalArgumentException("Value putting time can not be negative!");
         }
 
-        while (puttingValueTimeList.size() >= maxCacheSize) {
-            puttingValueTimeList.pollLast();
-        }
-        puttingValueTimeList.addFirst(valuePuttingTime);
+        long threadId = Thread.currentThread().getId();
+        int stripeIndex = (int) (threadId * 0x9E3779B97F4A7C15L >>> 32) & (puttingValueTimeStripes.length - 1);
+        puttingValueTimeStripes[stripeIndex].add(valuePuttingTime);
     }
 
     /**
@@ -75,9 +94,21 @@ public class CacheStatistics {
      * @return cache statistics object
      */
     public CacheStatisticsObject returnCacheStatistics() {
-        int evictionCount = removedObsoleteObjectsNumber.intValue() + removedLeastFrequencyObjectsNumber.intValue();
-        double puttingValueTimeSum = puttingValueTimeList.parallelStream().mapToLong(x -> x).sum();
-        double averageLoadPenaltyInSecs = puttingValueTimeSum / (puttingValueTimeList.size() * 1000);
+        int evictionCount = removedObsoleteObjectsNumber.intValue()
+                + removedLeastFrequencyObjectsNumber.intValue()
+                + removedCollectedObjectsNumber.intValue();
+        double puttingValueTimeSum = 0;
+        int puttingValueTimesNumber = 0;
+        for (PuttingValueTimes puttingValueTimes : puttingValueTimeStripes) {
+            synchronized (puttingValueTimes) {
+                puttingValueTimeSum += puttingValueTimes.sum;
+                puttingValueTimesNumber += puttingValueTimes.size;
+            }
+        }
+        if (puttingValueTimesNumber == 0) {
+            return new CacheStatisticsObject(evictionCount, 0);
+        }
+        double averageLoadPenaltyInSecs = puttingValueTimeSum / (puttingValueTimesNumber * 1000);
         return new CacheStatisticsObject(evictionCount, round(averageLoadPenaltyInSecs, 2));
     }
 
@@ -86,4 +117,38 @@ public class CacheStatistics {
         bd = bd.setScale(places, RoundingMode.HALF_UP);
         return bd.doubleValue();
     }
+
+    /**
+     * Ring buffer of last putting value times of a stripe with their running sum
+     */
+    private static final class PuttingValueTimes {
+
+        private final int capacity;
+        // guarded by this
+        private long[] times;
+        private int size;
+        private int nextIndex;
+        private long sum;
+
+        private PuttingValueTimes(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private synchronized void add(long time) {
+            if (size == capacity) {
+                sum -= times[nextIndex];
+            } else {
+                if (times == null) {
+                    times = new long[Math.min(INITIAL_STRIPE_SIZE, capacity)];
+                } else if (size == times.length) {
+                    // buffer is not full yet, so times take indexes 0..size - 1 and the next one is appended
+                    times = Arrays.copyOf(times, Math.min(size * 2, capacity));
+                }
+                size++;
+            }
+            times[nextIndex] = time;
+            sum += time;
+            nextIndex = (nextIndex + 1) % capacity;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package com.cacheservice.simplejava.cachestatistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gathers information about cache maintenance runs:
+ * - number of runs
+ * - total and max run time (to calculate average run time)
+ * - number of scanned objects
+ */
+public class MaintenanceStatistics {
+
+    private final LongAdder runsNumber = new LongAdder();
+    private final LongAdder totalRunTimeInNanos = new LongAdder();
+    private final AtomicLong maxRunTimeInNanos = new AtomicLong();
+    private final LongAdder scannedObjectsNumber = new LongAdder();
+
+    /**
+     * Records maintenance run
+     *
+     * @param runTimeInNanos       run time in nanos
+     * @param scannedObjectsNumber number of objects scanned by the run
+     */
+    public void recordRun(long runTimeInNanos, int scannedObjectsNumber) {
+        runsNumber.increment();
+        totalRunTimeInNanos.add(runTimeInNanos);
+        maxRunTimeInNanos.accumulateAndGet(runTimeInNanos, Math::max);
+        this.scannedObjectsNumber.add(scannedObjectsNumber);
+    }
+
+    public long getRunsNumber() {
+        return runsNumber.sum();
+    }
+
+    /**
+     * Returns average maintenance run time
+     *
+     * @return average run time in millis; 0 if there were no runs
+     */
+    public double getAverageRunTimeInMillis() {
+        long runs = runsNumber.sum();
+        return runs == 0 ? 0 : totalRunTimeInNanos.sum() / (runs * 1_000_000.0);
+    }
+
+    public double getMaxRunTimeInMillis() {
+        return maxRunTimeInNanos.get() / 1_000_000.0;
+    }
+
+    public long getScannedObjectsNumber() {
+        return scannedObjectsNumber.sum();
+    }
+}
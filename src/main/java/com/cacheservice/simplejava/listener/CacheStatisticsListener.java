@@ -23,7 +23,7 @@ public class CacheStatisticsListener implements Listener {
 
     /**
      * Listener action when event is happening. Triggers methods of Cache Statistics
-     * to update statistics information
+     * to update statistics information. Invalidated objects are not evictions, so they are not counted.
      *
      * @param eventType    event type
      * @param cachedObject cached object
@@ -34,6 +34,8 @@ public class CacheStatisticsListener implements Listener {
             cacheStatistics.incrementRemovedObsoleteObjectsNumber();
         } else if (eventType == EventType.REMOVE_LEAST_FREQUENCY_OBJECT) {
             cacheStatistics.incrementRemovedLeastFrequencyObjectsNumber();
+        } else if (eventType == EventType.REMOVE_COLLECTED_OBJECT) {
+            cacheStatistics.incrementRemovedCollectedObjectsNumber();
         } else if (eventType == EventType.PUT_NEW_OBJECT) {
             cacheStatistics.addPuttingValueTime(cachedObject.getPuttingValueTime());
         }
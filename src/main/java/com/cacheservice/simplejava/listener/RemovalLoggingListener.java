@@ -24,6 +24,10 @@ public class RemovalLoggingListener implements Listener {
             LOGGER.trace("The obsolete object with key '{}' is deleted: last access > 5 secs.", cachedObject.getKey());
         } else if (eventType == EventType.REMOVE_LEAST_FREQUENCY_OBJECT) {
             LOGGER.trace("Cache size exceeded max size.\nThe least frequency object with key '{}' is deleted.", cachedObject.getKey());
+        } else if (eventType == EventType.REMOVE_COLLECTED_OBJECT) {
+            LOGGER.trace("The object with key '{}' is deleted: its value is collected by GC.", cachedObject.getKey());
+        } else if (eventType == EventType.REMOVE_INVALIDATED_OBJECT) {
+            LOGGER.trace("The object with key '{}' is deleted: it is invalidated.", cachedObject.getKey());
         }
     }
 }
@@ -0,0 +1,226 @@
+package com.cacheservice.simulator;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Trace-driven cache simulator. Replays key accesses from trace file through cache configurations
+ * in parallel and reports hit ratio, byte hit ratio and eviction count per configuration.
+ * <p>
+ * Every access is a get; a miss is followed by a put of the object size, as a loading cache would do.
+ * Time is driven through {@link SimulatedTimeService}: by trace timestamps if the trace has them,
+ * otherwise by a fixed tick per access.
+ */
+public class CacheSimulator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheSimulator.class.getName());
+
+    private static final long START_TIME_EPOCH_MILLI = 1;
+
+    private final long tickInMillis;
+    private final long cleanUpIntervalInMillis;
+    private final int parallelism;
+
+    /**
+     * Cache simulator constructor
+     *
+     * @param tickInMillis            time between accesses of traces without timestamps;
+     *                                if negative value or 0 provided, default value = 1
+     * @param cleanUpIntervalInMillis simulated time between cache clean ups;
+     *                                if negative value or 0 provided, default value = 500
+     * @param parallelism             max number of configurations replayed at once;
+     *                                if negative value or 0 provided, number of available processors is used
+     */
+    public CacheSimulator(long tickInMillis, long cleanUpIntervalInMillis, int parallelism) {
+        this.tickInMillis = tickInMillis > 0 ? tickInMillis : 1;
+        this.cleanUpIntervalInMillis = cleanUpIntervalInMillis > 0 ? cleanUpIntervalInMillis : 500;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Replays trace through every configuration in parallel
+     *
+     * @param tracePath      trace file path
+     * @param traceFormat    trace file format
+     * @param configurations cache configurations
+     * @return simulation results in the order of configurations
+     */
+    public List<SimulationResult> simulate(Path tracePath,
+                                           TraceFormat traceFormat,
+                                           List<SimulationConfiguration> configurations) {
+        UtilityAssertions.assertInputObjectsNotNull(tracePath, traceFormat, configurations);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(configurations.size(), 1)));
+        try {
+            List<Future<SimulationResult>> futures = new ArrayList<>(configurations.size());
+            for (SimulationConfiguration configuration : configurations) {
+                futures.add(executorService.submit(() -> {
+                    try (Stream<TraceEvent> traceEvents = TraceReader.read(tracePath, traceFormat)) {
+                        return simulate(traceEvents.iterator(), configuration);
+                    }
+                }));
+            }
+
+            List<SimulationResult> simulationResults = new ArrayList<>(configurations.size());
+            for (int i = 0; i < futures.size(); i++) {
+                simulationResults.add(awaitResult(futures.get(i), configurations.get(i)));
+            }
+            return simulationResults;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Replays trace events through one configuration
+     *
+     * @param traceEvents   trace events
+     * @param configuration cache configuration
+     * @return simulation result
+     */
+    public SimulationResult simulate(Iterator<TraceEvent> traceEvents, SimulationConfiguration configuration) {
+        UtilityAssertions.assertInputObjectsNotNull(traceEvents, configuration);
+
+        LOGGER.info("Simulating configuration {}", configuration.getName());
+        SimulatedTimeService timeService = new SimulatedTimeService(START_TIME_EPOCH_MILLI);
+        try (CacheService<Long> cacheService = configuration.createCacheService(timeService)) {
+            long evictionCountBefore = cacheService.returnCacheStatistics().getEvictionCount();
+
+            long requestCount = 0;
+            long hitCount = 0;
+            long requestedBytes = 0;
+            long hitBytes = 0;
+            long untimedClock = START_TIME_EPOCH_MILLI;
+            long nextCleanUpTime = START_TIME_EPOCH_MILLI + cleanUpIntervalInMillis;
+
+            while (traceEvents.hasNext()) {
+                TraceEvent traceEvent = traceEvents.next();
+                untimedClock += tickInMillis;
+                timeService.advanceTo(traceEvent.hasTimestamp() ? traceEvent.getTimestampEpochMilli() : untimedClock);
+                if (timeService.getTimeWithSystemDefaultZoneEpochMilli() >= nextCleanUpTime) {
+                    cacheService.cacheCleanUp();
+                    nextCleanUpTime = timeService.getTimeWithSystemDefaultZoneEpochMilli() + cleanUpIntervalInMillis;
+                }
+
+                requestCount++;
+                requestedBytes += traceEvent.getSizeInBytes();
+                if (cacheService.get(traceEvent.getKey()) != null) {
+                    hitCount++;
+                    hitBytes += traceEvent.getSizeInBytes();
+                } else {
+                    cacheService.put(traceEvent.getKey(), traceEvent.getSizeInBytes());
+                }
+            }
+
+            long evictionCount = cacheService.returnCacheStatistics().getEvictionCount() - evictionCountBefore;
+            return new SimulationResult(configuration.getName(), requestCount, hitCount, requestedBytes, hitBytes, evictionCount);
+        }
+    }
+
+    private static SimulationResult awaitResult(Future<SimulationResult> future, SimulationConfiguration configuration) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation of configuration " + configuration.getName() + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Returns Simple Java cache service configuration
+     *
+     * @param maxCacheSize max cache size
+     * @param timeoutInSec timeout time in secs
+     * @return simulation configuration
+     */
+    public static SimulationConfiguration simpleCacheServiceConfiguration(int maxCacheSize, int timeoutInSec) {
+        return new SimulationConfiguration("simple-" + maxCacheSize, timeService -> {
+            CacheStatistics cacheStatistics = new CacheStatistics(maxCacheSize);
+            return new SimpleCacheService.Builder<Long>()
+                    .maxCacheSize(maxCacheSize)
+                    .timeoutInSec(timeoutInSec)
+                    .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                    .cacheStatistics(cacheStatistics)
+                    .timeService(timeService)
+                    .build();
+        });
+    }
+
+    /**
+     * Returns Guava cache service configuration
+     *
+     * @param maxCacheSize max cache size
+     * @param timeoutInSec timeout time in secs
+     * @return simulation configuration
+     */
+    public static SimulationConfiguration guavaCacheServiceConfiguration(int maxCacheSize, int timeoutInSec) {
+        return new SimulationConfiguration("guava-" + maxCacheSize, timeService ->
+                new GuavaCacheService.Builder<Long>()
+                        .maxCacheSize(maxCacheSize)
+                        .timeoutInSec(timeoutInSec)
+                        .timeService(timeService)
+                        .build());
+    }
+
+    /**
+     * Runs simulation of Simple Java and Guava cache services for every max cache size and prints comparison table.
+     * Arguments: trace file, trace format, comma separated max cache sizes, [timeout in secs], [output file].
+     *
+     * @param args arguments
+     * @throws IOException if output file can not be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: CacheSimulator <trace file> <" + String.join("|", formatNames()) + ">"
+                    + " <max cache sizes, comma separated> [timeout in secs] [output file]");
+            System.exit(1);
+        }
+        Path tracePath = Paths.get(args[0]);
+        TraceFormat traceFormat = TraceFormat.valueOf(args[1].toUpperCase(Locale.ROOT));
+        int timeoutInSec = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        List<SimulationConfiguration> configurations = new ArrayList<>();
+        for (String maxCacheSize : args[2].split(",")) {
+            configurations.add(simpleCacheServiceConfiguration(Integer.parseInt(maxCacheSize.trim()), timeoutInSec));
+            configurations.add(guavaCacheServiceConfiguration(Integer.parseInt(maxCacheSize.trim()), timeoutInSec));
+        }
+
+        List<SimulationResult> simulationResults = new CacheSimulator(1, 500, 0)
+                .simulate(tracePath, traceFormat, configurations);
+        String comparisonTable = ComparisonTable.format(simulationResults);
+        System.out.print(comparisonTable);
+        if (args.length > 4) {
+            Files.writeString(Paths.get(args[4]), comparisonTable);
+        }
+    }
+
+    private static List<String> formatNames() {
+        List<String> formatNames = new ArrayList<>();
+        for (TraceFormat traceFormat : TraceFormat.values()) {
+            formatNames.add(traceFormat.name().toLowerCase(Locale.ROOT));
+        }
+        return formatNames;
+    }
+}
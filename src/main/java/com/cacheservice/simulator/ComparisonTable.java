@@ -0,0 +1,45 @@
+package com.cacheservice.simulator;
+
+import com.cacheservice.UtilityAssertions;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utility class formatting simulation results as a plain text comparison table
+ */
+public final class ComparisonTable {
+
+    private static final String ROW_FORMAT = "%-24s %12s %10s %15s %15s%n";
+
+    /**
+     * Formats simulation results as a table with one row per configuration
+     *
+     * @param simulationResults simulation results
+     * @return comparison table
+     */
+    public static String format(List<SimulationResult> simulationResults) {
+        UtilityAssertions.assertInputObjectsNotNull(simulationResults);
+
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, ROW_FORMAT,
+                "Configuration", "Requests", "Hit ratio", "Byte hit ratio", "Evictions"));
+        for (SimulationResult result : simulationResults) {
+            table.append(String.format(Locale.ROOT, ROW_FORMAT,
+                    result.getConfigurationName(),
+                    result.getRequestCount(),
+                    percent(result.getHitRatio()),
+                    percent(result.getByteHitRatio()),
+                    result.getEvictionCount()));
+        }
+        return table.toString();
+    }
+
+    private static String percent(double ratio) {
+        return String.format(Locale.ROOT, "%.2f %%", ratio * 100);
+    }
+
+    private ComparisonTable() {
+        throw new AssertionError("ComparisonTable constructor should not be used!");
+    }
+}
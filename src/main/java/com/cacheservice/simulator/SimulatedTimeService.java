@@ -0,0 +1,44 @@
+package com.cacheservice.simulator;
+
+import com.cacheservice.simplejava.TimeService;
+
+/**
+ * Time service driven by trace replay instead of the system clock
+ */
+public class SimulatedTimeService extends TimeService {
+
+    private volatile long currentTimeEpochMilli;
+
+    /**
+     * Simulated time service constructor
+     *
+     * @param startTimeEpochMilli start time epoch in millis; should be positive
+     */
+    public SimulatedTimeService(long startTimeEpochMilli) {
+        if (startTimeEpochMilli <= 0) {
+            throw new IllegalArgumentException("Start time value should be positive!");
+        }
+        this.currentTimeEpochMilli = startTimeEpochMilli;
+    }
+
+    /**
+     * Moves simulated time forward. Time never goes backwards: earlier time is ignored.
+     *
+     * @param timeEpochMilli new time epoch in millis
+     */
+    public void advanceTo(long timeEpochMilli) {
+        if (timeEpochMilli > currentTimeEpochMilli) {
+            currentTimeEpochMilli = timeEpochMilli;
+        }
+    }
+
+    @Override
+    public long getUtcTimeEpochMilli() {
+        return currentTimeEpochMilli;
+    }
+
+    @Override
+    public long getTimeWithSystemDefaultZoneEpochMilli() {
+        return currentTimeEpochMilli;
+    }
+}
@@ -0,0 +1,38 @@
+package com.cacheservice.simulator;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.UtilityAssertions;
+import com.cacheservice.simplejava.TimeService;
+
+import java.util.function.Function;
+
+/**
+ * Named cache configuration to replay trace through. Cached values are object sizes in bytes.
+ */
+public class SimulationConfiguration {
+
+    private final String name;
+    private final Function<TimeService, CacheService<Long>> cacheServiceFactory;
+
+    /**
+     * Simulation configuration constructor
+     *
+     * @param name                configuration name shown in comparison table
+     * @param cacheServiceFactory factory creating cache service driven by given time service
+     */
+    public SimulationConfiguration(String name, Function<TimeService, CacheService<Long>> cacheServiceFactory) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(name);
+        UtilityAssertions.assertInputObjectsNotNull(cacheServiceFactory);
+
+        this.name = name;
+        this.cacheServiceFactory = cacheServiceFactory;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    CacheService<Long> createCacheService(TimeService timeService) {
+        return cacheServiceFactory.apply(timeService);
+    }
+}
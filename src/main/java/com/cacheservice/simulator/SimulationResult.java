@@ -0,0 +1,81 @@
+package com.cacheservice.simulator;
+
+/**
+ * Result of trace replay through one cache configuration
+ */
+public class SimulationResult {
+
+    private final String configurationName;
+    private final long requestCount;
+    private final long hitCount;
+    private final long requestedBytes;
+    private final long hitBytes;
+    private final long evictionCount;
+
+    /**
+     * Simulation result constructor
+     *
+     * @param configurationName configuration name
+     * @param requestCount      number of replayed requests
+     * @param hitCount          number of requests served from cache
+     * @param requestedBytes    sum of requested object sizes
+     * @param hitBytes          sum of object sizes served from cache
+     * @param evictionCount     eviction count reported by cache statistics
+     */
+    public SimulationResult(String configurationName,
+                            long requestCount,
+                            long hitCount,
+                            long requestedBytes,
+                            long hitBytes,
+                            long evictionCount) {
+        this.configurationName = configurationName;
+        this.requestCount = requestCount;
+        this.hitCount = hitCount;
+        this.requestedBytes = requestedBytes;
+        this.hitBytes = hitBytes;
+        this.evictionCount = evictionCount;
+    }
+
+    public String getConfigurationName() {
+        return configurationName;
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getRequestedBytes() {
+        return requestedBytes;
+    }
+
+    public long getHitBytes() {
+        return hitBytes;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public double getHitRatio() {
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+    }
+
+    public double getByteHitRatio() {
+        return requestedBytes == 0 ? 0 : (double) hitBytes / requestedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult{" +
+                "configurationName='" + configurationName + '\'' +
+                ", requestCount=" + requestCount +
+                ", hitRatio=" + getHitRatio() +
+                ", byteHitRatio=" + getByteHitRatio() +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+}
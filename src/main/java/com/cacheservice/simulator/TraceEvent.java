@@ -0,0 +1,58 @@
+package com.cacheservice.simulator;
+
+import com.cacheservice.UtilityAssertions;
+
+/**
+ * Single key access read from a trace file.
+ */
+public class TraceEvent {
+
+    /**
+     * Marker for events without timestamp in the trace
+     */
+    public static final long NO_TIMESTAMP = -1;
+
+    private final String key;
+    private final long sizeInBytes;
+    private final long timestampEpochMilli;
+
+    /**
+     * Trace event constructor
+     *
+     * @param key                 accessed key
+     * @param sizeInBytes         size of the accessed object in bytes; if negative value or 0 provided, default value = 1
+     * @param timestampEpochMilli access time epoch in millis or {@link #NO_TIMESTAMP}
+     */
+    public TraceEvent(String key, long sizeInBytes, long timestampEpochMilli) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        this.key = key;
+        this.sizeInBytes = sizeInBytes > 0 ? sizeInBytes : 1;
+        this.timestampEpochMilli = timestampEpochMilli;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public long getTimestampEpochMilli() {
+        return timestampEpochMilli;
+    }
+
+    public boolean hasTimestamp() {
+        return timestampEpochMilli != NO_TIMESTAMP;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceEvent{" +
+                "key='" + key + '\'' +
+                ", sizeInBytes=" + sizeInBytes +
+                ", timestampEpochMilli=" + timestampEpochMilli +
+                '}';
+    }
+}
@@ -0,0 +1,111 @@
+package com.cacheservice.simulator;
+
+import java.util.function.Consumer;
+
+/**
+ * Supported trace file formats. Every format parses one line of the trace into zero or more trace events.
+ * Blank lines and lines starting with '#' are skipped by every format.
+ */
+public enum TraceFormat {
+
+    /**
+     * One key per line
+     */
+    PLAIN {
+        @Override
+        void parseLine(String line, Consumer<TraceEvent> sink) {
+            sink.accept(new TraceEvent(line, 1, TraceEvent.NO_TIMESTAMP));
+        }
+    },
+
+    /**
+     * Comma separated line: key[,size in bytes[,timestamp epoch in millis]].
+     * Header line starting with "key" column is skipped.
+     */
+    CSV {
+        @Override
+        void parseLine(String line, Consumer<TraceEvent> sink) {
+            String[] columns = line.split(",");
+            String key = columns[0].trim();
+            if (key.equalsIgnoreCase("key")) {
+                return;
+            }
+            long size = columns.length > 1 ? parseLong(columns[1], line) : 1;
+            long timestamp = columns.length > 2 ? parseLong(columns[2], line) : TraceEvent.NO_TIMESTAMP;
+            sink.accept(new TraceEvent(key, size, timestamp));
+        }
+    },
+
+    /**
+     * ARC traces (Megiddo and Modha): "starting block, number of blocks, ignored, request number".
+     * Every line is expanded into one access per block.
+     */
+    ARC {
+        @Override
+        void parseLine(String line, Consumer<TraceEvent> sink) {
+            String[] columns = line.split("\\s+");
+            long startBlock = parseLong(columns[0], line);
+            long blocks = columns.length > 1 ? parseLong(columns[1], line) : 1;
+            for (long block = startBlock; block < startBlock + blocks; block++) {
+                sink.accept(new TraceEvent(Long.toString(block), 1, TraceEvent.NO_TIMESTAMP));
+            }
+        }
+    },
+
+    /**
+     * LIRS traces (Jiang and Zhang): one block number per line, '*' lines are separators.
+     */
+    LIRS {
+        @Override
+        void parseLine(String line, Consumer<TraceEvent> sink) {
+            if (line.equals("*")) {
+                return;
+            }
+            sink.accept(new TraceEvent(Long.toString(parseLong(line, line)), 1, TraceEvent.NO_TIMESTAMP));
+        }
+    },
+
+    /**
+     * Wikipedia (WikiBench) traces: "counter, timestamp in secs with fraction, url, save flag".
+     */
+    WIKIPEDIA {
+        @Override
+        void parseLine(String line, Consumer<TraceEvent> sink) {
+            String[] columns = line.split("\\s+");
+            if (columns.length < 3) {
+                throw new IllegalArgumentException("Wikipedia trace line should have at least 3 columns: " + line);
+            }
+            long timestamp;
+            try {
+                timestamp = (long) (Double.parseDouble(columns[1]) * 1000);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Wrong timestamp in trace line: " + line, e);
+            }
+            sink.accept(new TraceEvent(columns[2], 1, timestamp));
+        }
+    };
+
+    /**
+     * Parses trace line into trace events. Skips blank and comment lines.
+     *
+     * @param line trace line
+     * @param sink trace events consumer
+     */
+    public void parse(String line, Consumer<TraceEvent> sink) {
+        String trimmedLine = line.trim();
+        if (trimmedLine.isEmpty() || trimmedLine.startsWith("#")) {
+            return;
+        }
+        parseLine(trimmedLine, sink);
+    }
+
+    abstract void parseLine(String line, Consumer<TraceEvent> sink);
+
+    private static long parseLong(String value, String line) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Wrong number in trace line: " + line, e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.cacheservice.simulator;
+
+import com.cacheservice.UtilityAssertions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Utility class for reading trace files
+ */
+public final class TraceReader {
+
+    /**
+     * Lazily reads trace file into stream of trace events. The stream should be closed after use.
+     *
+     * @param tracePath   trace file path
+     * @param traceFormat trace file format
+     * @return stream of trace events
+     */
+    public static Stream<TraceEvent> read(Path tracePath, TraceFormat traceFormat) {
+        UtilityAssertions.assertInputObjectsNotNull(tracePath, traceFormat);
+
+        try {
+            return Files.lines(tracePath).flatMap(line -> {
+                List<TraceEvent> traceEvents = new ArrayList<>(1);
+                traceFormat.parse(line, traceEvents::add);
+                return traceEvents.stream();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Trace file " + tracePath + " can not be read", e);
+        }
+    }
+
+    private TraceReader() {
+        throw new AssertionError("TraceReader constructor should not be used!");
+    }
+}
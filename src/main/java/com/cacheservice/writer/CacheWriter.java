@@ -0,0 +1,65 @@
+package com.cacheservice.writer;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Writer of values put into cache to the backing store.
+ * <p>
+ * Cache service calls writer synchronously within put and atomic operations (write-through), holding the lock
+ * of the key only, so the store is never called under a lock of cache map (see {@link KeyLocks}). Put writes
+ * the value before caching it; atomic operations change cache first and roll the change back if the store call
+ * fails. Exception of the writer is thrown by the operation. Value removed by atomic operation, e.g. compute
+ * returning null, is deleted from the store; invalidation and eviction do not delete it.
+ * To write behind, wrap the writer into {@link WriteBehindCacheWriter}, which queues and coalesces writes
+ * and flushes them in batches.
+ * <p>
+ * Cache service closes its writer when it is closed.
+ *
+ * @param <T>
+ */
+public interface CacheWriter<T> extends AutoCloseable {
+
+    /**
+     * Writes value by key to the store
+     *
+     * @param key   key
+     * @param value value
+     */
+    void write(String key, T value);
+
+    /**
+     * Writes batch of values to the store. Writes values one by one by default;
+     * stores with batch API should override it.
+     *
+     * @param values values by keys
+     */
+    default void writeAll(Map<String, T> values) {
+        values.forEach(this::write);
+    }
+
+    /**
+     * Deletes value by key from the store. Called when value is removed by atomic operation or map view,
+     * e.g. compute returning null or remove of the map view.
+     *
+     * @param key key
+     */
+    void delete(String key);
+
+    /**
+     * Deletes batch of values from the store. Deletes values one by one by default;
+     * stores with batch API should override it.
+     *
+     * @param keys keys
+     */
+    default void deleteAll(Collection<String> keys) {
+        keys.forEach(this::delete);
+    }
+
+    /**
+     * Releases resources of the writer. Does nothing by default.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,132 @@
+package com.cacheservice.writer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in of slow backing store. Every store call (single write or batch) costs fixed latency,
+ * and the store counts calls, written and deleted values, so write-through and write-behind store load can be compared.
+ *
+ * @param <T>
+ */
+public class InMemoryStore<T> implements CacheWriter<T> {
+
+    private final Map<String, T> values = new ConcurrentHashMap<>();
+    private final long callLatencyInMillis;
+    private final AtomicLong callsNumber = new AtomicLong();
+    private final AtomicLong writtenValuesNumber = new AtomicLong();
+    private final AtomicLong deletedValuesNumber = new AtomicLong();
+
+    /**
+     * In-memory store constructor
+     *
+     * @param callLatencyInMillis latency of every store call in millis; if negative value provided, default value = 0
+     */
+    public InMemoryStore(long callLatencyInMillis) {
+        this.callLatencyInMillis = Math.max(0, callLatencyInMillis);
+    }
+
+    /**
+     * Writes value by key in one store call
+     *
+     * @param key   key
+     * @param value value
+     */
+    @Override
+    public void write(String key, T value) {
+        call();
+        store(key, value);
+        writtenValuesNumber.incrementAndGet();
+    }
+
+    /**
+     * Writes batch of values in one store call
+     *
+     * @param values values by keys
+     */
+    @Override
+    public void writeAll(Map<String, T> values) {
+        call();
+        values.forEach(this::store);
+        writtenValuesNumber.addAndGet(values.size());
+    }
+
+    /**
+     * Deletes value by key in one store call
+     *
+     * @param key key
+     */
+    @Override
+    public void delete(String key) {
+        call();
+        values.remove(key);
+        deletedValuesNumber.incrementAndGet();
+    }
+
+    /**
+     * Deletes batch of values in one store call
+     *
+     * @param keys keys
+     */
+    @Override
+    public void deleteAll(Collection<String> keys) {
+        call();
+        keys.forEach(values::remove);
+        deletedValuesNumber.addAndGet(keys.size());
+    }
+
+    /**
+     * Returns stored value by key
+     *
+     * @param key key
+     * @return stored value, or null if there is no value
+     */
+    public T read(String key) {
+        return values.get(key);
+    }
+
+    /**
+     * Returns number of store calls
+     *
+     * @return number of store calls
+     */
+    public long getCallsNumber() {
+        return callsNumber.get();
+    }
+
+    /**
+     * Returns number of written values
+     *
+     * @return number of written values
+     */
+    public long getWrittenValuesNumber() {
+        return writtenValuesNumber.get();
+    }
+
+    /**
+     * Returns number of deleted values
+     *
+     * @return number of deleted values
+     */
+    public long getDeletedValuesNumber() {
+        return deletedValuesNumber.get();
+    }
+
+    private void call() {
+        callsNumber.incrementAndGet();
+        if (callLatencyInMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(callLatencyInMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void store(String key, T value) {
+        values.put(key, value);
+    }
+}
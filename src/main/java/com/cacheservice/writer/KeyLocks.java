@@ -0,0 +1,93 @@
+package com.cacheservice.writer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Locks of keys which changes are written to the store.
+ * <p>
+ * Cache service changes its map and writes the change to the store holding the lock of the key only, never a lock
+ * of the map, so slow store delays writes of the same key but not operations with other keys. Writes of the same
+ * key are serialized, so they reach the store in the order of cache changes. Lock exists only while it is held,
+ * and it is reentrant, so listener of a put may write the same key.
+ */
+public class KeyLocks {
+
+    private final ConcurrentHashMap<String, KeyLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Locks key, waiting while another thread holds its lock
+     *
+     * @param key key
+     * @return held lock of the key
+     */
+    public KeyLock lock(String key) {
+        Thread currentThread = Thread.currentThread();
+        KeyLock newKeyLock = new KeyLock(key, currentThread);
+        while (true) {
+            KeyLock keyLock = locks.putIfAbsent(key, newKeyLock);
+            if (keyLock == null) {
+                return newKeyLock;
+            }
+            if (keyLock.owner == currentThread) {
+                keyLock.holdCount++;
+                return keyLock;
+            }
+            keyLock.awaitUnlock();
+        }
+    }
+
+    /**
+     * Returns number of locked keys
+     *
+     * @return number of locked keys
+     */
+    public int getLockedKeysNumber() {
+        return locks.size();
+    }
+
+    /**
+     * Held lock of a key
+     */
+    public final class KeyLock {
+
+        private final String key;
+        private final Thread owner;
+        private final CountDownLatch unlocked = new CountDownLatch(1);
+        // changed by owner thread only
+        private int holdCount = 1;
+
+        private KeyLock(String key, Thread owner) {
+            this.key = key;
+            this.owner = owner;
+        }
+
+        /**
+         * Unlocks key. Key is released when every lock of the owner thread is unlocked.
+         */
+        public void unlock() {
+            if (Thread.currentThread() != owner) {
+                throw new IllegalStateException("Lock of key is held by another thread!");
+            }
+            if (--holdCount == 0) {
+                locks.remove(key, this);
+                unlocked.countDown();
+            }
+        }
+
+        private void awaitUnlock() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    unlocked.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.cacheservice.writer;
+
+import com.cacheservice.UtilityAssertions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind decorator of cache writer.
+ * <p>
+ * Writes are queued and written to the store by flusher thread:
+ * - coalescing: repeated writes and deletes of the same key which are still queued replace the queued one,
+ * so only the last value is written or deleted
+ * - batching: queued writes are written by {@link CacheWriter#writeAll(Map)} and queued deletes are deleted by
+ * {@link CacheWriter#deleteAll(java.util.Collection)} in batches of batch size, when batch size writes are queued
+ * or flush interval has passed
+ * - backpressure: write of new key waits while max pending writes number of keys are queued
+ * - retry: failed batch is retried with growing delay, then dropped and logged
+ * - flush on close: closing writer writes all queued writes before returning.
+ * <p>
+ * Writes of the same key reach the store in order, because batches are written by one thread.
+ *
+ * @param <T>
+ */
+public class WriteBehindCacheWriter<T> implements CacheWriter<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindCacheWriter.class.getName());
+
+    private static final AtomicInteger WRITER_NUMBER = new AtomicInteger();
+
+    private final CacheWriter<T> cacheWriter;
+    private final int batchSize;
+    private final long flushIntervalInNanos;
+    private final int maxPendingWritesNumber;
+    private final int retryAttempts;
+    private final long retryDelayInMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingWritesAdded = lock.newCondition();
+    private final Condition pendingWritesTaken = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    // guarded by lock; keeps order of first write of each key, null value is a delete
+    private final LinkedHashMap<String, T> pendingWrites = new LinkedHashMap<>();
+    private boolean batchInFlight;
+    private int flushWaitersNumber;
+    private boolean closed;
+
+    private final Thread flusher;
+    private final AtomicLong writesNumber = new AtomicLong();
+    private final AtomicLong coalescedWritesNumber = new AtomicLong();
+    private final AtomicLong flushedWritesNumber = new AtomicLong();
+    private final AtomicLong batchesNumber = new AtomicLong();
+    private final AtomicLong failedWritesNumber = new AtomicLong();
+
+    /**
+     * Write-behind cache writer constructor
+     *
+     * @param builder builder with writer settings
+     */
+    private WriteBehindCacheWriter(Builder<T> builder) {
+        UtilityAssertions.assertInputObjectsNotNull(builder.cacheWriter);
+        this.cacheWriter = builder.cacheWriter;
+        this.batchSize = builder.batchSize > 0 ? builder.batchSize : 100;
+        this.flushIntervalInNanos = TimeUnit.MILLISECONDS.toNanos(builder.flushIntervalInMillis > 0 ? builder.flushIntervalInMillis : 1000);
+        this.maxPendingWritesNumber = Math.max(this.batchSize, builder.maxPendingWritesNumber > 0 ? builder.maxPendingWritesNumber : 10_000);
+        this.retryAttempts = Math.max(0, builder.retryAttempts);
+        this.retryDelayInMillis = builder.retryDelayInMillis > 0 ? builder.retryDelayInMillis : 100;
+
+        this.flusher = new Thread(this::flushContinuously, "cache-write-behind-" + WRITER_NUMBER.incrementAndGet());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues write of value by key. If the key is already queued, replaces queued value.
+     * If max pending writes number of keys are queued, waits until flusher takes a batch.
+     *
+     * @param key   key
+     * @param value value
+     */
+    @Override
+    public void write(String key, T value) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+        UtilityAssertions.assertInputObjectsNotNull(value);
+
+        queue(key, value);
+    }
+
+    /**
+     * Queues delete of value by key. If the key is already queued, replaces queued write or delete.
+     * If max pending writes number of keys are queued, waits until flusher takes a batch.
+     *
+     * @param key key
+     */
+    @Override
+    public void delete(String key) {
+        UtilityAssertions.assertInputStringsNotBlankOrNull(key);
+
+        queue(key, null);
+    }
+
+    /**
+     * Queues write of value by key, or delete if value is null
+     *
+     * @param key   key
+     * @param value value; null for delete
+     */
+    private void queue(String key, T value) {
+        lock.lock();
+        try {
+            while (!closed && !pendingWrites.containsKey(key) && pendingWrites.size() >= maxPendingWritesNumber) {
+                pendingWritesTaken.awaitUninterruptibly();
+            }
+            if (closed) {
+                throw new IllegalStateException("Write-behind cache writer is closed!");
+            }
+            if (pendingWrites.containsKey(key)) {
+                coalescedWritesNumber.incrementAndGet();
+            }
+            pendingWrites.put(key, value);
+            writesNumber.incrementAndGet();
+            if (pendingWrites.size() >= batchSize) {
+                pendingWritesAdded.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all queued writes to the store and waits until they are written
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            flushWaitersNumber++;
+            pendingWritesAdded.signal();
+            while (!pendingWrites.isEmpty() || batchInFlight) {
+                flushed.awaitUninterruptibly();
+            }
+            flushWaitersNumber--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rejects new writes, writes all queued writes to the store, stops flusher thread and closes wrapped writer.
+     * Closing closed writer does nothing.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingWritesAdded.signal();
+            pendingWritesTaken.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        cacheWriter.close();
+        LOGGER.info("Write-behind cache writer is closed. Writes: {}, coalesced: {}, written to store: {} in {} batches, failed: {}",
+                getWritesNumber(), getCoalescedWritesNumber(), getFlushedWritesNumber(), getBatchesNumber(), getFailedWritesNumber());
+    }
+
+    /**
+     * Returns number of accepted writes
+     *
+     * @return number of accepted writes
+     */
+    public long getWritesNumber() {
+        return writesNumber.get();
+    }
+
+    /**
+     * Returns number of writes which replaced queued value of the same key
+     *
+     * @return number of coalesced writes
+     */
+    public long getCoalescedWritesNumber() {
+        return coalescedWritesNumber.get();
+    }
+
+    /**
+     * Returns number of values written to the store
+     *
+     * @return number of flushed writes
+     */
+    public long getFlushedWritesNumber() {
+        return flushedWritesNumber.get();
+    }
+
+    /**
+     * Returns number of batches written to the store
+     *
+     * @return number of batches
+     */
+    public long getBatchesNumber() {
+        return batchesNumber.get();
+    }
+
+    /**
+     * Returns number of values dropped after all retries of their batch have failed
+     *
+     * @return number of failed writes
+     */
+    public long getFailedWritesNumber() {
+        return failedWritesNumber.get();
+    }
+
+    /**
+     * Returns number of queued writes
+     *
+     * @return number of queued writes
+     */
+    public int getPendingWritesNumber() {
+        lock.lock();
+        try {
+            return pendingWrites.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flusher loop: takes batch when batch size writes are queued, flush interval has passed, flush is requested
+     * or writer is closed, and writes it to the store. Ends when writer is closed and queue is empty.
+     */
+    private void flushContinuously() {
+        while (true) {
+            Map<String, T> batch = takeBatch();
+            if (batch == null) {
+                return;
+            }
+            writeBatch(batch);
+            lock.lock();
+            try {
+                batchInFlight = false;
+                if (pendingWrites.isEmpty()) {
+                    flushed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits for batch and takes it from the queue
+     *
+     * @return batch of writes, or null if writer is closed and queue is empty
+     */
+    private Map<String, T> takeBatch() {
+        lock.lock();
+        try {
+            long deadline = System.nanoTime() + flushIntervalInNanos;
+            while (pendingWrites.size() < batchSize && !closed && (flushWaitersNumber == 0 || pendingWrites.isEmpty())) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    if (!pendingWrites.isEmpty()) {
+                        break;
+                    }
+                    deadline = System.nanoTime() + flushIntervalInNanos;
+                    remainingNanos = flushIntervalInNanos;
+                }
+                pendingWritesAdded.awaitNanos(remainingNanos);
+            }
+            if (pendingWrites.isEmpty()) {
+                // writer is closed and all writes are flushed
+                flushed.signalAll();
+                return null;
+            }
+
+            Map<String, T> batch = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, T>> iterator = pendingWrites.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, T> pendingWrite = iterator.next();
+                batch.put(pendingWrite.getKey(), pendingWrite.getValue());
+                iterator.remove();
+            }
+            batchInFlight = true;
+            pendingWritesTaken.signalAll();
+            return batch;
+        } catch (InterruptedException e) {
+            // flusher thread is not interrupted by writer, keep flushing until closed
+            return Map.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes batch to the store, retrying failed batch with growing delay
+     *
+     * @param batch batch of writes; null values are deletes
+     */
+    private void writeBatch(Map<String, T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, T> writes = new LinkedHashMap<>();
+        List<String> deletes = new ArrayList<>();
+        batch.forEach((key, value) -> {
+            if (value != null) {
+                writes.put(key, value);
+            } else {
+                deletes.add(key);
+            }
+        });
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (!writes.isEmpty()) {
+                    cacheWriter.writeAll(writes);
+                }
+                if (!deletes.isEmpty()) {
+                    cacheWriter.deleteAll(deletes);
+                }
+                flushedWritesNumber.addAndGet(batch.size());
+                batchesNumber.incrementAndGet();
+                LOGGER.trace("Batch of {} writes is written to store", batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt > retryAttempts) {
+                    failedWritesNumber.addAndGet(batch.size());
+                    LOGGER.error("Batch of {} writes has failed {} times and is dropped", batch.size(), attempt, e);
+                    return;
+                }
+                LOGGER.warn("Batch of {} writes has failed, retrying in {} ms", batch.size(), retryDelayInMillis * attempt, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryDelayInMillis * attempt);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Builder for write-behind cache writer
+     *
+     * @param <T>
+     */
+    public static class Builder<T> {
+
+        private CacheWriter<T> cacheWriter;
+        private int batchSize;
+        private long flushIntervalInMillis;
+        private int maxPendingWritesNumber;
+        private int retryAttempts = 3;
+        private long retryDelayInMillis;
+
+        /**
+         * Set cache writer of the store to builder
+         *
+         * @param cacheWriter cache writer of the store
+         * @return builder
+         */
+        public Builder<T> cacheWriter(CacheWriter<T> cacheWriter) {
+            this.cacheWriter = cacheWriter;
+            return this;
+        }
+
+        /**
+         * Set batch size to builder
+         *
+         * @param batchSize max number of writes in one store call; if negative value or 0 provided, default value = 100
+         * @return builder
+         */
+        public Builder<T> batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Set flush interval in millis to builder
+         *
+         * @param flushIntervalInMillis max time between flushes of queued writes in millis;
+         *                              if negative value or 0 provided, default value = 1000
+         * @return builder
+         */
+        public Builder<T> flushIntervalInMillis(long flushIntervalInMillis) {
+            this.flushIntervalInMillis = flushIntervalInMillis;
+            return this;
+        }
+
+        /**
+         * Set max pending writes number to builder
+         *
+         * @param maxPendingWritesNumber max number of queued keys, new keys wait above it;
+         *                               if negative value or 0 provided, default value = 10 000.
+         *                               Values less than batch size are raised to batch size
+         * @return builder
+         */
+        public Builder<T> maxPendingWritesNumber(int maxPendingWritesNumber) {
+            this.maxPendingWritesNumber = maxPendingWritesNumber;
+            return this;
+        }
+
+        /**
+         * Set retry attempts to builder
+         *
+         * @param retryAttempts number of retries of failed batch; if negative value provided, default value = 0.
+         *                      Default is 3
+         * @return builder
+         */
+        public Builder<T> retryAttempts(int retryAttempts) {
+            this.retryAttempts = retryAttempts;
+            return this;
+        }
+
+        /**
+         * Set retry delay in millis to builder
+         *
+         * @param retryDelayInMillis delay before first retry in millis, next retries wait proportionally longer;
+         *                           if negative value or 0 provided, default value = 100
+         * @return builder
+         */
+        public Builder<T> retryDelayInMillis(long retryDelayInMillis) {
+            this.retryDelayInMillis = retryDelayInMillis;
+            return this;
+        }
+
+        /**
+         * Builds write-behind cache writer and starts its flusher thread
+         *
+         * @return write-behind cache writer
+         */
+        public WriteBehindCacheWriter<T> build() {
+            return new WriteBehindCacheWriter<>(this);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.cacheservice;
+
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.simplejava.EvictionPolicy;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation budgets of hot paths: get of existing key and put of existing key must not allocate.
+ * Allocated bytes of the test thread are read by ThreadMXBean. Operations are repeated in rounds until JIT
+ * compiles them, and the budget is met if one of the rounds allocates less than 1 byte per operation on average,
+ * so one object allocated per operation fails it. Trace logging formats messages, so tests run at info level
+ * of log4j2-test.xml.
+ */
+class AllocationBudgetTest {
+
+    private static final int KEYS_NUMBER = 100;
+    private static final int OPERATIONS_NUMBER = 100_000;
+    private static final int MAX_ROUNDS = 50;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static Stream<CacheService<String>> getCacheServiceProvider() {
+        return Stream.of(simpleCacheService(EvictionPolicy.LFU), simpleCacheService(EvictionPolicy.LFU_DA),
+                simpleCacheService(EvictionPolicy.GDSF), caffeineCacheService());
+    }
+
+    static Stream<CacheService<String>> putCacheServiceProvider() {
+        return Stream.of(simpleCacheService(EvictionPolicy.LFU), simpleCacheService(EvictionPolicy.LFU_DA),
+                simpleCacheService(EvictionPolicy.GDSF));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Get existing keys and check get does not allocate")
+    @MethodSource("getCacheServiceProvider")
+    void getExistingKeyWithoutAllocation(CacheService<String> cacheService) {
+        String[] keys = putKeys(cacheService);
+
+        assertAllocationFree(cacheService.getClass().getSimpleName() + " get", operationsNumber -> {
+            for (int i = 0; i < operationsNumber; i++) {
+                cacheService.get(keys[i % KEYS_NUMBER]);
+            }
+        });
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put existing keys and check put does not allocate")
+    @MethodSource("putCacheServiceProvider")
+    void putExistingKeyWithoutAllocation(CacheService<String> cacheService) {
+        String[] keys = putKeys(cacheService);
+        String value = "value";
+
+        assertAllocationFree(cacheService.getClass().getSimpleName() + " put", operationsNumber -> {
+            for (int i = 0; i < operationsNumber; i++) {
+                cacheService.put(keys[i % KEYS_NUMBER], value);
+            }
+        });
+        cacheService.close();
+    }
+
+    private static void assertAllocationFree(String operationName, Operations operations) {
+        assertTrue(THREAD_MX_BEAN.isThreadAllocatedMemorySupported());
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        double minBytesPerOperation = Double.MAX_VALUE;
+        for (int round = 0; round < MAX_ROUNDS && minBytesPerOperation >= 1; round++) {
+            long allocatedBytesBefore = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            operations.run(OPERATIONS_NUMBER);
+            long allocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+            minBytesPerOperation = Math.min(minBytesPerOperation, (double) allocatedBytes / OPERATIONS_NUMBER);
+        }
+        assertTrue(minBytesPerOperation < 1, operationName + " allocates " + minBytesPerOperation + " bytes per operation");
+    }
+
+    private static String[] putKeys(CacheService<String> cacheService) {
+        String[] keys = new String[KEYS_NUMBER];
+        for (int i = 0; i < KEYS_NUMBER; i++) {
+            keys[i] = "key_" + i;
+            cacheService.put(keys[i], "value_" + i);
+        }
+        return keys;
+    }
+
+    private static CacheService<String> simpleCacheService(EvictionPolicy evictionPolicy) {
+        CacheStatistics cacheStatistics = new CacheStatistics(KEYS_NUMBER * 2);
+        return new SimpleCacheService.Builder<String>()
+                .maxCacheSize(KEYS_NUMBER * 2)
+                .timeoutInSec(60)
+                .evictionPolicy(evictionPolicy)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TimeService())
+                .build();
+    }
+
+    private static CacheService<String> caffeineCacheService() {
+        return new CaffeineCacheService.Builder<String>()
+                .maxCacheSize(KEYS_NUMBER * 2)
+                .timeoutInSec(60)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Operations measured together
+     */
+    @FunctionalInterface
+    private interface Operations {
+
+        void run(int operationsNumber);
+    }
+}
@@ -0,0 +1,182 @@
+package com.cacheservice;
+
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.EventType;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import com.cacheservice.simplejava.listener.Listener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheServiceAtomicOperationsTest {
+
+    private static final int MAX_CACHE_SIZE = 100;
+    private static final int TIMEOUT = 60;
+
+    static Stream<CacheService<Integer>> cacheServiceProvider() {
+        CacheService<Integer> guavaCacheService = new GuavaCacheService.Builder<Integer>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .concurrencyLevel(4)
+                .build();
+
+        CacheStatistics cacheStatistics = new CacheStatistics(MAX_CACHE_SIZE);
+        CacheService<Integer> simpleCacheService = new SimpleCacheService.Builder<Integer>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .build();
+
+        CacheService<Integer> caffeineCacheService = new CaffeineCacheService.Builder<Integer>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .executor(Runnable::run)
+                .build();
+
+        return Stream.of(guavaCacheService, simpleCacheService, caffeineCacheService);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Close cache service and check its objects are removed, puts and atomic operations fail and closing again does nothing")
+    @MethodSource("cacheServiceProvider")
+    void useClosedCacheService(CacheService<Integer> cacheService) {
+        cacheService.put("key_1", 1);
+
+        cacheService.close();
+
+        assertNull(cacheService.get("key_1"));
+        assertThrows(IllegalStateException.class, () -> cacheService.put("key_1", 1));
+        assertThrows(IllegalStateException.class, () -> cacheService.put("key_1", 1, "tag_1"));
+        assertThrows(IllegalStateException.class, () -> cacheService.putIfAbsent("key_1", 1));
+        assertThrows(IllegalStateException.class, () -> cacheService.computeIfAbsent("key_1", key -> 1));
+        assertThrows(IllegalStateException.class, () -> cacheService.merge("key_1", 1, Integer::sum));
+        assertNull(cacheService.get("key_1"));
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put if absent and replace values and check present values are kept or replaced as expected")
+    @MethodSource("cacheServiceProvider")
+    void putIfAbsentAndReplace(CacheService<Integer> cacheService) {
+        assertNull(cacheService.replace("key_1", 1));
+        assertNull(cacheService.get("key_1"));
+
+        assertNull(cacheService.putIfAbsent("key_1", 1));
+        assertEquals(1, cacheService.putIfAbsent("key_1", 2));
+        assertEquals(1, cacheService.get("key_1"));
+
+        assertFalse(cacheService.replace("key_1", 2, 3));
+        assertTrue(cacheService.replace("key_1", 1, 3));
+        assertEquals(3, cacheService.get("key_1"));
+        assertEquals(3, cacheService.replace("key_1", 4));
+        assertEquals(4, cacheService.get("key_1"));
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Compute, compute if absent and merge values and check computed values and removal by null")
+    @MethodSource("cacheServiceProvider")
+    void computeAndMerge(CacheService<Integer> cacheService) {
+        AtomicInteger computationsNumber = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, cacheService.computeIfAbsent("key_1", key -> computationsNumber.incrementAndGet()));
+        }
+        assertEquals(1, computationsNumber.get());
+        assertNull(cacheService.computeIfAbsent("key_2", key -> null));
+        assertNull(cacheService.get("key_2"));
+
+        assertEquals(11, cacheService.compute("key_1", (key, value) -> value + 10));
+        assertEquals(5, cacheService.compute("key_2", (key, value) -> value == null ? 5 : value));
+        assertNull(cacheService.compute("key_2", (key, value) -> null));
+        assertNull(cacheService.get("key_2"));
+
+        assertEquals(7, cacheService.merge("key_3", 7, Integer::sum));
+        assertEquals(14, cacheService.merge("key_3", 7, Integer::sum));
+        assertNull(cacheService.merge("key_3", 7, (currentValue, value) -> null));
+        assertNull(cacheService.get("key_3"));
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Increment hot counters by merge from several threads and check no increment is lost")
+    @MethodSource("cacheServiceProvider")
+    void mergeHotCountersConcurrently(CacheService<Integer> cacheService) throws InterruptedException {
+        int threadsNumber = 4;
+        int incrementsNumber = 20_000;
+        int countersNumber = 8;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadsNumber; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < incrementsNumber; i++) {
+                    cacheService.merge("counter_" + i % countersNumber, 1, Integer::sum);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = 0;
+        for (int i = 0; i < countersNumber; i++) {
+            total += cacheService.get("counter_" + i);
+        }
+        assertEquals(threadsNumber * incrementsNumber, total);
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Compute new and removed objects in Simple Java cache and check eviction order and listeners stay consistent")
+    void keepEvictionOrderAndListenersConsistent() {
+        Map<EventType, AtomicInteger> eventsNumbers = new EnumMap<>(EventType.class);
+        for (EventType eventType : EventType.values()) {
+            eventsNumbers.put(eventType, new AtomicInteger());
+        }
+        Listener countingListener = (eventType, cachedObject) -> eventsNumbers.get(eventType).incrementAndGet();
+        CacheStatistics cacheStatistics = new CacheStatistics(MAX_CACHE_SIZE);
+        SimpleCacheService<Integer> cacheService = new SimpleCacheService.Builder<Integer>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics), countingListener))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .build();
+
+        for (int i = 0; i < MAX_CACHE_SIZE; i++) {
+            cacheService.merge("hot_key", 1, Integer::sum);
+        }
+        for (int i = 0; i < MAX_CACHE_SIZE * 3; i++) {
+            cacheService.computeIfAbsent("key_" + i, key -> 1);
+        }
+        cacheService.compute("key_" + (MAX_CACHE_SIZE * 3 - 1), (key, value) -> null);
+
+        assertEquals(MAX_CACHE_SIZE, cacheService.get("hot_key"));
+        assertEquals(MAX_CACHE_SIZE * 3 + 1, eventsNumbers.get(EventType.PUT_NEW_OBJECT).get());
+        assertEquals(MAX_CACHE_SIZE * 2 + 1, eventsNumbers.get(EventType.REMOVE_LEAST_FREQUENCY_OBJECT).get());
+        assertEquals(1, eventsNumbers.get(EventType.REMOVE_INVALIDATED_OBJECT).get());
+        assertEquals(MAX_CACHE_SIZE * 2 + 1, cacheService.returnCacheStatistics().getEvictionCount());
+        // the last computed object is never the victim of its own put
+        assertEquals(1, cacheService.get("key_" + (MAX_CACHE_SIZE * 3 - 2)));
+        cacheService.close();
+    }
+}
@@ -0,0 +1,180 @@
+package com.cacheservice;
+
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheServiceEntriesTest {
+
+    private static final int TIMEOUT = 60;
+    private static final AtomicLong CURRENT_TIME = new AtomicLong(System.currentTimeMillis());
+
+    static Stream<CacheService<Integer>> cacheServiceProvider() {
+        return Stream.of(guavaCacheService(100), simpleCacheService(100), caffeineCacheService(100));
+    }
+
+    static Stream<CacheService<Integer>> splittingCacheServiceProvider() {
+        return Stream.of(simpleCacheService(200_000), caffeineCacheService(200_000));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put values, stream entries sequentially and in parallel and check all entries are streamed")
+    @MethodSource("cacheServiceProvider")
+    void streamEntries(CacheService<Integer> cacheService) {
+        putValues(cacheService, 50);
+
+        Map<String, Integer> entries = cacheService.entries().collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        assertEquals(50, entries.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, entries.get("key_" + i));
+        }
+        assertEquals(49 * 50 / 2, cacheService.entries().parallel().mapToInt(Map.Entry::getValue).sum());
+        assertEquals(50, cacheService.asMap().size());
+        assertEquals(entries, cacheService.asMap());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Stream entries during timeout and check streaming does not prolong timeout and skips expired entries")
+    @MethodSource("cacheServiceProvider")
+    void skipExpiredEntries(CacheService<Integer> cacheService) {
+        putValues(cacheService, 10);
+
+        CURRENT_TIME.addAndGet(TIMEOUT * 1000 * 2 / 3);
+        assertEquals(10, cacheService.entries().count());
+        assertEquals(10, cacheService.asMap().entrySet().stream().count());
+        CURRENT_TIME.addAndGet(TIMEOUT * 1000 * 2 / 3);
+
+        assertEquals(0, cacheService.entries().count());
+        assertTrue(cacheService.asMap().isEmpty());
+        cacheService.cacheCleanUp();
+        assertNull(cacheService.get("key_1"));
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Change cache through map view and check changes are made in cache")
+    @MethodSource("cacheServiceProvider")
+    void changeCacheThroughMapView(CacheService<Integer> cacheService) {
+        ConcurrentMap<String, Integer> map = cacheService.asMap();
+
+        assertNull(map.put("key_1", 1));
+        assertEquals(1, map.put("key_1", 2));
+        assertEquals(2, cacheService.get("key_1"));
+        assertEquals(2, map.putIfAbsent("key_1", 3));
+        assertTrue(map.containsKey("key_1"));
+        assertFalse(map.remove("key_1", 3));
+        assertEquals(2, map.remove("key_1"));
+        assertNull(cacheService.get("key_1"));
+        assertEquals(5, map.merge("key_2", 5, Integer::sum));
+        assertEquals(10, map.computeIfPresent("key_2", (key, value) -> value * 2));
+        assertNull(map.computeIfPresent("key_3", (key, value) -> value * 2));
+
+        putValues(cacheService, 10);
+        Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(9, map.size());
+        map.clear();
+        assertEquals(0, cacheService.entries().count());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Split spliterator of many entries into 8 parts and check parts have about the same number of entries")
+    @MethodSource("splittingCacheServiceProvider")
+    void splitEntriesEvenly(CacheService<Integer> cacheService) {
+        int entriesNumber = 200_000;
+        putValues(cacheService, entriesNumber);
+
+        List<Spliterator<Map.Entry<String, Integer>>> parts = new ArrayList<>(List.of(cacheService.entries().spliterator()));
+        for (int depth = 0; depth < 3; depth++) {
+            List<Spliterator<Map.Entry<String, Integer>>> splitParts = new ArrayList<>();
+            for (Spliterator<Map.Entry<String, Integer>> part : parts) {
+                Spliterator<Map.Entry<String, Integer>> prefix = part.trySplit();
+                if (prefix != null) {
+                    splitParts.add(prefix);
+                }
+                splitParts.add(part);
+            }
+            parts = splitParts;
+        }
+
+        assertEquals(8, parts.size());
+        int totalNumber = 0;
+        for (Spliterator<Map.Entry<String, Integer>> part : parts) {
+            long[] partNumber = new long[1];
+            part.forEachRemaining(entry -> partNumber[0]++);
+            totalNumber += (int) partNumber[0];
+            // sequential keys do not spread over table perfectly
+            assertTrue(Math.abs(partNumber[0] - entriesNumber / 8) < entriesNumber / 8 / 4);
+        }
+        assertEquals(entriesNumber, totalNumber);
+        assertEquals(entriesNumber, cacheService.entries().parallel().count());
+        cacheService.close();
+    }
+
+    private static void putValues(CacheService<Integer> cacheService, int valuesNumber) {
+        for (int i = 0; i < valuesNumber; i++) {
+            cacheService.put("key_" + i, i);
+        }
+    }
+
+    private static CacheService<Integer> guavaCacheService(int maxCacheSize) {
+        return new GuavaCacheService.Builder<Integer>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(TIMEOUT)
+                .timeService(controlledTimeService())
+                .build();
+    }
+
+    private static CacheService<Integer> simpleCacheService(int maxCacheSize) {
+        CacheStatistics cacheStatistics = new CacheStatistics(maxCacheSize);
+        return new SimpleCacheService.Builder<Integer>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(TIMEOUT)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(controlledTimeService())
+                .build();
+    }
+
+    private static CacheService<Integer> caffeineCacheService(int maxCacheSize) {
+        return new CaffeineCacheService.Builder<Integer>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(TIMEOUT)
+                .timeService(controlledTimeService())
+                .executor(Runnable::run)
+                .build();
+    }
+
+    private static TimeService controlledTimeService() {
+        return new TimeService() {
+            @Override
+            public long getTimeWithSystemDefaultZoneEpochMilli() {
+                return CURRENT_TIME.get();
+            }
+        };
+    }
+}
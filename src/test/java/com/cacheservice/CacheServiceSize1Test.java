@@ -1,5 +1,6 @@
 package com.cacheservice;
 
+import com.cacheservice.caffeine.CaffeineCacheService;
 import com.cacheservice.guava.GuavaCacheService;
 import com.cacheservice.simplejava.SimpleCacheService;
 import com.cacheservice.simplejava.TimeService;
@@ -44,7 +45,14 @@ class CacheServiceSize1Test {
                 .timeService(testTimeService)
                 .build();
 
-        return Stream.of(guavaCacheService, simpleCacheService);
+        // same thread executor makes Caffeine evict within the put
+        CacheService<CacheServiceTestObject> caffeineCacheService = new CaffeineCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(timeout)
+                .executor(Runnable::run)
+                .build();
+
+        return Stream.of(guavaCacheService, simpleCacheService, caffeineCacheService);
     }
 
     @ParameterizedTest
@@ -0,0 +1,130 @@
+package com.cacheservice.caffeine;
+
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaffeineCacheServiceTest {
+
+    @Test
+    @DisplayName("Get absent object from 8 threads at once with loader and check it is loaded once")
+    void loadAbsentObjectOnce() throws InterruptedException, ExecutionException {
+        CaffeineCacheService<CacheServiceTestObject> cacheService = new CaffeineCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(100)
+                .timeoutInSec(60)
+                .timeService(new TestTimeService())
+                .build();
+        AtomicInteger loadsNumber = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+
+        try {
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executorService.submit(() -> {
+                    startLatch.await();
+                    return cacheService.get("key_1", key -> {
+                        loadsNumber.incrementAndGet();
+                        sleep(100);
+                        return new CacheServiceTestObject("value_1");
+                    });
+                });
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                assertEquals("value_1", ((CacheServiceTestObject) future.get()).getField());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertEquals(1, loadsNumber.get());
+        assertEquals("value_1", cacheService.get("key_1").getField());
+    }
+
+    @Test
+    @DisplayName("Get absent object asynchronously and check it is put into cache when loading completes")
+    void loadAbsentObjectAsynchronously() throws InterruptedException, ExecutionException {
+        CaffeineCacheService<CacheServiceTestObject> cacheService = new CaffeineCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(100)
+                .timeoutInSec(60)
+                .build();
+        CountDownLatch loadLatch = new CountDownLatch(1);
+
+        CompletableFuture<CacheServiceTestObject> future = cacheService.getAsync("key_1", key -> {
+            await(loadLatch);
+            return new CacheServiceTestObject("value_1");
+        });
+
+        assertNull(cacheService.get("key_1"));
+        loadLatch.countDown();
+        assertEquals("value_1", future.get().getField());
+        assertEquals("value_1", cacheService.get("key_1").getField());
+        assertEquals("value_1", cacheService.getAsync("key_1", key -> null).get().getField());
+    }
+
+    @Test
+    @DisplayName("Put 100 objects, get first 50 objects several times, put 100 new objects and check frequently used " +
+            "objects are mostly kept")
+    void keepFrequentlyUsedObjectsOnEviction() {
+        // same thread executor makes Caffeine evict within the put
+        CaffeineCacheService<CacheServiceTestObject> cacheService = new CaffeineCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(100)
+                .timeoutInSec(60)
+                .executor(Runnable::run)
+                .build();
+        for (int i = 0; i < 100; i++) {
+            cacheService.put("key_" + i, new CacheServiceTestObject("value_" + i));
+        }
+        // maintenance after every round keeps read buffer from dropping reads, Caffeine does not promise exact frequency
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                cacheService.get("key_" + i);
+            }
+            cacheService.cacheCleanUp();
+        }
+
+        for (int i = 100; i < 200; i++) {
+            cacheService.put("key_" + i, new CacheServiceTestObject("value_" + i));
+        }
+        cacheService.cacheCleanUp();
+
+        // least recently used eviction would keep none of them, sketch collisions may cost a few
+        long keptObjectsNumber = IntStream.range(0, 50)
+                .filter(i -> cacheService.asMap().containsKey("key_" + i))
+                .count();
+        assertTrue(keptObjectsNumber >= 45, keptObjectsNumber + " of 50 frequently used objects are kept");
+        assertEquals(100, cacheService.asMap().size());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
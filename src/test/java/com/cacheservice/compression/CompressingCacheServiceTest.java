@@ -0,0 +1,90 @@
+package com.cacheservice.compression;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressingCacheServiceTest {
+
+    static Stream<Codec> codecProvider() {
+        return Stream.of(new DeflateCodec(6), new LzfCodec());
+    }
+
+    static Stream<CacheService<Object>> cacheServiceProvider() {
+        int maxCacheSize = 100;
+        int timeout = 5;
+
+        CacheService<Object> guavaCacheService = new GuavaCacheService.Builder<>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(timeout)
+                .build();
+
+        CacheStatistics cacheStatistics = new CacheStatistics(maxCacheSize);
+        CacheService<Object> simpleCacheService = new SimpleCacheService.Builder<>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(timeout)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .build();
+
+        return Stream.of(guavaCacheService, simpleCacheService);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Compress and decompress values of different sizes and entropy")
+    @MethodSource("codecProvider")
+    void roundTripCodec(Codec codec) {
+        Random random = new Random(42);
+        for (int size : new int[]{0, 1, 31, 32, 33, 1000, 100_000}) {
+            byte[] randomBytes = new byte[size];
+            random.nextBytes(randomBytes);
+            byte[] repetitiveBytes = new byte[size];
+            for (int i = 0; i < size; i++) {
+                repetitiveBytes[i] = (byte) "{\"field\":\"value\"}".charAt(i % 17);
+            }
+
+            assertArrayEquals(randomBytes, codec.decompress(codec.compress(randomBytes), size));
+            assertArrayEquals(repetitiveBytes, codec.decompress(codec.compress(repetitiveBytes), size));
+        }
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put small and large values and check values and compression statistics")
+    @MethodSource("cacheServiceProvider")
+    void compressLargeValuesOnly(CacheService<Object> cacheService) {
+        CompressingCacheService<String> compressingCacheService = new CompressingCacheService.Builder<String>()
+                .cacheService(cacheService)
+                .codec(new LzfCodec())
+                .valueSerializer(new StringValueSerializer())
+                .thresholdInBytes(64)
+                .build();
+        String smallValue = "small value";
+        String largeValue = "{\"field\":\"value\"},".repeat(100);
+
+        compressingCacheService.put("key_1", smallValue);
+        compressingCacheService.put("key_2", largeValue);
+
+        assertEquals(smallValue, compressingCacheService.get("key_1"));
+        assertEquals(largeValue, compressingCacheService.get("key_2"));
+        CompressionStatisticsObject compressionStatistics = compressingCacheService.returnCompressionStatistics();
+        assertEquals(1, compressionStatistics.getCompressedValuesCount());
+        assertEquals(1, compressionStatistics.getUncompressedValuesCount());
+        assertEquals(largeValue.length(), compressionStatistics.getOriginalBytes());
+        assertTrue(compressionStatistics.getCompressionRatio() > 5);
+    }
+}
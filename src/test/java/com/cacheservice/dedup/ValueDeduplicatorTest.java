@@ -0,0 +1,136 @@
+package com.cacheservice.dedup;
+
+import com.cacheservice.CacheStatisticsObject;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import com.cacheservice.simplejava.ValueStrength;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.google.common.base.Equivalence;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValueDeduplicatorTest {
+
+    private static final Equivalence<byte[]> BYTES_EQUIVALENCE = new Equivalence<>() {
+        @Override
+        protected boolean doEquivalent(byte[] first, byte[] second) {
+            return Arrays.equals(first, second);
+        }
+
+        @Override
+        protected int doHash(byte[] bytes) {
+            return Arrays.hashCode(bytes);
+        }
+    };
+
+    @Test
+    @DisplayName("Put config blobs of 50 tenants by 10 000 keys and check each blob is stored once")
+    void deduplicateConfigBlobs() {
+        ValueDeduplicator<byte[]> valueDeduplicator = new ValueDeduplicator.Builder<byte[]>()
+                .equivalence(BYTES_EQUIVALENCE)
+                .sizeEstimator(bytes -> bytes.length)
+                .build();
+        SimpleCacheService<byte[]> cacheService = simpleCacheService(10_000, valueDeduplicator, new TimeService());
+
+        // every key gets its own copy of config blob, as if it was read from the store
+        SplittableRandom random = new SplittableRandom(5);
+        long totalBytes = 0;
+        for (int i = 0; i < 10_000; i++) {
+            double uniform = random.nextDouble();
+            byte[] configBlob = configBlob((int) (uniform * uniform * 50));
+            totalBytes += configBlob.length;
+            cacheService.put("key_" + i, configBlob);
+        }
+
+        CacheStatisticsObject cacheStatistics = cacheService.returnCacheStatistics();
+        int sharedValuesNumber = valueDeduplicator.getSharedValuesNumber();
+        assertEquals(10_000, valueDeduplicator.getReferencesNumber());
+        assertEquals(10_000.0 / sharedValuesNumber, cacheStatistics.getDeduplicationRatio());
+        assertEquals(totalBytes - sharedValuesNumber * configBlob(0).length, cacheStatistics.getDeduplicationSavedBytes());
+        for (int i = 0; i < 100; i++) {
+            byte[] value = cacheService.get("key_" + i);
+            byte[] configBlob = configBlob(Integer.parseInt(new String(value, 0, 5, StandardCharsets.US_ASCII).trim()));
+            assertNotSame(configBlob, value);
+            assertSame(valueDeduplicator.intern(configBlob), value);
+        }
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Evict, replace, invalidate and expire deduplicated values and check references are released")
+    void releaseReferences() {
+        ValueDeduplicator<String> valueDeduplicator = new ValueDeduplicator.Builder<String>()
+                .sizeEstimator(String::length)
+                .build();
+        AtomicLong currentTime = new AtomicLong(System.currentTimeMillis());
+        SimpleCacheService<String> cacheService = simpleCacheService(10, valueDeduplicator, new TimeService() {
+            @Override
+            public long getTimeWithSystemDefaultZoneEpochMilli() {
+                return currentTime.get();
+            }
+        });
+
+        for (int i = 0; i < 100; i++) {
+            cacheService.put("key_" + i, new String("value_" + i % 5));
+        }
+        assertEquals(10, valueDeduplicator.getReferencesNumber());
+        assertEquals(5, valueDeduplicator.getSharedValuesNumber());
+        assertEquals(5 * "value_0".length(), valueDeduplicator.getSavedBytes());
+
+        cacheService.put("key_99", "value_5");
+        cacheService.invalidate("key_98");
+        assertEquals(9, valueDeduplicator.getReferencesNumber());
+        assertEquals(6, valueDeduplicator.getSharedValuesNumber());
+
+        currentTime.addAndGet(61_000);
+        cacheService.cacheCleanUp();
+        assertEquals(0, valueDeduplicator.getReferencesNumber());
+        assertEquals(0, valueDeduplicator.getSharedValuesNumber());
+        assertEquals(0, valueDeduplicator.getSavedBytes());
+        assertEquals(1.0, valueDeduplicator.getDeduplicationRatio());
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Build cache service deduplicating weakly referenced values and check it is rejected")
+    void rejectWeakValues() {
+        assertThrows(IllegalArgumentException.class, () -> new SimpleCacheService.Builder<String>()
+                .timeService(new TimeService())
+                .valueStrength(ValueStrength.WEAK)
+                .valueDeduplicator(new ValueDeduplicator.Builder<String>().build())
+                .build());
+    }
+
+    /**
+     * Returns new copy of config blob of 2 KiB starting with its index
+     *
+     * @param index index of config blob
+     * @return config blob
+     */
+    private static byte[] configBlob(int index) {
+        String header = String.format("%-5d", index);
+        return (header + "x".repeat(2048 - header.length())).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static <T> SimpleCacheService<T> simpleCacheService(int maxCacheSize,
+                                                                ValueDeduplicator<T> valueDeduplicator,
+                                                                TimeService timeService) {
+        return new SimpleCacheService.Builder<T>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(60)
+                .cacheStatistics(new CacheStatistics(maxCacheSize))
+                .timeService(timeService)
+                .valueDeduplicator(valueDeduplicator)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.cacheservice.hotkeys;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    static Stream<CacheService<CacheServiceTestObject>> cacheServiceProvider() {
+        int maxCacheSize = 10;
+        int timeout = 5;
+
+        CacheService<CacheServiceTestObject> guavaCacheService = new GuavaCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(timeout)
+                .heavyHitters(new HeavyHitters(3, 1))
+                .build();
+
+        CacheStatistics cacheStatistics = new CacheStatistics(maxCacheSize);
+        CacheService<CacheServiceTestObject> simpleCacheService = new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(timeout)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .heavyHitters(new HeavyHitters(3, 1))
+                .build();
+
+        return Stream.of(guavaCacheService, simpleCacheService);
+    }
+
+    @Test
+    @DisplayName("Find hot keys in skewed stream with many cold keys")
+    void findHotKeysInSkewedStream() {
+        HeavyHitters heavyHitters = new HeavyHitters(3, 1);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int dice = random.nextInt(100);
+            if (dice < 30) {
+                heavyHitters.offer("hot_1");
+            } else if (dice < 50) {
+                heavyHitters.offer("hot_2");
+            } else if (dice < 60) {
+                heavyHitters.offer("hot_3");
+            } else {
+                heavyHitters.offer("cold_" + random.nextInt(10_000));
+            }
+        }
+
+        List<HotKey> hotKeys = heavyHitters.returnHotKeys();
+
+        assertEquals(3, hotKeys.size());
+        assertEquals("hot_1", hotKeys.get(0).getKey());
+        assertEquals("hot_2", hotKeys.get(1).getKey());
+        assertEquals("hot_3", hotKeys.get(2).getKey());
+        for (HotKey hotKey : hotKeys) {
+            assertTrue(hotKey.getGuaranteedCount() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Estimate count of sampled hot key within sampling error")
+    void estimateSampledCount() {
+        int sampleInterval = 10;
+        int accessesNumber = 100_000;
+        HeavyHitters heavyHitters = new HeavyHitters(3, sampleInterval);
+        for (int i = 0; i < accessesNumber; i++) {
+            heavyHitters.offer("hot_key");
+        }
+
+        HotKey hotKey = heavyHitters.returnHotKeys().get(0);
+
+        // 5 standard deviations of sampling error
+        long samplingError = 5 * (long) Math.sqrt((double) accessesNumber * (sampleInterval - 1));
+        assertEquals("hot_key", hotKey.getKey());
+        assertEquals(0, hotKey.getErrorBound());
+        assertTrue(Math.abs(hotKey.getEstimatedCount() - accessesNumber) <= samplingError);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Get hot key through cache statistics after it is evicted")
+    @MethodSource("cacheServiceProvider")
+    void reportHotKeysThroughStatistics(CacheService<CacheServiceTestObject> cacheService) {
+        cacheService.put("hot_key", new CacheServiceTestObject("hot_value"));
+        for (int i = 0; i < 50; i++) {
+            cacheService.get("hot_key");
+        }
+        for (int i = 0; i < 100; i++) {
+            cacheService.put("key_" + i, new CacheServiceTestObject("value_" + i));
+        }
+
+        HotKey hotKey = cacheService.returnCacheStatistics().getHotKeys().get(0);
+
+        assertEquals("hot_key", hotKey.getKey());
+        assertTrue(hotKey.getEstimatedCount() >= 51);
+    }
+}
@@ -0,0 +1,297 @@
+package com.cacheservice.invalidation;
+
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvalidationBusTest {
+
+    private static final int MAX_CACHE_SIZE = 1000;
+    private static final int TIMEOUT = 60;
+
+    @Test
+    @DisplayName("Put key on one of 3 nodes and check the key loaded on the other nodes is invalidated")
+    void invalidateKeyOnOtherNodes() {
+        InProcessTransport.Group group = new InProcessTransport.Group();
+        List<InvalidationBus> buses = new ArrayList<>();
+        List<SimpleCacheService<CacheServiceTestObject>> cacheServices = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            InvalidationBus invalidationBus = invalidationBus(group.join(), 100);
+            buses.add(invalidationBus);
+            cacheServices.add(simpleCacheService(invalidationBus));
+        }
+        for (SimpleCacheService<CacheServiceTestObject> cacheService : cacheServices) {
+            cacheService.get("key_1", key -> new CacheServiceTestObject("value_1"));
+        }
+        // loads are not published
+        buses.forEach(InvalidationBus::flush);
+        assertEquals(0, buses.get(0).getSentBatchesNumber());
+
+        cacheServices.get(0).put("key_1", new CacheServiceTestObject("value_2"));
+        buses.get(0).flush();
+
+        awaitUntil(() -> buses.get(1).getAppliedNumber() == 1 && buses.get(2).getAppliedNumber() == 1);
+        assertEquals("value_2", cacheServices.get(0).get("key_1").getField());
+        assertNull(cacheServices.get(1).get("key_1"));
+        assertNull(cacheServices.get(2).get("key_1"));
+        assertEquals(0, buses.get(0).getAppliedNumber());
+        cacheServices.forEach(SimpleCacheService::close);
+    }
+
+    @Test
+    @DisplayName("Publish 1000 keys with batch size 100 and check they are sent in 10 compressed batches")
+    void sendCompressedBatches() {
+        InProcessTransport.Group group = new InProcessTransport.Group();
+        InvalidationBus sender = invalidationBus(group.join(), 100);
+        InvalidationBus receiver = invalidationBus(group.join(), 100);
+        AtomicInteger invalidatedNumber = new AtomicInteger();
+        sender.subscribe(key -> { }, () -> { });
+        receiver.subscribe(key -> invalidatedNumber.incrementAndGet(), () -> { });
+
+        sender.publish("key_0");
+        sender.publish("key_0");
+        for (int i = 0; i < 1000; i++) {
+            sender.publish("key_" + i);
+        }
+        sender.flush();
+
+        awaitUntil(() -> receiver.getAppliedNumber() == 1000);
+        assertEquals(1002, sender.getPublishedNumber());
+        assertEquals(2, sender.getCoalescedNumber());
+        assertEquals(10, sender.getSentBatchesNumber());
+        assertTrue(sender.getSentBytes() < sender.getUncompressedBytes());
+        assertEquals(1000, invalidatedNumber.get());
+        assertEquals(0, receiver.getFullFlushesNumber());
+        sender.close();
+        receiver.close();
+    }
+
+    @Test
+    @DisplayName("Lose one batch and check receiver flushes its whole cache once")
+    void flushCacheOnSequenceGap() {
+        InProcessTransport.Group group = new InProcessTransport.Group();
+        LossyTransport lossyTransport = new LossyTransport(group.join());
+        InvalidationBus sender = invalidationBus(lossyTransport, 100);
+        InvalidationBus receiver = invalidationBus(group.join(), 100);
+        sender.subscribe(key -> { }, () -> { });
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService(receiver);
+        cacheService.get("key_1", key -> new CacheServiceTestObject("value_1"));
+        cacheService.get("key_2", key -> new CacheServiceTestObject("value_2"));
+
+        sender.publish("key_3");
+        sender.flush();
+        lossyTransport.dropNext = true;
+        sender.publish("key_4");
+        sender.flush();
+        sender.publish("key_5");
+        sender.flush();
+
+        awaitUntil(() -> receiver.getAppliedNumber() == 2);
+        assertEquals(1, receiver.getFullFlushesNumber());
+        assertNull(cacheService.get("key_1"));
+        assertNull(cacheService.get("key_2"));
+        sender.close();
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Lose the last batch and check receiver flushes its whole cache after heartbeat of the sender")
+    void flushCacheOnHeartbeatAfterLostBatch() {
+        InProcessTransport.Group group = new InProcessTransport.Group();
+        LossyTransport lossyTransport = new LossyTransport(group.join());
+        InvalidationBus sender = new InvalidationBus.Builder()
+                .transport(lossyTransport)
+                .flushIntervalInMillis(TimeUnit.HOURS.toMillis(1))
+                .heartbeatIntervalInMillis(10)
+                .build();
+        InvalidationBus receiver = invalidationBus(group.join(), 100);
+        sender.subscribe(key -> { }, () -> { });
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService(receiver);
+        cacheService.get("key_1", key -> new CacheServiceTestObject("value_1"));
+
+        sender.publish("key_2");
+        sender.flush();
+        lossyTransport.dropNext = true;
+        sender.publish("key_3");
+        sender.flush();
+
+        awaitUntil(() -> receiver.getFullFlushesNumber() == 1);
+        assertNull(cacheService.get("key_1"));
+        assertEquals(1, receiver.getAppliedNumber());
+        assertTrue(sender.getSentHeartbeatsNumber() > 0);
+        sender.close();
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Send message with lengths of 2 GB and check receiver ignores it without allocating them")
+    void ignoreMessageWithInvalidLengths() throws IOException {
+        InProcessTransport.Group group = new InProcessTransport.Group();
+        InProcessTransport strayTransport = group.join();
+        InvalidationBus sender = invalidationBus(group.join(), 100);
+        InvalidationBus receiver = invalidationBus(group.join(), 100);
+        sender.subscribe(key -> { }, () -> { });
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService(receiver);
+        cacheService.get("key_1", key -> new CacheServiceTestObject("value_1"));
+
+        ByteArrayOutputStream messageBytes = new ByteArrayOutputStream();
+        DataOutputStream messageOutput = new DataOutputStream(messageBytes);
+        messageOutput.writeLong(42);
+        messageOutput.writeLong(1);
+        messageOutput.writeByte(1);
+        messageOutput.writeInt(1);
+        messageOutput.writeInt(Integer.MAX_VALUE);
+        messageOutput.writeInt(Integer.MAX_VALUE);
+        strayTransport.send(messageBytes.toByteArray());
+        // messages are applied in order of receiving, so the stray one is handled before the batch
+        sender.publish("key_2");
+        sender.flush();
+
+        awaitUntil(() -> receiver.getAppliedNumber() == 1);
+        assertEquals(1, receiver.getIgnoredBatchesNumber());
+        assertEquals(0, receiver.getFullFlushesNumber());
+        assertEquals("value_1", cacheService.get("key_1").getField());
+        sender.close();
+        strayTransport.close();
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Block transport and check publishing full batches does not wait for it")
+    void publishWhileTransportIsBlocked() throws Exception {
+        InProcessTransport.Group group = new InProcessTransport.Group();
+        CountDownLatch sendStarted = new CountDownLatch(1);
+        CountDownLatch transportUnblocked = new CountDownLatch(1);
+        InvalidationTransport blockedTransport = new LossyTransport(group.join()) {
+            @Override
+            public void send(byte[] message) {
+                sendStarted.countDown();
+                try {
+                    transportUnblocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(message);
+            }
+        };
+        InvalidationBus sender = invalidationBus(blockedTransport, 10);
+        InvalidationBus receiver = invalidationBus(group.join(), 10);
+        sender.subscribe(key -> { }, () -> { });
+        receiver.subscribe(key -> { }, () -> { });
+
+        for (int i = 0; i < 10; i++) {
+            sender.publish("key_" + i);
+        }
+        assertTrue(sendStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 10; i < 30; i++) {
+            sender.publish("key_" + i);
+        }
+        assertEquals(30, sender.getPublishedNumber());
+        assertEquals(0, sender.getSentBatchesNumber());
+
+        transportUnblocked.countDown();
+        sender.flush();
+        awaitUntil(() -> receiver.getAppliedNumber() == 30);
+        assertEquals(3, sender.getSentBatchesNumber());
+        sender.close();
+        receiver.close();
+    }
+
+    @Test
+    @DisplayName("Invalidate key on one of 2 nodes connected by UDP on loopback and check it is invalidated on the other one")
+    void invalidateKeyOverUdp() {
+        UdpTransport firstTransport = new UdpTransport(0);
+        UdpTransport secondTransport = new UdpTransport(0);
+        firstTransport.addPeer(secondTransport.getPort());
+        secondTransport.addPeer(firstTransport.getPort());
+        InvalidationBus firstBus = invalidationBus(firstTransport, 100);
+        InvalidationBus secondBus = invalidationBus(secondTransport, 100);
+        SimpleCacheService<CacheServiceTestObject> firstCacheService = simpleCacheService(firstBus);
+        SimpleCacheService<CacheServiceTestObject> secondCacheService = simpleCacheService(secondBus);
+        secondCacheService.get("key_1", key -> new CacheServiceTestObject("value_1"));
+
+        assertNotNull(secondCacheService.get("key_1"));
+        firstCacheService.invalidate("key_1");
+        firstBus.flush();
+
+        awaitUntil(() -> secondBus.getAppliedNumber() == 1);
+        assertNull(secondCacheService.get("key_1"));
+        firstCacheService.close();
+        secondCacheService.close();
+    }
+
+    private static InvalidationBus invalidationBus(InvalidationTransport transport, int batchSize) {
+        return new InvalidationBus.Builder()
+                .transport(transport)
+                .batchSize(batchSize)
+                .flushIntervalInMillis(TimeUnit.HOURS.toMillis(1))
+                .build();
+    }
+
+    private static SimpleCacheService<CacheServiceTestObject> simpleCacheService(InvalidationBus invalidationBus) {
+        return new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .timeService(new TestTimeService())
+                .invalidationBus(invalidationBus)
+                .build();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Invalidations are not applied in 5 seconds");
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Transport dropping the next message when asked
+     */
+    private static class LossyTransport implements InvalidationTransport {
+
+        private final InvalidationTransport transport;
+        private volatile boolean dropNext;
+
+        private LossyTransport(InvalidationTransport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public void start(Consumer<byte[]> receiver) {
+            transport.start(receiver);
+        }
+
+        @Override
+        public void send(byte[] message) {
+            if (dropNext) {
+                dropNext = false;
+                return;
+            }
+            transport.send(message);
+        }
+
+        @Override
+        public void close() {
+            transport.close();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.cacheservice.invalidation;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvalidationTest {
+
+    private static final int MAX_CACHE_SIZE = 20_000;
+    private static final int TIMEOUT = 60;
+
+    static Stream<CacheService<CacheServiceTestObject>> cacheServiceProvider() {
+        return Stream.of(guavaCacheService(false), guavaCacheService(true),
+                simpleCacheService(false), simpleCacheService(true),
+                caffeineCacheService(false), caffeineCacheService(true));
+    }
+
+    private static CacheService<CacheServiceTestObject> caffeineCacheService(boolean prefixIndex) {
+        return new CaffeineCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .executor(Runnable::run)
+                .prefixIndex(prefixIndex)
+                .build();
+    }
+
+    private static CacheService<CacheServiceTestObject> guavaCacheService(boolean prefixIndex) {
+        return new GuavaCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .concurrencyLevel(1)
+                .prefixIndex(prefixIndex)
+                .build();
+    }
+
+    private static CacheService<CacheServiceTestObject> simpleCacheService(boolean prefixIndex) {
+        CacheStatistics cacheStatistics = new CacheStatistics(MAX_CACHE_SIZE);
+        return new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .prefixIndex(prefixIndex)
+                .build();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Invalidate single key and check it is removed")
+    @MethodSource("cacheServiceProvider")
+    void invalidateKey(CacheService<CacheServiceTestObject> cacheService) {
+        cacheService.put("key_1", new CacheServiceTestObject("value_1"));
+        cacheService.put("key_2", new CacheServiceTestObject("value_2"));
+
+        assertTrue(cacheService.invalidate("key_1"));
+        assertFalse(cacheService.invalidate("key_1"));
+
+        assertNull(cacheService.get("key_1"));
+        assertEquals("value_2", cacheService.get("key_2").getField());
+        assertEquals(0, cacheService.returnCacheStatistics().getEvictionCount());
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put tagged objects, invalidate one tag and check only objects with the tag are removed")
+    @MethodSource("cacheServiceProvider")
+    void invalidateByTag(CacheService<CacheServiceTestObject> cacheService) {
+        cacheService.put("user:1", new CacheServiceTestObject("value_1"), "users", "region:eu");
+        cacheService.put("user:2", new CacheServiceTestObject("value_2"), "users", "region:us");
+        cacheService.put("order:1", new CacheServiceTestObject("value_3"), "orders", "region:eu");
+        cacheService.put("order:2", new CacheServiceTestObject("value_4"));
+
+        assertEquals(2, cacheService.invalidateByTag("region:eu"));
+        assertEquals(0, cacheService.invalidateByTag("region:eu"));
+
+        assertNull(cacheService.get("user:1"));
+        assertNull(cacheService.get("order:1"));
+        assertNotNull(cacheService.get("user:2"));
+        assertNotNull(cacheService.get("order:2"));
+        assertEquals(1, cacheService.invalidateByTag("users"));
+        assertEquals(0, cacheService.invalidateByTag("orders"));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Retag object by putting it with new tags and check old tag does not invalidate it")
+    @MethodSource("cacheServiceProvider")
+    void replaceTagsOnPut(CacheService<CacheServiceTestObject> cacheService) {
+        cacheService.put("key_1", new CacheServiceTestObject("value_1"), "tag_1");
+        cacheService.put("key_1", new CacheServiceTestObject("value_2"), "tag_2");
+
+        assertEquals(0, cacheService.invalidateByTag("tag_1"));
+        assertEquals("value_2", cacheService.get("key_1").getField());
+        assertEquals(1, cacheService.invalidateByTag("tag_2"));
+        assertNull(cacheService.get("key_1"));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put objects with different prefixes, invalidate one prefix and check only objects with it are removed")
+    @MethodSource("cacheServiceProvider")
+    void invalidateByPrefix(CacheService<CacheServiceTestObject> cacheService) {
+        cacheService.put("user:1", new CacheServiceTestObject("value_1"));
+        cacheService.put("user:2", new CacheServiceTestObject("value_2"));
+        cacheService.put("user", new CacheServiceTestObject("value_3"));
+        cacheService.put("order:1", new CacheServiceTestObject("value_4"));
+
+        assertEquals(2, cacheService.invalidateByPrefix("user:"));
+
+        assertNull(cacheService.get("user:1"));
+        assertNull(cacheService.get("user:2"));
+        assertNotNull(cacheService.get("user"));
+        assertNotNull(cacheService.get("order:1"));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Evict tagged object and check tag index does not keep its key")
+    @MethodSource("cacheServiceProvider")
+    void cleanIndexOnEviction(CacheService<CacheServiceTestObject> cacheService) {
+        for (int i = 0; i <= MAX_CACHE_SIZE; i++) {
+            cacheService.put("key_" + i, new CacheServiceTestObject("value_" + i), "tag_" + i);
+        }
+        cacheService.cacheCleanUp();
+
+        assertNull(cacheService.get("key_0"));
+        assertEquals(0, cacheService.invalidateByTag("tag_0"));
+        assertEquals(0, cacheService.invalidateByPrefix("key_0"));
+        assertEquals(1, cacheService.invalidateByTag("tag_" + MAX_CACHE_SIZE));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Invalidate 10 000 tagged and prefixed objects and check all of them are removed")
+    @MethodSource("cacheServiceProvider")
+    void invalidateManyObjects(CacheService<CacheServiceTestObject> cacheService) {
+        int objectsNumber = 10_000;
+        for (int i = 0; i < objectsNumber; i++) {
+            cacheService.put("tagged:" + i, new CacheServiceTestObject("value_" + i), "bulk");
+            cacheService.put("prefixed:" + i, new CacheServiceTestObject("value_" + i));
+        }
+
+        int invalidatedByTag = cacheService.invalidateByTag("bulk");
+        int invalidatedByPrefix = cacheService.invalidateByPrefix("prefixed:");
+
+        assertEquals(objectsNumber, invalidatedByTag);
+        assertEquals(objectsNumber, invalidatedByPrefix);
+        assertNull(cacheService.get("tagged:0"));
+        assertNull(cacheService.get("prefixed:0"));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put the same key with different tags from 2 threads and check tag of the last value invalidates it")
+    @MethodSource("cacheServiceProvider")
+    void putTaggedKeyConcurrently(CacheService<CacheServiceTestObject> cacheService) throws InterruptedException {
+        Thread[] threads = new Thread[2];
+        for (int i = 0; i < threads.length; i++) {
+            String name = String.valueOf(i);
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    cacheService.put("key", new CacheServiceTestObject(name), "tag_" + name);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        String lastName = cacheService.get("key").getField();
+        assertEquals(1, cacheService.invalidateByTag("tag_" + lastName));
+        assertNull(cacheService.get("key"));
+    }
+}
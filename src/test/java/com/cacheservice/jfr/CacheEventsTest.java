@@ -0,0 +1,195 @@
+package com.cacheservice.jfr;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheEventsTest {
+
+    private static final int MAX_CACHE_SIZE = 10;
+    private static final int TIMEOUT = 60;
+
+    static Stream<Supplier<CacheService<CacheServiceTestObject>>> cacheServiceProvider() {
+        return Stream.of(
+                () -> new GuavaCacheService.Builder<CacheServiceTestObject>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(TIMEOUT)
+                        .name("events-guava")
+                        .build(),
+                () -> simpleCacheService("events-simple"));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Record get, put and eviction events with zero threshold and check they are emitted with cache name")
+    @MethodSource("cacheServiceProvider")
+    void emitOperationEvents(Supplier<CacheService<CacheServiceTestObject>> cacheServiceSupplier) throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            enable(recording, CacheGetEvent.class, CachePutEvent.class, CacheEvictionEvent.class);
+            recording.start();
+            CacheService<CacheServiceTestObject> cacheService = cacheServiceSupplier.get();
+            for (int i = 0; i < MAX_CACHE_SIZE * 2; i++) {
+                cacheService.put("key_" + i, new CacheServiceTestObject("value_" + i));
+            }
+            cacheService.get("key_" + (MAX_CACHE_SIZE * 2 - 1));
+            cacheService.get("absent_key");
+            cacheService.close();
+            recording.stop();
+            events = readEvents(recording);
+        }
+
+        List<RecordedEvent> putEvents = eventsOf(events, "com.cacheservice.Put");
+        List<RecordedEvent> getEvents = eventsOf(events, "com.cacheservice.Get");
+        List<RecordedEvent> evictionEvents = eventsOf(events, "com.cacheservice.Eviction");
+        assertEquals(MAX_CACHE_SIZE * 2, putEvents.size());
+        assertEquals(2, getEvents.size());
+        assertTrue(getEvents.get(0).getBoolean("hit"));
+        assertFalse(getEvents.get(1).getBoolean("hit"));
+        assertEquals(MAX_CACHE_SIZE, evictionEvents.stream().mapToInt(event -> event.getInt("evictedObjectsNumber")).sum());
+    }
+
+    @Test
+    @DisplayName("Record load, clean up and listener dispatch events of Simple Java cache and check their fields")
+    void emitSimpleCacheServiceEvents() throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            enable(recording, CacheLoadEvent.class, CacheCleanUpEvent.class, CacheListenerDispatchEvent.class);
+            recording.start();
+            SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService("events-simple-load");
+            cacheService.get("key_1", key -> new CacheServiceTestObject("value_" + key));
+            cacheService.get("key_2", key -> null);
+            cacheService.cacheCleanUp();
+            cacheService.close();
+            recording.stop();
+            events = readEvents(recording);
+        }
+
+        List<RecordedEvent> loadEvents = eventsOf(events, "com.cacheservice.Load");
+        assertEquals(2, loadEvents.size());
+        assertTrue(loadEvents.get(0).getBoolean("found"));
+        assertFalse(loadEvents.get(1).getBoolean("found"));
+        RecordedEvent cleanUpEvent = eventsOf(events, "com.cacheservice.CleanUp").stream()
+                .filter(event -> !event.getBoolean("incremental"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, cleanUpEvent.getInt("scannedObjectsNumber"));
+        assertEquals(0, cleanUpEvent.getInt("removedObjectsNumber"));
+        assertFalse(eventsOf(events, "com.cacheservice.ListenerDispatch").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Record periodic statistics event and check registered cache services are reported until closed")
+    void emitStatisticsEvent() throws IOException {
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService("events-statistics");
+        cacheService.put("key_1", new CacheServiceTestObject("value_1"));
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(CacheStatisticsEvent.class).withPeriod(Duration.ofMillis(10));
+            recording.start();
+            sleep(100);
+            cacheService.close();
+            recording.stop();
+            events = readEvents(recording);
+        }
+
+        List<RecordedEvent> statisticsEvents = eventsOf(events, "com.cacheservice.Statistics").stream()
+                .filter(event -> "events-statistics".equals(event.getString("cacheName")))
+                .collect(Collectors.toList());
+        assertFalse(statisticsEvents.isEmpty());
+        assertEquals(1, statisticsEvents.get(0).getLong("size"));
+        assertEquals(0, statisticsEvents.get(0).getLong("evictionCount"));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Close cache service and check periodic statistics event is not emitted for it")
+    @MethodSource("cacheServiceProvider")
+    void unregisterStatisticsOnClose(Supplier<CacheService<CacheServiceTestObject>> cacheServiceSupplier) throws IOException {
+        CacheService<CacheServiceTestObject> cacheService = cacheServiceSupplier.get();
+        cacheService.put("key_1", new CacheServiceTestObject("value_1"));
+        cacheService.close();
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(CacheStatisticsEvent.class).withPeriod(Duration.ofMillis(10));
+            recording.start();
+            sleep(100);
+            recording.stop();
+            events = readEvents(recording);
+        }
+
+        assertTrue(eventsOf(events, "com.cacheservice.Statistics").stream()
+                .noneMatch(event -> event.getString("cacheName").startsWith("events-")));
+    }
+
+    @SafeVarargs
+    private static void enable(Recording recording, Class<? extends Event>... eventClasses) {
+        for (Class<? extends Event> eventClass : eventClasses) {
+            recording.enable(eventClass).withThreshold(Duration.ZERO);
+        }
+    }
+
+    private static List<RecordedEvent> readEvents(Recording recording) throws IOException {
+        Path file = Files.createTempFile("cache-events", ".jfr");
+        try {
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Returns events of given type emitted by cache services of this test, skipping events of cache services
+     * left running by other tests
+     */
+    private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String eventName) {
+        return events.stream()
+                .filter(event -> eventName.equals(event.getEventType().getName()))
+                .filter(event -> event.getString("cacheName").startsWith("events-"))
+                .collect(Collectors.toList());
+    }
+
+    private static SimpleCacheService<CacheServiceTestObject> simpleCacheService(String name) {
+        CacheStatistics cacheStatistics = new CacheStatistics(MAX_CACHE_SIZE);
+        return new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(TIMEOUT)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .name(name)
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.cacheservice.loader;
+
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingLoaderTest {
+
+    private static final int THREADS_NUMBER = 20;
+    // window is long enough for all threads to miss in it even on one CPU
+    private static final long BATCH_WINDOW_IN_MICROS = 200_000;
+
+    private final List<Set<String>> bulkLoads = new CopyOnWriteArrayList<>();
+    private final Function<Set<String>, Map<String, String>> bulkLoader = keys -> {
+        bulkLoads.add(keys);
+        Map<String, String> values = new HashMap<>();
+        keys.stream().filter(key -> !key.startsWith("absent")).forEach(key -> values.put(key, "value_of_" + key));
+        return values;
+    };
+
+    @Test
+    @DisplayName("Miss different keys by many threads and check they are loaded by one bulk load and cached")
+    void batchConcurrentMisses() throws Exception {
+        BatchingLoader<String> batchingLoader = batchingLoader(100);
+        SimpleCacheService<String> cacheService = simpleCacheService();
+
+        List<String> values = getConcurrently(cacheService, batchingLoader, i -> "key_" + i);
+
+        for (int i = 0; i < THREADS_NUMBER; i++) {
+            assertEquals("value_of_key_" + i, values.get(i));
+            assertEquals("value_of_key_" + i, cacheService.get("key_" + i));
+        }
+        assertEquals(1, bulkLoads.size());
+        assertEquals(THREADS_NUMBER, bulkLoads.get(0).size());
+        assertEquals(1, batchingLoader.getBatchesNumber());
+        assertEquals(THREADS_NUMBER, batchingLoader.getLoadsNumber());
+        assertEquals(THREADS_NUMBER, batchingLoader.getMaxBatchSize());
+        assertEquals(THREADS_NUMBER, batchingLoader.getAverageBatchSize(), 0.0);
+        assertTrue(batchingLoader.getMaxWaitTimeInMicros() > 0);
+        assertTrue(batchingLoader.getAverageWaitTimeInMicros() <= batchingLoader.getMaxWaitTimeInMicros());
+        batchingLoader.close();
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Load the same keys by many threads and check duplicate keys are merged into one load")
+    void mergeDuplicateKeys() throws Exception {
+        BatchingLoader<String> batchingLoader = batchingLoader(100);
+
+        List<String> values = getConcurrently(null, batchingLoader, i -> "key_" + i % 4);
+
+        for (int i = 0; i < THREADS_NUMBER; i++) {
+            assertEquals("value_of_key_" + i % 4, values.get(i));
+        }
+        assertEquals(1, bulkLoads.size());
+        assertEquals(Set.of("key_0", "key_1", "key_2", "key_3"), bulkLoads.get(0));
+        assertEquals(THREADS_NUMBER - 4, batchingLoader.getMergedLoadsNumber());
+        batchingLoader.close();
+    }
+
+    @Test
+    @DisplayName("Miss more keys than max batch size and check batches do not exceed it")
+    void splitByMaxBatchSize() throws Exception {
+        BatchingLoader<String> batchingLoader = batchingLoader(6);
+
+        List<String> values = getConcurrently(null, batchingLoader, i -> "key_" + i);
+
+        for (int i = 0; i < THREADS_NUMBER; i++) {
+            assertEquals("value_of_key_" + i, values.get(i));
+        }
+        assertTrue(bulkLoads.size() >= 4);
+        assertTrue(bulkLoads.stream().allMatch(keys -> keys.size() <= 6));
+        assertEquals(THREADS_NUMBER, bulkLoads.stream().mapToInt(Set::size).sum());
+        assertEquals(6, batchingLoader.getMaxBatchSize());
+        batchingLoader.close();
+    }
+
+    @Test
+    @DisplayName("Load absent key and check null is returned and nothing is cached")
+    void loadAbsentKey() {
+        BatchingLoader<String> batchingLoader = new BatchingLoader.Builder<String>()
+                .bulkLoader(bulkLoader)
+                .batchWindowInMicros(100)
+                .build();
+        SimpleCacheService<String> cacheService = simpleCacheService();
+
+        assertNull(cacheService.get("absent_key", batchingLoader));
+        assertNull(cacheService.get("absent_key"));
+        assertEquals("value_of_key", cacheService.get("key", batchingLoader));
+        batchingLoader.close();
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Fail bulk load and check all loads of the batch fail")
+    void failBatch() throws Exception {
+        BatchingLoader<String> batchingLoader = new BatchingLoader.Builder<String>()
+                .bulkLoader(keys -> {
+                    throw new IllegalArgumentException("Backend is down");
+                })
+                .batchWindowInMicros(BATCH_WINDOW_IN_MICROS)
+                .build();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            String key = "key_" + i;
+            futures.add(executorService.submit(() -> batchingLoader.apply(key)));
+        }
+        for (Future<?> future : futures) {
+            ExecutionException e = assertThrows(ExecutionException.class, future::get);
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        assertEquals(1, batchingLoader.getFailedBatchesNumber());
+        executorService.shutdown();
+        batchingLoader.close();
+    }
+
+    @Test
+    @DisplayName("Throw error by bulk loader and check loads of the batch fail and later loads are loaded")
+    void failBatchByError() {
+        AtomicBoolean backendFails = new AtomicBoolean(true);
+        BatchingLoader<String> batchingLoader = new BatchingLoader.Builder<String>()
+                .bulkLoader(keys -> {
+                    if (backendFails.getAndSet(false)) {
+                        throw new StackOverflowError("Backend client overflowed");
+                    }
+                    return bulkLoader.apply(keys);
+                })
+                .batchWindowInMicros(100)
+                .build();
+
+        assertThrows(StackOverflowError.class, () -> batchingLoader.apply("key_1"));
+        assertEquals("value_of_key_2", batchingLoader.apply("key_2"));
+        assertEquals(1, batchingLoader.getFailedBatchesNumber());
+        batchingLoader.close();
+    }
+
+    @Test
+    @DisplayName("Close batching loader and check pending loads are loaded and new loads are rejected")
+    void closeBatchingLoader() throws Exception {
+        BatchingLoader<String> batchingLoader = batchingLoader(100);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        Future<String> value = executorService.submit(() -> batchingLoader.apply("key"));
+        while (batchingLoader.getLoadsNumber() == 0) {
+            Thread.yield();
+        }
+
+        batchingLoader.close();
+
+        assertEquals("value_of_key", value.get());
+        assertThrows(IllegalStateException.class, () -> batchingLoader.apply("key"));
+        executorService.shutdown();
+    }
+
+    /**
+     * Gets keys by threads started at once; gets from cache service by batching loader if cache service is provided
+     */
+    private static List<String> getConcurrently(SimpleCacheService<String> cacheService,
+                                                BatchingLoader<String> batchingLoader,
+                                                Function<Integer, String> keys) throws Exception {
+        ExecutorService executorService = Executors.newFixedThreadPool(THREADS_NUMBER);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS_NUMBER; i++) {
+            String key = keys.apply(i);
+            futures.add(executorService.submit(() -> {
+                start.await();
+                return cacheService != null ? cacheService.get(key, batchingLoader) : batchingLoader.apply(key);
+            }));
+        }
+        start.countDown();
+
+        List<String> values = new ArrayList<>();
+        for (Future<String> future : futures) {
+            values.add(future.get());
+        }
+        executorService.shutdown();
+        return values;
+    }
+
+    private BatchingLoader<String> batchingLoader(int maxBatchSize) {
+        return new BatchingLoader.Builder<String>()
+                .bulkLoader(bulkLoader)
+                .maxBatchSize(maxBatchSize)
+                .batchWindowInMicros(BATCH_WINDOW_IN_MICROS)
+                .build();
+    }
+
+    private static SimpleCacheService<String> simpleCacheService() {
+        return new SimpleCacheService.Builder<String>()
+                .maxCacheSize(100)
+                .timeoutInSec(60)
+                .timeService(new TimeService())
+                .build();
+    }
+}
@@ -0,0 +1,224 @@
+package com.cacheservice.loadgenerator;
+
+import com.cacheservice.CacheMapView;
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheStatisticsObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadGeneratorTest {
+
+    @Test
+    @DisplayName("Record latencies into histogram and check percentiles within 1% of exact values")
+    void checkHistogramPercentiles() {
+        LatencyHistogram latencyHistogram = new LatencyHistogram();
+        for (long latency = 1; latency <= 1_000_000; latency++) {
+            latencyHistogram.record(latency * 1000);
+        }
+
+        assertEquals(1_000_000, latencyHistogram.getTotalCount());
+        assertEquals(500_000_000, latencyHistogram.getValueAtPercentile(50), 500_000_000 * 0.01);
+        assertEquals(990_000_000, latencyHistogram.getValueAtPercentile(99), 990_000_000 * 0.01);
+        assertEquals(999_000_000, latencyHistogram.getValueAtPercentile(99.9), 999_000_000 * 0.01);
+        assertEquals(1_000_000_000, latencyHistogram.getMaxValue(), 1_000_000_000 * 0.01);
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    @DisplayName("Generate keys with hotspot and Zipf distributions and check their skew")
+    void checkKeyDistributions() {
+        int keySpace = 1000;
+        int samplesNumber = 100_000;
+        LoadConfiguration loadConfiguration = new LoadConfiguration.Builder()
+                .keySpace(keySpace)
+                .hotspot(0.1, 0.9)
+                .zipfExponent(0.99)
+                .build();
+        KeyGenerator hotspotKeyGenerator = KeyDistribution.HOTSPOT.createKeyGenerator(loadConfiguration);
+        KeyGenerator zipfKeyGenerator = KeyDistribution.ZIPF.createKeyGenerator(loadConfiguration);
+        SplittableRandom random = new SplittableRandom(1);
+
+        int hotAccessesNumber = 0;
+        int[] zipfCounts = new int[keySpace];
+        for (int i = 0; i < samplesNumber; i++) {
+            if (hotspotKeyGenerator.nextKeyIndex(random) < keySpace / 10) {
+                hotAccessesNumber++;
+            }
+            zipfCounts[zipfKeyGenerator.nextKeyIndex(random)]++;
+        }
+
+        assertEquals(0.9, (double) hotAccessesNumber / samplesNumber, 0.01);
+        assertTrue(zipfCounts[0] > zipfCounts[1]);
+        assertTrue(zipfCounts[1] > zipfCounts[10]);
+        assertTrue(zipfCounts[10] > zipfCounts[keySpace - 1]);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Run 2 secs of load against cache service and check summary")
+    @ValueSource(strings = {"simple", "guava", "caffeine"})
+    void runLoad(String cacheServiceName) {
+        LoadConfiguration loadConfiguration = new LoadConfiguration.Builder()
+                .threadsNumber(2)
+                .keySpace(10_000)
+                .keyDistribution(KeyDistribution.ZIPF)
+                .valueSizeInBytes(10, 100)
+                .durationInSec(2)
+                .targetThroughput(20_000)
+                .reportIntervalInSec(1)
+                .seed(1)
+                .build();
+        ByteArrayOutputStream reportBytes = new ByteArrayOutputStream();
+
+        LoadResult loadResult;
+        try (CacheService<byte[]> cacheService = LoadGenerator.createCacheService(cacheServiceName, 1000, 60, 2)) {
+            loadResult = new LoadGenerator(loadConfiguration).run(cacheServiceName, cacheService,
+                    new PrintStream(reportBytes, true, StandardCharsets.UTF_8));
+        }
+
+        String summary = LoadReport.formatSummary(List.of(loadResult));
+        assertTrue(loadResult.getOperationCount() > 20_000);
+        assertTrue(loadResult.getHitRatio() > 0 && loadResult.getHitRatio() < 1);
+        assertTrue(loadResult.getEvictionCount() > 0);
+        assertEquals(3, reportBytes.toString(StandardCharsets.UTF_8).lines().count());
+        assertEquals(2, summary.lines().count());
+        assertTrue(summary.lines().skip(1).findFirst().orElseThrow().startsWith(cacheServiceName));
+    }
+
+    @Test
+    @DisplayName("Stall cache service once for 200 ms and check queued operations are recorded with their waiting time")
+    void correctCoordinatedOmission() {
+        LoadConfiguration loadConfiguration = new LoadConfiguration.Builder()
+                .threadsNumber(1)
+                .keySpace(100)
+                .keyDistribution(KeyDistribution.UNIFORM)
+                .readRatio(1)
+                .durationInSec(1)
+                .targetThroughput(1000)
+                .reportIntervalInSec(10)
+                .build();
+
+        LoadResult loadResult = new LoadGenerator(loadConfiguration).run("stalling", new StallingCacheService(),
+                new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8));
+
+        // one stalled operation of 1000 would not move p90 without correction
+        assertTrue(loadResult.getLatencyHistogram().getValueAtPercentile(90) > TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    /**
+     * Cache service which stalls on the first get
+     */
+    private static final class StallingCacheService implements CacheService<byte[]> {
+
+        private final Map<String, byte[]> cache = new ConcurrentHashMap<>();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+
+        @Override
+        public byte[] get(String key) {
+            if (stalled.compareAndSet(false, true)) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return cache.get(key);
+        }
+
+        @Override
+        public void put(String key, byte[] value) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public void put(String key, byte[] value, String... tags) {
+            put(key, value);
+        }
+
+        @Override
+        public byte[] putIfAbsent(String key, byte[] value) {
+            return cache.putIfAbsent(key, value);
+        }
+
+        @Override
+        public byte[] computeIfAbsent(String key, Function<String, ? extends byte[]> mappingFunction) {
+            return cache.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public byte[] compute(String key, BiFunction<String, ? super byte[], ? extends byte[]> remappingFunction) {
+            return cache.compute(key, remappingFunction);
+        }
+
+        @Override
+        public byte[] merge(String key, byte[] value, BiFunction<? super byte[], ? super byte[], ? extends byte[]> remappingFunction) {
+            return cache.merge(key, value, remappingFunction);
+        }
+
+        @Override
+        public byte[] replace(String key, byte[] value) {
+            return cache.replace(key, value);
+        }
+
+        @Override
+        public boolean replace(String key, byte[] oldValue, byte[] newValue) {
+            return cache.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public boolean invalidate(String key) {
+            return cache.remove(key) != null;
+        }
+
+        @Override
+        public int invalidateByTag(String tag) {
+            return 0;
+        }
+
+        @Override
+        public int invalidateByPrefix(String prefix) {
+            return 0;
+        }
+
+        @Override
+        public Stream<Map.Entry<String, byte[]>> entries() {
+            return cache.entrySet().stream();
+        }
+
+        @Override
+        public ConcurrentMap<String, byte[]> asMap() {
+            return new CacheMapView<>(this);
+        }
+
+        @Override
+        public CacheStatisticsObject returnCacheStatistics() {
+            return new CacheStatisticsObject(0, 0);
+        }
+
+        @Override
+        public void cacheCleanUp() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.cacheservice.missratio;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MissRatioCurveTest {
+
+    private static final int KEY_SPACE = 200_000;
+    private static final int MAX_CAPACITY = 10_000;
+
+    static Stream<CacheService<String>> cacheServiceProvider() {
+        CacheStatistics cacheStatistics = new CacheStatistics(100);
+        return Stream.of(
+                new SimpleCacheService.Builder<String>()
+                        .maxCacheSize(100)
+                        .timeoutInSec(60)
+                        .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                        .cacheStatistics(cacheStatistics)
+                        .timeService(new TestTimeService())
+                        .missRatioCurve(new MissRatioCurve(400, 4, 1, 1000))
+                        .build(),
+                new GuavaCacheService.Builder<String>()
+                        .maxCacheSize(100)
+                        .timeoutInSec(60)
+                        .missRatioCurve(new MissRatioCurve(400, 4, 1, 1000))
+                        .build(),
+                new CaffeineCacheService.Builder<String>()
+                        .maxCacheSize(100)
+                        .timeoutInSec(60)
+                        .executor(Runnable::run)
+                        .missRatioCurve(new MissRatioCurve(400, 4, 1, 1000))
+                        .build());
+    }
+
+    @Test
+    @DisplayName("Estimate hit ratios of Zipf trace with 1% sampling and check they are close to exact LRU hit ratios")
+    void estimateLruHitRatios() {
+        int[] trace = zipfTrace(1_000_000, new Random(42));
+        MissRatioCurve missRatioCurve = new MissRatioCurve(MAX_CAPACITY, 10, 0.01, 8192);
+
+        for (int keyIndex : trace) {
+            missRatioCurve.offer("key_" + keyIndex);
+        }
+
+        List<HitRatioPoint> hitRatioCurve = missRatioCurve.returnHitRatioCurve();
+        assertEquals(10, hitRatioCurve.size());
+        double previousHitRatio = 0;
+        double errorsSum = 0;
+        for (HitRatioPoint point : hitRatioCurve) {
+            double exactHitRatio = lruHitRatio(trace, (int) point.getCapacity());
+            assertEquals(exactHitRatio, point.getPredictedHitRatio(), 0.05);
+            assertTrue(point.getPredictedHitRatio() >= previousHitRatio);
+            previousHitRatio = point.getPredictedHitRatio();
+            errorsSum += Math.abs(point.getPredictedHitRatio() - exactHitRatio);
+        }
+        // mean absolute error, as measured for SHARDS
+        assertTrue(errorsSum / hitRatioCurve.size() < 0.03);
+        assertEquals(hitRatioCurve.get(1).getPredictedHitRatio(), missRatioCurve.predictHitRatio(2 * MAX_CAPACITY / 10 + 1), 0.0);
+    }
+
+    @Test
+    @DisplayName("Sample many distinct keys and check tracked keys stay bounded by lowering sampling rate")
+    void boundTrackedKeys() {
+        MissRatioCurve missRatioCurve = new MissRatioCurve(MAX_CAPACITY, 10, 1, 1000);
+
+        for (int i = 0; i < 100_000; i++) {
+            missRatioCurve.offer("key_" + i);
+        }
+
+        assertTrue(missRatioCurve.getSamplesNumber() <= 1000);
+        assertTrue(missRatioCurve.getSamplingRate() < 0.02);
+        // keys are never reused, so nothing can be a hit
+        assertTrue(missRatioCurve.returnHitRatioCurve().stream().allMatch(point -> point.getPredictedHitRatio() < 0.01));
+    }
+
+    @Test
+    @DisplayName("Cycle through more keys than capacity and check LRU is predicted to miss until capacity holds the cycle")
+    void predictLoopingTrace() {
+        MissRatioCurve missRatioCurve = new MissRatioCurve(1000, 10, 1, 8192);
+
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 450; i++) {
+                missRatioCurve.offer("key_" + i);
+            }
+        }
+
+        assertEquals(0, missRatioCurve.predictHitRatio(400), 0.0);
+        assertEquals(0.99, missRatioCurve.predictHitRatio(500), 0.01);
+    }
+
+    @ParameterizedTest
+    @DisplayName("Get and put keys in cache service and check statistics have predicted hit ratios")
+    @MethodSource("cacheServiceProvider")
+    void returnHitRatioCurveInStatistics(CacheService<String> cacheService) {
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 150; i++) {
+                String key = "key_" + i;
+                if (cacheService.get(key) == null) {
+                    cacheService.put(key, "value_" + i);
+                }
+            }
+        }
+
+        List<HitRatioPoint> hitRatioCurve = cacheService.returnCacheStatistics().getHitRatioCurve();
+        assertEquals(List.of(100L, 200L, 300L, 400L), hitRatioCurve.stream().map(HitRatioPoint::getCapacity).collect(Collectors.toList()));
+        // doubling capacity from 100 to 200 would hold the loop of 150 keys
+        assertEquals(0, hitRatioCurve.get(0).getPredictedHitRatio(), 0.0);
+        assertTrue(hitRatioCurve.get(1).getPredictedHitRatio() > 0.4);
+        assertTrue(cacheService.returnCacheStatistics().toString().contains("Predicted hit ratio by capacity"));
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Load unique keys through cache service and check each miss is offered once, so nothing is predicted to hit")
+    @MethodSource("cacheServiceProvider")
+    void offerLoadedKeysOnce(CacheService<String> cacheService) {
+        for (int i = 0; i < 1000; i++) {
+            cacheService.computeIfAbsent("key_" + i, key -> "value");
+        }
+        if (cacheService instanceof SimpleCacheService) {
+            for (int i = 1000; i < 2000; i++) {
+                ((SimpleCacheService<String>) cacheService).get("key_" + i, key -> "value");
+            }
+        }
+
+        // miss offered twice would be predicted to hit at every capacity, half of accesses;
+        // sampling rate lowered to bound tracked keys leaves small error
+        assertTrue(cacheService.returnCacheStatistics().getHitRatioCurve().stream()
+                .allMatch(point -> point.getPredictedHitRatio() < 0.05));
+        cacheService.close();
+    }
+
+    /**
+     * Exact hit ratio of LRU cache of capacity
+     */
+    private static double lruHitRatio(int[] trace, int capacity) {
+        Map<Integer, Boolean> lru = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+        long hits = 0;
+        for (int keyIndex : trace) {
+            if (lru.put(keyIndex, Boolean.TRUE) != null) {
+                hits++;
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    /**
+     * Trace of key indexes with Zipf distribution of exponent 0.8
+     */
+    private static int[] zipfTrace(int length, Random random) {
+        double[] cumulativeProbabilities = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1 / Math.pow(i + 1, 0.8);
+            cumulativeProbabilities[i] = sum;
+        }
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            int index = Arrays.binarySearch(cumulativeProbabilities, random.nextDouble() * sum);
+            trace[i] = index >= 0 ? index : Math.min(-index - 1, KEY_SPACE - 1);
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,151 @@
+package com.cacheservice.negativecache;
+
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NegativeCacheTest {
+
+    @Test
+    @DisplayName("Get absent key with loader many times and check loader is skipped until negative timeout passes")
+    void skipLoaderForAbsentKey() {
+        AtomicLong currentTime = new AtomicLong(System.currentTimeMillis());
+        TimeService timeService = controlledTimeService(currentTime);
+        NegativeCache negativeCache = new NegativeCache.Builder()
+                .timeoutInMillis(1000)
+                .timeService(timeService)
+                .build();
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService(10, negativeCache, timeService);
+        AtomicInteger loadsNumber = new AtomicInteger();
+        Function<String, CacheServiceTestObject> loader = key -> {
+            loadsNumber.incrementAndGet();
+            return key.startsWith("present") ? new CacheServiceTestObject("value_" + key) : null;
+        };
+
+        for (int i = 0; i < 100; i++) {
+            assertNull(cacheService.get("absent_1", loader));
+            assertEquals("value_present_1", cacheService.get("present_1", loader).getField());
+        }
+        assertEquals(2, loadsNumber.get());
+        assertEquals(99, negativeCache.getKnownAbsentNumber());
+
+        currentTime.addAndGet(1000);
+        assertNull(cacheService.get("absent_1", loader));
+        assertEquals(3, loadsNumber.get());
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Put and invalidate absent keys and check negative cache forgets them")
+    void forgetKeyWhenItBecomesPresent() {
+        TimeService timeService = controlledTimeService(new AtomicLong(System.currentTimeMillis()));
+        NegativeCache negativeCache = new NegativeCache.Builder()
+                .timeoutInMillis(60_000)
+                .timeService(timeService)
+                .build();
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService(1, negativeCache, timeService);
+        AtomicInteger loadsNumber = new AtomicInteger();
+        Function<String, CacheServiceTestObject> loader = key -> {
+            loadsNumber.incrementAndGet();
+            return loadsNumber.get() > 2 ? new CacheServiceTestObject("value_" + key) : null;
+        };
+
+        assertNull(cacheService.get("key_1", loader));
+        assertNull(cacheService.get("key_2", loader));
+        cacheService.put("key_1", new CacheServiceTestObject("value_1"));
+        // max cache size is 1, so key_1 is evicted
+        cacheService.put("key_3", new CacheServiceTestObject("value_3"));
+        cacheService.invalidate("key_2");
+
+        assertEquals("value_key_1", cacheService.get("key_1", loader).getField());
+        assertEquals("value_key_2", cacheService.get("key_2", loader).getField());
+        assertEquals(4, loadsNumber.get());
+        assertEquals(0, negativeCache.getKnownAbsentNumber());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Mark generation capacity of absent keys and check false positive rate and memory are within configured ones")
+    @ValueSource(doubles = {0.1, 0.01, 0.001})
+    void keepFalsePositiveRate(double falsePositiveRate) {
+        long memoryInBytes = 256 * 1024;
+        NegativeCache negativeCache = new NegativeCache.Builder()
+                .falsePositiveRate(falsePositiveRate)
+                .memoryInBytes(memoryInBytes)
+                .timeoutInMillis(3_600_000)
+                .build();
+        int absentKeysNumber = negativeCache.getGenerationCapacity() - 1;
+
+        for (int i = 0; i < absentKeysNumber; i++) {
+            negativeCache.markAbsent("absent_" + i);
+        }
+        int falsePositivesNumber = 0;
+        int presentKeysNumber = 200_000;
+        for (int i = 0; i < presentKeysNumber; i++) {
+            if (negativeCache.isKnownAbsent("present_" + i)) {
+                falsePositivesNumber++;
+            }
+        }
+
+        double measuredFalsePositiveRate = (double) falsePositivesNumber / presentKeysNumber;
+        for (int i = 0; i < absentKeysNumber; i++) {
+            assertTrue(negativeCache.isKnownAbsent("absent_" + i));
+        }
+        assertTrue(measuredFalsePositiveRate < falsePositiveRate * 1.5);
+        assertTrue(negativeCache.getMemoryInBytes() <= memoryInBytes);
+        assertEquals(0, negativeCache.getRotationsNumber());
+    }
+
+    @Test
+    @DisplayName("Mark more absent keys than generation capacity and check generations rotate keeping recent keys")
+    void rotateFullGeneration() {
+        NegativeCache negativeCache = new NegativeCache.Builder()
+                .memoryInBytes(1024)
+                .timeoutInMillis(3_600_000)
+                .build();
+        int generationCapacity = negativeCache.getGenerationCapacity();
+
+        for (int i = 0; i < generationCapacity * 10; i++) {
+            negativeCache.markAbsent("absent_" + i);
+        }
+
+        assertEquals(10, negativeCache.getRotationsNumber());
+        for (int i = generationCapacity * 9; i < generationCapacity * 10; i++) {
+            assertTrue(negativeCache.isKnownAbsent("absent_" + i));
+        }
+    }
+
+    private static SimpleCacheService<CacheServiceTestObject> simpleCacheService(int maxCacheSize,
+                                                                                 NegativeCache negativeCache,
+                                                                                 TimeService timeService) {
+        return new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(60)
+                .cacheStatistics(new CacheStatistics(maxCacheSize))
+                .timeService(timeService)
+                .negativeCache(negativeCache)
+                .build();
+    }
+
+    private static TimeService controlledTimeService(AtomicLong currentTime) {
+        return new TimeService() {
+            @Override
+            public long getTimeWithSystemDefaultZoneEpochMilli() {
+                return currentTime.get();
+            }
+        };
+    }
+}
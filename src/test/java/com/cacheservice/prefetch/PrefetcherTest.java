@@ -0,0 +1,163 @@
+package com.cacheservice.prefetch;
+
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.TimeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefetcherTest {
+
+    private static final int TIMEOUT = 3600;
+
+    private final AtomicLong currentTime = new AtomicLong(System.currentTimeMillis());
+    private final TimeService timeService = new TimeService() {
+        @Override
+        public long getTimeWithSystemDefaultZoneEpochMilli() {
+            return currentTime.get();
+        }
+    };
+
+    @Test
+    @DisplayName("Replay trace of sessions reading changed user, profile and orders keys and check prefetching avoids most misses")
+    void avoidMissesOfTrace() {
+        List<List<String>> trace = sessionTrace(300, 20_000, new Random(42));
+
+        long missesWithoutPrefetching = replay(trace, simpleCacheService(1000, null));
+        Prefetcher<String> prefetcher = prefetcher(1000, new AtomicLong());
+        long missesWithPrefetching = replay(trace, simpleCacheService(1000, prefetcher));
+
+        assertTrue(missesWithPrefetching < missesWithoutPrefetching / 2);
+        assertEquals(missesWithoutPrefetching - missesWithPrefetching, prefetcher.getUsedNumber());
+        assertTrue(prefetcher.getAccuracy() > 0.99);
+    }
+
+    @Test
+    @DisplayName("Read uncorrelated random keys and check almost nothing is prefetched")
+    void skipUncorrelatedKeys() {
+        Prefetcher<String> prefetcher = prefetcher(1000, new AtomicLong());
+        SimpleCacheService<String> cacheService = simpleCacheService(50, prefetcher);
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            keys.add("key_" + random.nextInt(100));
+        }
+
+        replay(List.of(keys), cacheService);
+
+        assertTrue(prefetcher.getPrefetchesNumber() < keys.size() / 100);
+    }
+
+    @Test
+    @DisplayName("Read many distinct keys and check transition sketch keeps max predecessors only")
+    void boundTrackedPredecessors() {
+        Prefetcher<String> prefetcher = prefetcher(100, new AtomicLong());
+        SimpleCacheService<String> cacheService = simpleCacheService(1000, prefetcher);
+
+        for (int i = 0; i < 10_000; i++) {
+            currentTime.incrementAndGet();
+            cacheService.get("key_" + i);
+        }
+
+        assertEquals(100, prefetcher.getPredecessorsNumber());
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Invalidate prefetched value before it is read and check the prefetch is counted as wasted")
+    void countWastedPrefetches() {
+        AtomicLong loadsNumber = new AtomicLong();
+        Prefetcher<String> prefetcher = prefetcher(1000, loadsNumber);
+        SimpleCacheService<String> cacheService = simpleCacheService(1000, prefetcher);
+        for (int i = 0; i < 2; i++) {
+            readSession(cacheService, List.of("key_a", "key_b"));
+            cacheService.invalidate("key_b");
+        }
+
+        readSession(cacheService, List.of("key_a"));
+        assertEquals(1, prefetcher.getPrefetchesNumber());
+        cacheService.invalidate("key_b");
+        readSession(cacheService, List.of("key_a", "key_b"));
+
+        assertEquals(2, prefetcher.getPrefetchesNumber());
+        assertEquals(2, loadsNumber.get());
+        assertEquals(1, prefetcher.getWastedNumber());
+        assertEquals(1, prefetcher.getUsedNumber());
+        assertEquals(0.5, prefetcher.getAccuracy(), 0.0);
+        cacheService.close();
+    }
+
+    /**
+     * Replays sessions of trace and returns number of misses. Keys read by session are changed after it,
+     * so they are invalidated.
+     */
+    private long replay(List<List<String>> trace, SimpleCacheService<String> cacheService) {
+        AtomicLong missesNumber = new AtomicLong();
+        Function<String, String> loader = key -> {
+            missesNumber.incrementAndGet();
+            return "value_of_" + key;
+        };
+        for (List<String> session : trace) {
+            for (String key : session) {
+                currentTime.incrementAndGet();
+                cacheService.get(key, loader);
+            }
+            session.forEach(cacheService::invalidate);
+            // pause between sessions is longer than transition window
+            currentTime.addAndGet(100);
+        }
+        cacheService.close();
+        return missesNumber.get();
+    }
+
+    private void readSession(SimpleCacheService<String> cacheService, List<String> keys) {
+        for (String key : keys) {
+            currentTime.incrementAndGet();
+            cacheService.get(key, x -> "value_of_" + x);
+        }
+        currentTime.addAndGet(100);
+    }
+
+    /**
+     * Creates trace of sessions of random users; every session reads user, profile and orders keys of the user
+     */
+    private static List<List<String>> sessionTrace(int usersNumber, int sessionsNumber, Random random) {
+        List<List<String>> trace = new ArrayList<>();
+        for (int i = 0; i < sessionsNumber; i++) {
+            int user = random.nextInt(usersNumber);
+            trace.add(List.of("user_" + user, "profile_" + user, "orders_" + user));
+        }
+        return trace;
+    }
+
+    private Prefetcher<String> prefetcher(int maxPredecessors, AtomicLong loadsNumber) {
+        return new Prefetcher.Builder<String>()
+                .loader(key -> {
+                    loadsNumber.incrementAndGet();
+                    return "value_of_" + key;
+                })
+                .timeService(timeService)
+                .transitionWindowInMillis(50)
+                .minObservations(2)
+                .maxPredecessors(maxPredecessors)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    private SimpleCacheService<String> simpleCacheService(int maxCacheSize, Prefetcher<String> prefetcher) {
+        return new SimpleCacheService.Builder<String>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(TIMEOUT)
+                .timeService(timeService)
+                .prefetcher(prefetcher)
+                .build();
+    }
+}
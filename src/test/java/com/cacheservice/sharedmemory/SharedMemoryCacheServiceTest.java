@@ -0,0 +1,332 @@
+package com.cacheservice.sharedmemory;
+
+import com.cacheservice.simplejava.TimeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SharedMemoryCacheServiceTest {
+
+    private static final Path DIRECTORY = Files.isDirectory(Paths.get("/dev/shm"))
+            ? Paths.get("/dev/shm") : Paths.get(System.getProperty("java.io.tmpdir"));
+
+    private final String name = "cache-service-test-" + System.nanoTime();
+    private final AtomicLong currentTime = new AtomicLong(System.currentTimeMillis());
+    private final TimeService timeService = new TimeService() {
+        @Override
+        public long getTimeWithSystemDefaultZoneEpochMilli() {
+            return currentTime.get();
+        }
+    };
+
+    @AfterEach
+    void deleteSegmentFile() throws IOException {
+        Files.deleteIfExists(DIRECTORY.resolve(name));
+    }
+
+    @Test
+    @DisplayName("Put, compute, replace and invalidate values and check segment opened again sees the changes")
+    void changeValues() {
+        SharedMemoryCacheService cacheService = cacheService(segment(100, 64 * 1024), 60);
+
+        cacheService.put("key_1", bytes("value_1"));
+        cacheService.put("\u043a\u043b\u044e\u0447_2", bytes("\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435_2"), "tag");
+        assertNull(cacheService.putIfAbsent("key_3", bytes("value_3")));
+        assertArrayEquals(bytes("value_3"), cacheService.putIfAbsent("key_3", bytes("other")));
+        assertArrayEquals(bytes("value_1_merged"), cacheService.merge("key_1", bytes("_merged"), SharedMemoryCacheServiceTest::concat));
+        assertTrue(cacheService.replace("key_3", bytes("value_3"), bytes("value_3_replaced")));
+        assertFalse(cacheService.replace("key_3", bytes("value_3"), bytes("other")));
+        assertNull(cacheService.replace("key_4", bytes("value_4")));
+        assertArrayEquals(bytes("value_5"), cacheService.computeIfAbsent("key_5", x -> bytes("value_5")));
+        assertNull(cacheService.compute("key_5", (x, value) -> null));
+
+        SharedMemoryCacheService otherCacheService = cacheService(segment(1, 1), 60);
+        assertArrayEquals(bytes("value_1_merged"), otherCacheService.get("key_1"));
+        assertArrayEquals(bytes("\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435_2"), otherCacheService.get("\u043a\u043b\u044e\u0447_2"));
+        assertArrayEquals(bytes("value_3_replaced"), otherCacheService.get("key_3"));
+        assertNull(otherCacheService.get("key_4"));
+        assertNull(otherCacheService.get("key_5"));
+        assertEquals(Map.of("key_1", "value_1_merged", "\u043a\u043b\u044e\u0447_2", "\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435_2", "key_3", "value_3_replaced"),
+                otherCacheService.entries().collect(Collectors.toMap(Map.Entry::getKey, entry -> string(entry.getValue()))));
+
+        assertEquals(1, cacheService.invalidateByTag("tag"));
+        assertEquals(2, cacheService.invalidateByPrefix("key_"));
+        assertEquals(0, otherCacheService.entries().count());
+        assertEquals(0, otherCacheService.asMap().size());
+        cacheService.close();
+        otherCacheService.close();
+    }
+
+    @Test
+    @DisplayName("Grow value beyond capacity of its entry and check the value moves to new entry")
+    void growValue() {
+        SharedMemorySegment segment = segment(100, 64 * 1024);
+        SharedMemoryCacheService cacheService = cacheService(segment, 60);
+        cacheService.put("key", new byte[10]);
+        long usedBytes = segment.getUsedBytes();
+
+        cacheService.put("key", new byte[8]);
+        assertEquals(usedBytes, segment.getUsedBytes());
+        cacheService.put("key", new byte[1000]);
+
+        assertTrue(segment.getUsedBytes() > usedBytes);
+        assertEquals(1000, cacheService.get("key").length);
+        assertEquals(1, segment.getEntriesNumber());
+        assertEquals(Byte.valueOf((byte) 0), cacheService.read("key", view -> view.get(view.position())));
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Wait for timeout after put and check expired value is not returned and is removed by clean up")
+    void expireValues() {
+        SharedMemorySegment segment = segment(100, 64 * 1024);
+        SharedMemoryCacheService cacheService = cacheService(segment, 10);
+        cacheService.put("key_1", bytes("value_1"));
+        currentTime.addAndGet(5_000);
+        cacheService.put("key_2", bytes("value_2"));
+        currentTime.addAndGet(6_000);
+
+        assertNull(cacheService.get("key_1"));
+        assertArrayEquals(bytes("value_2"), cacheService.get("key_2"));
+        assertEquals(2, segment.getEntriesNumber());
+        cacheService.cacheCleanUp();
+        assertEquals(1, segment.getEntriesNumber());
+        assertFalse(cacheService.invalidate("key_1"));
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Put more values than max entries and data area hold and check the oldest ones are evicted")
+    void evictValues() {
+        SharedMemorySegment segment = segment(10, 1024);
+        SharedMemoryCacheService cacheService = cacheService(segment, 60);
+
+        for (int i = 0; i < 100; i++) {
+            cacheService.put("key_" + i, new byte[40]);
+        }
+
+        assertTrue(segment.getEntriesNumber() <= 10);
+        assertTrue(segment.getEvictionsNumber() >= 90);
+        assertEquals(segment.getEvictionsNumber(), cacheService.returnCacheStatistics().getEvictionCount());
+        assertEquals(40, cacheService.get("key_99").length);
+        assertNull(cacheService.get("key_0"));
+        assertEquals(segment.getEntriesNumber(), cacheService.entries().count());
+        assertThrows(IllegalArgumentException.class, () -> cacheService.put("key", new byte[2000]));
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Fill data area with small values, put value larger than every entry and check adjacent entries are merged")
+    void mergeEntries() {
+        SharedMemorySegment segment = segment(100, 4096);
+        SharedMemoryCacheService cacheService = cacheService(segment, 60);
+        for (int i = 0; i < 200; i++) {
+            cacheService.put("key_" + i, new byte[8]);
+        }
+        cacheService.invalidate("key_150");
+
+        cacheService.put("large", filled(3000, 1));
+        cacheService.put("key_0", new byte[8]);
+        cacheService.put("larger", filled(4000, 2));
+
+        assertArrayEquals(filled(4000, 2), cacheService.get("larger"));
+        assertNull(cacheService.get("large"));
+        assertEquals(segment.getEntriesNumber(), cacheService.entries().count());
+        assertTrue(segment.getUsedBytes() <= 4096);
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Leave entry written as by writer which died and check get returns null and the entry is removed")
+    void repairEntryOfDeadWriter() throws IOException {
+        SharedMemorySegment segment = segment(100, 64 * 1024);
+        SharedMemoryCacheService cacheService = cacheService(segment, 60);
+        cacheService.put("key_1", bytes("value_1"));
+        cacheService.put("key_2", bytes("value_2"));
+        // 100 entries have index of 256 slots after header of 64 bytes, and the first entry starts data area
+        try (FileChannel channel = FileChannel.open(DIRECTORY.resolve(name), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+            int firstEntryOffset = 64 + 256 * Long.BYTES;
+            buffer.putLong(firstEntryOffset, buffer.getLong(firstEntryOffset) | 1);
+        }
+
+        long startTime = System.nanoTime();
+        assertNull(cacheService.get("key_1"));
+        assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, segment.getEntriesNumber());
+        assertArrayEquals(bytes("value_2"), cacheService.get("key_2"));
+        cacheService.put("key_1", bytes("value_1"));
+        assertArrayEquals(bytes("value_1"), cacheService.get("key_1"));
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Read values while writer rewrites them and check readers never see torn values")
+    void readConsistentValues() throws Exception {
+        SharedMemorySegment segment = segment(100, 256 * 1024);
+        SharedMemoryCacheService cacheService = cacheService(segment, 60);
+        for (int i = 0; i < 10; i++) {
+            cacheService.put("key_" + i, filled(1000, 0));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> tornValue = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Thread reader = new Thread(() -> {
+                while (running.get()) {
+                    for (int j = 0; j < 10; j++) {
+                        String key = "key_" + j;
+                        Boolean consistent = cacheService.read(key, view -> {
+                            byte first = view.get(view.position());
+                            for (int k = view.position(); k < view.limit(); k++) {
+                                if (view.get(k) != first) {
+                                    return false;
+                                }
+                            }
+                            return true;
+                        });
+                        if (Boolean.FALSE.equals(consistent)) {
+                            tornValue.set(key);
+                        }
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        for (int i = 1; i <= 2000; i++) {
+            // sizes alternate, so values are written in place and moved to new entries
+            cacheService.put("key_" + i % 10, filled(i % 3 == 0 ? 2000 : 1000, i));
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(tornValue.get());
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Read segment by 4 processes and check values are shared instead of copied into every process")
+    void shareSegmentBetweenProcesses() throws Exception {
+        int keysNumber = 2000;
+        int valueSize = 1024;
+        SharedMemorySegment segment = new SharedMemorySegment.Builder()
+                .directory(DIRECTORY)
+                .name(name)
+                .maxEntries(keysNumber)
+                .dataSizeInBytes(4L * 1024 * 1024)
+                .build();
+        SharedMemoryCacheService cacheService = cacheService(segment, 3600);
+        for (int i = 0; i < keysNumber; i++) {
+            cacheService.put("key_" + i, filled(valueSize, i));
+        }
+
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            processes.add(new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), "-Xmx64m",
+                    SharedMemoryReaderProcess.class.getName(), DIRECTORY.toString(), name,
+                    String.valueOf(keysNumber), String.valueOf(valueSize))
+                    .redirectErrorStream(true)
+                    .start());
+        }
+        long sharedBytes = 0;
+        long retainedBytes = 0;
+        for (Process process : processes) {
+            String[] result = lastLine(process).split(" ");
+            assertEquals(0, process.waitFor());
+            assertEquals(keysNumber, Long.parseLong(result[0]));
+            sharedBytes += Long.parseLong(result[1]);
+            retainedBytes += Long.parseLong(result[2]);
+            assertTrue(Long.parseLong(result[3]) > 0);
+        }
+
+        assertTrue(segment.getSizeInBytes() < sharedBytes);
+        assertTrue(retainedBytes < sharedBytes / 10);
+        cacheService.close();
+    }
+
+    private static String lastLine(Process process) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String lastLine = "";
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.startsWith("SLF4J")) {
+                    lastLine = line;
+                }
+            }
+            return lastLine;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private SharedMemorySegment segment(int maxEntries, long dataSizeInBytes) {
+        return new SharedMemorySegment.Builder()
+                .directory(DIRECTORY)
+                .name(name)
+                .maxEntries(maxEntries)
+                .dataSizeInBytes(dataSizeInBytes)
+                .timeService(timeService)
+                .build();
+    }
+
+    private static SharedMemoryCacheService cacheService(SharedMemorySegment segment, long timeoutInSec) {
+        return new SharedMemoryCacheService.Builder()
+                .segment(segment)
+                .timeoutInSec(timeoutInSec)
+                .build();
+    }
+
+    private static byte[] filled(int size, int value) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
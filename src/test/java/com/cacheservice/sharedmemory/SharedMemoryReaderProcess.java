@@ -0,0 +1,75 @@
+package com.cacheservice.sharedmemory;
+
+import java.nio.file.Paths;
+
+/**
+ * Process reading all keys of shared memory segment. Checks values, then reads them in place in rounds and prints
+ * one line: number of correct values, bytes of values, heap retained by reading, average read time in nanos
+ * and checksum of read bytes.
+ */
+final class SharedMemoryReaderProcess {
+
+    private static final int ROUNDS = 100;
+
+    private SharedMemoryReaderProcess() {
+    }
+
+    public static void main(String[] args) {
+        int keysNumber = Integer.parseInt(args[2]);
+        int valueSize = Integer.parseInt(args[3]);
+        try (SharedMemorySegment segment = new SharedMemorySegment.Builder()
+                .directory(Paths.get(args[0]))
+                .name(args[1])
+                .build()) {
+            String[] keys = new String[keysNumber];
+            for (int i = 0; i < keysNumber; i++) {
+                keys[i] = "key_" + i;
+            }
+            long heapBefore = usedHeap();
+            long correctValuesNumber = 0;
+            long valuesBytes = 0;
+            for (int i = 0; i < keysNumber; i++) {
+                int expectedByte = i;
+                Boolean correct = segment.read(keys[i], view -> {
+                    if (view.remaining() != valueSize) {
+                        return false;
+                    }
+                    for (int j = view.position(); j < view.limit(); j++) {
+                        if (view.get(j) != (byte) expectedByte) {
+                            return false;
+                        }
+                    }
+                    return true;
+                });
+                if (Boolean.TRUE.equals(correct)) {
+                    correctValuesNumber++;
+                    valuesBytes += valueSize;
+                }
+            }
+
+            long checksum = 0;
+            long startTime = 0;
+            // the first half of rounds warms up JIT
+            for (int round = 0; round < ROUNDS * 2; round++) {
+                if (round == ROUNDS) {
+                    startTime = System.nanoTime();
+                }
+                for (String key : keys) {
+                    checksum += segment.read(key, view -> view.get(view.position()));
+                }
+            }
+            long readTime = (System.nanoTime() - startTime) / ((long) ROUNDS * keysNumber);
+            long retainedHeap = usedHeap() - heapBefore;
+
+            System.out.println(correctValuesNumber + " " + valuesBytes + " " + retainedHeap + " " + readTime + " " + checksum);
+        }
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
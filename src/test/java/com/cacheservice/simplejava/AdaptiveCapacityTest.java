@@ -0,0 +1,54 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.CacheStatisticsObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AdaptiveCapacityTest {
+
+    @Test
+    @DisplayName("Shrink capacity down to min cache size on heap pressure, then grow it back when pressure is relieved")
+    void shrinkAndGrowCapacity() {
+        int maxCacheSize = 100;
+        HeapPressureMonitor heapPressureMonitor = new HeapPressureMonitor(0.9, 0.5, false);
+        CacheStatistics cacheStatistics = new CacheStatistics(maxCacheSize);
+        SimpleCacheService<String> cacheService = new SimpleCacheService.Builder<String>()
+                .maxCacheSize(maxCacheSize)
+                .timeoutInSec(5)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .adaptiveCapacity(20, heapPressureMonitor)
+                .build();
+        IntStream.range(0, 100).forEach(x -> cacheService.put("key_" + x, "value_" + x));
+        IntStream.range(50, 100).forEach(x -> cacheService.get("key_" + x));
+
+        heapPressureMonitor.onOccupancy(0.95);
+
+        IntStream.range(0, 50).forEach(x -> assertNull(cacheService.get("key_" + x)));
+        CacheStatisticsObject cacheStatisticsObject = cacheService.returnCacheStatistics();
+        assertEquals(50, cacheStatisticsObject.getEvictionCount());
+        assertEquals(50, cacheStatisticsObject.getEffectiveCapacity());
+
+        heapPressureMonitor.onOccupancy(0.95);
+        heapPressureMonitor.onOccupancy(0.95);
+        assertEquals(20, cacheService.returnCacheStatistics().getEffectiveCapacity());
+
+        heapPressureMonitor.onOccupancy(0.7);
+        assertEquals(20, cacheService.returnCacheStatistics().getEffectiveCapacity());
+
+        heapPressureMonitor.onOccupancy(0.1);
+        cacheStatisticsObject = cacheService.returnCacheStatistics();
+        assertEquals(25, cacheStatisticsObject.getEffectiveCapacity());
+        assertEquals(4, cacheStatisticsObject.getCapacityResizeCount());
+    }
+}
@@ -0,0 +1,106 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.TestTimeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CachedObjectFootprintTest {
+
+    private static final int ENTRIES_NUMBER = 1_000_000;
+    private static final Object VALUE = new Object();
+
+    @Test
+    @DisplayName("Compare bytes per entry of previous and compact entry layouts at 1M entries")
+    void compareBytesPerEntry() {
+        String[] keys = new String[ENTRIES_NUMBER];
+        for (int i = 0; i < ENTRIES_NUMBER; i++) {
+            keys[i] = "key_" + i;
+        }
+        long keysSize = GraphLayout.parseInstance(VALUE, keys).totalSize();
+
+        double previousBytesPerEntry = (double) (previousLayoutSize(keys) - keysSize) / ENTRIES_NUMBER;
+        double compactBytesPerEntry = (double) (compactLayoutSize(keys) - keysSize) / ENTRIES_NUMBER;
+        assertTrue(compactBytesPerEntry < previousBytesPerEntry, String.format(Locale.ROOT,
+                "Bytes per entry at %d entries: previous layout = %.1f, compact layout = %.1f",
+                ENTRIES_NUMBER, previousBytesPerEntry, compactBytesPerEntry));
+    }
+
+    @Test
+    @DisplayName("Check entry of LFU cache does not carry fields of cost aware eviction orders")
+    void compareEntriesOfEvictionPolicies() {
+        String key = "key";
+        long keySize = GraphLayout.parseInstance(key).totalSize();
+
+        long lfuEntrySize = GraphLayout.parseInstance(EvictionPolicy.LFU.<Object>createEvictionOrder()
+                .createCachedObject(key, 1)).totalSize() - keySize;
+        long gdsfEntrySize = GraphLayout.parseInstance(EvictionPolicy.GDSF.<Object>createEvictionOrder()
+                .createCachedObject(key, 1)).totalSize() - keySize;
+
+        assertTrue(lfuEntrySize < gdsfEntrySize, String.format(Locale.ROOT,
+                "Entry size: LFU = %d bytes, GDSF = %d bytes", lfuEntrySize, gdsfEntrySize));
+    }
+
+    private static long previousLayoutSize(String[] keys) {
+        Map<String, PreviousCachedObject> cache = new ConcurrentHashMap<>(ENTRIES_NUMBER);
+        ConcurrentSkipListSet<PreviousCachedObject> frequencySortedCachedObjects = new ConcurrentSkipListSet<>();
+        for (String key : keys) {
+            PreviousCachedObject cachedObject = new PreviousCachedObject(key, VALUE, 1);
+            cache.put(key, cachedObject);
+            frequencySortedCachedObjects.add(cachedObject);
+        }
+        return GraphLayout.parseInstance(VALUE, keys, cache, frequencySortedCachedObjects).totalSize();
+    }
+
+    private static long compactLayoutSize(String[] keys) {
+        SimpleCacheService<Object> cacheService = new SimpleCacheService.Builder<>()
+                .maxCacheSize(ENTRIES_NUMBER)
+                .timeoutInSec(Integer.MAX_VALUE)
+                .timeService(new TestTimeService())
+                .build();
+        for (String key : keys) {
+            cacheService.put(key, VALUE);
+        }
+        return GraphLayout.parseInstance(VALUE, keys, cacheService).totalSize();
+    }
+
+    /**
+     * Copy of entry layout before compaction: separate AtomicInteger frequency and skip list ordering
+     */
+    private static final class PreviousCachedObject implements Comparable<PreviousCachedObject> {
+
+        private final String key;
+        private final Object value;
+        private final AtomicInteger frequency;
+        private final long lastAccessDateTimeEpochMilli;
+        private long puttingValueTime;
+
+        private PreviousCachedObject(String key, Object value, long lastAccessDateTimeEpochMilli) {
+            this.key = key;
+            this.value = value;
+            this.lastAccessDateTimeEpochMilli = lastAccessDateTimeEpochMilli;
+            this.frequency = new AtomicInteger(1);
+        }
+
+        @Override
+        public int compareTo(PreviousCachedObject that) {
+            int frequencyComparison = Integer.compare(frequency.intValue(), that.frequency.intValue());
+            if (frequencyComparison != 0) {
+                return frequencyComparison;
+            }
+            int lastAccessComparison = Long.compare(lastAccessDateTimeEpochMilli, that.lastAccessDateTimeEpochMilli);
+            if (lastAccessComparison != 0) {
+                return lastAccessComparison;
+            }
+            return key.compareTo(that.key);
+        }
+    }
+}
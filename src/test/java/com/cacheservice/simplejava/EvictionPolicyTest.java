@@ -0,0 +1,145 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvictionPolicyTest {
+
+    private static final int MAX_CACHE_SIZE = 200;
+
+    @Test
+    @DisplayName("Load cheap popular and expensive rare keys and check GDSF spends less load time than LFU and LFU-DA")
+    void reduceLoadTime() {
+        long lfuLoadTime = totalLoadTime(EvictionPolicy.LFU);
+        long lfuDaLoadTime = totalLoadTime(EvictionPolicy.LFU_DA);
+        long gdsfLoadTime = totalLoadTime(EvictionPolicy.GDSF);
+
+        assertTrue(gdsfLoadTime * 2 < lfuLoadTime);
+        assertTrue(gdsfLoadTime * 2 < lfuDaLoadTime);
+    }
+
+    @Test
+    @DisplayName("Access keys of one phase many times, then keys of the next phase, and check LFU-DA adapts while LFU keeps stale keys")
+    void ageOutStaleFrequency() {
+        double lfuHitRatio = secondPhaseHitRatio(EvictionPolicy.LFU);
+        double lfuDaHitRatio = secondPhaseHitRatio(EvictionPolicy.LFU_DA);
+
+        assertTrue(lfuHitRatio < 0.1);
+        assertTrue(lfuDaHitRatio > 0.8);
+    }
+
+    @Test
+    @DisplayName("Fill GDSF cache with objects of different sizes and check the largest object is evicted first")
+    void evictLargeObjectFirst() {
+        CacheStatistics cacheStatistics = new CacheStatistics(3);
+        SimpleCacheService<CacheServiceTestObject> cacheService = new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(3)
+                .timeoutInSec(60)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TimeService())
+                .evictionPolicy(EvictionPolicy.GDSF)
+                .sizeEstimator(value -> value.getField().length())
+                .build();
+
+        cacheService.put("key_1", new CacheServiceTestObject("small"));
+        cacheService.put("key_2", new CacheServiceTestObject("large".repeat(100)));
+        cacheService.put("key_3", new CacheServiceTestObject("small"));
+        cacheService.put("key_4", new CacheServiceTestObject("small"));
+
+        assertNull(cacheService.get("key_2"));
+        assertEquals("small", cacheService.get("key_1").getField());
+        assertEquals(1, cacheService.returnCacheStatistics().getEvictionCount());
+        cacheService.close();
+    }
+
+    /**
+     * Runs workload of 2 000 cheap keys (1 ms) accessed with skew and 100 expensive keys (200 ms) accessed
+     * uniformly and rarely, loading misses with loader which advances time by key load cost
+     *
+     * @param evictionPolicy eviction policy
+     * @return total load time in millis
+     */
+    private static long totalLoadTime(EvictionPolicy evictionPolicy) {
+        AtomicLong currentTime = new AtomicLong(System.currentTimeMillis());
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService(evictionPolicy, currentTime);
+        AtomicLong loadTime = new AtomicLong();
+        Function<String, CacheServiceTestObject> loader = key -> {
+            long loadCost = key.startsWith("expensive") ? 200 : 1;
+            currentTime.addAndGet(loadCost);
+            loadTime.addAndGet(loadCost);
+            return new CacheServiceTestObject("value_" + key);
+        };
+
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 100_000; i++) {
+            if (random.nextInt(10) == 0) {
+                cacheService.get("expensive_" + random.nextInt(100), loader);
+            } else {
+                double uniform = random.nextDouble();
+                cacheService.get("cheap_" + (int) (uniform * uniform * uniform * 2000), loader);
+            }
+        }
+        cacheService.close();
+        return loadTime.get();
+    }
+
+    /**
+     * Accesses 200 keys of the first phase 50 times each, then 200 keys of the second phase 20 times each
+     *
+     * @param evictionPolicy eviction policy
+     * @return hit ratio of the second phase
+     */
+    private static double secondPhaseHitRatio(EvictionPolicy evictionPolicy) {
+        AtomicLong currentTime = new AtomicLong(System.currentTimeMillis());
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService(evictionPolicy, currentTime);
+        AtomicLong missesNumber = new AtomicLong();
+        Function<String, CacheServiceTestObject> loader = key -> {
+            missesNumber.incrementAndGet();
+            return new CacheServiceTestObject("value_" + key);
+        };
+
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < MAX_CACHE_SIZE; i++) {
+                cacheService.get("first_" + i, loader);
+            }
+        }
+        missesNumber.set(0);
+        int accessesNumber = 0;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < MAX_CACHE_SIZE; i++) {
+                cacheService.get("second_" + i, loader);
+                accessesNumber++;
+            }
+        }
+        cacheService.close();
+        return 1 - (double) missesNumber.get() / accessesNumber;
+    }
+
+    private static SimpleCacheService<CacheServiceTestObject> simpleCacheService(EvictionPolicy evictionPolicy, AtomicLong currentTime) {
+        return new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(MAX_CACHE_SIZE)
+                .timeoutInSec(3600)
+                .cacheStatistics(new CacheStatistics(MAX_CACHE_SIZE))
+                .timeService(new TimeService() {
+                    @Override
+                    public long getTimeWithSystemDefaultZoneEpochMilli() {
+                        return currentTime.get();
+                    }
+                })
+                .evictionPolicy(evictionPolicy)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeyViewTest {
+
+    @ParameterizedTest
+    @DisplayName("Put object by String key and get it back by char sequence, byte[] slice and byte buffer key views")
+    @ValueSource(strings = {"key_1", "\u043a\u043b\u044e\u0447_1", "\u952e_1", "key_\ud83d\udd11_1", "k"})
+    void getByKeyViews(String key) {
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService();
+        cacheService.put(key, new CacheServiceTestObject("value"));
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] paddedKeyBytes = new byte[keyBytes.length + 6];
+        System.arraycopy(keyBytes, 0, paddedKeyBytes, 3, keyBytes.length);
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(paddedKeyBytes.length);
+        directBuffer.put(paddedKeyBytes).position(3).limit(3 + keyBytes.length);
+
+        assertEquals("value", cacheService.get(new StringBuilder(key)).getField());
+        assertEquals("value", cacheService.get(keyBytes, 0, keyBytes.length).getField());
+        assertEquals("value", cacheService.get(paddedKeyBytes, 3, keyBytes.length).getField());
+        assertEquals("value", cacheService.get(ByteBuffer.wrap(paddedKeyBytes, 3, keyBytes.length)).getField());
+        assertEquals("value", cacheService.get(directBuffer).getField());
+        assertEquals(3, directBuffer.position());
+        assertEquals(key.hashCode(), new KeyView().set(paddedKeyBytes, 3, keyBytes.length).hashCode());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put object by String key and check key views of prefix, extension and other chars of the key miss")
+    @ValueSource(strings = {"key_1", "\u043a\u043b\u044e\u0447_1", "key_\ud83d\udd11_1"})
+    void missOtherKeys(String key) {
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService();
+        cacheService.put(key, new CacheServiceTestObject("value"));
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        assertNull(cacheService.get(keyBytes, 0, keyBytes.length - 1));
+        assertNull(cacheService.get(new StringBuilder(key).append('2')));
+        assertNull(cacheService.get(new StringBuilder(key).reverse()));
+        assertNull(cacheService.get(ByteBuffer.wrap((key + "2").getBytes(StandardCharsets.UTF_8))));
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Put object by key decoded from malformed UTF-8 bytes and get it back by the bytes")
+    void getByMalformedBytes() {
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService();
+        byte[] malformedKeyBytes = {'k', 'e', 'y', (byte) 0xC0, (byte) 0xAF, (byte) 0xED, (byte) 0xA0, (byte) 0x80, (byte) 0xE2};
+        cacheService.put(new String(malformedKeyBytes, StandardCharsets.UTF_8), new CacheServiceTestObject("value"));
+
+        assertEquals("value", cacheService.get(malformedKeyBytes, 0, malformedKeyBytes.length).getField());
+        assertEquals("value", cacheService.get(ByteBuffer.wrap(malformedKeyBytes)).getField());
+        cacheService.close();
+    }
+
+    @Test
+    @DisplayName("Get by null, empty and out of bounds key views and check exceptions")
+    void rejectInvalidKeyViews() {
+        SimpleCacheService<CacheServiceTestObject> cacheService = simpleCacheService();
+
+        assertThrows(IllegalArgumentException.class, () -> cacheService.get((ByteBuffer) null));
+        assertThrows(IllegalArgumentException.class, () -> cacheService.get(new byte[0], 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> cacheService.get(new StringBuilder()));
+        assertThrows(IndexOutOfBoundsException.class, () -> cacheService.get(new byte[4], 2, 3));
+        cacheService.close();
+    }
+
+    private static SimpleCacheService<CacheServiceTestObject> simpleCacheService() {
+        return new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(10)
+                .timeoutInSec(60)
+                .cacheStatistics(new CacheStatistics(10))
+                .timeService(new TestTimeService())
+                .build();
+    }
+}
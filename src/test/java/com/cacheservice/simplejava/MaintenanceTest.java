@@ -0,0 +1,146 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.CacheStatisticsObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import com.cacheservice.simplejava.listener.Listener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MaintenanceTest {
+
+    @Test
+    @DisplayName("Create 200 cache services and check they share one daemon maintenance thread")
+    void shareMaintenanceThread() {
+        List<SimpleCacheService<CacheServiceTestObject>> cacheServices = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            CacheStatistics cacheStatistics = new CacheStatistics(10);
+            cacheServices.add(new SimpleCacheService.Builder<CacheServiceTestObject>()
+                    .maxCacheSize(10)
+                    .timeoutInSec(5)
+                    .cacheStatistics(cacheStatistics)
+                    .timeService(new TestTimeService())
+                    .maintenanceIntervalInMillis(10)
+                    .build());
+        }
+
+        long maintenanceThreadsNumber = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("cache-maintenance-shared-"))
+                .peek(thread -> assertTrue(thread.isDaemon()))
+                .count();
+
+        assertEquals(1, maintenanceThreadsNumber);
+        cacheServices.forEach(SimpleCacheService::close);
+    }
+
+    @Test
+    @DisplayName("Remove obsolete objects in time slices resuming from where previous slice stopped and check maintenance statistics")
+    void removeObsoleteObjectsIncrementally() {
+        int maxCacheSize = 300_000;
+        AtomicLong currentTime = new AtomicLong(System.currentTimeMillis());
+        // counts removals directly: cache statistics keeps putting times of all objects
+        AtomicLong removedObjectsNumber = new AtomicLong();
+        Listener removalCountingListener = (eventType, cachedObject) -> {
+            if (eventType == EventType.REMOVE_OBSOLETE_OBJECT) {
+                removedObjectsNumber.incrementAndGet();
+            }
+        };
+        try (MaintenanceScheduler maintenanceScheduler = new MaintenanceScheduler(1)) {
+            SimpleCacheService<CacheServiceTestObject> cacheService = new SimpleCacheService.Builder<CacheServiceTestObject>()
+                    .maxCacheSize(maxCacheSize)
+                    .timeoutInSec(5)
+                    .listeners(List.of(removalCountingListener))
+                    .cacheStatistics(new CacheStatistics(maxCacheSize))
+                    .timeService(controlledTimeService(currentTime))
+                    .maintenanceScheduler(maintenanceScheduler)
+                    .maintenanceIntervalInMillis(TimeUnit.HOURS.toMillis(1))
+                    .maintenanceTimeSliceInMillis(1)
+                    .build();
+            CacheServiceTestObject value = new CacheServiceTestObject("value");
+            for (int i = 0; i < maxCacheSize; i++) {
+                cacheService.put("key_" + i, value);
+            }
+            currentTime.addAndGet(TimeUnit.SECONDS.toMillis(6));
+
+            cacheService.runMaintenance();
+            long removedObjectsNumberAfterFirstRun = removedObjectsNumber.get();
+            int runsNumber = 1;
+            while (removedObjectsNumber.get() < maxCacheSize) {
+                cacheService.runMaintenance();
+                runsNumber++;
+            }
+
+            CacheStatisticsObject cacheStatisticsObject = cacheService.returnCacheStatistics();
+            assertTrue(cacheStatisticsObject.getAverageMaintenanceTime() <= cacheStatisticsObject.getMaxMaintenanceTime());
+            assertTrue(removedObjectsNumberAfterFirstRun > 0);
+            assertTrue(removedObjectsNumberAfterFirstRun < maxCacheSize);
+            assertEquals(runsNumber, cacheStatisticsObject.getMaintenanceRunsNumber());
+            assertNull(cacheService.get("key_0"));
+            cacheService.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Close cache service and check its objects are removed, closing again does nothing and puts fail")
+    void closeCacheService() {
+        CacheStatistics cacheStatistics = new CacheStatistics(10);
+        HeapPressureMonitor heapPressureMonitor = new HeapPressureMonitor(0.9, 0.5, false);
+        SimpleCacheService<CacheServiceTestObject> cacheService = new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(10)
+                .timeoutInSec(5)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .adaptiveCapacity(1, heapPressureMonitor)
+                .build();
+        cacheService.put("key_1", new CacheServiceTestObject("value_1"));
+
+        cacheService.close();
+        cacheService.close();
+        heapPressureMonitor.onOccupancy(0.95);
+
+        assertNull(cacheService.get("key_1"));
+        CacheStatisticsObject cacheStatisticsObject = cacheService.returnCacheStatistics();
+        assertEquals(0, cacheStatisticsObject.getEvictionCount());
+        assertEquals(0, cacheStatisticsObject.getCapacityResizeCount());
+        assertThrows(IllegalStateException.class, () -> cacheService.put("key_2", new CacheServiceTestObject("value_2")));
+        assertThrows(IllegalStateException.class, () -> cacheService.computeIfAbsent("key_2", key -> new CacheServiceTestObject("value_2")));
+    }
+
+    @Test
+    @DisplayName("Close maintenance scheduler and check cache service can not be scheduled on it")
+    void useClosedMaintenanceScheduler() {
+        MaintenanceScheduler maintenanceScheduler = new MaintenanceScheduler(1);
+        maintenanceScheduler.close();
+
+        assertThrows(IllegalStateException.class, () -> new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(10)
+                .timeoutInSec(5)
+                .cacheStatistics(new CacheStatistics(10))
+                .timeService(new TestTimeService())
+                .maintenanceScheduler(maintenanceScheduler)
+                .build());
+        assertThrows(IllegalStateException.class, () -> MaintenanceScheduler.sharedScheduler().close());
+    }
+
+    private static TimeService controlledTimeService(AtomicLong currentTime) {
+        return new TimeService() {
+            @Override
+            public long getTimeWithSystemDefaultZoneEpochMilli() {
+                return currentTime.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+
+import java.util.List;
+
+/**
+ * Puts much more 1 MB values than the heap can hold into a soft values cache and prints eviction count.
+ * Run by {@link ValueStrengthTest} in a separate JVM with constrained heap.
+ */
+public class SoftValuesApplication {
+
+    public static void main(String[] args) {
+        int valuesNumber = Integer.parseInt(args[0]);
+        CacheStatistics cacheStatistics = new CacheStatistics(valuesNumber);
+        SimpleCacheService<byte[]> cacheService = new SimpleCacheService.Builder<byte[]>()
+                .maxCacheSize(valuesNumber)
+                .timeoutInSec(60)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TimeService())
+                .valueStrength(ValueStrength.SOFT)
+                .build();
+
+        for (int i = 0; i < valuesNumber; i++) {
+            cacheService.put("key_" + i, new byte[1024 * 1024]);
+        }
+        cacheService.cacheCleanUp();
+
+        System.out.println("Eviction count = " + cacheService.returnCacheStatistics().getEvictionCount());
+        System.exit(0);
+    }
+}
@@ -0,0 +1,150 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TenantCacheManagerTest {
+
+    private static final int CAPACITY = 100;
+
+    @Test
+    @DisplayName("Fill shared capacity by busy tenant, then put objects of idle tenant and check capacity moves to fair shares")
+    void shareCapacityBetweenTenants() {
+        TenantCacheManager<CacheServiceTestObject> tenantCacheManager = tenantCacheManager();
+        CacheService<CacheServiceTestObject> busyTenant = tenantCacheManager.addTenant("busy", 10, CAPACITY);
+        CacheService<CacheServiceTestObject> idleTenant = tenantCacheManager.addTenant("idle", 10, CAPACITY);
+
+        putObjects(busyTenant, "busy_key_", CAPACITY);
+        assertEquals(CAPACITY, tenantCacheManager.size());
+        assertEquals(CAPACITY, statistics(tenantCacheManager, "busy").getSize());
+
+        putObjects(idleTenant, "idle_key_", CAPACITY);
+
+        TenantStatisticsObject busyStatistics = statistics(tenantCacheManager, "busy");
+        TenantStatisticsObject idleStatistics = statistics(tenantCacheManager, "idle");
+        assertEquals(CAPACITY, tenantCacheManager.size());
+        assertEquals(CAPACITY / 2, busyStatistics.getFairShare());
+        assertEquals(CAPACITY / 2, busyStatistics.getSize());
+        assertEquals(CAPACITY / 2, idleStatistics.getSize());
+        assertEquals(CAPACITY / 2, busyStatistics.getEvictionCount());
+        tenantCacheManager.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Flood shared capacity by one tenant and check other tenant keeps its min quota and flooding tenant its max quota")
+    @ValueSource(ints = {0, 30, 60})
+    void keepQuotas(int minQuota) {
+        TenantCacheManager<CacheServiceTestObject> tenantCacheManager = tenantCacheManager();
+        CacheService<CacheServiceTestObject> quietTenant = tenantCacheManager.addTenant("quiet", minQuota, CAPACITY);
+        CacheService<CacheServiceTestObject> floodingTenant = tenantCacheManager.addTenant("flooding", 0, 80);
+
+        putObjects(quietTenant, "quiet_key_", 60);
+        putObjects(floodingTenant, "flooding_key_", 1000);
+
+        int quietSize = statistics(tenantCacheManager, "quiet").getSize();
+        int floodingSize = statistics(tenantCacheManager, "flooding").getSize();
+        assertTrue(quietSize >= minQuota);
+        assertTrue(floodingSize <= 80);
+        assertTrue(tenantCacheManager.size() <= CAPACITY);
+        tenantCacheManager.close();
+    }
+
+    @Test
+    @DisplayName("Get present and absent keys of tenants and check hit ratio is reported per tenant")
+    void reportHitRatioPerTenant() {
+        TenantCacheManager<CacheServiceTestObject> tenantCacheManager = tenantCacheManager();
+        CacheService<CacheServiceTestObject> firstTenant = tenantCacheManager.addTenant("first", 0, 0);
+        CacheService<CacheServiceTestObject> secondTenant = tenantCacheManager.addTenant("second", 0, 0);
+        putObjects(firstTenant, "key_", 10);
+
+        for (int i = 0; i < 20; i++) {
+            firstTenant.get("key_" + i);
+            secondTenant.get("key_" + i);
+        }
+
+        List<TenantStatisticsObject> tenantStatistics = tenantCacheManager.returnTenantStatistics();
+        assertEquals("first", tenantStatistics.get(0).getTenant());
+        assertEquals(0.5, tenantStatistics.get(0).getHitRatio());
+        assertEquals(10, tenantStatistics.get(0).getSize());
+        assertEquals("second", tenantStatistics.get(1).getTenant());
+        assertEquals(0.0, tenantStatistics.get(1).getHitRatio());
+        assertEquals(CAPACITY, tenantStatistics.get(1).getMaxQuota());
+        assertNull(secondTenant.get("key_1"));
+        tenantCacheManager.close();
+    }
+
+    @Test
+    @DisplayName("Put, update, invalidate and remove by compute objects of tenants and check total size is the sum of tenant sizes")
+    void countTotalSize() {
+        TenantCacheManager<CacheServiceTestObject> tenantCacheManager = tenantCacheManager();
+        CacheService<CacheServiceTestObject> firstTenant = tenantCacheManager.addTenant("first", 0, CAPACITY);
+        CacheService<CacheServiceTestObject> secondTenant = tenantCacheManager.addTenant("second", 0, CAPACITY);
+
+        putObjects(firstTenant, "key_", 30);
+        putObjects(firstTenant, "key_", 10);
+        putObjects(secondTenant, "key_", 20);
+        firstTenant.invalidate("key_0");
+        firstTenant.invalidate("absent_key");
+        secondTenant.compute("key_1", (key, value) -> null);
+        secondTenant.computeIfAbsent("key_20", key -> new CacheServiceTestObject("value_20"));
+
+        assertEquals(29, statistics(tenantCacheManager, "first").getSize());
+        assertEquals(20, statistics(tenantCacheManager, "second").getSize());
+        assertEquals(49, tenantCacheManager.size());
+        tenantCacheManager.close();
+    }
+
+    @Test
+    @DisplayName("Add tenants with invalid quotas, add and remove tenants and check min quotas are released")
+    void manageTenants() {
+        TenantCacheManager<CacheServiceTestObject> tenantCacheManager = tenantCacheManager();
+        CacheService<CacheServiceTestObject> firstTenant = tenantCacheManager.addTenant("first", 60, CAPACITY);
+
+        assertThrows(IllegalArgumentException.class, () -> tenantCacheManager.addTenant("second", 60, CAPACITY));
+        assertThrows(IllegalArgumentException.class, () -> tenantCacheManager.addTenant("first", 10, CAPACITY));
+        assertThrows(IllegalArgumentException.class, () -> tenantCacheManager.addTenant("third", 20, 10));
+        assertNull(tenantCacheManager.getTenant("second"));
+
+        putObjects(firstTenant, "key_", 10);
+        assertTrue(tenantCacheManager.removeTenant("first"));
+        assertFalse(tenantCacheManager.removeTenant("first"));
+        assertEquals(0, tenantCacheManager.size());
+        assertEquals(firstTenant.getClass(), tenantCacheManager.addTenant("second", 60, CAPACITY).getClass());
+        tenantCacheManager.close();
+        assertTrue(tenantCacheManager.returnTenantStatistics().isEmpty());
+    }
+
+    private static void putObjects(CacheService<CacheServiceTestObject> cacheService, String keyPrefix, int objectsNumber) {
+        for (int i = 0; i < objectsNumber; i++) {
+            cacheService.put(keyPrefix + i, new CacheServiceTestObject("value_" + i));
+        }
+    }
+
+    private static TenantStatisticsObject statistics(TenantCacheManager<CacheServiceTestObject> tenantCacheManager, String tenant) {
+        return tenantCacheManager.returnTenantStatistics().stream()
+                .filter(tenantStatistics -> tenant.equals(tenantStatistics.getTenant()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static TenantCacheManager<CacheServiceTestObject> tenantCacheManager() {
+        return new TenantCacheManager.Builder<CacheServiceTestObject>()
+                .capacity(CAPACITY)
+                .timeoutInSec(60)
+                .timeService(new TestTimeService())
+                .build();
+    }
+}
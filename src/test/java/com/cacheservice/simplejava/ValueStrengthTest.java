@@ -0,0 +1,92 @@
+package com.cacheservice.simplejava;
+
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValueStrengthTest {
+
+    @Test
+    @DisplayName("Put weakly referenced object, collect its value by GC and check it is removed by clean up")
+    void removeObjectWithCollectedWeakValue() throws InterruptedException {
+        CacheStatistics cacheStatistics = new CacheStatistics(100);
+        SimpleCacheService<CacheServiceTestObject> cacheService = new SimpleCacheService.Builder<CacheServiceTestObject>()
+                .maxCacheSize(100)
+                .timeoutInSec(60)
+                .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                .cacheStatistics(cacheStatistics)
+                .timeService(new TestTimeService())
+                .valueStrength(ValueStrength.WEAK)
+                .build();
+        CacheServiceTestObject strongValue = new CacheServiceTestObject("value_1");
+        cacheService.put("key_1", strongValue);
+        cacheService.put("key_2", new CacheServiceTestObject("value_2"));
+
+        for (int i = 0; i < 10 && cacheService.returnCacheStatistics().getEvictionCount() == 0; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(100);
+            cacheService.cacheCleanUp();
+        }
+
+        assertEquals(1, cacheService.returnCacheStatistics().getEvictionCount());
+        assertNull(cacheService.get("key_2"));
+        assertEquals("value_1", cacheService.get("key_1").getField());
+    }
+
+    @Test
+    @DisplayName("Put 512 values of 1 MB into soft values cache in JVM with 64 MB heap and check it does not fail with OOM")
+    void shrinkSoftValuesCacheInsteadOfOutOfMemory() throws IOException, InterruptedException {
+        String classpath = String.join(File.pathSeparator,
+                codeSource(SimpleCacheService.class),
+                codeSource(SoftValuesApplication.class),
+                codeSource(LoggerFactory.class));
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        // output goes to file, so child never blocks on full pipe and waiting for it can time out
+        Path outputFile = Files.createTempFile("soft-values-application", ".log");
+        Process process = new ProcessBuilder(java.toString(), "-Xmx64m", "-cp", classpath,
+                SoftValuesApplication.class.getName(), "512")
+                .redirectErrorStream(true)
+                .redirectOutput(outputFile.toFile())
+                .start();
+
+        try {
+            boolean exited = process.waitFor(60, TimeUnit.SECONDS);
+            String output = new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8);
+
+            assertTrue(exited, output);
+            assertEquals(0, process.exitValue(), output);
+            assertTrue(output.contains("Eviction count = "), output);
+            assertFalse(output.contains("Eviction count = 0\n"), output);
+        } finally {
+            process.destroyForcibly();
+            Files.delete(outputFile);
+        }
+    }
+
+    private static String codeSource(Class<?> clazz) {
+        try {
+            return Paths.get(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.cacheservice.simulator;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CacheSimulatorTest {
+
+    static Stream<SimulationConfiguration> configurationProvider() {
+        return Stream.of(
+                CacheSimulator.simpleCacheServiceConfiguration(2, 5),
+                CacheSimulator.guavaCacheServiceConfiguration(2, 5));
+    }
+
+    @Test
+    @DisplayName("Parse lines of every trace format")
+    void parseTraceFormats() {
+        assertEquals(List.of("key_1"), keys(TraceFormat.PLAIN, "key_1"));
+        assertEquals(List.of("key_1"), keys(TraceFormat.CSV, "key_1,100,5"));
+        assertEquals(List.of(), keys(TraceFormat.CSV, "key,size,timestamp"));
+        assertEquals(List.of("10", "11", "12"), keys(TraceFormat.ARC, "10 3 0 1"));
+        assertEquals(List.of(), keys(TraceFormat.LIRS, "*"));
+        assertEquals(List.of("42"), keys(TraceFormat.LIRS, "42"));
+        assertEquals(List.of("http://en.wikipedia.org/wiki/Cache"),
+                keys(TraceFormat.WIKIPEDIA, "1 1190146243.326 http://en.wikipedia.org/wiki/Cache -"));
+        assertEquals(List.of(), keys(TraceFormat.PLAIN, "# comment"));
+    }
+
+    @ParameterizedTest
+    @DisplayName("Replay trace through cache of size 2 and check hits, byte hits and evictions")
+    @MethodSource("configurationProvider")
+    void replayTrace(SimulationConfiguration configuration) {
+        List<TraceEvent> traceEvents = List.of(
+                new TraceEvent("key_1", 10, TraceEvent.NO_TIMESTAMP),
+                new TraceEvent("key_2", 30, TraceEvent.NO_TIMESTAMP),
+                new TraceEvent("key_1", 10, TraceEvent.NO_TIMESTAMP),
+                new TraceEvent("key_3", 50, TraceEvent.NO_TIMESTAMP),
+                new TraceEvent("key_1", 10, TraceEvent.NO_TIMESTAMP));
+
+        SimulationResult result = new CacheSimulator(1, 500, 1).simulate(traceEvents.iterator(), configuration);
+
+        assertEquals(5, result.getRequestCount());
+        assertEquals(2, result.getHitCount());
+        assertEquals(110, result.getRequestedBytes());
+        assertEquals(20, result.getHitBytes());
+        assertEquals(1, result.getEvictionCount());
+    }
+
+    private static List<String> keys(TraceFormat traceFormat, String line) {
+        List<String> keys = new ArrayList<>();
+        traceFormat.parse(line, traceEvent -> keys.add(traceEvent.getKey()));
+        return keys;
+    }
+}
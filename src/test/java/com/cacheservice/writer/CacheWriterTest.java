@@ -0,0 +1,378 @@
+package com.cacheservice.writer;
+
+import com.cacheservice.CacheService;
+import com.cacheservice.CacheServiceTestObject;
+import com.cacheservice.TestTimeService;
+import com.cacheservice.caffeine.CaffeineCacheService;
+import com.cacheservice.guava.GuavaCacheService;
+import com.cacheservice.simplejava.SimpleCacheService;
+import com.cacheservice.simplejava.cachestatistics.CacheStatistics;
+import com.cacheservice.simplejava.listener.CacheStatisticsListener;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CacheWriterTest {
+
+    private static final int MAX_CACHE_SIZE = 1000;
+    private static final int TIMEOUT = 60;
+
+    static Stream<Function<CacheWriter<CacheServiceTestObject>, CacheService<CacheServiceTestObject>>> cacheServiceFactoryProvider() {
+        return Stream.of(
+                cacheWriter -> new GuavaCacheService.Builder<CacheServiceTestObject>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(TIMEOUT)
+                        .cacheWriter(cacheWriter)
+                        .build(),
+                cacheWriter -> new CaffeineCacheService.Builder<CacheServiceTestObject>()
+                        .maxCacheSize(MAX_CACHE_SIZE)
+                        .timeoutInSec(TIMEOUT)
+                        .executor(Runnable::run)
+                        .cacheWriter(cacheWriter)
+                        .build(),
+                cacheWriter -> {
+                    CacheStatistics cacheStatistics = new CacheStatistics(MAX_CACHE_SIZE);
+                    return new SimpleCacheService.Builder<CacheServiceTestObject>()
+                            .maxCacheSize(MAX_CACHE_SIZE)
+                            .timeoutInSec(TIMEOUT)
+                            .listeners(List.of(new CacheStatisticsListener(cacheStatistics)))
+                            .cacheStatistics(cacheStatistics)
+                            .timeService(new TestTimeService())
+                            .cacheWriter(cacheWriter)
+                            .build();
+                });
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put objects through write-through writer and check every put is written to store before put returns")
+    @MethodSource("cacheServiceFactoryProvider")
+    void writeThrough(Function<CacheWriter<CacheServiceTestObject>, CacheService<CacheServiceTestObject>> cacheServiceFactory) {
+        InMemoryStore<CacheServiceTestObject> store = new InMemoryStore<>(0);
+        CacheService<CacheServiceTestObject> cacheService = cacheServiceFactory.apply(store);
+
+        for (int i = 0; i < 100; i++) {
+            cacheService.put("key_" + i % 10, new CacheServiceTestObject("value_" + i));
+            assertEquals("value_" + i, store.read("key_" + i % 10).getField());
+        }
+
+        assertEquals(100, store.getCallsNumber());
+        assertEquals(100, store.getWrittenValuesNumber());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put object through failing write-through writer and check put fails and object is not cached")
+    @MethodSource("cacheServiceFactoryProvider")
+    void failWriteThrough(Function<CacheWriter<CacheServiceTestObject>, CacheService<CacheServiceTestObject>> cacheServiceFactory) {
+        CacheService<CacheServiceTestObject> cacheService = cacheServiceFactory.apply(cacheWriter((key, value) -> {
+            throw new IllegalStateException("Store is not available");
+        }, key -> {
+            throw new IllegalStateException("Store is not available");
+        }));
+
+        assertThrows(IllegalStateException.class, () -> cacheService.put("key_1", new CacheServiceTestObject("value_1")));
+        assertNull(cacheService.get("key_1"));
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Compute, replace and remove objects through write-through writer and check store gets writes and deletes")
+    @MethodSource("cacheServiceFactoryProvider")
+    void writeThroughComputations(Function<CacheWriter<CacheServiceTestObject>, CacheService<CacheServiceTestObject>> cacheServiceFactory) {
+        InMemoryStore<CacheServiceTestObject> store = new InMemoryStore<>(0);
+        CacheService<CacheServiceTestObject> cacheService = cacheServiceFactory.apply(store);
+
+        cacheService.compute("key_1", (key, value) -> new CacheServiceTestObject("value_1"));
+        cacheService.merge("key_1", new CacheServiceTestObject("_merged"),
+                (value, other) -> new CacheServiceTestObject(value.getField() + other.getField()));
+        assertEquals("value_1_merged", store.read("key_1").getField());
+        cacheService.putIfAbsent("key_2", new CacheServiceTestObject("value_2"));
+        cacheService.compute("key_2", (key, value) -> null);
+        cacheService.compute("key_3", (key, value) -> null);
+
+        assertNull(store.read("key_2"));
+        assertEquals(3, store.getWrittenValuesNumber());
+        assertEquals(1, store.getDeletedValuesNumber());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Remove objects by key, by entry, through iterator and by clear of map view and check every removal deletes from store")
+    @MethodSource("cacheServiceFactoryProvider")
+    void removeThroughMapView(Function<CacheWriter<CacheServiceTestObject>, CacheService<CacheServiceTestObject>> cacheServiceFactory) {
+        InMemoryStore<CacheServiceTestObject> store = new InMemoryStore<>(0);
+        CacheService<CacheServiceTestObject> cacheService = cacheServiceFactory.apply(store);
+        Map<String, CacheServiceTestObject> map = cacheService.asMap();
+        for (int i = 0; i < 5; i++) {
+            cacheService.put("key_" + i, new CacheServiceTestObject("value_" + i));
+        }
+
+        map.remove("key_0");
+        map.entrySet().remove(Map.entry("key_1", cacheService.get("key_1")));
+        map.keySet().remove("key_2");
+        Iterator<Map.Entry<String, CacheServiceTestObject>> iterator = map.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(1, map.size());
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        for (int i = 0; i < 5; i++) {
+            assertNull(store.read("key_" + i));
+        }
+        assertEquals(5, store.getDeletedValuesNumber());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Remove and replace objects through failing store and check cache keeps previous values")
+    @MethodSource("cacheServiceFactoryProvider")
+    void rollBackFailedComputations(Function<CacheWriter<CacheServiceTestObject>, CacheService<CacheServiceTestObject>> cacheServiceFactory) {
+        AtomicInteger failuresNumber = new AtomicInteger();
+        InMemoryStore<CacheServiceTestObject> store = new InMemoryStore<>(0);
+        CacheService<CacheServiceTestObject> cacheService = cacheServiceFactory.apply(cacheWriter((key, value) -> {
+            if (failuresNumber.getAndDecrement() > 0) {
+                throw new IllegalStateException("Store is not available");
+            }
+            store.write(key, value);
+        }, key -> {
+            if (failuresNumber.getAndDecrement() > 0) {
+                throw new IllegalStateException("Store is not available");
+            }
+            store.delete(key);
+        }));
+        cacheService.put("key_1", new CacheServiceTestObject("value_1"));
+
+        failuresNumber.set(1);
+        assertThrows(IllegalStateException.class, () -> cacheService.compute("key_1", (key, value) -> null));
+        assertEquals("value_1", cacheService.get("key_1").getField());
+        failuresNumber.set(1);
+        assertThrows(IllegalStateException.class, () -> cacheService.replace("key_1", new CacheServiceTestObject("value_2")));
+        assertEquals("value_1", cacheService.get("key_1").getField());
+        failuresNumber.set(1);
+        assertThrows(IllegalStateException.class, () -> cacheService.computeIfAbsent("key_2", key -> new CacheServiceTestObject("value_2")));
+        assertNull(cacheService.get("key_2"));
+        assertEquals("value_1", store.read("key_1").getField());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Block store while it writes one key and check other keys are computed meanwhile")
+    @MethodSource("cacheServiceFactoryProvider")
+    void writeOutsideOfMapLocks(Function<CacheWriter<CacheServiceTestObject>, CacheService<CacheServiceTestObject>> cacheServiceFactory) throws InterruptedException {
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch storeLatch = new CountDownLatch(1);
+        InMemoryStore<CacheServiceTestObject> store = new InMemoryStore<>(0);
+        CacheService<CacheServiceTestObject> cacheService = cacheServiceFactory.apply(cacheWriter((key, value) -> {
+            if (key.equals("key_blocked")) {
+                writeStarted.countDown();
+                awaitUninterruptibly(storeLatch);
+            }
+            store.write(key, value);
+        }, store::delete));
+        Thread writer = new Thread(() -> cacheService.compute("key_blocked", (key, value) -> new CacheServiceTestObject("value")));
+        writer.start();
+        awaitUninterruptibly(writeStarted);
+
+        // Guava cache of this test has one segment, so store call inside its compute would block every key
+        for (int i = 0; i < 100; i++) {
+            cacheService.compute("key_" + i, (key, value) -> new CacheServiceTestObject("value"));
+            cacheService.invalidate("key_" + i);
+        }
+
+        assertTrue(writer.isAlive());
+        assertEquals(100, store.getWrittenValuesNumber());
+        storeLatch.countDown();
+        writer.join();
+        assertEquals("value", store.read("key_blocked").getField());
+        cacheService.close();
+    }
+
+    @ParameterizedTest
+    @DisplayName("Put Zipf-like stream of objects through write-behind writer, close cache and check store has last values with far fewer store calls")
+    @MethodSource("cacheServiceFactoryProvider")
+    void writeBehind(Function<CacheWriter<CacheServiceTestObject>, CacheService<CacheServiceTestObject>> cacheServiceFactory) {
+        int putsNumber = 50_000;
+        int keysNumber = 500;
+        InMemoryStore<CacheServiceTestObject> store = new InMemoryStore<>(1);
+        WriteBehindCacheWriter<CacheServiceTestObject> writeBehindCacheWriter = new WriteBehindCacheWriter.Builder<CacheServiceTestObject>()
+                .cacheWriter(store)
+                .batchSize(100)
+                .flushIntervalInMillis(50)
+                .build();
+        CacheService<CacheServiceTestObject> cacheService = cacheServiceFactory.apply(writeBehindCacheWriter);
+
+        SplittableRandom random = new SplittableRandom(7);
+        String[] lastValues = new String[keysNumber];
+        for (int i = 0; i < putsNumber; i++) {
+            // squaring uniform number skews keys towards low indexes
+            double uniform = random.nextDouble();
+            int keyIndex = (int) (uniform * uniform * keysNumber);
+            lastValues[keyIndex] = "value_" + i;
+            cacheService.put("key_" + keyIndex, new CacheServiceTestObject(lastValues[keyIndex]));
+        }
+        cacheService.close();
+
+        for (int i = 0; i < keysNumber; i++) {
+            if (lastValues[i] != null) {
+                assertEquals(lastValues[i], store.read("key_" + i).getField());
+            }
+        }
+        assertEquals(putsNumber, writeBehindCacheWriter.getWritesNumber());
+        assertEquals(putsNumber, writeBehindCacheWriter.getCoalescedWritesNumber() + writeBehindCacheWriter.getFlushedWritesNumber());
+        assertEquals(store.getWrittenValuesNumber(), writeBehindCacheWriter.getFlushedWritesNumber());
+        assertEquals(0, writeBehindCacheWriter.getFailedWritesNumber());
+        assertTrue(store.getCallsNumber() * 20 < putsNumber);
+    }
+
+    @Test
+    @DisplayName("Fill write-behind queue while store is blocked and check new keys wait but queued keys are coalesced")
+    void applyBackpressure() throws InterruptedException {
+        CountDownLatch storeCalledLatch = new CountDownLatch(1);
+        CountDownLatch storeLatch = new CountDownLatch(1);
+        InMemoryStore<String> store = new InMemoryStore<>(0);
+        WriteBehindCacheWriter<String> writeBehindCacheWriter = new WriteBehindCacheWriter.Builder<String>()
+                .cacheWriter(new CacheWriter<String>() {
+                    @Override
+                    public void write(String key, String value) {
+                        store.write(key, value);
+                    }
+
+                    @Override
+                    public void writeAll(Map<String, String> values) {
+                        storeCalledLatch.countDown();
+                        awaitUninterruptibly(storeLatch);
+                        store.writeAll(values);
+                    }
+
+                    @Override
+                    public void delete(String key) {
+                        store.delete(key);
+                    }
+                })
+                .batchSize(10)
+                .maxPendingWritesNumber(10)
+                .flushIntervalInMillis(60_000)
+                .build();
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 25; i++) {
+                writeBehindCacheWriter.write("key_" + i, "value_" + i);
+            }
+        });
+        writer.start();
+        // first batch of 10 is taken by blocked flusher, next 10 fill the queue and writer waits to queue the 21st key
+        storeCalledLatch.await();
+        while (writer.getState() != Thread.State.WAITING || writeBehindCacheWriter.getWritesNumber() < 20) {
+            Thread.onSpinWait();
+        }
+
+        assertTrue(writer.isAlive());
+        assertEquals(20, writeBehindCacheWriter.getWritesNumber());
+        writeBehindCacheWriter.write("key_15", "value_15_updated");
+        assertEquals(1, writeBehindCacheWriter.getCoalescedWritesNumber());
+
+        storeLatch.countDown();
+        writer.join();
+        writeBehindCacheWriter.close();
+
+        assertEquals(26, writeBehindCacheWriter.getWritesNumber());
+        assertEquals(25, store.getWrittenValuesNumber());
+        assertEquals("value_15_updated", store.read("key_15"));
+    }
+
+    @Test
+    @DisplayName("Write and delete keys behind and check queued write replaced by delete is not written")
+    void coalesceDeletes() {
+        InMemoryStore<String> store = new InMemoryStore<>(0);
+        store.write("key_1", "stored_value_1");
+        WriteBehindCacheWriter<String> writeBehindCacheWriter = new WriteBehindCacheWriter.Builder<String>()
+                .cacheWriter(store)
+                .flushIntervalInMillis(60_000)
+                .build();
+
+        writeBehindCacheWriter.write("key_1", "value_1");
+        writeBehindCacheWriter.delete("key_1");
+        writeBehindCacheWriter.write("key_2", "value_2");
+        writeBehindCacheWriter.flush();
+
+        assertNull(store.read("key_1"));
+        assertEquals("value_2", store.read("key_2"));
+        assertEquals(1, writeBehindCacheWriter.getCoalescedWritesNumber());
+        assertEquals(1, store.getDeletedValuesNumber());
+        assertEquals(3, store.getCallsNumber());
+        writeBehindCacheWriter.close();
+    }
+
+    @Test
+    @DisplayName("Write through failing store and check failed batches are retried and dropped after last retry")
+    void retryFailedBatches() {
+        AtomicInteger failuresNumber = new AtomicInteger(2);
+        InMemoryStore<String> store = new InMemoryStore<>(0);
+        CacheWriter<String> flakyStore = cacheWriter((key, value) -> {
+            if (failuresNumber.getAndDecrement() > 0) {
+                throw new IllegalStateException("Store is not available");
+            }
+            store.write(key, value);
+        }, store::delete);
+        WriteBehindCacheWriter<String> writeBehindCacheWriter = new WriteBehindCacheWriter.Builder<String>()
+                .cacheWriter(flakyStore)
+                .retryAttempts(3)
+                .retryDelayInMillis(1)
+                .build();
+
+        writeBehindCacheWriter.write("key_1", "value_1");
+        writeBehindCacheWriter.flush();
+
+        assertEquals("value_1", store.read("key_1"));
+        assertEquals(0, writeBehindCacheWriter.getFailedWritesNumber());
+
+        failuresNumber.set(Integer.MAX_VALUE);
+        writeBehindCacheWriter.write("key_2", "value_2");
+        writeBehindCacheWriter.write("key_3", "value_3");
+        writeBehindCacheWriter.close();
+
+        assertNull(store.read("key_2"));
+        assertEquals(2, writeBehindCacheWriter.getFailedWritesNumber());
+        assertThrows(IllegalStateException.class, () -> writeBehindCacheWriter.write("key_4", "value_4"));
+    }
+
+    private static <T> CacheWriter<T> cacheWriter(BiConsumer<String, T> write, Consumer<String> delete) {
+        return new CacheWriter<T>() {
+            @Override
+            public void write(String key, T value) {
+                write.accept(key, value);
+            }
+
+            @Override
+            public void delete(String key) {
+                delete.accept(key);
+            }
+        };
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}